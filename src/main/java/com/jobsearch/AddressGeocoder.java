@@ -0,0 +1,658 @@
+package com.jobsearch;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Géocodage hors ligne des adresses d'entreprises à partir de la Base
+ * Adresse Nationale (fichiers CSV adresses-XX.csv[.gz] d'adresse.data.gouv.fr).
+ *
+ * L'import range les adresses par voie : clé "code postal|voie normalisée|
+ * commune" (majuscules sans accents, abréviations développées, articles
+ * retirés ; code INSEE de la commune, un code postal pouvant couvrir
+ * plusieurs communes et départements), centre de la voie et numéros triés
+ * avec leur position relative au centre. Une clé "code postal||commune"
+ * donne le centre de la commune dans le code postal. Les clés sont
+ * réparties en fichiers par préfixe de code postal (ban-75.idx...), triés,
+ * avec une table de positions : une recherche est une recherche
+ * dichotomique dans le fichier projeté en mémoire, sans rien charger.
+ *
+ * Le fichier BAN est lu en flux (trié par commune) : les voies d'une commune
+ * sont encodées quand la commune change, écrites en lots triés sur disque
+ * (lots/) au-delà de SPILL_BYTES, puis les lots sont fusionnés avec le
+ * fichier existant. Une voie importée remplace la même clé ; les autres
+ * voies du fichier existant sont conservées.
+ *
+ * Un import écrit une nouvelle génération du fichier (ban-75.3.idx) au
+ * lieu de remplacer le fichier projeté en mémoire, ce que Windows refuse
+ * tant qu'il est mappé ; les générations précédentes sont supprimées dès
+ * que possible (au plus tard au lancement suivant).
+ *
+ * Format d'un fichier : MAGIC, nombre de clés, positions (int), puis par
+ * clé : longueur (u16), clé ASCII, latitude et longitude du centre (int,
+ * millionièmes de degré), nombre de numéros, et par numéro : numéro (u16),
+ * écarts de latitude et longitude au centre (short, cent-millièmes de degré).
+ */
+public class AddressGeocoder {
+
+    private static final int MAGIC = 0x42414E31; // "BAN1"
+    private static final double OFFSET_UNIT = 1e-5;
+    // Enregistrements encodés gardés en mémoire avant d'écrire un lot
+    private static final long SPILL_BYTES = 64L << 20;
+    private static final String RUN_EXTENSION = ".run";
+
+    /**
+     * Précision d'un résultat
+     */
+    public enum Precision { NUMERO, VOIE, CODE_POSTAL }
+
+    public static class Location {
+        public final double latitude;
+        public final double longitude;
+        public final Precision precision;
+
+        Location(double latitude, double longitude, Precision precision) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.precision = precision;
+        }
+    }
+
+    // Abréviations de types de voie (SIRENE, saisies libres) -> forme de la BAN
+    private static final Map<String, String> ABBREVIATIONS = Map.ofEntries(
+        Map.entry("AV", "AVENUE"), Map.entry("AVE", "AVENUE"),
+        Map.entry("BD", "BOULEVARD"), Map.entry("BLD", "BOULEVARD"), Map.entry("BOUL", "BOULEVARD"),
+        Map.entry("R", "RUE"), Map.entry("PL", "PLACE"), Map.entry("CHE", "CHEMIN"),
+        Map.entry("CHEM", "CHEMIN"), Map.entry("RTE", "ROUTE"), Map.entry("ALL", "ALLEE"),
+        Map.entry("IMP", "IMPASSE"), Map.entry("QUA", "QUAI"), Map.entry("QU", "QUAI"),
+        Map.entry("FG", "FAUBOURG"), Map.entry("FBG", "FAUBOURG"), Map.entry("CRS", "COURS"),
+        Map.entry("SQ", "SQUARE"), Map.entry("PROM", "PROMENADE"), Map.entry("PAS", "PASSAGE"),
+        Map.entry("LOT", "LOTISSEMENT"), Map.entry("RES", "RESIDENCE"), Map.entry("HAM", "HAMEAU"),
+        Map.entry("SEN", "SENTIER"), Map.entry("VLA", "VILLA"), Map.entry("CAR", "CARREFOUR"),
+        Map.entry("RPT", "ROND POINT"), Map.entry("ESP", "ESPLANADE"), Map.entry("PARV", "PARVIS"),
+        Map.entry("ST", "SAINT"), Map.entry("STE", "SAINTE"), Map.entry("GAL", "GENERAL"),
+        Map.entry("MAL", "MARECHAL"), Map.entry("PDT", "PRESIDENT")
+    );
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "DE", "DU", "DES", "LA", "LE", "LES", "L", "D", "AU", "AUX", "ET"
+    );
+
+    // ban-75.idx (génération 0) ou ban-75.3.idx
+    private static final Pattern SHARD_FILE = Pattern.compile("ban-(\\w{2})(?:\\.(\\d+))?\\.idx");
+
+    // "12", "12 bis", "12B", "12-14" en tête d'adresse ("12 R DE..." : R est la voie)
+    private static final Pattern NUMBERED = Pattern.compile(
+        "^\\s*(\\d{1,5})(?:\\s*-\\s*\\d+)?(?:\\s*(?:BIS|TER|QUATER)|[A-Z])?\\b[\\s,]*(.*)$", Pattern.CASE_INSENSITIVE);
+
+    private final File directory;
+    private final Map<String, Optional<ByteBuffer>> shards = new ConcurrentHashMap<>();
+
+    public AddressGeocoder(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Aucun fichier importé : géocodage inutile
+     */
+    public boolean isEmpty() {
+        String[] files = directory.list((dir, name) -> name.startsWith("ban-") && name.endsWith(".idx"));
+        return files == null || files.length == 0;
+    }
+
+    /**
+     * Renseigner les coordonnées d'une entreprise (si absentes ou reprises
+     * d'une offre, et trouvées)
+     */
+    public boolean locate(Company company) {
+        if (company == null || (company.getLatitude() != null && !company.isCoordonneesOffre())) return false;
+        Location location = geocode(company.getAdresse(), company.getCodePostal());
+        if (location == null) return false;
+        // Centre du code postal : pas plus précis que le lieu de travail d'une offre
+        if (company.getLatitude() != null && location.precision == Precision.CODE_POSTAL) return false;
+        company.setLatitude(location.latitude);
+        company.setLongitude(location.longitude);
+        company.setCoordonneesOffre(false);
+        return true;
+    }
+
+    /**
+     * Position d'une adresse ("12 bis rue de la Paix") dans un code postal,
+     * à défaut le centre de la voie puis du code postal ; null si inconnu.
+     * Une voie présente dans plusieurs communes du code postal est prise
+     * dans la première (par code INSEE).
+     */
+    public Location geocode(String adresse, String codePostal) {
+        if (codePostal == null) return null;
+        String cp = codePostal.trim();
+        if (cp.length() != 5) return null;
+        ByteBuffer shard = shard(cp.substring(0, 2));
+        if (shard == null) return null;
+
+        if (adresse != null && !adresse.isBlank()) {
+            int numero = -1;
+            String voie = adresse;
+            Matcher m = NUMBERED.matcher(adresse);
+            if (m.matches()) {
+                numero = Integer.parseInt(m.group(1));
+                voie = m.group(2);
+            }
+            String normalized = normalizeStreet(voie);
+            if (!normalized.isEmpty()) {
+                int record = findFirst(shard, cp + "|" + normalized + "|");
+                if (record >= 0) return read(shard, record, numero, Precision.VOIE);
+            }
+        }
+        return center(shard, cp + "||");
+    }
+
+    /**
+     * Importer un fichier CSV de la BAN (séparateur ";", .gz accepté).
+     * Les voies importées remplacent celles de mêmes code postal, voie et
+     * commune ; les autres voies déjà présentes sont conservées.
+     *
+     * @return nombre d'adresses importées
+     */
+    public synchronized int importCsv(File file) throws IOException {
+        Files.createDirectories(runDirectory().toPath());
+        deleteRuns();
+        try {
+            Import batch = new Import();
+            try (InputStream raw = new FileInputStream(file);
+                 InputStream in = file.getName().endsWith(".gz") ? new GZIPInputStream(raw, 1 << 16) : raw;
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+                String header = reader.readLine();
+                if (header == null) return 0;
+                List<String> columns = Arrays.asList(header.replace("\uFEFF", "").split(";", -1));
+                int numeroCol = columns.indexOf("numero");
+                int voieCol = columns.indexOf("nom_voie");
+                int cpCol = columns.indexOf("code_postal");
+                int communeCol = columns.indexOf("code_insee");
+                int lonCol = columns.indexOf("lon");
+                int latCol = columns.indexOf("lat");
+                if (voieCol < 0 || cpCol < 0 || communeCol < 0 || lonCol < 0 || latCol < 0) {
+                    throw new IOException("Colonnes nom_voie, code_postal, code_insee, lon, lat attendues (fichier BAN)");
+                }
+                int lastCol = Math.max(Math.max(voieCol, cpCol), Math.max(communeCol, Math.max(lonCol, latCol)));
+
+                // Les adresses d'une même voie se suivent : normalisation une fois par voie
+                String lastVoie = null;
+                String lastKey = null;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split(";", -1);
+                    if (fields.length <= lastCol) continue;
+                    String cp = fields[cpCol];
+                    String commune = fields[communeCol];
+                    if (cp.length() != 5 || fields[latCol].isEmpty() || fields[lonCol].isEmpty()) continue;
+                    double lat, lon;
+                    try {
+                        lat = Double.parseDouble(fields[latCol]);
+                        lon = Double.parseDouble(fields[lonCol]);
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    String voie = fields[voieCol];
+                    String key;
+                    if (voie.equals(lastVoie) && lastKey != null && lastKey.startsWith(cp)
+                        && lastKey.endsWith("|" + commune)) {
+                        key = lastKey;
+                    } else {
+                        key = cp + "|" + normalizeStreet(voie) + "|" + commune;
+                        lastVoie = voie;
+                        lastKey = key;
+                    }
+                    int numero = -1;
+                    if (numeroCol >= 0 && !fields[numeroCol].isEmpty()) {
+                        try {
+                            numero = Integer.parseInt(fields[numeroCol]);
+                        } catch (NumberFormatException ignored) {
+                            // Lieu-dit sans numéro
+                        }
+                    }
+                    batch.add(commune, key, cp + "||" + commune, numero, lat, lon);
+                }
+            }
+            batch.flushCommune();
+            batch.spill();
+
+            for (Map.Entry<String, List<File>> entry : batch.runs.entrySet()) {
+                mergeShard(entry.getKey(), entry.getValue());
+            }
+            return batch.imported;
+        } finally {
+            deleteRuns();
+        }
+    }
+
+    /**
+     * Voies en cours d'import : celles de la commune courante, puis les
+     * enregistrements encodés par fichier de destination jusqu'à l'écriture d'un lot
+     */
+    private final class Import {
+        final Map<String, StreetBuilder> streets = new HashMap<>();
+        final Map<String, TreeMap<String, byte[]>> pending = new HashMap<>();
+        final Map<String, List<File>> runs = new TreeMap<>();
+        String commune;
+        long pendingBytes;
+        int imported;
+
+        void add(String addressCommune, String key, String centerKey, int numero, double lat, double lon)
+                throws IOException {
+            if (!addressCommune.equals(commune)) {
+                flushCommune();
+                commune = addressCommune;
+            }
+            streets.computeIfAbsent(key, k -> new StreetBuilder()).add(numero, lat, lon);
+            streets.computeIfAbsent(centerKey, k -> new StreetBuilder()).add(-1, lat, lon);
+            imported++;
+        }
+
+        /**
+         * Encoder les voies de la commune terminée (une commune relue plus loin
+         * dans un fichier non trié remplace ses voies déjà encodées)
+         */
+        void flushCommune() throws IOException {
+            for (Map.Entry<String, StreetBuilder> street : streets.entrySet()) {
+                byte[] record = street.getValue().encode();
+                pending.computeIfAbsent(street.getKey().substring(0, 2), k -> new TreeMap<>())
+                    .put(street.getKey(), record);
+                pendingBytes += record.length + street.getKey().length();
+            }
+            streets.clear();
+            if (pendingBytes > SPILL_BYTES) spill();
+        }
+
+        /**
+         * Écrire les enregistrements en attente en un lot trié par fichier de destination
+         */
+        void spill() throws IOException {
+            for (Map.Entry<String, TreeMap<String, byte[]>> entry : pending.entrySet()) {
+                List<File> shardRuns = runs.computeIfAbsent(entry.getKey(), k -> new ArrayList<>());
+                File run = new File(runDirectory(), "ban-" + entry.getKey() + "." + shardRuns.size() + RUN_EXTENSION);
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), 1 << 16))) {
+                    out.writeInt(entry.getValue().size());
+                    for (Map.Entry<String, byte[]> record : entry.getValue().entrySet()) {
+                        out.writeShort(record.getKey().length());
+                        out.write(record.getKey().getBytes(StandardCharsets.US_ASCII));
+                        out.writeInt(record.getValue().length);
+                        out.write(record.getValue());
+                    }
+                }
+                shardRuns.add(run);
+            }
+            pending.clear();
+            pendingBytes = 0;
+        }
+    }
+
+    /**
+     * Forme normalisée d'un libellé de voie (clé de recherche)
+     */
+    static String normalizeStreet(String voie) {
+        String folded = Normalizer.normalize(voie, Normalizer.Form.NFD).toUpperCase(Locale.ROOT);
+        StringBuilder result = new StringBuilder(folded.length());
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                word.append(c);
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && word.length() > 0) {
+                String token = ABBREVIATIONS.getOrDefault(word.toString(), word.toString());
+                word.setLength(0);
+                if (STOPWORDS.contains(token)) continue;
+                if (result.length() > 0) result.append(' ');
+                result.append(token);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Adresses d'une voie en cours d'import
+     */
+    private static final class StreetBuilder {
+        double sumLat, sumLon;
+        int count;
+        final TreeMap<Integer, double[]> numbers = new TreeMap<>();
+
+        void add(int numero, double lat, double lon) {
+            sumLat += lat;
+            sumLon += lon;
+            count++;
+            if (numero >= 0 && numero <= 0xFFFF) numbers.putIfAbsent(numero, new double[]{lat, lon});
+        }
+
+        byte[] encode() {
+            double centerLat = sumLat / count, centerLon = sumLon / count;
+            ByteBuffer buffer = ByteBuffer.allocate(12 + numbers.size() * 6);
+            buffer.putInt((int) Math.round(centerLat * 1e6));
+            buffer.putInt((int) Math.round(centerLon * 1e6));
+            buffer.putInt(numbers.size());
+            for (Map.Entry<Integer, double[]> number : numbers.entrySet()) {
+                buffer.putChar((char) (int) number.getKey());
+                buffer.putShort(offset(number.getValue()[0] - centerLat));
+                buffer.putShort(offset(number.getValue()[1] - centerLon));
+            }
+            return buffer.array();
+        }
+
+        private static short offset(double degrees) {
+            return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(degrees / OFFSET_UNIT)));
+        }
+    }
+
+    /**
+     * Fusionner les lots d'un préfixe avec son fichier existant : pour une clé
+     * présente plusieurs fois, le dernier lot l'emporte, puis le fichier existant
+     */
+    private void mergeShard(String prefix, List<File> runs) throws IOException {
+        List<Cursor> cursors = new ArrayList<>();
+        PriorityQueue<Cursor> heads = new PriorityQueue<>((a, b) -> {
+            int cmp = a.key.compareTo(b.key);
+            return cmp != 0 ? cmp : Integer.compare(b.rank, a.rank);
+        });
+        // Nouvelle génération : le fichier courant, peut-être projeté, n'est pas remplacé
+        TreeMap<Long, File> generations = generations(prefix);
+        long generation = generations.isEmpty() ? 1 : generations.lastKey() + 1;
+        File target = new File(directory, "ban-" + prefix + "." + generation + ".idx");
+        File body = new File(directory, target.getName() + ".body");
+        File tmp = new File(directory, target.getName() + ".tmp");
+        try {
+            ByteBuffer existing = shard(prefix);
+            if (existing != null) cursors.add(new ShardCursor(existing));
+            for (File run : runs) cursors.add(new RunCursor(run, cursors.size()));
+            for (Cursor cursor : cursors) {
+                if (cursor.advance()) heads.add(cursor);
+            }
+
+            // Enregistrements à la suite dans un fichier temporaire, positions gardées pour l'en-tête
+            int[] positions = new int[1024];
+            int count = 0;
+            long position = 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(body), 1 << 16))) {
+                while (!heads.isEmpty()) {
+                    Cursor head = heads.poll();
+                    String key = head.key;
+                    out.writeShort(key.length());
+                    out.write(key.getBytes(StandardCharsets.US_ASCII));
+                    out.write(head.record);
+                    if (count == positions.length) positions = Arrays.copyOf(positions, count * 2);
+                    positions[count++] = (int) position;
+                    position += 2 + key.length() + head.record.length;
+                    if (head.advance()) heads.add(head);
+                    // Versions plus anciennes de la même clé
+                    while (!heads.isEmpty() && heads.peek().key.equals(key)) {
+                        Cursor older = heads.poll();
+                        if (older.advance()) heads.add(older);
+                    }
+                }
+            }
+            long header = 8 + (long) count * 4;
+            if (header + position > Integer.MAX_VALUE) {
+                throw new IOException("Index d'adresses trop volumineux: ban-" + prefix);
+            }
+
+            try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 FileChannel in = FileChannel.open(body.toPath())) {
+                ByteBuffer head = ByteBuffer.allocate((int) header);
+                head.putInt(MAGIC);
+                head.putInt(count);
+                for (int i = 0; i < count; i++) head.putInt((int) header + positions[i]);
+                head.flip();
+                while (head.hasRemaining()) out.write(head);
+                long transferred = 0;
+                while (transferred < position) {
+                    transferred += in.transferTo(transferred, position - transferred, out);
+                }
+            }
+        } finally {
+            for (Cursor cursor : cursors) cursor.close();
+            Files.deleteIfExists(body.toPath());
+        }
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        shards.remove(prefix);
+        deleteOlderGenerations(prefix, generation);
+    }
+
+    /**
+     * Parcours trié d'une source de la fusion (rang : priorité à clé égale)
+     */
+    private abstract static class Cursor implements Closeable {
+        final int rank;
+        String key;
+        byte[] record;
+
+        Cursor(int rank) {
+            this.rank = rank;
+        }
+
+        abstract boolean advance() throws IOException;
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+
+    private static final class ShardCursor extends Cursor {
+        private final ByteBuffer shard;
+        private final int count;
+        private int index;
+
+        ShardCursor(ByteBuffer shard) {
+            super(0);
+            this.shard = shard;
+            this.count = shard.getInt(4);
+        }
+
+        @Override
+        boolean advance() {
+            if (index >= count) return false;
+            int position = shard.getInt(8 + index++ * 4);
+            key = key(shard, position);
+            int payload = position + 2 + key.length();
+            record = new byte[12 + shard.getInt(payload + 8) * 6];
+            shard.get(payload, record);
+            return true;
+        }
+    }
+
+    private static final class RunCursor extends Cursor {
+        private final DataInputStream in;
+        private int remaining;
+
+        RunCursor(File run, int rank) throws IOException {
+            super(rank);
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), 1 << 16));
+            remaining = in.readInt();
+        }
+
+        @Override
+        boolean advance() throws IOException {
+            if (remaining == 0) return false;
+            remaining--;
+            byte[] bytes = new byte[in.readUnsignedShort()];
+            in.readFully(bytes);
+            key = new String(bytes, StandardCharsets.US_ASCII);
+            record = new byte[in.readInt()];
+            in.readFully(record);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private File runDirectory() {
+        return new File(directory, "lots");
+    }
+
+    /**
+     * Supprimer les lots d'un import (terminé ou interrompu)
+     */
+    private void deleteRuns() {
+        File[] files = runDirectory().listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            if (file.getName().endsWith(RUN_EXTENSION) && !file.delete()) {
+                System.out.println("ℹ Lot d'import d'adresses conservé jusqu'au prochain import: " + file.getName());
+            }
+        }
+    }
+
+    /**
+     * Fichiers d'un préfixe par génération
+     */
+    private TreeMap<Long, File> generations(String prefix) {
+        TreeMap<Long, File> result = new TreeMap<>();
+        File[] files = directory.listFiles();
+        if (files == null) return result;
+        for (File file : files) {
+            Matcher m = SHARD_FILE.matcher(file.getName());
+            if (m.matches() && m.group(1).equals(prefix)) {
+                result.put(m.group(2) != null ? Long.parseLong(m.group(2)) : 0L, file);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Supprimer les générations remplacées (échoue sous Windows tant qu'elles sont projetées)
+     */
+    private void deleteOlderGenerations(String prefix, long current) {
+        for (File old : generations(prefix).headMap(current).values()) {
+            if (!old.delete()) {
+                System.out.println("ℹ Ancien index d'adresses conservé jusqu'au prochain lancement: " + old.getName());
+            }
+        }
+    }
+
+    /**
+     * Fichier d'un préfixe projeté en mémoire (null s'il n'existe pas ou est invalide)
+     */
+    private ByteBuffer shard(String prefix) {
+        return shards.computeIfAbsent(prefix, p -> {
+            TreeMap<Long, File> generations = generations(p);
+            if (generations.isEmpty()) return Optional.empty();
+            File file = generations.lastEntry().getValue();
+            deleteOlderGenerations(p, generations.lastKey());
+            try (FileChannel channel = FileChannel.open(file.toPath())) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt(0) != MAGIC) {
+                    System.err.println("⚠ Index d'adresses invalide ignoré: " + file.getName());
+                    return Optional.empty();
+                }
+                return Optional.of(buffer);
+            } catch (IOException e) {
+                System.err.println("⚠ Index d'adresses illisible: " + file.getName() + " (" + e.getMessage() + ")");
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * Position du premier enregistrement dont la clé commence par prefix
+     * (recherche dichotomique), -1 si aucun
+     */
+    private static int findFirst(ByteBuffer shard, String prefix) {
+        byte[] wanted = prefix.getBytes(StandardCharsets.US_ASCII);
+        int index = lowerBound(shard, wanted);
+        if (index >= shard.getInt(4)) return -1;
+        int position = shard.getInt(8 + index * 4);
+        return startsWith(shard, position, wanted) ? position : -1;
+    }
+
+    /**
+     * Centre d'un code postal : moyenne des centres de ses communes, null si inconnu
+     */
+    private static Location center(ByteBuffer shard, String prefix) {
+        byte[] wanted = prefix.getBytes(StandardCharsets.US_ASCII);
+        int count = shard.getInt(4);
+        double sumLat = 0, sumLon = 0;
+        int found = 0;
+        for (int index = lowerBound(shard, wanted); index < count; index++) {
+            int position = shard.getInt(8 + index * 4);
+            if (!startsWith(shard, position, wanted)) break;
+            int payload = position + 2 + shard.getChar(position);
+            sumLat += shard.getInt(payload) / 1e6;
+            sumLon += shard.getInt(payload + 4) / 1e6;
+            found++;
+        }
+        return found > 0 ? new Location(sumLat / found, sumLon / found, Precision.CODE_POSTAL) : null;
+    }
+
+    /**
+     * Indice de la première clé supérieure ou égale à wanted
+     */
+    private static int lowerBound(ByteBuffer shard, byte[] wanted) {
+        int low = 0, high = shard.getInt(4);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(shard, shard.getInt(8 + mid * 4), wanted) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static boolean startsWith(ByteBuffer shard, int position, byte[] prefix) {
+        if (shard.getChar(position) < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (shard.get(position + 2 + i) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    private static int compare(ByteBuffer shard, int position, byte[] wanted) {
+        int length = shard.getChar(position);
+        int n = Math.min(length, wanted.length);
+        for (int i = 0; i < n; i++) {
+            int diff = (shard.get(position + 2 + i) & 0xFF) - (wanted[i] & 0xFF);
+            if (diff != 0) return diff;
+        }
+        return length - wanted.length;
+    }
+
+    private static String key(ByteBuffer shard, int position) {
+        byte[] bytes = new byte[shard.getChar(position)];
+        shard.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static Location read(ByteBuffer shard, int position, int numero, Precision fallback) {
+        int payload = position + 2 + shard.getChar(position);
+        double centerLat = shard.getInt(payload) / 1e6;
+        double centerLon = shard.getInt(payload + 4) / 1e6;
+        int count = shard.getInt(payload + 8);
+        if (numero >= 0) {
+            // Numéros triés : recherche dichotomique
+            int low = 0, high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int entry = payload + 12 + mid * 6;
+                int value = shard.getChar(entry);
+                if (value == numero) {
+                    return new Location(centerLat + shard.getShort(entry + 2) * OFFSET_UNIT,
+                        centerLon + shard.getShort(entry + 4) * OFFSET_UNIT, Precision.NUMERO);
+                }
+                if (value < numero) low = mid + 1;
+                else high = mid - 1;
+            }
+        }
+        return new Location(centerLat, centerLon, fallback);
+    }
+}
@@ -0,0 +1,140 @@
+package com.jobsearch;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Liste en ajout seul, découpée en segments de taille fixe, avec instantanés
+ * immuables à coût constant.
+ *
+ * Les éléments déjà publiés ne sont jamais réécrits : un instantané mémorise
+ * simplement le répertoire de segments et la taille au moment de l'appel.
+ * Un export ou un tri peut ainsi lire une vue cohérente pendant que la
+ * recherche continue d'ajouter des offres, sans copie ni verrou côté lecteur.
+ */
+public class AppendOnlyList<T> {
+
+    private static final int SEGMENT_SHIFT = 10;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    /**
+     * État publié : répertoire de segments + nombre d'éléments visibles
+     */
+    private static final class State {
+        final Object[][] segments;
+        final int size;
+
+        State(Object[][] segments, int size) {
+            this.segments = segments;
+            this.size = size;
+        }
+    }
+
+    private volatile State state = new State(new Object[0][], 0);
+
+    /**
+     * Ajouter un élément en fin de liste
+     */
+    public synchronized void add(T element) {
+        State current = state;
+        int index = current.size;
+        int segment = index >>> SEGMENT_SHIFT;
+
+        Object[][] segments = current.segments;
+        if (segment == segments.length) {
+            // Nouveau répertoire : les segments existants sont partagés, pas copiés
+            Object[][] grown = new Object[segments.length + 1][];
+            System.arraycopy(segments, 0, grown, 0, segments.length);
+            grown[segment] = new Object[SEGMENT_SIZE];
+            segments = grown;
+        }
+        segments[segment][index & SEGMENT_MASK] = element;
+
+        // Publication (écriture volatile) après l'écriture de l'élément
+        state = new State(segments, index + 1);
+    }
+
+    /**
+     * Ajouter des éléments en bloc (une seule publication)
+     */
+    public synchronized void addAll(List<? extends T> elements) {
+        if (elements.isEmpty()) return;
+        State current = state;
+        int size = current.size + elements.size();
+        int segmentCount = (size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT;
+
+        Object[][] segments = current.segments;
+        if (segmentCount > segments.length) {
+            Object[][] grown = new Object[segmentCount][];
+            System.arraycopy(segments, 0, grown, 0, segments.length);
+            for (int s = segments.length; s < segmentCount; s++) {
+                grown[s] = new Object[SEGMENT_SIZE];
+            }
+            segments = grown;
+        }
+        int index = current.size;
+        for (T element : elements) {
+            segments[index >>> SEGMENT_SHIFT][index & SEGMENT_MASK] = element;
+            index++;
+        }
+
+        state = new State(segments, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        State current = state;
+        if (index < 0 || index >= current.size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", taille " + current.size);
+        }
+        return (T) current.segments[index >>> SEGMENT_SHIFT][index & SEGMENT_MASK];
+    }
+
+    public int size() {
+        return state.size;
+    }
+
+    public boolean isEmpty() {
+        return state.size == 0;
+    }
+
+    /**
+     * Vider la liste (les instantanés déjà pris restent valides)
+     */
+    public synchronized void clear() {
+        state = new State(new Object[0][], 0);
+    }
+
+    /**
+     * Vue immuable de la liste à cet instant
+     */
+    public List<T> snapshot() {
+        return new Snapshot<>(state);
+    }
+
+    private static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[][] segments;
+        private final int size;
+
+        Snapshot(State state) {
+            this.segments = state.segments;
+            this.size = state.size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + ", taille " + size);
+            }
+            return (T) segments[index >>> SEGMENT_SHIFT][index & SEGMENT_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
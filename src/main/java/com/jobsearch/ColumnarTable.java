@@ -0,0 +1,280 @@
+package com.jobsearch;
+
+import java.util.*;
+
+/**
+ * Stockage en colonnes des lignes de résultats.
+ *
+ * Chaque colonne est un tableau primitif indexé par numéro de ligne :
+ * chaînes encodées par dictionnaire (un int par ligne, chaque valeur
+ * distincte stockée une seule fois), double, int et long sans boxing.
+ * Les valeurs absentes sont marquées dans une carte de bits par colonne.
+ * Un parcours ou un tri sur une colonne ne touche que cette colonne.
+ *
+ * Ajout en fin uniquement ; à utiliser depuis un seul thread (EDT).
+ */
+public class ColumnarTable {
+
+    /**
+     * Colonne : nombre de lignes et carte des valeurs absentes
+     */
+    public abstract static class Column {
+        public final String name;
+        protected int size;
+        private long[] nulls = new long[16];
+
+        Column(String name) {
+            this.name = name;
+        }
+
+        public boolean isNull(int row) {
+            int word = row >>> 6;
+            return word < nulls.length && (nulls[word] & (1L << row)) != 0;
+        }
+
+        /**
+         * Valeur boxée (affichage, export), null si absente
+         */
+        public abstract Object get(int row);
+
+        protected void markNull(int row) {
+            if ((row >>> 6) >= nulls.length) {
+                nulls = Arrays.copyOf(nulls, Math.max(nulls.length * 2, (row >>> 6) + 1));
+            }
+            nulls[row >>> 6] |= 1L << row;
+        }
+
+        protected static int grow(int length, int needed) {
+            return Math.max(needed, Math.max(16, length + (length >> 1)));
+        }
+
+        protected abstract void appendNull();
+
+        void clear() {
+            size = 0;
+            Arrays.fill(nulls, 0);
+        }
+    }
+
+    /**
+     * Chaînes encodées par dictionnaire
+     */
+    public static final class StringColumn extends Column {
+        private int[] codes = new int[16];
+        private final ArrayList<String> dictionary = new ArrayList<>();
+        private final HashMap<String, Integer> lookup = new HashMap<>();
+
+        StringColumn(String name) {
+            super(name);
+        }
+
+        public void append(String value) {
+            if (value == null) {
+                appendNull();
+                return;
+            }
+            Integer code = lookup.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                lookup.put(value, code);
+            }
+            if (size == codes.length) codes = Arrays.copyOf(codes, grow(codes.length, size + 1));
+            codes[size++] = code;
+        }
+
+        /**
+         * Code de dictionnaire de la ligne (-1 si absente)
+         */
+        public int code(int row) {
+            return isNull(row) ? -1 : codes[row];
+        }
+
+        public String value(int code) {
+            return dictionary.get(code);
+        }
+
+        public int dictionarySize() {
+            return dictionary.size();
+        }
+
+        @Override
+        public String get(int row) {
+            return isNull(row) ? null : dictionary.get(codes[row]);
+        }
+
+        @Override
+        protected void appendNull() {
+            if (size == codes.length) codes = Arrays.copyOf(codes, grow(codes.length, size + 1));
+            markNull(size);
+            codes[size++] = -1;
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            dictionary.clear();
+            lookup.clear();
+        }
+    }
+
+    public static final class DoubleColumn extends Column {
+        private double[] values = new double[16];
+
+        DoubleColumn(String name) {
+            super(name);
+        }
+
+        public void append(Double value) {
+            if (value == null) {
+                appendNull();
+                return;
+            }
+            if (size == values.length) values = Arrays.copyOf(values, grow(values.length, size + 1));
+            values[size++] = value;
+        }
+
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Double get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        protected void appendNull() {
+            if (size == values.length) values = Arrays.copyOf(values, grow(values.length, size + 1));
+            markNull(size);
+            values[size++] = 0;
+        }
+    }
+
+    public static final class IntColumn extends Column {
+        private int[] values = new int[16];
+
+        IntColumn(String name) {
+            super(name);
+        }
+
+        public void append(Integer value) {
+            if (value == null) {
+                appendNull();
+                return;
+            }
+            if (size == values.length) values = Arrays.copyOf(values, grow(values.length, size + 1));
+            values[size++] = value;
+        }
+
+        public int getInt(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Integer get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        protected void appendNull() {
+            if (size == values.length) values = Arrays.copyOf(values, grow(values.length, size + 1));
+            markNull(size);
+            values[size++] = 0;
+        }
+    }
+
+    public static final class LongColumn extends Column {
+        private long[] values = new long[16];
+
+        LongColumn(String name) {
+            super(name);
+        }
+
+        public void append(Long value) {
+            if (value == null) {
+                appendNull();
+                return;
+            }
+            if (size == values.length) values = Arrays.copyOf(values, grow(values.length, size + 1));
+            values[size++] = value;
+        }
+
+        public long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        public Long get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        protected void appendNull() {
+            if (size == values.length) values = Arrays.copyOf(values, grow(values.length, size + 1));
+            markNull(size);
+            values[size++] = 0;
+        }
+    }
+
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private int rowCount;
+
+    public StringColumn addStringColumn(String name) {
+        return add(new StringColumn(name));
+    }
+
+    public DoubleColumn addDoubleColumn(String name) {
+        return add(new DoubleColumn(name));
+    }
+
+    public IntColumn addIntColumn(String name) {
+        return add(new IntColumn(name));
+    }
+
+    public LongColumn addLongColumn(String name) {
+        return add(new LongColumn(name));
+    }
+
+    private <C extends Column> C add(C column) {
+        if (rowCount > 0) throw new IllegalStateException("Colonnes à déclarer avant la première ligne");
+        if (columns.putIfAbsent(column.name, column) != null) {
+            throw new IllegalArgumentException("Colonne en double: " + column.name);
+        }
+        return column;
+    }
+
+    public Column column(String name) {
+        return columns.get(name);
+    }
+
+    public StringColumn stringColumn(String name) {
+        return (StringColumn) columns.get(name);
+    }
+
+    public IntColumn intColumn(String name) {
+        return (IntColumn) columns.get(name);
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Valider une ligne : les colonnes non renseignées reçoivent une valeur absente
+     */
+    public void commitRow() {
+        for (Column column : columns.values()) {
+            if (column.size == rowCount) column.appendNull();
+            else if (column.size != rowCount + 1) {
+                throw new IllegalStateException("Colonne " + column.name + " désalignée");
+            }
+        }
+        rowCount++;
+    }
+
+    public void clear() {
+        for (Column column : columns.values()) column.clear();
+        rowCount = 0;
+    }
+}
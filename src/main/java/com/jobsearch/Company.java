@@ -2,11 +2,24 @@ package com.jobsearch;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Classe représentant une entreprise avec ses informations complètes
  */
 public class Company {
+    // Montant d'un libellé importé ("1,2 M€", "850 k€")
+    private static final Pattern MONTANT = Pattern.compile("(-?\\d+(?:[.,]\\d+)?)\\s*(Md|M|k)?€");
+    
     // Identification
     private String siret;
     private String siren;
@@ -25,6 +38,9 @@ public class Company {
     private String ville;
     private String departement;
     private String region;
+    private Double latitude;  // Géocodage de l'adresse (Base Adresse Nationale)
+    private Double longitude;
+    private boolean coordonneesOffre; // Lieu de travail d'une offre, à défaut d'adresse géocodée
     
     // Activité
     private String codeNAF;
@@ -36,7 +52,8 @@ public class Company {
     private Integer effectifMin;
     private Integer effectifMax;
     private String categorieEntreprise; // PME, ETI, GE
-    private String chiffreAffaires;
+    private String chiffreAffaires; // Libellé importé (sources sans comptes détaillés)
+    private Finances finances; // Comptes publiés par exercice (Pappers)
     
     // Dates
     private String dateCreation;
@@ -45,6 +62,9 @@ public class Company {
     // Source
     private String source; // "API SIRENE", "Offre emploi", etc.
     
+    // Clé aléatoire des fiches sans aucun élément identifiant, attribuée une seule fois
+    private transient String fallbackKey;
+    
     public Company() {
         this.source = "API SIRENE";
     }
@@ -89,6 +109,15 @@ public class Company {
     public String getRegion() { return region; }
     public void setRegion(String region) { this.region = region; }
     
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public boolean isCoordonneesOffre() { return coordonneesOffre; }
+    public void setCoordonneesOffre(boolean coordonneesOffre) { this.coordonneesOffre = coordonneesOffre; }
+    
     public String getCodeNAF() { return codeNAF; }
     public void setCodeNAF(String codeNAF) { this.codeNAF = codeNAF; }
     
@@ -110,9 +139,15 @@ public class Company {
     public String getCategorieEntreprise() { return categorieEntreprise; }
     public void setCategorieEntreprise(String categorieEntreprise) { this.categorieEntreprise = categorieEntreprise; }
     
-    public String getChiffreAffaires() { return chiffreAffaires; }
+    /**
+     * Libellé importé tel quel (getChiffreAffaires donne le libellé affiché)
+     */
+    public String getChiffreAffairesImporte() { return chiffreAffaires; }
     public void setChiffreAffaires(String chiffreAffaires) { this.chiffreAffaires = chiffreAffaires; }
     
+    public Finances getFinances() { return finances; }
+    public void setFinances(Finances finances) { this.finances = finances; }
+    
     public String getDateCreation() { return dateCreation; }
     public void setDateCreation(String dateCreation) { this.dateCreation = dateCreation; }
     
@@ -128,72 +163,10 @@ public class Company {
     public void setTrancheEffectifWithRange(String tranche) {
         this.trancheEffectif = tranche;
         
-        // Codes INSEE pour les tranches d'effectifs
-        switch (tranche) {
-            case "NN": // Non renseigné
-                effectifMin = null;
-                effectifMax = null;
-                break;
-            case "00": // 0 salarié
-                effectifMin = 0;
-                effectifMax = 0;
-                break;
-            case "01": // 1 ou 2 salariés
-                effectifMin = 1;
-                effectifMax = 2;
-                break;
-            case "02": // 3 à 5 salariés
-                effectifMin = 3;
-                effectifMax = 5;
-                break;
-            case "03": // 6 à 9 salariés
-                effectifMin = 6;
-                effectifMax = 9;
-                break;
-            case "11": // 10 à 19 salariés
-                effectifMin = 10;
-                effectifMax = 19;
-                break;
-            case "12": // 20 à 49 salariés
-                effectifMin = 20;
-                effectifMax = 49;
-                break;
-            case "21": // 50 à 99 salariés
-                effectifMin = 50;
-                effectifMax = 99;
-                break;
-            case "22": // 100 à 199 salariés
-                effectifMin = 100;
-                effectifMax = 199;
-                break;
-            case "31": // 200 à 249 salariés
-                effectifMin = 200;
-                effectifMax = 249;
-                break;
-            case "32": // 250 à 499 salariés
-                effectifMin = 250;
-                effectifMax = 499;
-                break;
-            case "41": // 500 à 999 salariés
-                effectifMin = 500;
-                effectifMax = 999;
-                break;
-            case "42": // 1000 à 1999 salariés
-                effectifMin = 1000;
-                effectifMax = 1999;
-                break;
-            case "51": // 2000 à 4999 salariés
-                effectifMin = 2000;
-                effectifMax = 4999;
-                break;
-            case "52": // 5000 à 9999 salariés
-                effectifMin = 5000;
-                effectifMax = 9999;
-                break;
-            case "53": // 10000 salariés et plus
-                effectifMin = 10000;
-                effectifMax = null;
-                break;
+        // Bornes de la tranche INSEE ("NN" = non renseigné), code inconnu ignoré
+        if (Nomenclature.TRANCHES_EFFECTIFS.contains(tranche)) {
+            effectifMin = Nomenclature.TRANCHES_EFFECTIFS.number(tranche, 0);
+            effectifMax = Nomenclature.TRANCHES_EFFECTIFS.number(tranche, 1);
         }
     }
     
@@ -208,15 +181,224 @@ public class Company {
     }
     
     /**
-     * Clé unique pour déduplication (SIREN ou nom+ville)
+     * Chiffre d'affaires affiché : formaté depuis les comptes publiés (avec le
+     * bénéfice du même exercice), sinon le libellé importé
+     */
+    public String getChiffreAffaires() {
+        int exercice = finances != null ? finances.dernierExercice() : -1;
+        if (exercice < 0) return chiffreAffaires;
+        String libelle = formatMontant(finances.chiffreAffaires(exercice));
+        long resultat = finances.resultat(exercice);
+        if (resultat != Finances.INCONNU && resultat > 0) {
+            libelle += " (bénéfice: " + formatMontant(resultat) + ")";
+        }
+        return libelle;
+    }
+    
+    /**
+     * Chiffre d'affaires en euros : dernier exercice publié, ou relu depuis le
+     * libellé importé ("1,2 M€", "850 k€") ; null si absent
+     */
+    public Double getChiffreAffairesMontant() {
+        int exercice = finances != null ? finances.dernierExercice() : -1;
+        if (exercice >= 0) return (double) finances.chiffreAffaires(exercice);
+        if (chiffreAffaires == null) return null;
+        Matcher matcher = MONTANT.matcher(chiffreAffaires.replace("\u00a0", " "));
+        if (!matcher.find()) return null;
+        double value = Double.parseDouble(matcher.group(1).replace(',', '.'));
+        String unit = matcher.group(2);
+        if ("Md".equals(unit)) return value * 1_000_000_000;
+        if ("M".equals(unit)) return value * 1_000_000;
+        if ("k".equals(unit)) return value * 1_000;
+        return value;
+    }
+    
+    /**
+     * Résultat net du dernier exercice publié (euros), null si inconnu
+     */
+    public Double getResultatNet() {
+        int exercice = finances != null ? finances.dernierExercice() : -1;
+        long resultat = exercice >= 0 ? finances.resultat(exercice) : Finances.INCONNU;
+        return resultat != Finances.INCONNU ? (double) resultat : null;
+    }
+    
+    /**
+     * Croissance annuelle du chiffre d'affaires (%), null si moins de deux exercices publiés
+     */
+    public Double getCroissanceChiffreAffaires() {
+        double croissance = finances != null ? finances.croissanceChiffreAffaires() : Double.NaN;
+        return Double.isNaN(croissance) ? null : croissance;
+    }
+    
+    /**
+     * Marge nette du dernier exercice publié (%), null si inconnue
+     */
+    public Double getMargeNette() {
+        double marge = finances != null ? finances.margeNette() : Double.NaN;
+        return Double.isNaN(marge) ? null : marge;
+    }
+    
+    /**
+     * Montant en euros en texte lisible ("1.2 M€", "850 k€")
+     */
+    public static String formatMontant(long montant) {
+        long absolu = Math.abs(montant);
+        if (absolu >= 1_000_000_000) {
+            return String.format("%.1f Md€", montant / 1_000_000_000.0);
+        } else if (absolu >= 1_000_000) {
+            return String.format("%.1f M€", montant / 1_000_000.0);
+        } else if (absolu >= 1_000) {
+            return String.format("%d k€", montant / 1_000);
+        } else {
+            return montant + " €";
+        }
+    }
+    
+    /**
+     * Clé unique pour déduplication (SIREN ou nom+ville normalisés)
      */
     public String getUniqueKey() {
-        if (siren != null && !siren.isEmpty()) {
-            return "SIREN_" + siren;
+        if (siren != null && !siren.isBlank()) {
+            return "SIREN_" + siren.replace(" ", "");
         } else if (nom != null && ville != null) {
-            return "NAME_" + nom.toLowerCase() + "_" + ville.toLowerCase();
+            return "NAME_" + normalizeKeyPart(nom) + "_" + normalizeKeyPart(ville);
+        }
+        // Sans SIREN ni nom+ville : clé tirée du contenu, identique d'une session à l'autre
+        StringBuilder content = new StringBuilder();
+        for (String part : new String[]{nom, siret, siteWeb, email, telephone, codePostal, departement}) {
+            content.append(part != null ? normalizeKeyPart(part) : "").append('|');
+        }
+        if (content.length() > 7) {
+            return "UNKNOWN_" + java.util.UUID.nameUUIDFromBytes(
+                content.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        }
+        // Fiche vide : clé aléatoire, jamais partagée
+        synchronized (this) {
+            if (fallbackKey == null) {
+                fallbackKey = "UNKNOWN_" + java.util.UUID.randomUUID();
+            }
+            return fallbackKey;
+        }
+    }
+    
+    /**
+     * Identité stable d'une session à l'autre (journaux persistants) : SIREN,
+     * sinon nom normalisé et département
+     */
+    public String getIdentityKey() {
+        if (siren != null && !siren.isBlank()) {
+            return "SIREN_" + siren.replace(" ", "");
+        }
+        String name = CompanyResolver.normalizeName(nom, ville);
+        if (name != null) {
+            return "NAME_" + name + "_" + (departement != null ? departement.trim() : "");
+        }
+        return getUniqueKey();
+    }
+    
+    private static String normalizeKeyPart(String value) {
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(java.util.Locale.ROOT);
+    }
+    
+    /**
+     * Fusionner les informations d'une autre fiche de la même entreprise.
+     * Les valeurs déjà renseignées sont conservées, les champs vides sont complétés.
+     */
+    public void mergeFrom(Company other) {
+        if (other == null || other == this) return;
+        
+        siret = firstNonEmpty(siret, other.siret);
+        siren = firstNonEmpty(siren, other.siren);
+        nom = firstNonEmpty(nom, other.nom);
+        nomCommercial = firstNonEmpty(nomCommercial, other.nomCommercial);
+        
+        email = firstNonEmpty(email, other.email);
+        emailRH = firstNonEmpty(emailRH, other.emailRH);
+        telephone = firstNonEmpty(telephone, other.telephone);
+        siteWeb = firstNonEmpty(siteWeb, other.siteWeb);
+        
+        adresse = firstNonEmpty(adresse, other.adresse);
+        codePostal = firstNonEmpty(codePostal, other.codePostal);
+        ville = firstNonEmpty(ville, other.ville);
+        departement = firstNonEmpty(departement, other.departement);
+        region = firstNonEmpty(region, other.region);
+        // Adresse géocodée préférée au lieu de travail d'une offre
+        if (other.latitude != null && other.longitude != null
+                && (latitude == null || longitude == null || (coordonneesOffre && !other.coordonneesOffre))) {
+            latitude = other.latitude;
+            longitude = other.longitude;
+            coordonneesOffre = other.coordonneesOffre;
+        }
+        
+        codeNAF = firstNonEmpty(codeNAF, other.codeNAF);
+        libelleNAF = firstNonEmpty(libelleNAF, other.libelleNAF);
+        secteurActivite = firstNonEmpty(secteurActivite, other.secteurActivite);
+        
+        // La tranche et les bornes d'effectif vont ensemble
+        if (effectifMin == null && effectifMax == null && trancheEffectif == null) {
+            trancheEffectif = other.trancheEffectif;
+            effectifMin = other.effectifMin;
+            effectifMax = other.effectifMax;
+        }
+        categorieEntreprise = firstNonEmpty(categorieEntreprise, other.categorieEntreprise);
+        chiffreAffaires = firstNonEmpty(chiffreAffaires, other.chiffreAffaires);
+        if (finances == null) finances = other.finances;
+        
+        dateCreation = firstNonEmpty(dateCreation, other.dateCreation);
+        if (other.dateDerniereMaj != null
+                && (dateDerniereMaj == null || other.dateDerniereMaj.compareTo(dateDerniereMaj) > 0)) {
+            dateDerniereMaj = other.dateDerniereMaj;
+        }
+        
+        // Garder la trace de toutes les sources
+        if (other.source != null && !other.source.isEmpty()) {
+            if (source == null || source.isEmpty()) {
+                source = other.source;
+            } else if (!java.util.Arrays.asList(source.split(" \\+ ")).contains(other.source)) {
+                source = source + " + " + other.source;
+            }
         }
-        return "UNKNOWN_" + System.currentTimeMillis();
+    }
+    
+    /**
+     * Copie superficielle (tous les champs sont immuables, Finances compris)
+     */
+    public Company copy() {
+        Company c = new Company();
+        c.siret = siret;
+        c.siren = siren;
+        c.nom = nom;
+        c.nomCommercial = nomCommercial;
+        c.email = email;
+        c.emailRH = emailRH;
+        c.telephone = telephone;
+        c.siteWeb = siteWeb;
+        c.adresse = adresse;
+        c.codePostal = codePostal;
+        c.ville = ville;
+        c.departement = departement;
+        c.region = region;
+        c.latitude = latitude;
+        c.longitude = longitude;
+        c.coordonneesOffre = coordonneesOffre;
+        c.codeNAF = codeNAF;
+        c.libelleNAF = libelleNAF;
+        c.secteurActivite = secteurActivite;
+        c.trancheEffectif = trancheEffectif;
+        c.effectifMin = effectifMin;
+        c.effectifMax = effectifMax;
+        c.categorieEntreprise = categorieEntreprise;
+        c.chiffreAffaires = chiffreAffaires;
+        c.finances = finances;
+        c.dateCreation = dateCreation;
+        c.dateDerniereMaj = dateDerniereMaj;
+        c.source = source;
+        c.fallbackKey = fallbackKey;
+        return c;
+    }
+    
+    private static String firstNonEmpty(String current, String candidate) {
+        return (current != null && !current.isEmpty()) ? current : candidate;
     }
     
     /**
@@ -232,32 +414,32 @@ public class Company {
      */
     public String toCsvLine(String separator) {
         return String.join(separator,
-            csvEscape(nom),
-            csvEscape(nomCommercial),
-            csvEscape(siren),
-            csvEscape(siret),
-            csvEscape(getTailleLibelle()),
-            csvEscape(categorieEntreprise),
-            csvEscape(chiffreAffaires),
-            csvEscape(siteWeb),
-            csvEscape(email),
-            csvEscape(emailRH),
-            csvEscape(telephone),
-            csvEscape(adresse),
-            csvEscape(codePostal),
-            csvEscape(ville),
-            csvEscape(departement),
-            csvEscape(region),
-            csvEscape(codeNAF),
-            csvEscape(libelleNAF),
-            csvEscape(dateCreation),
-            csvEscape(source)
+            csvEscape(separator, nom),
+            csvEscape(separator, nomCommercial),
+            csvEscape(separator, siren),
+            csvEscape(separator, siret),
+            csvEscape(separator, getTailleLibelle()),
+            csvEscape(separator, categorieEntreprise),
+            csvEscape(separator, getChiffreAffaires()),
+            csvEscape(separator, siteWeb),
+            csvEscape(separator, email),
+            csvEscape(separator, emailRH),
+            csvEscape(separator, telephone),
+            csvEscape(separator, adresse),
+            csvEscape(separator, codePostal),
+            csvEscape(separator, ville),
+            csvEscape(separator, departement),
+            csvEscape(separator, region),
+            csvEscape(separator, codeNAF),
+            csvEscape(separator, libelleNAF),
+            csvEscape(separator, dateCreation),
+            csvEscape(separator, source)
         );
     }
     
-    private String csvEscape(String value) {
+    private static String csvEscape(String separator, String value) {
         if (value == null) return "";
-        if (value.contains(";") || value.contains("\"") || value.contains("\n")) {
+        if (value.contains(separator) || value.contains("\"") || value.contains("\n")) {
             return "\"" + value.replace("\"", "\"\"") + "\"";
         }
         return value;
@@ -290,4 +472,205 @@ public class Company {
             "Source"
         );
     }
+    
+    /**
+     * Comptes publiés par exercice, du plus récent au plus ancien, rangés en
+     * tableaux primitifs (montants en euros) : tri, filtres et calculs de
+     * croissance se font sans relire de texte. INCONNU marque une valeur non
+     * publiée. Immuable. En JSON, INCONNU s'écrit null.
+     */
+    @com.google.gson.annotations.JsonAdapter(Finances.JsonAdapter.class)
+    public static final class Finances {
+        public static final long INCONNU = Long.MIN_VALUE;
+        
+        private final int[] annees;
+        private final long[] chiffresAffaires;
+        private final long[] resultats;
+        private final long[] effectifs;
+        
+        public Finances(int[] annees, long[] chiffresAffaires, long[] resultats, long[] effectifs) {
+            int n = annees.length;
+            if (chiffresAffaires.length != n || resultats.length != n || effectifs.length != n) {
+                throw new IllegalArgumentException("Historique financier incohérent");
+            }
+            this.annees = annees.clone();
+            this.chiffresAffaires = chiffresAffaires.clone();
+            this.resultats = resultats.clone();
+            this.effectifs = effectifs.clone();
+        }
+        
+        public int size() { return annees.length; }
+        public int annee(int exercice) { return annees[exercice]; }
+        public long chiffreAffaires(int exercice) { return chiffresAffaires[exercice]; }
+        public long resultat(int exercice) { return resultats[exercice]; }
+        public long effectif(int exercice) { return effectifs[exercice]; }
+        
+        /**
+         * Exercice le plus récent publiant un chiffre d'affaires, -1 si aucun
+         */
+        public int dernierExercice() {
+            return suivant(chiffresAffaires, 0);
+        }
+        
+        /**
+         * Croissance annuelle moyenne du chiffre d'affaires (%) entre les deux
+         * derniers exercices qui le publient, NaN si elle ne peut être calculée
+         */
+        public double croissanceChiffreAffaires() {
+            int dernier = dernierExercice();
+            int precedent = dernier >= 0 ? suivant(chiffresAffaires, dernier + 1) : -1;
+            if (precedent < 0 || chiffresAffaires[precedent] <= 0 || chiffresAffaires[dernier] < 0) return Double.NaN;
+            double ratio = (double) chiffresAffaires[dernier] / chiffresAffaires[precedent];
+            int ans = Math.max(1, annees[dernier] - annees[precedent]);
+            return (Math.pow(ratio, 1.0 / ans) - 1) * 100;
+        }
+        
+        /**
+         * Marge nette (%) du dernier exercice publiant chiffre d'affaires et
+         * résultat, NaN si inconnue
+         */
+        public double margeNette() {
+            for (int i = 0; i < annees.length; i++) {
+                if (chiffresAffaires[i] != INCONNU && resultats[i] != INCONNU && chiffresAffaires[i] > 0) {
+                    return resultats[i] * 100.0 / chiffresAffaires[i];
+                }
+            }
+            return Double.NaN;
+        }
+        
+        private static int suivant(long[] valeurs, int depuis) {
+            for (int i = depuis; i < valeurs.length; i++) {
+                if (valeurs[i] != INCONNU) return i;
+            }
+            return -1;
+        }
+        
+        /**
+         * Forme texte pour la session : "annee:ca:resultat:effectif" par
+         * exercice, séparés par des virgules (valeur vide = non publiée)
+         */
+        public String encode() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < annees.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(annees[i]).append(':');
+                appendValue(sb, chiffresAffaires[i]).append(':');
+                appendValue(sb, resultats[i]).append(':');
+                appendValue(sb, effectifs[i]);
+            }
+            return sb.toString();
+        }
+        
+        private static StringBuilder appendValue(StringBuilder sb, long value) {
+            return value != INCONNU ? sb.append(value) : sb;
+        }
+        
+        /**
+         * Relire la forme texte de encode(), null si vide ou illisible
+         */
+        public static Finances decode(String text) {
+            if (text == null || text.isEmpty()) return null;
+            String[] exercices = text.split(",");
+            int[] annees = new int[exercices.length];
+            long[] chiffresAffaires = new long[exercices.length];
+            long[] resultats = new long[exercices.length];
+            long[] effectifs = new long[exercices.length];
+            try {
+                for (int i = 0; i < exercices.length; i++) {
+                    String[] parts = exercices[i].split(":", -1);
+                    if (parts.length != 4) return null;
+                    annees[i] = Integer.parseInt(parts[0]);
+                    chiffresAffaires[i] = parseValue(parts[1]);
+                    resultats[i] = parseValue(parts[2]);
+                    effectifs[i] = parseValue(parts[3]);
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            return new Finances(annees, chiffresAffaires, resultats, effectifs);
+        }
+        
+        private static long parseValue(String value) {
+            return value.isEmpty() ? INCONNU : Long.parseLong(value);
+        }
+        
+        /**
+         * Forme JSON : mêmes tableaux par exercice, null pour INCONNU
+         */
+        static final class JsonAdapter extends TypeAdapter<Finances> {
+            private static final String[] CHAMPS = {"annees", "chiffresAffaires", "resultats", "effectifs"};
+            
+            @Override
+            public void write(JsonWriter out, Finances finances) throws IOException {
+                if (finances == null) {
+                    out.nullValue();
+                    return;
+                }
+                out.beginObject();
+                out.name(CHAMPS[0]).beginArray();
+                for (int annee : finances.annees) out.value(annee);
+                out.endArray();
+                writeValues(out, CHAMPS[1], finances.chiffresAffaires);
+                writeValues(out, CHAMPS[2], finances.resultats);
+                writeValues(out, CHAMPS[3], finances.effectifs);
+                out.endObject();
+            }
+            
+            private static void writeValues(JsonWriter out, String name, long[] values) throws IOException {
+                out.name(name).beginArray();
+                for (long value : values) {
+                    if (value != INCONNU) out.value(value);
+                    else out.nullValue();
+                }
+                out.endArray();
+            }
+            
+            @Override
+            public Finances read(JsonReader in) throws IOException {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+                long[][] values = new long[CHAMPS.length][];
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    int champ = List.of(CHAMPS).indexOf(name);
+                    if (champ < 0) {
+                        in.skipValue();
+                        continue;
+                    }
+                    List<Long> list = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            list.add(INCONNU);
+                        } else {
+                            list.add(in.nextLong());
+                        }
+                    }
+                    in.endArray();
+                    values[champ] = list.stream().mapToLong(Long::longValue).toArray();
+                }
+                in.endObject();
+                if (values[0] == null) return null;
+                int[] annees = new int[values[0].length];
+                for (int i = 0; i < annees.length; i++) annees[i] = (int) values[0][i];
+                try {
+                    return new Finances(annees, orEmpty(values[1], annees.length),
+                        orEmpty(values[2], annees.length), orEmpty(values[3], annees.length));
+                } catch (IllegalArgumentException e) {
+                    throw new com.google.gson.JsonParseException(e.getMessage(), e);
+                }
+            }
+            
+            private static long[] orEmpty(long[] values, int size) {
+                if (values != null) return values;
+                long[] inconnus = new long[size];
+                java.util.Arrays.fill(inconnus, INCONNU);
+                return inconnus;
+            }
+        }
+    }
 }
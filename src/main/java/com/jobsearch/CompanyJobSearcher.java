@@ -2,7 +2,6 @@ package com.jobsearch;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.IOException;
 import java.net.URI;
@@ -12,10 +11,14 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import com.google.gson.*;
 
@@ -33,15 +36,25 @@ public class CompanyJobSearcher extends JFrame {
     // Configuration chargée depuis config.properties
     private final ConfigLoader config;
     
+    // Pagination France Travail : 150 offres par page, plage accessible limitée à 0-3149
+    private static final int FRANCE_TRAVAIL_PAGE_MAX = 150;
+    private static final int FRANCE_TRAVAIL_RANGE_LIMIT = 3150;
+    
     // Composants UI
     private JTextField searchField;
+    private JCheckBox incrementalCheckBox;
     private JComboBox<String> departmentCombo;
     private JComboBox<String> searchTypeCombo;
     private JComboBox<String> regionCombo;
     private JButton searchButton;
     private JButton stopButton;
     private JTable resultTable;
-    private DefaultTableModel tableModel;
+    private RelevanceRowSorter resultSorter;
+    private final FacetIndex facetIndex = new FacetIndex();
+    
+    // Densité des offres et entreprises par cellule geohash (carte)
+    private final TilePyramid tilePyramid = new TilePyramid();
+    private ResultTableModel tableModel;
     private JProgressBar progressBar;
     private JLabel statusLabel;
     private JTextField tokenClientIdField;
@@ -53,11 +66,38 @@ public class CompanyJobSearcher extends JFrame {
     private volatile boolean searchInProgress = false;
     private String franceTravailAccessToken = null;
     
-    // Stockage des offres complètes pour export
-    private final List<JobOffer> jobOffers = new ArrayList<>();
+    // Stockage des offres complètes pour export (dédupliquées, instantanés pour les lecteurs)
+    private final OfferStore jobOffers = new OfferStore();
+    
+    // Offres déjà vues lors des sessions précédentes
+    private final SeenOfferFilter seenOffers;
+    private final java.util.concurrent.atomic.AtomicInteger newOffersCount = new java.util.concurrent.atomic.AtomicInteger();
+    
+    // Repères de synchronisation incrémentale par requête
+    private final SyncWatermarks syncWatermarks;
+    
+    // Changements d'offres entre synchronisations (null si le journal est illisible)
+    private final OfferChangeLog changeLog;
+    private volatile OfferChangeLog.Run syncRun;
+    
+    // Dynamique de recrutement par entreprise et département (7 / 30 / 90 jours)
+    private final HiringVelocity hiringVelocity;
+    
+    // Géocodage hors ligne des adresses d'entreprises (Base Adresse Nationale importée)
+    private final AddressGeocoder addressGeocoder;
     
-    // Stockage des entreprises uniques (dédupliquées)
-    private final java.util.Map<String, Company> companies = new java.util.HashMap<>();
+    // Base SIRENE locale (stock INSEE importé) et ses index
+    private final SireneStore sireneStore;
+    private final SireneQuery sireneQuery;
+    
+    // Base locale persistante (chargée en arrière-plan au démarrage)
+    private final CompletableFuture<LocalStore> localStore;
+    
+    // Stockage des entreprises uniques (dédupliquées, alimenté en parallèle)
+    private final CompanyRegistry companies = new CompanyRegistry();
+    
+    // Jointure entreprise -> offres (offres ouvertes, contrats, dernière publication)
+    private final CompanyOfferIndex companyOffers = new CompanyOfferIndex();
     
     public CompanyJobSearcher() {
         super("Recherche d'Entreprises IT - Île-de-France");
@@ -69,6 +109,17 @@ public class CompanyJobSearcher extends JFrame {
                 .connectTimeout(Duration.ofSeconds(config.getHttpTimeout()))
                 .build();
         this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.seenOffers = new SeenOfferFilter(new java.io.File(config.getDataDirectory(), "seen-offers.bloom"));
+        this.syncWatermarks = new SyncWatermarks(new java.io.File(config.getDataDirectory(), "sync-watermarks.properties"));
+        this.changeLog = openChangeLog(new java.io.File(config.getDataDirectory(), "offer-changes.log"));
+        this.hiringVelocity = new HiringVelocity(new java.io.File(config.getDataDirectory(), "hiring-velocity.bin"));
+        this.addressGeocoder = new AddressGeocoder(new java.io.File(config.getDataDirectory(), "ban"));
+        this.sireneStore = new SireneStore(new java.io.File(config.getDataDirectory(), "sirene"));
+        this.sireneQuery = new SireneQuery(sireneStore);
+        java.io.File storeDir = new java.io.File(config.getDataDirectory(), "store");
+        this.localStore = CompletableFuture.supplyAsync(() -> new LocalStore(storeDir, config.getOfferExpiryDays()));
+        // Les offres acceptées sont journalisées au fil de l'eau dans la base locale
+        localStore.thenAccept(store -> jobOffers.setJournal(store::putOffer));
         
         initializeUI();
         setSize(config.getWindowWidth(), config.getWindowHeight());
@@ -80,6 +131,20 @@ public class CompanyJobSearcher extends JFrame {
             tokenClientIdField.setText(config.getFranceTravailClientId());
             tokenClientSecretField.setText(config.getFranceTravailClientSecret());
         }
+        
+        // Restaurer la dernière session enregistrée
+        if (config.isSessionRestoreOnStartup() && getSessionFile().exists()) {
+            restoreSession();
+        }
+    }
+    
+    private static OfferChangeLog openChangeLog(java.io.File file) {
+        try {
+            return new OfferChangeLog(file);
+        } catch (IOException e) {
+            System.err.println("⚠ Journal des changements indisponible: " + e.getMessage());
+            return null;
+        }
     }
     
     private void initializeUI() {
@@ -101,7 +166,60 @@ public class CompanyJobSearcher extends JFrame {
         aboutItem.addActionListener(e -> showAboutDialog());
         toolsMenu.add(aboutItem);
         
+        JMenu dataMenu = new JMenu("Données");
+        
+        JMenuItem reopenItem = new JMenuItem("📂 Rouvrir les résultats enregistrés");
+        reopenItem.setToolTipText("Recharge depuis la base locale les offres et entreprises de la zone sélectionnée");
+        reopenItem.addActionListener(e -> reopenStoredResults());
+        dataMenu.add(reopenItem);
+        
+        dataMenu.addSeparator();
+        
+        JMenuItem saveSessionItem = new JMenuItem("💾 Enregistrer la session");
+        saveSessionItem.setToolTipText("Sauvegarde les offres, entreprises et le tableau pour une restauration instantanée");
+        saveSessionItem.addActionListener(e -> saveSession());
+        dataMenu.add(saveSessionItem);
+        
+        JMenuItem restoreSessionItem = new JMenuItem("⏏ Restaurer la session");
+        restoreSessionItem.addActionListener(e -> restoreSession());
+        dataMenu.add(restoreSessionItem);
+        
+        dataMenu.addSeparator();
+        
+        JMenuItem changesItem = new JMenuItem("🕑 Changements entre synchronisations");
+        changesItem.setToolTipText("Offres nouvelles, actualisées ou retirées depuis une date");
+        changesItem.addActionListener(e -> showChangesDialog());
+        dataMenu.add(changesItem);
+        
+        JMenuItem velocityItem = new JMenuItem("📈 Dynamique de recrutement");
+        velocityItem.setToolTipText("Entreprises classées par nombre d'offres publiées sur 7, 30 ou 90 jours");
+        velocityItem.addActionListener(e -> showHiringVelocityDialog());
+        dataMenu.add(velocityItem);
+        
+        JMenuItem mapItem = new JMenuItem("🗺 Carte des offres");
+        mapItem.setToolTipText("Densité des offres et des entreprises localisées");
+        mapItem.addActionListener(e -> showDensityMapDialog());
+        dataMenu.add(mapItem);
+        
+        dataMenu.addSeparator();
+        
+        JMenuItem importItem = new JMenuItem("📥 Importer un export (CSV/JSON)...");
+        importItem.setToolTipText("Recharge un export d'offres ou d'entreprises produit par l'application");
+        importItem.addActionListener(e -> importExportFile());
+        dataMenu.add(importItem);
+        
+        JMenuItem addressItem = new JMenuItem("📍 Importer la Base Adresse Nationale...");
+        addressItem.setToolTipText("Fichiers adresses-XX.csv(.gz) d'adresse.data.gouv.fr : géocodage local des entreprises");
+        addressItem.addActionListener(e -> importAddressBase());
+        dataMenu.add(addressItem);
+        
+        JMenuItem sireneItem = new JMenuItem("🏛 Importer le stock SIRENE...");
+        sireneItem.setToolTipText("StockEtablissement / StockUniteLegale (CSV INSEE) : base locale des entreprises, mise à jour différentielle");
+        sireneItem.addActionListener(e -> importSireneStock());
+        dataMenu.add(sireneItem);
+        
         menuBar.add(toolsMenu);
+        menuBar.add(dataMenu);
         setJMenuBar(menuBar);
         
         // Panel principal avec marges
@@ -181,8 +299,14 @@ public class CompanyJobSearcher extends JFrame {
         searchField.setFont(new Font("Arial", Font.PLAIN, 14));
         searchCriteriaPanel.add(searchField, gbc);
         
+        // Synchronisation incrémentale
+        gbc.gridx = 1; gbc.gridy = 4; gbc.weightx = 1;
+        incrementalCheckBox = new JCheckBox("Incrémental : uniquement les offres créées depuis la dernière synchronisation");
+        incrementalCheckBox.setToolTipText("Les nouvelles offres sont fusionnées dans la base locale (menu Données pour tout rouvrir)");
+        searchCriteriaPanel.add(incrementalCheckBox, gbc);
+        
         // Boutons
-        gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 2;
+        gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 2;
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
         
         searchButton = new JButton("🔍 Rechercher");
@@ -258,17 +382,27 @@ public class CompanyJobSearcher extends JFrame {
         
         // Modèle de table avec plus de colonnes
         String[] columns = {"Entreprise", "Poste", "📧 Email", "Dép.", "Ville", "Contrat", "🔗 Offre", "🌐 Site"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+        // Colonne calculée : distance au lieu le plus proche (filtre "Autour de")
+        tableModel = new ResultTableModel(columns, "📏 Km");
+        tableModel.setCompanyLookup(companies::get);
+        // Lignes d'entreprise : offres ouvertes rattachées (lues dans la jointure à l'affichage)
+        tableModel.setCompanyColumn("📌 Offres ouvertes", companyKey -> {
+            CompanyOfferIndex.Stats stats = companyOffers.get(companyKey);
+            return stats != null ? stats.getOpenOffers() : 0;
+        });
+        tableModel.addTableModelListener(e -> {
+            if (e.getType() == javax.swing.event.TableModelEvent.INSERT) {
+                tilePyramid.addRows(tableModel, e.getFirstRow(), e.getLastRow(), companyOffers::companyOf);
+            } else if (tableModel.getRowCount() == 0) {
+                tilePyramid.clear();
             }
-        };
+        });
         
         resultTable = new JTable(tableModel);
         resultTable.setFont(new Font("Arial", Font.PLAIN, 12));
         resultTable.setRowHeight(25);
-        resultTable.setAutoCreateRowSorter(true);
+        resultSorter = new RelevanceRowSorter(tableModel);
+        resultTable.setRowSorter(resultSorter);
         resultTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
         
         // Ajuster les largeurs de colonnes
@@ -280,10 +414,33 @@ public class CompanyJobSearcher extends JFrame {
         resultTable.getColumnModel().getColumn(5).setPreferredWidth(100); // Contrat
         resultTable.getColumnModel().getColumn(6).setPreferredWidth(150); // Lien offre
         resultTable.getColumnModel().getColumn(7).setPreferredWidth(150); // Site
+        resultTable.getColumnModel().getColumn(8).setPreferredWidth(80);  // Offres ouvertes
+        resultTable.getColumnModel().getColumn(9).setPreferredWidth(60);  // Distance
+        
+        // Détail des offres ouvertes (contrats, dernière publication) en infobulle
+        resultTable.getColumnModel().getColumn(8).setCellRenderer(new javax.swing.table.DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                           boolean hasFocus, int row, int column) {
+                super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                String companyKey = tableModel.getCompanyKey(table.convertRowIndexToModel(row));
+                setToolTipText(companyKey != null ? companyOffersSummary(companyKey) : null);
+                setHorizontalAlignment(RIGHT);
+                return this;
+            }
+        });
         
         JScrollPane scrollPane = new JScrollPane(resultTable);
         panel.add(scrollPane, BorderLayout.CENTER);
         
+        JPanel filtersPanel = new JPanel(new GridLayout(3, 1));
+        filtersPanel.add(createRefinePanel());
+        filtersPanel.add(new FilterBox(tableModel, resultSorter));
+        filtersPanel.add(new GeoFilterBox(tableModel, resultSorter));
+        panel.add(filtersPanel, BorderLayout.NORTH);
+        
+        panel.add(createFacetPanel(), BorderLayout.WEST);
+        
         // Panel d'actions sur les résultats
         JPanel actionsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         
@@ -297,16 +454,22 @@ public class CompanyJobSearcher extends JFrame {
         exportCompaniesButton.setFont(new Font("Arial", Font.BOLD, 12));
         exportCompaniesButton.addActionListener(e -> exportCompanies());
         
+        JButton exportViewButton = new JButton("📋 Exporter la vue");
+        exportViewButton.setToolTipText("Exporte en CSV les lignes affichées (filtres et tri appliqués)");
+        exportViewButton.addActionListener(e -> exportTableView());
+        
         JButton clearButton = new JButton("🗑 Effacer");
         clearButton.addActionListener(e -> {
-            tableModel.setRowCount(0);
+            tableModel.clear();
             jobOffers.clear();
             companies.clear();
+            companyOffers.clear();
         });
         
         actionsPanel.add(exportCsvButton);
         actionsPanel.add(exportJsonButton);
         actionsPanel.add(exportCompaniesButton);
+        actionsPanel.add(exportViewButton);
         actionsPanel.add(clearButton);
         actionsPanel.add(new JLabel("Total: "));
         
@@ -329,6 +492,94 @@ public class CompanyJobSearcher extends JFrame {
         return panel;
     }
     
+    /**
+     * Champ d'affinage local : recherche plein texte (BM25) sur les offres de la session
+     */
+    private JPanel createRefinePanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        
+        JTextField refineField = new JTextField(30);
+        refineField.setToolTipText("Mots présents dans l'intitulé, les compétences, l'entreprise ou la description (ex: java spring kafka)");
+        JLabel refineLabel = new JLabel(" ");
+        
+        Runnable refine = () -> {
+            String query = refineField.getText().trim();
+            if (query.isEmpty()) {
+                resultSorter.setScores(null);
+                refineLabel.setText(" ");
+                return;
+            }
+            long start = System.nanoTime();
+            Map<String, Float> scores = jobOffers.search(query);
+            double elapsed = (System.nanoTime() - start) / 1_000_000.0;
+            resultSorter.setScores(scores);
+            refineLabel.setText(resultTable.getRowCount() + " offres correspondantes ("
+                + String.format("%.1f", elapsed) + " ms)");
+        };
+        
+        // Recalcul différé pendant la frappe et à l'arrivée de nouvelles lignes
+        Timer refineTimer = new Timer(150, e -> refine.run());
+        refineTimer.setRepeats(false);
+        refineField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                refineTimer.restart();
+            }
+            
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                refineTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                refineTimer.restart();
+            }
+        });
+        tableModel.addTableModelListener(e -> {
+            if (resultSorter.hasScores()) refineTimer.restart();
+        });
+        
+        JButton resetButton = new JButton("✕");
+        resetButton.setToolTipText("Afficher tous les résultats");
+        resetButton.addActionListener(e -> refineField.setText(""));
+        
+        panel.add(new JLabel("🔎 Affiner:"));
+        panel.add(refineField);
+        panel.add(resetButton);
+        panel.add(refineLabel);
+        return panel;
+    }
+    
+    /**
+     * Facettes (contrat, expérience, département, région, compétence, taille, NAF) avec compteurs
+     */
+    private JComponent createFacetPanel() {
+        FacetPanel facetPanel = new FacetPanel(facetIndex, resultSorter::setRowMask);
+        
+        // Compteurs et masque recalculés par lot pendant l'arrivée des lignes
+        Timer facetTimer = new Timer(300, e -> {
+            facetPanel.refresh();
+            resultSorter.setRowMask(facetPanel.currentMask());
+        });
+        facetTimer.setRepeats(false);
+        
+        tableModel.addTableModelListener(e -> {
+            if (e.getType() == javax.swing.event.TableModelEvent.INSERT) {
+                facetIndex.addRows(tableModel.getColumns(), e.getFirstRow(), e.getLastRow());
+            } else if (tableModel.getRowCount() == 0) {
+                facetIndex.clear();
+            }
+            facetTimer.restart();
+        });
+        
+        JScrollPane scroll = new JScrollPane(facetPanel);
+        scroll.setBorder(BorderFactory.createTitledBorder("Filtres"));
+        scroll.setPreferredSize(new Dimension(230, 0));
+        scroll.getVerticalScrollBar().setUnitIncrement(16);
+        return scroll;
+    }
+    
     private JPanel createStatusPanel() {
         JPanel panel = new JPanel(new BorderLayout(5, 5));
         
@@ -429,18 +680,23 @@ public class CompanyJobSearcher extends JFrame {
         stopButton.setEnabled(true);
         
         // Effacer les résultats précédents
-        tableModel.setRowCount(0);
+        tableModel.clear();
         jobOffers.clear(); // Effacer les offres stockées
+        companyOffers.clear();
+        newOffersCount.set(0);
         progressBar.setValue(0);
         
         String searchType = (String) searchTypeCombo.getSelectedItem();
         String keywords = searchField.getText().trim();
         String[] departments = getDepartmentsForSearch(); // Utiliser la nouvelle méthode
+        boolean incremental = incrementalCheckBox.isSelected();
+        boolean offerSearch = searchType.equals("Offres d'emploi IT") || searchType.equals("Recherche combinée");
+        syncRun = changeLog != null && offerSearch ? changeLog.beginRun(incremental) : null;
         
         CompletableFuture.runAsync(() -> {
             try {
                 if (searchType.equals("Offres d'emploi IT") || searchType.equals("Recherche combinée")) {
-                    searchJobOffers(keywords, departments);
+                    searchJobOffers(keywords, departments, incremental);
                 }
                 
                 if (searchType.equals("Entreprises secteur informatique") || searchType.equals("Recherche combinée")) {
@@ -449,10 +705,41 @@ public class CompanyJobSearcher extends JFrame {
                 
                 // Calculer le nombre de résultats trouvés
                 final int foundResults = tableModel.getRowCount();
+                final int newOffers = newOffersCount.get();
+                final int variants = jobOffers.variantCount();
+                final OfferChangeLog.Summary changes = commitSyncRun();
+                
+                try {
+                    seenOffers.save();
+                } catch (IOException e) {
+                    System.err.println("⚠ Sauvegarde des offres vues impossible: " + e.getMessage());
+                }
+                try {
+                    hiringVelocity.save();
+                } catch (IOException e) {
+                    System.err.println("⚠ Sauvegarde de la dynamique de recrutement impossible: " + e.getMessage());
+                }
+                // Les repères ne sont avancés que si les offres correspondantes sont en base
+                if (persistResults()) {
+                    try {
+                        syncWatermarks.save();
+                    } catch (IOException e) {
+                        System.err.println("⚠ Sauvegarde des repères de synchronisation impossible: " + e.getMessage());
+                    }
+                } else {
+                    syncWatermarks.discardPending();
+                }
                 
                 SwingUtilities.invokeLater(() -> {
                     if (foundResults > 0) {
-                        updateStatus("✓ Recherche terminée: " + foundResults + " résultats trouvés");
+                        updateStatus("✓ Recherche terminée: " + foundResults + " résultats trouvés"
+                            + (incremental ? " (incrémental)" : "")
+                            + (jobOffers.isEmpty() ? "" : " (" + newOffers + " nouvelles offres depuis la dernière session)")
+                            + (variants > 0 ? " | " + variants + " republications regroupées" : "")
+                            + (changes != null && !changes.isEmpty() ? " | Δ +" + changes.added + " nouvelles, "
+                                + changes.updated + " actualisées, " + changes.removed + " retirées" : ""));
+                    } else if (incremental) {
+                        updateStatus("✓ Synchronisation incrémentale: aucune nouvelle offre depuis la dernière recherche");
                     } else {
                         updateStatus("⚠ Recherche terminée: Aucun résultat trouvé. Essayez des mots-clés plus génériques.");
                     }
@@ -477,6 +764,182 @@ public class CompanyJobSearcher extends JFrame {
         });
     }
     
+    /**
+     * Journaliser les changements de la synchronisation terminée (null si aucune)
+     */
+    private OfferChangeLog.Summary commitSyncRun() {
+        OfferChangeLog.Run run = syncRun;
+        syncRun = null;
+        if (run == null) return null;
+        try {
+            OfferChangeLog.Summary summary = changeLog.commit(run);
+            if (summary.removed > 0) {
+                for (OfferChangeLog.Change change : changeLog.lastRunChanges()) {
+                    if (change.type == OfferChangeLog.ChangeType.REMOVED) companyOffers.close(change.offerId);
+                }
+            }
+            System.out.println("🕑 Changements: +" + summary.added + " nouvelles, " + summary.updated
+                + " actualisées, " + summary.removed + " retirées");
+            return summary;
+        } catch (IOException e) {
+            System.err.println("⚠ Journalisation des changements impossible: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Enregistrer les résultats de la session dans la base locale
+     */
+    private boolean persistResults() {
+        try {
+            LocalStore store = localStore.join();
+            store.putOffers(jobOffers.snapshot());
+            store.putCompanies(companies.snapshot());
+            System.out.println("💾 Résultats enregistrés: " + store.offerCount() + " offres, "
+                + store.companyCount() + " entreprises en base locale");
+            return true;
+        } catch (Exception e) {
+            System.err.println("⚠ Enregistrement en base locale impossible: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Recharger depuis la base locale les résultats de la zone sélectionnée (sans appel réseau)
+     */
+    private void reopenStoredResults() {
+        if (searchInProgress) return;
+        
+        String searchType = (String) searchTypeCombo.getSelectedItem();
+        List<String> departments = java.util.Arrays.asList(getDepartmentsForSearch());
+        
+        tableModel.clear();
+        jobOffers.clear();
+        companies.clear();
+        companyOffers.clear();
+        updateStatus("Chargement depuis la base locale...");
+        
+        CompletableFuture.runAsync(() -> {
+            long start = System.currentTimeMillis();
+            LocalStore store = localStore.join();
+            
+            int offerCount = 0;
+            if (searchType.equals("Offres d'emploi IT") || searchType.equals("Recherche combinée")) {
+                LocalStore.OfferQuery query = new LocalStore.OfferQuery();
+                query.departements = departments;
+                List<JobOffer> offers = store.findOffers(query);
+                offers.forEach(this::ingestJobOffer);
+                offerCount = offers.size();
+            }
+            
+            int companyCount = 0;
+            if (searchType.equals("Entreprises secteur informatique") || searchType.equals("Recherche combinée")) {
+                List<Company> stored = store.findCompanies(departments, null);
+                for (Company company : stored) {
+                    // Les entreprises issues des offres sont déjà reconstruites par ingestJobOffer
+                    if (company.getSource() != null && company.getSource().startsWith("Offre d'emploi")) continue;
+                    ingestCompany(company);
+                    companyCount++;
+                }
+            }
+            
+            String message = "📂 Base locale: " + offerCount + " offres, " + companyCount
+                + " entreprises rechargées (" + (System.currentTimeMillis() - start) + " ms)";
+            System.out.println(message);
+            updateStatus(message);
+        });
+    }
+    
+    private java.io.File getSessionFile() {
+        return new java.io.File(config.getDataDirectory(), "session.snapshot");
+    }
+    
+    /**
+     * Enregistrer la session courante (instantané binaire)
+     */
+    private void saveSession() {
+        if (searchInProgress) return;
+        
+        // Lignes du tableau copiées sur l'EDT (offres retrouvées par id), écriture en arrière-plan
+        int rowCount = tableModel.getRowCount();
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        List<Object> rowEntities = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(tableModel.getRow(i));
+            String offerId = tableModel.getOfferId(i);
+            rowEntities.add(offerId != null ? jobOffers.getById(offerId) : tableModel.getCompanyKey(i));
+        }
+        List<JobOffer> offers = jobOffers.snapshot();
+        Map<String, List<JobOffer>> variants = jobOffers.variantGroups();
+        Map<String, Company> companyEntries = companies.entries();
+        String[] columns = tableModel.getColumnNames();
+        Map<String, String> offerCompanies = companyOffers.links();
+        Set<String> closedOffers = companyOffers.closedOffers();
+        
+        java.io.File file = getSessionFile();
+        updateStatus("Enregistrement de la session...");
+        CompletableFuture.runAsync(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                long[] fingerprints = offers.parallelStream().mapToLong(OfferStore::contentFingerprint).toArray();
+                SessionSnapshot.Session session = new SessionSnapshot.Session(System.currentTimeMillis(),
+                    offers, fingerprints, variants, companyEntries, columns, rows, rowEntities,
+                    offerCompanies, closedOffers);
+                SessionSnapshot.write(file, session);
+                String message = "💾 Session enregistrée: " + rowCount + " lignes, " + offers.size()
+                    + " offres, " + companyEntries.size() + " entreprises ("
+                    + (System.currentTimeMillis() - start) + " ms)";
+                System.out.println(message);
+                updateStatus(message);
+            } catch (IOException e) {
+                System.err.println("❌ Enregistrement de la session impossible: " + e.getMessage());
+                updateStatus("✗ Enregistrement de la session impossible: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Restaurer la dernière session enregistrée
+     */
+    private void restoreSession() {
+        if (searchInProgress) return;
+        
+        java.io.File file = getSessionFile();
+        if (!file.exists()) {
+            updateStatus("ℹ Aucune session enregistrée");
+            return;
+        }
+        
+        updateStatus("Restauration de la session...");
+        CompletableFuture.runAsync(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                SessionSnapshot.Session session = SessionSnapshot.read(file);
+                jobOffers.restore(session.offers, session.offerFingerprints, session.variants);
+                companies.restore(session.companies);
+                // Jointure relue telle quelle (sans résolution)
+                companyOffers.restore(session.offers, session.offerCompanies, session.closedOffers);
+                
+                // Colonnes différentes (ancienne version) : lignes reconstruites ignorées
+                boolean sameColumns = java.util.Arrays.equals(session.columns, tableModel.getColumnNames());
+                SwingUtilities.invokeLater(() -> {
+                    tableModel.clear();
+                    if (sameColumns) {
+                        tableModel.addRows(session.rows, session.rowEntities);
+                    }
+                    String message = "⏏ Session du " + new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm")
+                        .format(new java.util.Date(session.savedAt)) + " restaurée: "
+                        + tableModel.getRowCount() + " lignes (" + (System.currentTimeMillis() - start) + " ms)";
+                    System.out.println(message);
+                    updateStatus(message);
+                });
+            } catch (IOException e) {
+                System.err.println("❌ Restauration de la session impossible: " + e.getMessage());
+                updateStatus("✗ Restauration de la session impossible: " + e.getMessage());
+            }
+        });
+    }
+    
     private void stopSearch() {
         searchInProgress = false;
         updateStatus("Recherche interrompue");
@@ -508,7 +971,7 @@ public class CompanyJobSearcher extends JFrame {
         }
     }
     
-    private void searchJobOffers(String keywords, String[] allDepartments) throws Exception {
+    private void searchJobOffers(String keywords, String[] allDepartments, boolean incremental) throws Exception {
         updateStatus("Recherche d'offres d'emploi IT...");
         
         System.out.println("🔍 Recherche dans " + allDepartments.length + " départements (limite API: 5 départements/requête)");
@@ -524,11 +987,11 @@ public class CompanyJobSearcher extends JFrame {
             String deptList = String.join(",", deptGroup);
             System.out.println("  → Groupe " + ((i / 5) + 1) + ": Départements " + deptList);
             
-            searchJobOffersForDepartments(keywords, deptList);
+            searchJobOffersForDepartments(keywords, deptList, incremental);
         }
     }
     
-    private void searchJobOffersForDepartments(String keywords, String departments) throws Exception {
+    private void searchJobOffersForDepartments(String keywords, String departments, boolean incremental) throws Exception {
         // Construction de l'URL
         StringBuilder urlBuilder = new StringBuilder(config.getFranceTravailApiBaseUrl());
         urlBuilder.append("/offresdemploi/v2/offres/search?");
@@ -539,88 +1002,109 @@ public class CompanyJobSearcher extends JFrame {
         }
         
         urlBuilder.append("departement=").append(departments);
-        urlBuilder.append("&range=0-").append(config.getMaxResultsJobs() - 1);
         
-        String url = urlBuilder.toString();
-        System.out.println("🔍 URL recherche: " + url);
-        System.out.println("🔑 Token présent: " + (franceTravailAccessToken != null ? "Oui" : "Non"));
-        
-        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
-            .uri(URI.create(url))
-            .header("Accept", "application/json")
-            .GET();
+        // Synchronisation incrémentale : uniquement les offres créées depuis le repère
+        String watermarkKey = SyncWatermarks.queryKey(keywords, departments);
+        Instant watermark = syncWatermarks.get(watermarkKey);
+        if (incremental && watermark != null) {
+            Instant from = watermark.minus(Duration.ofMinutes(config.getSyncOverlapMinutes()));
+            Instant to = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+            urlBuilder.append("&minCreationDate=").append(URLEncoder.encode(from.truncatedTo(ChronoUnit.SECONDS).toString(), StandardCharsets.UTF_8));
+            urlBuilder.append("&maxCreationDate=").append(URLEncoder.encode(to.toString(), StandardCharsets.UTF_8));
+            System.out.println("⏱ Incrémental depuis " + watermark + " (marge " + config.getSyncOverlapMinutes() + " min)");
+        } else if (incremental) {
+            System.out.println("⏱ Aucun repère pour cette requête: synchronisation complète");
+        }
         
-        // Ajouter le token d'authentification si disponible
-        if (franceTravailAccessToken != null) {
-            requestBuilder.header("Authorization", "Bearer " + franceTravailAccessToken);
-            System.out.println("✓ Token ajouté à la requête");
-        } else {
+        if (franceTravailAccessToken == null) {
             System.err.println("⚠ ATTENTION: Aucun token disponible !");
             updateStatus("⚠ Token manquant - Cliquez sur 'Obtenir Token' d'abord");
             return;
         }
         
+        // Pagination : pages de api.max.results.jobs offres (150 max) jusqu'à la fin du résultat
+        int pageSize = Math.max(1, Math.min(FRANCE_TRAVAIL_PAGE_MAX, config.getMaxResultsJobs()));
+        OfferChangeLog.Run run = syncRun;
+        Instant newest = null;
+        boolean complete = false;
+        int received = 0;
         try {
-            HttpResponse<String> response = httpClient.send(requestBuilder.build(), 
-                HttpResponse.BodyHandlers.ofString());
-            
-            int statusCode = response.statusCode();
-            System.out.println("📡 Code réponse API: " + statusCode);
-            
-            if (statusCode == 200) {
-                System.out.println("✓ Réponse reçue, parsing JSON...");
-                JsonObject json = gson.fromJson(response.body(), JsonObject.class);
+            for (int first = 0; searchInProgress; first += pageSize) {
+                if (first >= FRANCE_TRAVAIL_RANGE_LIMIT) {
+                    // Au-delà de la plage accessible par l'API : résultat tronqué
+                    System.out.println("⚠ Plus de " + FRANCE_TRAVAIL_RANGE_LIMIT + " offres pour " + departments
+                        + ": disparitions non détectées pour cette requête");
+                    updateStatus("⚠ Plus de " + FRANCE_TRAVAIL_RANGE_LIMIT + " offres (départements " + departments
+                        + "), affinez la recherche");
+                    break;
+                }
+                int last = Math.min(first + pageSize, FRANCE_TRAVAIL_RANGE_LIMIT) - 1;
+                String url = urlBuilder + "&range=" + first + "-" + last;
+                System.out.println("🔍 URL recherche: " + url);
                 
-                // Debug: afficher la structure de la réponse
-                System.out.println("📄 Clés JSON: " + json.keySet());
+                HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .header("Accept", "application/json")
+                    .header("Authorization", "Bearer " + franceTravailAccessToken)
+                    .GET()
+                    .build();
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
                 
-                JsonArray offers = json.getAsJsonArray("resultats");
+                int statusCode = response.statusCode();
+                System.out.println("📡 Code réponse API: " + statusCode);
                 
-                if (offers != null && offers.size() > 0) {
-                    System.out.println("✓ " + offers.size() + " offres trouvées");
-                    updateStatus("✓ " + offers.size() + " offres trouvées, ajout en cours...");
-                    
-                    for (int i = 0; i < offers.size() && searchInProgress; i++) {
-                        JsonObject offer = offers.get(i).getAsJsonObject();
-                        addJobOfferToTable(offer);
-                        
-                        int progress = (i + 1) * 100 / offers.size();
-                        SwingUtilities.invokeLater(() -> progressBar.setValue(progress));
+                if (statusCode == 204) {
+                    // 204 No Content = requête réussie mais aucun (autre) résultat
+                    if (first == 0) {
+                        System.out.println("ℹ Code 204: Aucun résultat pour ces critères (c'est normal, pas une erreur)");
+                        updateStatus("ℹ Aucun résultat pour départements " + departments);
                     }
-                    
-                    System.out.println("✓ Toutes les offres ont été ajoutées");
-                } else {
-                    System.out.println("⚠ Aucune offre trouvée dans la réponse");
-                    updateStatus("⚠ Aucune offre dans ce groupe de départements");
+                    complete = true;
+                    break;
+                }
+                if (statusCode != 200 && statusCode != 206) {
+                    String errorMsg = "Erreur API France Travail: " + statusCode;
+                    System.err.println("❌ " + errorMsg);
+                    String responseBody = response.body();
+                    if (responseBody != null && !responseBody.isEmpty()) {
+                        System.err.println("📄 Réponse: " + responseBody.substring(0, Math.min(500, responseBody.length())));
+                    }
+                    throw new IOException(errorMsg + (responseBody != null ? " - Réponse: " + responseBody : ""));
                 }
-            } else if (statusCode == 204) {
-                // 204 No Content = requête réussie mais aucun résultat
-                System.out.println("ℹ Code 204: Aucun résultat pour ces critères (c'est normal, pas une erreur)");
-                updateStatus("ℹ Aucun résultat pour départements " + departments);
-                // Ne pas lancer d'exception, c'est un cas normal
-            } else if (statusCode == 206) {
-                // 206 Partial Content = résultats partiels (acceptable)
-                System.out.println("✓ Réponse partielle (code 206), parsing JSON...");
+                
+                // 200 = tout le résultat tient dans la page ; 206 = page d'un résultat plus grand
                 JsonObject json = gson.fromJson(response.body(), JsonObject.class);
                 JsonArray offers = json.getAsJsonArray("resultats");
+                int count = offers != null ? offers.size() : 0;
+                long total = statusCode == 200 ? first + count
+                    : contentRangeTotal(response.headers().firstValue("Content-Range").orElse(null));
+                System.out.println("✓ " + count + " offres reçues (" + (first + 1) + "-" + (first + count)
+                    + (total >= 0 ? " sur " + total : "") + ")");
+                updateStatus("✓ " + (first + count) + (total >= 0 ? "/" + total : "") + " offres, ajout en cours...");
                 
-                if (offers != null && offers.size() > 0) {
-                    System.out.println("✓ " + offers.size() + " offres trouvées (résultats partiels)");
-                    updateStatus("✓ " + offers.size() + " offres trouvées");
+                int processed = 0;
+                for (int i = 0; i < count && searchInProgress; i++) {
+                    JsonObject offer = offers.get(i).getAsJsonObject();
+                    addJobOfferToTable(offer);
+                    observeOffer(run, watermarkKey, offer);
+                    processed++;
                     
-                    for (int i = 0; i < offers.size() && searchInProgress; i++) {
-                        JsonObject offer = offers.get(i).getAsJsonObject();
-                        addJobOfferToTable(offer);
+                    Instant created = SyncWatermarks.parseOfferDate(
+                        offer.has("dateCreation") ? offer.get("dateCreation").getAsString() : null);
+                    if (created != null && (newest == null || created.isAfter(newest))) {
+                        newest = created;
                     }
+                    
+                    int progress = total > 0 ? (int) Math.min(100, (first + i + 1) * 100 / total) : (i + 1) * 100 / count;
+                    SwingUtilities.invokeLater(() -> progressBar.setValue(progress));
                 }
-            } else {
-                String errorMsg = "Erreur API France Travail: " + statusCode;
-                System.err.println("❌ " + errorMsg);
-                String responseBody = response.body();
-                if (responseBody != null && !responseBody.isEmpty()) {
-                    System.err.println("📄 Réponse: " + responseBody.substring(0, Math.min(500, responseBody.length())));
+                received += processed;
+                if (processed < count) break; // Recherche interrompue
+                
+                if (statusCode == 200 || count == 0 || (total >= 0 && first + count >= total)) {
+                    complete = true;
+                    break;
                 }
-                throw new IOException(errorMsg + (responseBody != null ? " - Réponse: " + responseBody : ""));
             }
         } catch (Exception e) {
             System.err.println("❌ Exception lors de la recherche: " + e.getClass().getName() + ": " + e.getMessage());
@@ -628,205 +1112,296 @@ public class CompanyJobSearcher extends JFrame {
             updateStatus("⚠ Erreur: " + e.getMessage());
             throw e;
         }
+        
+        // Toutes les pages reçues et traitées : le repère avance, les absentes ont disparu
+        if (complete) {
+            syncWatermarks.advance(watermarkKey, newest);
+            if (run != null) run.markComplete(watermarkKey);
+            System.out.println("✓ " + received + " offres ajoutées (résultat complet)");
+        } else {
+            System.out.println("✓ " + received + " offres ajoutées (résultat partiel: repère et disparitions inchangés)");
+        }
+    }
+    
+    /**
+     * Nombre total de résultats d'un en-tête Content-Range ("offres 0-149/1234"), -1 si absent
+     */
+    private static long contentRangeTotal(String contentRange) {
+        if (contentRange == null) return -1;
+        int slash = contentRange.lastIndexOf('/');
+        if (slash < 0) return -1;
+        try {
+            return Long.parseLong(contentRange.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Noter une offre reçue pour la capture des changements
+     */
+    private static void observeOffer(OfferChangeLog.Run run, String queryKey, JsonObject offer) {
+        if (run == null || !offer.has("id")) return;
+        run.observe(queryKey, offer.get("id").getAsString(),
+            offer.has("dateActualisation") ? offer.get("dateActualisation").getAsString() : null);
     }
     
     private void addJobOfferToTable(JsonObject offerJson) {
         try {
-            JobOffer offer = new JobOffer();
-            
-            // ID
-            if (offerJson.has("id")) {
-                offer.setId(offerJson.get("id").getAsString());
+            ingestJobOffer(parseJobOffer(offerJson));
+        } catch (Exception e) {
+            System.err.println("❌ Erreur parsing offre: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Construire une offre à partir de la réponse de l'API France Travail
+     */
+    private JobOffer parseJobOffer(JsonObject offerJson) {
+        JobOffer offer = new JobOffer();
+        
+        // ID
+        if (offerJson.has("id")) {
+            offer.setId(offerJson.get("id").getAsString());
+        }
+        
+        // Intitulé
+        if (offerJson.has("intitule")) {
+            offer.setIntitule(offerJson.get("intitule").getAsString());
+        }
+        
+        // Description
+        if (offerJson.has("description")) {
+            offer.setDescription(offerJson.get("description").getAsString());
+        }
+        
+        // Dates
+        if (offerJson.has("dateCreation")) {
+            offer.setDateCreation(offerJson.get("dateCreation").getAsString());
+        }
+        if (offerJson.has("dateActualisation")) {
+            offer.setDateActualisation(offerJson.get("dateActualisation").getAsString());
+        }
+        
+        // Entreprise
+        if (offerJson.has("entreprise")) {
+            JsonObject entreprise = offerJson.getAsJsonObject("entreprise");
+            if (entreprise.has("nom")) {
+                offer.setEntrepriseNom(entreprise.get("nom").getAsString());
             }
-            
-            // Intitulé
-            if (offerJson.has("intitule")) {
-                offer.setIntitule(offerJson.get("intitule").getAsString());
+            if (entreprise.has("description")) {
+                offer.setEntrepriseDescription(entreprise.get("description").getAsString());
             }
-            
-            // Description
-            if (offerJson.has("description")) {
-                offer.setDescription(offerJson.get("description").getAsString());
+            if (entreprise.has("url")) {
+                offer.setEntrepriseUrl(entreprise.get("url").getAsString());
             }
-            
-            // Dates
-            if (offerJson.has("dateCreation")) {
-                offer.setDateCreation(offerJson.get("dateCreation").getAsString());
+            if (entreprise.has("logo")) {
+                offer.setEntrepriseLogoUrl(entreprise.get("logo").getAsString());
             }
-            if (offerJson.has("dateActualisation")) {
-                offer.setDateActualisation(offerJson.get("dateActualisation").getAsString());
+        }
+        
+        // CONTACT RECRUTEUR (PRIORITÉ !) 
+        if (offerJson.has("contact")) {
+            JsonObject contact = offerJson.getAsJsonObject("contact");
+            if (contact.has("courriel")) {
+                offer.setContactEmail(contact.get("courriel").getAsString());
             }
-            
-            // Entreprise
-            if (offerJson.has("entreprise")) {
-                JsonObject entreprise = offerJson.getAsJsonObject("entreprise");
-                if (entreprise.has("nom")) {
-                    offer.setEntrepriseNom(entreprise.get("nom").getAsString());
-                }
-                if (entreprise.has("description")) {
-                    offer.setEntrepriseDescription(entreprise.get("description").getAsString());
-                }
-                if (entreprise.has("url")) {
-                    offer.setEntrepriseUrl(entreprise.get("url").getAsString());
-                }
-                if (entreprise.has("logo")) {
-                    offer.setEntrepriseLogoUrl(entreprise.get("logo").getAsString());
-                }
+            if (contact.has("nom")) {
+                offer.setContactNom(contact.get("nom").getAsString());
             }
-            
-            // CONTACT RECRUTEUR (PRIORITÉ !) 
-            if (offerJson.has("contact")) {
-                JsonObject contact = offerJson.getAsJsonObject("contact");
-                if (contact.has("courriel")) {
-                    offer.setContactEmail(contact.get("courriel").getAsString());
-                }
-                if (contact.has("nom")) {
-                    offer.setContactNom(contact.get("nom").getAsString());
-                }
-                if (contact.has("telephone")) {
-                    offer.setContactTelephone(contact.get("telephone").getAsString());
-                }
-                if (contact.has("urlPostulation")) {
-                    offer.setContactUrl(contact.get("urlPostulation").getAsString());
-                }
+            if (contact.has("telephone")) {
+                offer.setContactTelephone(contact.get("telephone").getAsString());
             }
-            
-            // Lieu de travail
-            if (offerJson.has("lieuTravail")) {
-                JsonObject lieu = offerJson.getAsJsonObject("lieuTravail");
-                if (lieu.has("libelle")) {
-                    offer.setLieuTravail(lieu.get("libelle").getAsString());
-                    
-                    // Parser ville et département
-                    String libelle = lieu.get("libelle").getAsString();
-                    if (libelle.contains(" - ")) {
-                        String[] parts = libelle.split(" - ");
-                        if (parts.length >= 1) offer.setVille(parts[0]);
-                        if (parts.length >= 2) {
-                            String deptStr = parts[1].replaceAll("[^0-9AB]", "");
-                            offer.setDepartement(deptStr);
-                            // Déterminer la région à partir du département
-                            offer.setRegion(RegionMapper.getRegionByDepartment(deptStr));
-                        }
+            if (contact.has("urlPostulation")) {
+                offer.setContactUrl(contact.get("urlPostulation").getAsString());
+            }
+        }
+        
+        // Lieu de travail
+        if (offerJson.has("lieuTravail")) {
+            JsonObject lieu = offerJson.getAsJsonObject("lieuTravail");
+            if (lieu.has("libelle")) {
+                offer.setLieuTravail(lieu.get("libelle").getAsString());
+                
+                // Parser ville et département
+                String libelle = lieu.get("libelle").getAsString();
+                if (libelle.contains(" - ")) {
+                    String[] parts = libelle.split(" - ");
+                    if (parts.length >= 1) offer.setVille(parts[0]);
+                    if (parts.length >= 2) {
+                        String deptStr = parts[1].replaceAll("[^0-9AB]", "");
+                        offer.setDepartement(deptStr);
+                        // Déterminer la région à partir du département
+                        offer.setRegion(RegionMapper.getRegionByDepartment(deptStr));
                     }
                 }
-                if (lieu.has("codePostal")) {
-                    offer.setCodePostal(lieu.get("codePostal").getAsString());
-                }
-                if (lieu.has("commune")) {
-                    offer.setVille(lieu.get("commune").getAsString());
-                }
-                if (lieu.has("latitude")) {
-                    offer.setLatitude(lieu.get("latitude").getAsDouble());
-                }
-                if (lieu.has("longitude")) {
-                    offer.setLongitude(lieu.get("longitude").getAsDouble());
-                }
             }
-            
-            // Type de contrat
-            if (offerJson.has("typeContrat")) {
-                offer.setTypeContrat(offerJson.get("typeContrat").getAsString());
+            if (lieu.has("codePostal")) {
+                offer.setCodePostal(lieu.get("codePostal").getAsString());
             }
-            if (offerJson.has("typeContratLibelle")) {
-                offer.setTypeContratLibelle(offerJson.get("typeContratLibelle").getAsString());
+            if (lieu.has("commune")) {
+                offer.setVille(lieu.get("commune").getAsString());
             }
-            
-            // Nature contrat
-            if (offerJson.has("natureContrat")) {
-                offer.setNatureContrat(offerJson.get("natureContrat").getAsString());
+            if (lieu.has("latitude")) {
+                offer.setLatitude(lieu.get("latitude").getAsDouble());
             }
-            
-            // Expérience
-            if (offerJson.has("experienceLibelle")) {
-                offer.setExperienceLibelle(offerJson.get("experienceLibelle").getAsString());
+            if (lieu.has("longitude")) {
+                offer.setLongitude(lieu.get("longitude").getAsDouble());
             }
-            if (offerJson.has("experienceExige")) {
-                offer.setExperienceExige(offerJson.get("experienceExige").getAsString());
+        }
+        
+        // Type de contrat
+        if (offerJson.has("typeContrat")) {
+            offer.setTypeContrat(offerJson.get("typeContrat").getAsString());
+        }
+        if (offerJson.has("typeContratLibelle")) {
+            offer.setTypeContratLibelle(offerJson.get("typeContratLibelle").getAsString());
+        }
+        
+        // Nature contrat
+        if (offerJson.has("natureContrat")) {
+            offer.setNatureContrat(offerJson.get("natureContrat").getAsString());
+        }
+        
+        // Expérience
+        if (offerJson.has("experienceLibelle")) {
+            offer.setExperienceLibelle(offerJson.get("experienceLibelle").getAsString());
+        }
+        if (offerJson.has("experienceExige")) {
+            offer.setExperienceExige(offerJson.get("experienceExige").getAsString());
+        }
+        
+        // Salaire
+        if (offerJson.has("salaire")) {
+            JsonObject salaire = offerJson.getAsJsonObject("salaire");
+            if (salaire.has("libelle")) {
+                offer.setSalaire(salaire.get("libelle").getAsString());
             }
-            
-            // Salaire
-            if (offerJson.has("salaire")) {
-                JsonObject salaire = offerJson.getAsJsonObject("salaire");
-                if (salaire.has("libelle")) {
-                    offer.setSalaire(salaire.get("libelle").getAsString());
+        }
+        
+        // Secteur d'activité (code NAF)
+        if (offerJson.has("secteurActivite")) {
+            offer.setSecteurActivite(offerJson.get("secteurActivite").getAsString());
+        }
+        if (offerJson.has("secteurActiviteLibelle")) {
+            offer.setSecteurActiviteLibelle(offerJson.get("secteurActiviteLibelle").getAsString());
+        }
+        
+        // Durée de travail
+        if (offerJson.has("dureeTravailLibelle")) {
+            offer.setDureeTravailLibelle(offerJson.get("dureeTravailLibelle").getAsString());
+        }
+        
+        // Compétences
+        if (offerJson.has("competences")) {
+            JsonArray competences = offerJson.getAsJsonArray("competences");
+            StringBuilder compStr = new StringBuilder();
+            for (int i = 0; i < competences.size(); i++) {
+                JsonObject comp = competences.get(i).getAsJsonObject();
+                if (comp.has("libelle")) {
+                    if (i > 0) compStr.append(", ");
+                    compStr.append(comp.get("libelle").getAsString());
                 }
             }
-            
-            // Durée de travail
-            if (offerJson.has("dureeTravailLibelle")) {
-                offer.setDureeTravailLibelle(offerJson.get("dureeTravailLibelle").getAsString());
-            }
-            
-            // Compétences
-            if (offerJson.has("competences")) {
-                JsonArray competences = offerJson.getAsJsonArray("competences");
-                StringBuilder compStr = new StringBuilder();
-                for (int i = 0; i < competences.size(); i++) {
-                    JsonObject comp = competences.get(i).getAsJsonObject();
-                    if (comp.has("libelle")) {
-                        if (i > 0) compStr.append(", ");
-                        compStr.append(comp.get("libelle").getAsString());
-                    }
-                }
-                offer.setCompetences(compStr.toString());
+            offer.setCompetences(compStr.toString());
+        }
+        
+        // URLs
+        if (offerJson.has("origineOffre")) {
+            JsonObject origine = offerJson.getAsJsonObject("origineOffre");
+            if (origine.has("urlOrigine")) {
+                offer.setUrlOrigine(origine.get("urlOrigine").getAsString());
             }
-            
-            // URLs
-            if (offerJson.has("origineOffre")) {
-                JsonObject origine = offerJson.getAsJsonObject("origineOffre");
-                if (origine.has("urlOrigine")) {
-                    offer.setUrlOrigine(origine.get("urlOrigine").getAsString());
-                }
-                if (origine.has("partenaires")) {
-                    JsonArray partenaires = origine.getAsJsonArray("partenaires");
-                    if (partenaires.size() > 0) {
-                        JsonObject partenaire = partenaires.get(0).getAsJsonObject();
-                        if (partenaire.has("url")) {
-                            offer.setUrlPostulation(partenaire.get("url").getAsString());
-                        }
+            if (origine.has("partenaires")) {
+                JsonArray partenaires = origine.getAsJsonArray("partenaires");
+                if (partenaires.size() > 0) {
+                    JsonObject partenaire = partenaires.get(0).getAsJsonObject();
+                    if (partenaire.has("url")) {
+                        offer.setUrlPostulation(partenaire.get("url").getAsString());
                     }
                 }
             }
-            
-            // Stocker l'offre complète
-            jobOffers.add(offer);
-            
-            // Préparer les données pour le tableau
-            final String entreprise = offer.getEntrepriseNom() != null ? offer.getEntrepriseNom() : "N/A";
-            final String poste = offer.getIntitule() != null ? offer.getIntitule() : "N/A";
-            final String email = offer.getContactEmail() != null ? offer.getContactEmail() : "N/A";
-            final String dept = offer.getDepartement() != null ? offer.getDepartement() : "N/A";
-            final String ville = offer.getVille() != null ? offer.getVille() : "N/A";
-            final String contrat = offer.getTypeContratLibelle() != null ? offer.getTypeContratLibelle() : "N/A";
-            final String urlOffre = offer.getUrlOrigine() != null ? offer.getUrlOrigine() : "N/A";
-            final String urlSite = offer.getEntrepriseUrl() != null ? offer.getEntrepriseUrl() : "N/A";
-            
-            System.out.println("  → " + entreprise + " | " + poste + " | 📧 " + email);
-            
-            // Extraire et stocker l'entreprise (dédupliquée)
-            extractAndStoreCompany(offer);
-            
-            // Ajouter au tableau
-            SwingUtilities.invokeLater(() -> 
-                tableModel.addRow(new Object[]{
-                    entreprise, poste, email, dept, ville, contrat, urlOffre, urlSite
-                }));
-                
-        } catch (Exception e) {
-            System.err.println("❌ Erreur parsing offre: " + e.getMessage());
-            e.printStackTrace();
         }
+        return offer;
+    }
+    
+    /**
+     * Stocker une offre (dédupliquée) et l'afficher dans le tableau
+     */
+    private void ingestJobOffer(JobOffer offer) {
+        // Stocker l'offre complète (une seule fois par id / contenu)
+        OfferStore.AddResult result = jobOffers.add(offer);
+        if (result == OfferStore.AddResult.DUPLICATE) {
+            System.out.println("  ↺ Doublon ignoré: " + offer.getId());
+            return;
+        }
+        if (seenOffers.put(offer.getId())) {
+            newOffersCount.incrementAndGet();
+        }
+        if (result == OfferStore.AddResult.VARIANT) {
+            // Republication (partenaire, agence) : pas de nouvelle ligne
+            System.out.println("  ≈ Variante regroupée: " + offer.getId());
+            return;
+        }
+        
+        // Préparer les données pour le tableau
+        final Object[] row = offerRow(offer);
+        
+        System.out.println("  → " + row[0] + " | " + row[1] + " | 📧 " + row[2]);
+        
+        // Extraire et stocker l'entreprise (dédupliquée)
+        extractAndStoreCompany(offer);
+        
+        // Ajouter au tableau
+        SwingUtilities.invokeLater(() -> tableModel.addRow(row, offer));
+    }
+    
+    /**
+     * Ligne du tableau pour une offre
+     */
+    private Object[] offerRow(JobOffer offer) {
+        final String entreprise = offer.getEntrepriseNom() != null ? offer.getEntrepriseNom() : "N/A";
+        final String poste = offer.getIntitule() != null ? offer.getIntitule() : "N/A";
+        final String email = offer.getContactEmail() != null ? offer.getContactEmail() : "N/A";
+        final String dept = offer.getDepartement() != null ? offer.getDepartement() : "N/A";
+        final String ville = offer.getVille() != null ? offer.getVille() : "N/A";
+        final String contrat = offer.getTypeContratLibelle() != null ? offer.getTypeContratLibelle() : "N/A";
+        final String urlOffre = offer.getUrlOrigine() != null ? offer.getUrlOrigine() : "N/A";
+        final String urlSite = offer.getEntrepriseUrl() != null ? offer.getEntrepriseUrl() : "N/A";
+        return new Object[]{
+            entreprise, poste, email, dept, ville, contrat, urlOffre, urlSite
+        };
     }
     
     /**
      * Extraire l'entreprise d'une offre et la stocker (dédupliquée)
      */
     private void extractAndStoreCompany(JobOffer offer) {
-        if (offer.getEntrepriseNom() == null || offer.getEntrepriseNom().equals("N/A")) {
+        Company company = companyFromOffer(offer);
+        if (company == null) {
             return; // Pas d'entreprise identifiable
         }
         
+        // Stocker ou fusionner avec l'entreprise existante (upsert atomique)
+        String key = companies.upsert(company);
+        companyOffers.record(key, offer);
+        
+        // Compter la publication dans la série de l'entreprise (fenêtres glissantes), par identité stable
+        Company stored = companies.get(key);
+        String identity = (stored != null ? stored : company).getIdentityKey();
+        hiringVelocity.record(identity, offer.getEntrepriseNom(), offer.getDepartement(),
+            offer.getId(), offer.getDateCreation());
+    }
+    
+    /**
+     * Entreprise décrite par une offre (null si l'offre n'en identifie pas)
+     */
+    private Company companyFromOffer(JobOffer offer) {
+        if (offer.getEntrepriseNom() == null || offer.getEntrepriseNom().equals("N/A")) {
+            return null;
+        }
+        
         Company company = new Company();
         company.setNom(offer.getEntrepriseNom());
         company.setSiteWeb(offer.getEntrepriseUrl());
@@ -837,32 +1412,36 @@ public class CompanyJobSearcher extends JFrame {
         company.setCodePostal(offer.getCodePostal());
         company.setDepartement(offer.getDepartement());
         company.setRegion(offer.getRegion());
+        company.setLatitude(offer.getLatitude());
+        company.setLongitude(offer.getLongitude());
+        company.setCoordonneesOffre(offer.getLatitude() != null);
         company.setSource("Offre d'emploi France Travail");
-        
-        // Clé unique pour déduplication
-        String key = company.getUniqueKey();
-        
-        // Stocker ou fusionner avec entreprise existante
-        if (companies.containsKey(key)) {
-            // Fusionner les infos (garder les non-null)
-            Company existing = companies.get(key);
-            if (company.getSiteWeb() != null && existing.getSiteWeb() == null) {
-                existing.setSiteWeb(company.getSiteWeb());
-            }
-            if (company.getEmail() != null && existing.getEmail() == null) {
-                existing.setEmail(company.getEmail());
-                existing.setEmailRH(company.getEmail());
-            }
-        } else {
-            companies.put(key, company);
-        }
+        return company;
+    }
+    
+    /**
+     * Offres rattachées à une entreprise : "3 offres (CDI 2 · CDD 1) · 2026-10-12"
+     */
+    private String companyOffersSummary(String companyKey) {
+        CompanyOfferIndex.Stats stats = companyOffers.get(companyKey);
+        if (stats == null || stats.getOpenOffers() == 0) return "Aucune offre";
+        int open = stats.getOpenOffers();
+        String latest = stats.getLatestPosting();
+        return open + (open > 1 ? " offres (" : " offre (") + stats.getContractMix() + ")"
+            + (latest != null ? " · " + latest : "");
     }
     
     private void searchITCompanies(String[] departments) throws Exception {
         updateStatus("Recherche d'entreprises du secteur informatique...");
         
-        // Codes NAF pour le secteur informatique depuis la config
-        String[] itNafCodes = config.getNafCodesIT();
+        // Secteurs depuis la config : sous-classes NAF, préfixes ("62", "63.1") ou libellés
+        String[] itNafCodes = expandNafCodes(config.getNafCodesIT());
+        
+        // Stock SIRENE importé : requête sur les index locaux, sans appel ni pagination
+        if (!sireneStore.isEmpty()) {
+            searchITCompaniesLocally(itNafCodes, departments);
+            return;
+        }
         
         for (String nafCode : itNafCodes) {
             if (!searchInProgress) break;
@@ -871,6 +1450,64 @@ public class CompanyJobSearcher extends JFrame {
         }
     }
     
+    /**
+     * Sous-classes NAF désignées par les critères de secteur, sans doublon
+     */
+    private String[] expandNafCodes(String[] criteria) {
+        Set<String> codes = new LinkedHashSet<>();
+        for (String criterion : criteria) {
+            List<String> expanded = Nomenclature.NAF.expand(criterion);
+            if (expanded.isEmpty()) {
+                System.err.println("⚠ Secteur NAF inconnu ignoré: " + criterion.trim());
+            }
+            codes.addAll(expanded);
+        }
+        return codes.toArray(new String[0]);
+    }
+    
+    /**
+     * Entreprises des codes NAF et départements demandés, depuis la base SIRENE locale
+     */
+    private void searchITCompaniesLocally(String[] nafCodes, String[] departments) throws IOException {
+        long start = System.nanoTime();
+        RowBitmap rows = sireneQuery.select(Map.of(
+            SireneQuery.NAF, java.util.Arrays.asList(nafCodes),
+            SireneQuery.DEPARTEMENT, java.util.Arrays.asList(departments),
+            SireneQuery.TRANCHE, java.util.Arrays.asList(config.getSireneTranches()),
+            SireneQuery.CATEGORIE, java.util.Arrays.asList(config.getSireneCategories())));
+        double queryMillis = (System.nanoTime() - start) / 1_000_000.0;
+        int limit = config.getMaxResultsCompanies();
+        if (rows.cardinality() > limit) {
+            System.out.println("ℹ SIRENE local: " + rows.cardinality() + " établissements trouvés, limités à "
+                + limit + " (api.max.results.companies)");
+        }
+        
+        // Mêmes fiches que addCompanyToTable, ajoutées au tableau en un seul lot
+        List<Object[]> tableRows = new ArrayList<>();
+        List<Object> rowEntities = new ArrayList<>();
+        for (Company company : sireneQuery.companies(rows, limit)) {
+            if (!searchInProgress) break;
+            if (company.getCodeNAF() != null) {
+                String libelle = Nomenclature.NAF.label(company.getCodeNAF(), company.getCodeNAF());
+                company.setLibelleNAF(libelle);
+                company.setSecteurActivite(libelle);
+            }
+            if (company.getCategorieEntreprise() != null) {
+                company.setCategorieEntreprise(Nomenclature.CATEGORIES_ENTREPRISES.label(
+                    company.getCategorieEntreprise(), company.getCategorieEntreprise()));
+            }
+            addressGeocoder.locate(company);
+            rowEntities.add(companies.upsert(company));
+            tableRows.add(companyRow(company));
+        }
+        SwingUtilities.invokeLater(() -> tableModel.addRows(tableRows, rowEntities));
+        
+        String message = String.format("🏛 SIRENE local: %d établissements (requête %.1f ms, total %d ms)",
+            tableRows.size(), queryMillis, (System.nanoTime() - start) / 1_000_000);
+        System.out.println(message);
+        updateStatus(message);
+    }
+    
     private void searchCompaniesByNAF(String nafCode, String[] departments) throws Exception {
         updateStatus(String.format("Recherche entreprises NAF %s...", nafCode));
         
@@ -934,8 +1571,9 @@ public class CompanyJobSearcher extends JFrame {
             Company company = new Company();
             company.setSource("API SIRENE");
             company.setCodeNAF(nafCode);
-            company.setLibelleNAF(getNAFDescription(nafCode));
-            company.setSecteurActivite(getNAFDescription(nafCode));
+            String libelle = Nomenclature.NAF.label(nafCode, nafCode);
+            company.setLibelleNAF(libelle);
+            company.setSecteurActivite(libelle);
             
             // SIRET
             if (etablissement.has("siret")) {
@@ -972,7 +1610,7 @@ public class CompanyJobSearcher extends JFrame {
                 // CATÉGORIE D'ENTREPRISE
                 if (ul.has("categorieEntreprise")) {
                     String categorie = ul.get("categorieEntreprise").getAsString();
-                    company.setCategorieEntreprise(getCategorieLibelle(categorie));
+                    company.setCategorieEntreprise(Nomenclature.CATEGORIES_ENTREPRISES.label(categorie, categorie));
                 }
                 
                 // Date de création
@@ -1016,27 +1654,10 @@ public class CompanyJobSearcher extends JFrame {
                 }
             }
             
-            // Stocker l'entreprise (dédupliquée)
-            String key = company.getUniqueKey();
-            if (!companies.containsKey(key)) {
-                companies.put(key, company);
-            }
-            
-            // Afficher dans le tableau (format simplifié)
-            final String nom = company.getNom() != null ? company.getNom() : "N/A";
-            final String siret = company.getSiret() != null ? company.getSiret() : "N/A";
-            final String ville = company.getVille() != null ? company.getVille() : "N/A";
-            final String dept = company.getDepartement() != null ? company.getDepartement() : "N/A";
-            final String taille = company.getTailleLibelle();
-            final String categorie = company.getCategorieEntreprise() != null ? company.getCategorieEntreprise() : "N/A";
-            final String secteur = company.getLibelleNAF();
-            
-            System.out.println("  → " + nom + " | " + ville + " | " + taille);
+            // Coordonnées depuis l'index d'adresses local
+            addressGeocoder.locate(company);
             
-            SwingUtilities.invokeLater(() -> 
-                tableModel.addRow(new Object[]{
-                    nom, siret, secteur, dept, ville, taille, categorie, "N/A" // N/A pour les liens dans ce cas
-                }));
+            ingestCompany(company);
                 
         } catch (Exception e) {
             System.err.println("❌ Erreur parsing établissement: " + e.getMessage());
@@ -1045,33 +1666,154 @@ public class CompanyJobSearcher extends JFrame {
     }
     
     /**
-     * Libellé de la catégorie d'entreprise
+     * Stocker une entreprise (dédupliquée) et l'afficher dans le tableau
      */
-    private String getCategorieLibelle(String code) {
-        return switch (code) {
-            case "PME" -> "PME (Petite et Moyenne Entreprise)";
-            case "ETI" -> "ETI (Entreprise de Taille Intermédiaire)";
-            case "GE" -> "Grande Entreprise";
-            case "MIC" -> "Micro-entreprise";
-            default -> code;
-        };
+    private void ingestCompany(Company company) {
+        // Stocker l'entreprise (dédupliquée, fusion des champs manquants)
+        final String companyKey = companies.upsert(company);
+        
+        // Afficher dans le tableau (format simplifié)
+        final Object[] row = companyRow(company);
+        
+        System.out.println("  → " + row[0] + " | " + row[4] + " | " + row[5]);
+        
+        SwingUtilities.invokeLater(() -> tableModel.addRow(row, companyKey));
     }
     
-    private String getNAFDescription(String nafCode) {
-        return switch (nafCode) {
-            case "62.01Z" -> "Programmation informatique";
-            case "62.02A" -> "Conseil systèmes informatiques";
-            case "62.02B" -> "Tierce maintenance informatique";
-            case "62.03Z" -> "Gestion installations informatiques";
-            case "62.09Z" -> "Autres activités informatiques";
-            case "63.11Z" -> "Traitement de données";
-            case "63.12Z" -> "Portails Internet";
-            default -> "Informatique";
+    /**
+     * Ligne du tableau pour une entreprise
+     */
+    private Object[] companyRow(Company company) {
+        final String nom = company.getNom() != null ? company.getNom() : "N/A";
+        final String siret = company.getSiret() != null ? company.getSiret() : "N/A";
+        final String ville = company.getVille() != null ? company.getVille() : "N/A";
+        final String dept = company.getDepartement() != null ? company.getDepartement() : "N/A";
+        final String taille = company.getTailleLibelle();
+        final String categorie = company.getCategorieEntreprise() != null ? company.getCategorieEntreprise() : "N/A";
+        final String secteur = company.getLibelleNAF();
+        return new Object[]{
+            nom, siret, secteur, dept, ville, taille, categorie, "N/A" // N/A pour les liens dans ce cas
         };
     }
     
+    /**
+     * Importer un export CSV/JSON précédent dans la session (ajout aux résultats courants)
+     */
+    private void importExportFile() {
+        if (searchInProgress) return;
+        
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Importer un export (CSV ou JSON)");
+        fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Exports CSV / JSON", "csv", "json"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        
+        java.io.File file = fileChooser.getSelectedFile();
+        updateStatus("Import de " + file.getName() + "...");
+        CompletableFuture.runAsync(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                ExportImporter.ImportResult result = ExportImporter.importFile(file, config.getCsvSeparator());
+                long parsed = System.currentTimeMillis() - start;
+                
+                // Ingestion en bloc : mêmes règles de dédoublonnage, un seul ajout au tableau
+                List<Object[]> rows = new ArrayList<>();
+                List<Object> rowEntities = new ArrayList<>();
+                for (JobOffer offer : result.offers) {
+                    OfferStore.AddResult added = jobOffers.add(offer);
+                    if (added == OfferStore.AddResult.DUPLICATE) continue;
+                    seenOffers.put(offer.getId());
+                    if (added == OfferStore.AddResult.VARIANT) continue;
+                    extractAndStoreCompany(offer);
+                    rows.add(offerRow(offer));
+                    rowEntities.add(offer);
+                }
+                for (Company company : result.companies) {
+                    addressGeocoder.locate(company);
+                    rowEntities.add(companies.upsert(company));
+                    rows.add(companyRow(company));
+                }
+                
+                int read = result.offers.size() + result.companies.size();
+                SwingUtilities.invokeLater(() -> {
+                    tableModel.addRows(rows, rowEntities);
+                    String message = "📥 " + file.getName() + " (" + result.format + "): " + read + " lus, "
+                        + rows.size() + " ajoutés (lecture " + parsed + " ms, total "
+                        + (System.currentTimeMillis() - start) + " ms)";
+                    System.out.println(message);
+                    updateStatus(message);
+                });
+            } catch (IOException e) {
+                System.err.println("❌ Import impossible: " + e.getMessage());
+                updateStatus("✗ Import impossible: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Importer des fichiers de la Base Adresse Nationale dans l'index de géocodage local
+     */
+    private void importAddressBase() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Importer la Base Adresse Nationale (adresses-XX.csv.gz)");
+        fileChooser.setMultiSelectionEnabled(true);
+        fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Fichiers BAN (CSV, CSV.GZ)", "csv", "gz"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        
+        java.io.File[] files = fileChooser.getSelectedFiles();
+        CompletableFuture.runAsync(() -> {
+            long start = System.currentTimeMillis();
+            int total = 0;
+            for (java.io.File file : files) {
+                updateStatus("Import des adresses de " + file.getName() + "...");
+                try {
+                    int count = addressGeocoder.importCsv(file);
+                    total += count;
+                    System.out.println("📍 " + file.getName() + ": " + count + " adresses");
+                } catch (IOException e) {
+                    System.err.println("❌ Import des adresses impossible (" + file.getName() + "): " + e.getMessage());
+                    updateStatus("✗ Import des adresses impossible: " + e.getMessage());
+                    return;
+                }
+            }
+            String message = "📍 Base Adresse Nationale: " + total + " adresses importées ("
+                + (System.currentTimeMillis() - start) + " ms)";
+            System.out.println(message);
+            updateStatus(message);
+        });
+    }
+    
+    /**
+     * Importer (ou mettre à jour) les fichiers stock SIRENE de l'INSEE dans la base locale
+     */
+    private void importSireneStock() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Importer le stock SIRENE (StockEtablissement_utf8.csv, StockUniteLegale_utf8.csv)");
+        fileChooser.setMultiSelectionEnabled(true);
+        fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Stock SIRENE (CSV)", "csv"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        
+        java.io.File[] files = fileChooser.getSelectedFiles();
+        CompletableFuture.runAsync(() -> {
+            for (java.io.File file : files) {
+                updateStatus("Import SIRENE de " + file.getName() + "...");
+                try {
+                    SireneImporter.Result result = SireneImporter.importFile(sireneStore, file);
+                    String message = "🏛 SIRENE " + result;
+                    System.out.println(message);
+                    updateStatus(message);
+                } catch (IOException e) {
+                    System.err.println("❌ Import SIRENE impossible (" + file.getName() + "): " + e.getMessage());
+                    updateStatus("✗ Import SIRENE impossible: " + e.getMessage());
+                    return;
+                }
+            }
+        });
+    }
+    
     private void exportToCSV() {
-        if (jobOffers.isEmpty()) {
+        // Vue figée : la recherche peut continuer pendant l'export
+        List<JobOffer> offers = jobOffers.snapshot();
+        if (offers.isEmpty()) {
             JOptionPane.showMessageDialog(this,
                 "Aucune offre à exporter. Lancez d'abord une recherche.",
                 "Information", JOptionPane.INFORMATION_MESSAGE);
@@ -1087,7 +1829,7 @@ public class CompanyJobSearcher extends JFrame {
                     fileChooser.getSelectedFile(), 
                     java.nio.charset.Charset.forName("UTF-8"))) {
                 
-                String sep = ";";
+                String sep = String.valueOf(config.getCsvSeparator());
                 
                 // En-têtes détaillés
                 writer.println(String.join(sep,
@@ -1117,11 +1859,12 @@ public class CompanyJobSearcher extends JFrame {
                     "Compétences",
                     "🔗 URL Offre",
                     "🔗 URL Postulation",
-                    "Source"
+                    "Source",
+                    "Variantes (ids)"
                 ));
                 
                 // Données
-                for (JobOffer offer : jobOffers) {
+                for (JobOffer offer : offers) {
                     writer.println(String.join(sep,
                         csvEscape(offer.getId()),
                         csvEscape(offer.getIntitule()),
@@ -1149,12 +1892,64 @@ public class CompanyJobSearcher extends JFrame {
                         csvEscape(offer.getCompetences()),
                         csvEscape(offer.getUrlOrigine()),
                         csvEscape(offer.getUrlPostulation()),
-                        csvEscape(offer.getSource())
+                        csvEscape(offer.getSource()),
+                        csvEscape(variantIds(offer))
                     ));
                 }
                 
                 JOptionPane.showMessageDialog(this,
-                    "Export réussi: " + jobOffers.size() + " offres exportées\n" +
+                    "Export réussi: " + offers.size() + " offres exportées\n" +
+                    "Fichier: " + fileChooser.getSelectedFile().getName(),
+                    "Succès", JOptionPane.INFORMATION_MESSAGE);
+                    
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(this,
+                    "Erreur lors de l'export CSV:\n" + e.getMessage(),
+                    "Erreur", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+    
+    /**
+     * Exporter les lignes visibles du tableau, dans l'ordre affiché (lecture des colonnes)
+     */
+    private void exportTableView() {
+        int rowCount = resultTable.getRowCount();
+        if (rowCount == 0) {
+            JOptionPane.showMessageDialog(this,
+                "Aucune ligne à exporter.",
+                "Information", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Exporter la vue en CSV");
+        fileChooser.setSelectedFile(new java.io.File("vue_resultats.csv"));
+        
+        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            try (java.io.PrintWriter writer = new java.io.PrintWriter(
+                    fileChooser.getSelectedFile(),
+                    java.nio.charset.Charset.forName("UTF-8"))) {
+                
+                String sep = String.valueOf(config.getCsvSeparator());
+                List<String> values = new ArrayList<>(tableModel.getColumnCount());
+                for (int column = 0; column < tableModel.getColumnCount(); column++) {
+                    values.add(csvEscape(tableModel.getColumnName(column)));
+                }
+                writer.println(String.join(sep, values));
+                
+                for (int view = 0; view < rowCount; view++) {
+                    int row = resultTable.convertRowIndexToModel(view);
+                    values.clear();
+                    for (int column = 0; column < tableModel.getColumnCount(); column++) {
+                        Object value = tableModel.getValueAt(row, column);
+                        values.add(csvEscape(value != null ? value.toString() : null));
+                    }
+                    writer.println(String.join(sep, values));
+                }
+                
+                JOptionPane.showMessageDialog(this,
+                    "Export réussi: " + rowCount + " lignes exportées\n" +
                     "Fichier: " + fileChooser.getSelectedFile().getName(),
                     "Succès", JOptionPane.INFORMATION_MESSAGE);
                     
@@ -1166,17 +1961,28 @@ public class CompanyJobSearcher extends JFrame {
         }
     }
     
+    private String variantIds(JobOffer offer) {
+        List<JobOffer> variants = jobOffers.getVariants(offer.getId());
+        if (variants.isEmpty()) return null;
+        List<String> ids = new ArrayList<>(variants.size());
+        for (JobOffer variant : variants) {
+            ids.add(variant.getId());
+        }
+        return String.join(",", ids);
+    }
+    
     private String csvEscape(String value) {
         if (value == null) return "";
         // Échapper les guillemets et entourer de guillemets si nécessaire
-        if (value.contains(";") || value.contains("\"") || value.contains("\n")) {
+        if (value.indexOf(config.getCsvSeparator()) >= 0 || value.contains("\"") || value.contains("\n")) {
             return "\"" + value.replace("\"", "\"\"") + "\"";
         }
         return value;
     }
     
     private void exportToJSON() {
-        if (jobOffers.isEmpty()) {
+        List<JobOffer> offers = jobOffers.snapshot();
+        if (offers.isEmpty()) {
             JOptionPane.showMessageDialog(this,
                 "Aucune offre à exporter. Lancez d'abord une recherche.",
                 "Information", JOptionPane.INFORMATION_MESSAGE);
@@ -1191,11 +1997,11 @@ public class CompanyJobSearcher extends JFrame {
             try (java.io.FileWriter writer = new java.io.FileWriter(fileChooser.getSelectedFile())) {
                 
                 Gson gsonPretty = new GsonBuilder().setPrettyPrinting().create();
-                String json = gsonPretty.toJson(jobOffers);
+                String json = gsonPretty.toJson(offers, new com.google.gson.reflect.TypeToken<List<JobOffer>>(){}.getType());
                 writer.write(json);
                 
                 JOptionPane.showMessageDialog(this,
-                    "Export réussi: " + jobOffers.size() + " offres exportées\n" +
+                    "Export réussi: " + offers.size() + " offres exportées\n" +
                     "Fichier: " + fileChooser.getSelectedFile().getName(),
                     "Succès", JOptionPane.INFORMATION_MESSAGE);
                     
@@ -1211,7 +2017,8 @@ public class CompanyJobSearcher extends JFrame {
      * Exporter uniquement les entreprises (dédupliquées) avec taille, CA, site web et contact RH
      */
     private void exportCompanies() {
-        if (companies.isEmpty()) {
+        Map<String, Company> snapshot = companies.entries();
+        if (snapshot.isEmpty()) {
             JOptionPane.showMessageDialog(this,
                 "Aucune entreprise à exporter. Lancez d'abord une recherche.",
                 "Information", JOptionPane.INFORMATION_MESSAGE);
@@ -1221,7 +2028,7 @@ public class CompanyJobSearcher extends JFrame {
         // Demander le format d'export
         String[] options = {"CSV", "JSON", "Les deux"};
         int choice = JOptionPane.showOptionDialog(this,
-            companies.size() + " entreprises uniques trouvées.\nChoisissez le format d'export:",
+            snapshot.size() + " entreprises uniques trouvées.\nChoisissez le format d'export:",
             "Export Entreprises",
             JOptionPane.DEFAULT_OPTION,
             JOptionPane.QUESTION_MESSAGE,
@@ -1235,11 +2042,18 @@ public class CompanyJobSearcher extends JFrame {
         boolean exportJson = (choice == 1 || choice == 2);
         
         try {
+            // Les deux formats exportent le même instantané (clés conservées pour la jointure des offres)
+            List<Map.Entry<String, Company>> sortedCompanies = new ArrayList<>(snapshot.entrySet());
+            sortedCompanies.sort((e1, e2) -> {
+                String n1 = e1.getValue().getNom() != null ? e1.getValue().getNom() : "";
+                String n2 = e2.getValue().getNom() != null ? e2.getValue().getNom() : "";
+                return n1.compareToIgnoreCase(n2);
+            });
             if (exportCsv) {
-                exportCompaniesToCSV();
+                exportCompaniesToCSV(sortedCompanies);
             }
             if (exportJson) {
-                exportCompaniesToJSON();
+                exportCompaniesToJSON(sortedCompanies);
             }
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this,
@@ -1251,7 +2065,7 @@ public class CompanyJobSearcher extends JFrame {
     /**
      * Exporter les entreprises en CSV
      */
-    private void exportCompaniesToCSV() {
+    private void exportCompaniesToCSV(List<Map.Entry<String, Company>> sortedCompanies) {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Exporter entreprises en CSV");
         fileChooser.setSelectedFile(new java.io.File("entreprises.csv"));
@@ -1261,22 +2075,23 @@ public class CompanyJobSearcher extends JFrame {
                     fileChooser.getSelectedFile(), 
                     java.nio.charset.Charset.forName("UTF-8"))) {
                 
-                String sep = ";";
+                String sep = String.valueOf(config.getCsvSeparator());
                 
                 // En-têtes
-                writer.println(Company.getCsvHeaders(sep));
+                writer.println(Company.getCsvHeaders(sep) + sep + "Offres ouvertes" + sep + "Contrats"
+                    + sep + "Dernière publication");
                 
-                // Données (triées par nom)
-                companies.values().stream()
-                    .sorted((c1, c2) -> {
-                        String n1 = c1.getNom() != null ? c1.getNom() : "";
-                        String n2 = c2.getNom() != null ? c2.getNom() : "";
-                        return n1.compareToIgnoreCase(n2);
-                    })
-                    .forEach(company -> writer.println(company.toCsvLine(sep)));
+                // Données (triées par nom), suivies des offres rattachées
+                for (Map.Entry<String, Company> entry : sortedCompanies) {
+                    CompanyOfferIndex.Stats stats = companyOffers.get(entry.getKey());
+                    writer.println(entry.getValue().toCsvLine(sep) + sep
+                        + (stats != null ? stats.getOpenOffers() : 0) + sep
+                        + (stats != null ? stats.getContractMix() : "") + sep
+                        + (stats != null && stats.getLatestPosting() != null ? stats.getLatestPosting() : ""));
+                }
                 
                 JOptionPane.showMessageDialog(this,
-                    "Export CSV réussi: " + companies.size() + " entreprises exportées\n" +
+                    "Export CSV réussi: " + sortedCompanies.size() + " entreprises exportées\n" +
                     "Fichier: " + fileChooser.getSelectedFile().getName(),
                     "Succès", JOptionPane.INFORMATION_MESSAGE);
                     
@@ -1291,7 +2106,7 @@ public class CompanyJobSearcher extends JFrame {
     /**
      * Exporter les entreprises en JSON
      */
-    private void exportCompaniesToJSON() {
+    private void exportCompaniesToJSON(List<Map.Entry<String, Company>> sortedCompanies) {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Exporter entreprises en JSON");
         fileChooser.setSelectedFile(new java.io.File("entreprises.json"));
@@ -1299,20 +2114,24 @@ public class CompanyJobSearcher extends JFrame {
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
             try (java.io.FileWriter writer = new java.io.FileWriter(fileChooser.getSelectedFile())) {
                 
-                // Trier par nom
-                List<Company> sortedCompanies = new ArrayList<>(companies.values());
-                sortedCompanies.sort((c1, c2) -> {
-                    String n1 = c1.getNom() != null ? c1.getNom() : "";
-                    String n2 = c2.getNom() != null ? c2.getNom() : "";
-                    return n1.compareToIgnoreCase(n2);
-                });
-                
                 Gson gsonPretty = new GsonBuilder().setPrettyPrinting().create();
-                String json = gsonPretty.toJson(sortedCompanies);
+                JsonArray array = new JsonArray();
+                for (Map.Entry<String, Company> entry : sortedCompanies) {
+                    JsonObject object = gsonPretty.toJsonTree(entry.getValue()).getAsJsonObject();
+                    object.addProperty("chiffreAffaires", entry.getValue().getChiffreAffaires());
+                    CompanyOfferIndex.Stats stats = companyOffers.get(entry.getKey());
+                    object.addProperty("offresOuvertes", stats != null ? stats.getOpenOffers() : 0);
+                    if (stats != null) {
+                        object.addProperty("contrats", stats.getContractMix());
+                        object.addProperty("dernierePublication", stats.getLatestPosting());
+                    }
+                    array.add(object);
+                }
+                String json = gsonPretty.toJson(array);
                 writer.write(json);
                 
                 JOptionPane.showMessageDialog(this,
-                    "Export JSON réussi: " + companies.size() + " entreprises exportées\n" +
+                    "Export JSON réussi: " + sortedCompanies.size() + " entreprises exportées\n" +
                     "Fichier: " + fileChooser.getSelectedFile().getName(),
                     "Succès", JOptionPane.INFORMATION_MESSAGE);
                     
@@ -1324,11 +2143,195 @@ public class CompanyJobSearcher extends JFrame {
         }
     }
     
+    /**
+     * Afficher les changements d'offres sur une période (journal des synchronisations)
+     */
+    private void showChangesDialog() {
+        if (changeLog == null) {
+            JOptionPane.showMessageDialog(this, "Journal des changements indisponible.",
+                "Information", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        
+        JDialog dialog = new JDialog(this, "Changements entre synchronisations", false);
+        dialog.setLayout(new BorderLayout(5, 5));
+        
+        JComboBox<String> periodCombo = new JComboBox<>(new String[]{
+            "Dernière synchronisation", "24 dernières heures", "7 derniers jours", "30 derniers jours"
+        });
+        JLabel summaryLabel = new JLabel(" ");
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.add(new JLabel("Période:"));
+        top.add(periodCombo);
+        top.add(summaryLabel);
+        dialog.add(top, BorderLayout.NORTH);
+        
+        ResultTableModel model = new ResultTableModel(new String[]{
+            "Date", "Changement", "ID Offre", "Intitulé", "Entreprise", "Ville", "Actualisée le"
+        });
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        dialog.add(new JScrollPane(table), BorderLayout.CENTER);
+        
+        // Date au format année-mois-jour : le tri de la colonne suit l'ordre chronologique
+        java.text.SimpleDateFormat format = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm");
+        Runnable refresh = () -> {
+            long start = System.nanoTime();
+            int period = periodCombo.getSelectedIndex();
+            long day = 24L * 60 * 60 * 1000;
+            List<OfferChangeLog.Change> changes = switch (period) {
+                case 0 -> changeLog.lastRunChanges();
+                case 1 -> changeLog.changesSince(System.currentTimeMillis() - day);
+                case 2 -> changeLog.changesSince(System.currentTimeMillis() - 7 * day);
+                default -> changeLog.changesSince(System.currentTimeMillis() - 30 * day);
+            };
+            double elapsed = (System.nanoTime() - start) / 1_000_000.0;
+            
+            // Détails lus dans la base locale si elle est chargée
+            LocalStore store = localStore.getNow(null);
+            List<Object[]> rows = new ArrayList<>(changes.size());
+            for (OfferChangeLog.Change change : changes) {
+                JobOffer offer = store != null ? store.getOffer(change.offerId) : null;
+                rows.add(new Object[]{
+                    format.format(new java.util.Date(change.runTime)),
+                    change.type.getLibelle(),
+                    change.offerId,
+                    offer != null && offer.getIntitule() != null ? offer.getIntitule() : "N/A",
+                    offer != null && offer.getEntrepriseNom() != null ? offer.getEntrepriseNom() : "N/A",
+                    offer != null && offer.getVille() != null ? offer.getVille() : "N/A",
+                    change.dateActualisation != null ? change.dateActualisation : ""
+                });
+            }
+            model.clear();
+            model.addRows(rows, null);
+            
+            OfferChangeLog.Summary summary = OfferChangeLog.summarize(changes);
+            summaryLabel.setText("+" + summary.added + " nouvelles, " + summary.updated + " actualisées, "
+                + summary.removed + " retirées (" + String.format("%.1f", elapsed) + " ms)");
+        };
+        periodCombo.addActionListener(e -> refresh.run());
+        refresh.run();
+        
+        dialog.setSize(1000, 500);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+    
+    /**
+     * Classement des entreprises par nombre d'offres publiées récemment
+     */
+    private void showHiringVelocityDialog() {
+        JDialog dialog = new JDialog(this, "Dynamique de recrutement", false);
+        dialog.setLayout(new BorderLayout(5, 5));
+        
+        JComboBox<String> windowCombo = new JComboBox<>(new String[]{
+            "7 derniers jours", "30 derniers jours", "90 derniers jours"
+        });
+        windowCombo.setSelectedIndex(1);
+        JTextField deptField = new JTextField(4);
+        deptField.setToolTipText("Code département (vide = tous)");
+        JLabel summaryLabel = new JLabel(" ");
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.add(new JLabel("Fenêtre:"));
+        top.add(windowCombo);
+        top.add(new JLabel("Département:"));
+        top.add(deptField);
+        top.add(summaryLabel);
+        dialog.add(top, BorderLayout.NORTH);
+        
+        ResultTableModel model = new ResultTableModel(new String[]{
+            "Entreprise", "Département", "7 jours", "30 jours", "90 jours", "Tendance"
+        });
+        model.setNumericColumns(2, 3, 4);
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        dialog.add(new JScrollPane(table), BorderLayout.CENTER);
+        
+        int[] windows = {7, 30, 90};
+        Runnable refresh = () -> {
+            long start = System.nanoTime();
+            String dept = deptField.getText().trim();
+            List<HiringVelocity.Series> ranking = hiringVelocity.ranking(
+                windows[windowCombo.getSelectedIndex()], dept.isEmpty() ? null : dept, 500);
+            double elapsed = (System.nanoTime() - start) / 1_000_000.0;
+            
+            List<Object[]> rows = new ArrayList<>(ranking.size());
+            List<Object> keys = new ArrayList<>(ranking.size());
+            for (HiringVelocity.Series series : ranking) {
+                double trend = series.trend();
+                rows.add(new Object[]{
+                    series.getCompanyName() != null ? series.getCompanyName() : series.companyKey,
+                    series.departement,
+                    series.last7Days(),
+                    series.last30Days(),
+                    series.last90Days(),
+                    trend > 1.2 ? "↗ " + String.format("%.1f", trend)
+                        : trend < 0.8 ? "↘ " + String.format("%.1f", trend)
+                        : "→ " + String.format("%.1f", trend)
+                });
+                keys.add(series.companyKey);
+            }
+            model.clear();
+            model.addRows(rows, keys);
+            summaryLabel.setText(ranking.size() + " entreprises sur " + hiringVelocity.seriesCount()
+                + " séries (" + String.format("%.1f", elapsed) + " ms)");
+        };
+        windowCombo.addActionListener(e -> refresh.run());
+        deptField.addActionListener(e -> refresh.run());
+        refresh.run();
+        
+        dialog.setSize(900, 500);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+    
+    /**
+     * Carte de densité des offres / entreprises, mise à jour pendant la recherche
+     */
+    private void showDensityMapDialog() {
+        JDialog dialog = new JDialog(this, "Carte des offres", false);
+        dialog.setLayout(new BorderLayout(5, 5));
+        
+        DensityMapPanel mapPanel = new DensityMapPanel(tilePyramid);
+        JComboBox<String> layerCombo = new JComboBox<>(new String[]{"Offres", "Entreprises"});
+        layerCombo.addActionListener(e -> mapPanel.setLayer(layerCombo.getSelectedIndex() == 0
+            ? TilePyramid.LAYER_OFFERS : TilePyramid.LAYER_COMPANIES));
+        JLabel summaryLabel = new JLabel(" ");
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.add(new JLabel("Afficher:"));
+        top.add(layerCombo);
+        top.add(summaryLabel);
+        dialog.add(top, BorderLayout.NORTH);
+        dialog.add(mapPanel, BorderLayout.CENTER);
+        
+        // Nouveau rendu seulement si la pyramide a changé
+        int[] shownVersion = {-1};
+        Timer refreshTimer = new Timer(500, e -> {
+            if (tilePyramid.version() != shownVersion[0]) {
+                shownVersion[0] = tilePyramid.version();
+                mapPanel.repaint();
+            }
+            summaryLabel.setText(mapPanel.getStatus());
+        });
+        refreshTimer.start();
+        dialog.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                refreshTimer.stop();
+            }
+        });
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        
+        dialog.pack();
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+    
     /**
      * Ouvrir la fenêtre de recherche avancée Pappers
      */
     private void openPappersSearchWindow() {
-        PappersSearchWindow pappersWindow = new PappersSearchWindow(config);
+        PappersSearchWindow pappersWindow = new PappersSearchWindow(config, addressGeocoder);
         pappersWindow.setVisible(true);
     }
     
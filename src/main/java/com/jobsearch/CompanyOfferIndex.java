@@ -0,0 +1,160 @@
+package com.jobsearch;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index de jointure entreprise -> offres.
+ *
+ * Tenu à jour à chaque rattachement d'une offre à son entreprise (clé du
+ * CompanyRegistry) et à chaque retrait d'offre constaté par la
+ * synchronisation : nombre d'offres ouvertes, répartition par contrat et
+ * date de la dernière publication sont lus en O(1) par l'affichage et les
+ * exports, sans reparcourir les offres.
+ *
+ * Thread-safe : alimenté par les tâches de recherche, lu depuis l'EDT.
+ */
+public class CompanyOfferIndex {
+
+    /**
+     * Offres d'une entreprise
+     */
+    public static final class Stats {
+        private final Set<String> openOffers = new LinkedHashSet<>();
+        private final Map<String, Integer> contrats = new HashMap<>();
+        private String latestPosting;
+
+        private synchronized void add(String offerId, String contrat, String dateCreation) {
+            if (openOffers.add(offerId)) {
+                contrats.merge(contrat != null ? contrat : "?", 1, Integer::sum);
+            }
+            if (dateCreation != null && (latestPosting == null || dateCreation.compareTo(latestPosting) > 0)) {
+                latestPosting = dateCreation;
+            }
+        }
+
+        private synchronized void close(String offerId, String contrat) {
+            if (openOffers.remove(offerId)) {
+                contrats.computeIfPresent(contrat != null ? contrat : "?", (k, n) -> n > 1 ? n - 1 : null);
+            }
+        }
+
+        private synchronized boolean isOpen(String offerId) {
+            return openOffers.contains(offerId);
+        }
+
+        public synchronized int getOpenOffers() {
+            return openOffers.size();
+        }
+
+        public synchronized List<String> getOpenOfferIds() {
+            return List.copyOf(openOffers);
+        }
+
+        /**
+         * Répartition des offres ouvertes par contrat, la plus fréquente d'abord ("CDI 3 · CDD 1")
+         */
+        public synchronized String getContractMix() {
+            List<Map.Entry<String, Integer>> entries = new ArrayList<>(contrats.entrySet());
+            entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+            StringJoiner joiner = new StringJoiner(" · ");
+            for (Map.Entry<String, Integer> entry : entries) {
+                joiner.add(entry.getKey() + " " + entry.getValue());
+            }
+            return joiner.toString();
+        }
+
+        /**
+         * Date (yyyy-MM-dd) de l'offre la plus récente rattachée, null si inconnue
+         */
+        public synchronized String getLatestPosting() {
+            return latestPosting != null && latestPosting.length() >= 10 ? latestPosting.substring(0, 10) : latestPosting;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Stats> byCompany = new ConcurrentHashMap<>();
+    // Offre -> { clé d'entreprise, contrat } (retrait et rattachement unique)
+    private final ConcurrentHashMap<String, String[]> byOffer = new ConcurrentHashMap<>();
+
+    /**
+     * Rattacher une offre à une entreprise (une seule fois par offre) ;
+     * une offre retirée qui réapparaît redevient ouverte
+     */
+    public void record(String companyKey, JobOffer offer) {
+        if (companyKey == null || offer.getId() == null) return;
+        String contrat = offer.getTypeContrat() != null ? offer.getTypeContrat() : offer.getTypeContratLibelle();
+        String[] link = byOffer.putIfAbsent(offer.getId(), new String[]{companyKey, contrat});
+        if (link == null) link = byOffer.get(offer.getId());
+        byCompany.computeIfAbsent(link[0], k -> new Stats()).add(offer.getId(), link[1], offer.getDateCreation());
+    }
+
+    /**
+     * Reconstruire l'index d'une session : rattachements sauvegardés, sans
+     * résolution des entreprises
+     */
+    public void restore(List<JobOffer> offers, Map<String, String> offerCompanies, Set<String> closedOffers) {
+        clear();
+        for (JobOffer offer : offers) {
+            String companyKey = offer.getId() != null ? offerCompanies.get(offer.getId()) : null;
+            if (companyKey == null) continue;
+            record(companyKey, offer);
+            if (closedOffers.contains(offer.getId())) close(offer.getId());
+        }
+    }
+
+    /**
+     * Rattachements (offre -> clé d'entreprise), pour la sauvegarde de session
+     */
+    public Map<String, String> links() {
+        Map<String, String> links = new HashMap<>(byOffer.size() * 2);
+        byOffer.forEach((offerId, link) -> links.put(offerId, link[0]));
+        return links;
+    }
+
+    /**
+     * Offres rattachées qui ne sont plus ouvertes
+     */
+    public Set<String> closedOffers() {
+        Set<String> closed = new HashSet<>();
+        byOffer.forEach((offerId, link) -> {
+            Stats stats = byCompany.get(link[0]);
+            if (stats == null || !stats.isOpen(offerId)) closed.add(offerId);
+        });
+        return closed;
+    }
+
+    /**
+     * Offre retirée de la source : elle ne compte plus parmi les offres ouvertes
+     */
+    public void close(String offerId) {
+        String[] link = byOffer.get(offerId);
+        if (link == null) return;
+        Stats stats = byCompany.get(link[0]);
+        if (stats != null) stats.close(offerId, link[1]);
+    }
+
+    /**
+     * Offres d'une entreprise (null si aucune offre rattachée)
+     */
+    public Stats get(String companyKey) {
+        return companyKey != null ? byCompany.get(companyKey) : null;
+    }
+
+    /**
+     * Entreprise d'une offre (null si non rattachée)
+     */
+    public String companyOf(String offerId) {
+        String[] link = byOffer.get(offerId);
+        return link != null ? link[0] : null;
+    }
+
+    public int companyCount() {
+        return byCompany.size();
+    }
+
+    public void clear() {
+        byCompany.clear();
+        byOffer.clear();
+    }
+}
@@ -0,0 +1,121 @@
+package com.jobsearch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre thread-safe des entreprises dédupliquées.
+ *
+ * Alimenté en parallèle par les tâches de recherche (offres, SIRENE, Pappers),
+ * vidé depuis l'EDT et parcouru par les exports. Chaque insertion est un
+ * upsert atomique (ConcurrentHashMap.compute) : pas de double lookup
+ * containsKey/get/put, pas de mise à jour perdue.
+ *
+ * Les fiches stockées ne sont jamais modifiées en place : une fusion produit
+ * une nouvelle fiche (copie sur écriture), ce qui permet aux exports de lire
+ * un instantané cohérent pendant que l'ingestion continue.
+ *
+ * La clé de stockage est fournie par le CompanyResolver : les variantes d'une
+ * même entreprise (nom, forme juridique, domaine web/email) sont fusionnées.
+ */
+public class CompanyRegistry {
+
+    private final ConcurrentHashMap<String, Company> companies = new ConcurrentHashMap<>();
+    private final CompanyResolver resolver = new CompanyResolver();
+
+    // Reconstruction de l'index du resolver après une restauration (attendue par upsert)
+    private volatile CompletableFuture<Void> pendingRestore = CompletableFuture.completedFuture(null);
+
+    /**
+     * Insérer ou fusionner une entreprise, retourne la clé de l'entrée stockée
+     */
+    public String upsert(Company company) {
+        pendingRestore.join();
+        // Clé canonique résolue une seule fois par insertion
+        String key = resolver.resolve(company);
+        companies.compute(key, (k, existing) -> {
+            if (existing == null) {
+                return company;
+            }
+            Company merged = existing.copy();
+            merged.mergeFrom(company);
+            return merged;
+        });
+        return key;
+    }
+
+    /**
+     * Remplacer le contenu par des entrées sauvegardées (clé -> fiche), sans re-résolution.
+     * Les fiches sont visibles immédiatement ; l'index du resolver est reconstruit en arrière-plan.
+     */
+    public void restore(Map<String, Company> entries) {
+        clear();
+        companies.putAll(entries);
+        pendingRestore = resolver.restore(entries);
+    }
+
+    /**
+     * Obtenir une entreprise par sa clé unique
+     */
+    public Company get(String key) {
+        return companies.get(key);
+    }
+
+    public int size() {
+        return companies.size();
+    }
+
+    public boolean isEmpty() {
+        return companies.isEmpty();
+    }
+
+    public void clear() {
+        companies.clear();
+        resolver.clear();
+    }
+
+    /**
+     * Vue des entreprises (itération faiblement cohérente, sans ConcurrentModificationException)
+     */
+    public Collection<Company> values() {
+        return companies.values();
+    }
+
+    /**
+     * Instantané immuable des entrées (clé -> fiche) à cet instant
+     */
+    public Map<String, Company> entries() {
+        return Map.copyOf(companies);
+    }
+
+    /**
+     * Instantané immuable des entreprises à cet instant
+     */
+    public List<Company> snapshot() {
+        return List.copyOf(companies.values());
+    }
+
+    /**
+     * Instantané trié par nom (pour les exports)
+     */
+    public List<Company> sortedByName() {
+        return sortByName(snapshot());
+    }
+
+    /**
+     * Trier une liste d'entreprises par nom (copie)
+     */
+    public static List<Company> sortByName(List<Company> source) {
+        List<Company> sorted = new ArrayList<>(source);
+        sorted.sort((c1, c2) -> {
+            String n1 = c1.getNom() != null ? c1.getNom() : "";
+            String n2 = c2.getNom() != null ? c2.getNom() : "";
+            return n1.compareToIgnoreCase(n2);
+        });
+        return sorted;
+    }
+}
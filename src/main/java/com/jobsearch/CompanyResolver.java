@@ -0,0 +1,443 @@
+package com.jobsearch;
+
+import java.net.URI;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Résolution d'entités entreprises : rattache les fiches issues des offres,
+ * de SIRENE et de Pappers à une même entreprise malgré les variantes de nom
+ * ("ACME SAS", "Acme", "ACME Paris").
+ *
+ * Pour éviter les comparaisons O(n²), chaque entité est indexée par blocs
+ * (SIREN, domaine du site, domaine email, clé phonétique du nom, min-hash des
+ * trigrammes du nom). Seules les entités partageant au moins un bloc sont
+ * comparées finement.
+ */
+public class CompanyResolver {
+
+    // Seuil de similarité (Jaccard sur trigrammes) pour un rapprochement par le nom seul
+    private static final double NAME_SIMILARITY_THRESHOLD = 0.8;
+
+    // Seuil abaissé quand le domaine email est commun (un domaine seul peut être celui d'une agence ou d'un groupe)
+    private static final double EMAIL_NAME_SIMILARITY_THRESHOLD = 0.5;
+
+    // Formes juridiques retirées des noms (les autres mots font partie du nom :
+    // "Société Générale", "Compagnie des Alpes")
+    private static final Set<String> LEGAL_FORMS = Set.of(
+        "sa", "sas", "sasu", "sarl", "eurl", "sci", "snc", "scs", "sca", "scop", "scic",
+        "sel", "selarl", "selas", "selafa", "gie", "ei", "eirl", "earl", "gaec", "sem", "spl"
+    );
+
+    // Domaines non discriminants (messageries grand public, plateformes)
+    private static final Set<String> GENERIC_DOMAINS = Set.of(
+        "gmail.com", "yahoo.fr", "yahoo.com", "hotmail.fr", "hotmail.com", "outlook.fr",
+        "outlook.com", "live.fr", "live.com", "msn.com", "icloud.com", "aol.com", "orange.fr",
+        "wanadoo.fr", "free.fr", "sfr.fr", "neuf.fr", "bbox.fr", "laposte.net", "gmx.fr",
+        "francetravail.fr", "pole-emploi.fr", "francetravail.net", "linkedin.com",
+        "facebook.com", "indeed.com", "indeed.fr", "welcometothejungle.com", "monster.fr",
+        "hellowork.com", "apec.fr", "jobteaser.com", "google.com", "sites.google.com"
+    );
+
+    /**
+     * Entité résolue : clé canonique stable + caractéristiques fusionnées
+     */
+    private static final class Entity {
+        final String key;
+        String siren;
+        String departement;
+        String normalizedName;
+        int[] trigrams = new int[0];
+
+        Entity(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Caractéristiques normalisées d'une fiche
+     */
+    private static final class Features {
+        String siren;
+        String departement;
+        String normalizedName;
+        int[] trigrams = new int[0];
+        String webDomain;
+        String emailDomain;
+    }
+
+    // Nombre de verrous : les blocs sont répartis par hachage de leur clé
+    private static final int LOCK_STRIPES = 256;
+
+    private final Map<String, List<Entity>> blocks = new ConcurrentHashMap<>();
+    private final Map<String, Entity> entitiesByKey = new ConcurrentHashMap<>();
+
+    // Un verrou par groupe de blocs : deux fiches sans bloc commun se résolvent en parallèle
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+
+    // Partagé par les résolutions, exclusif pour clear() et la fin d'une restauration
+    private final ReentrantReadWriteLock structure = new ReentrantReadWriteLock();
+
+    // Incrémenté à chaque clear() : une reconstruction en cours devenue obsolète est abandonnée
+    private long generation = 0;
+
+    public CompanyResolver() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Obtenir la clé canonique de l'entreprise (crée une entité si aucune ne correspond).
+     *
+     * Seuls les verrous des blocs de la fiche sont pris (dans l'ordre croissant,
+     * sans interblocage) : deux fiches qui pourraient correspondre partagent
+     * forcément un bloc et sont donc résolues l'une après l'autre.
+     */
+    public String resolve(Company company) {
+        Features features = extractFeatures(company);
+
+        // Fiche sans aucun élément identifiant : entité isolée
+        if (features.siren == null && features.normalizedName == null
+                && features.webDomain == null && features.emailDomain == null) {
+            return company.getUniqueKey();
+        }
+
+        List<String> blockKeys = blockKeys(features);
+        int[] locks = stripesOf(blockKeys);
+        structure.readLock().lock();
+        try {
+            for (int stripe : locks) stripes[stripe].lock();
+            try {
+                Entity match = findBestMatch(features, blockKeys);
+                if (match == null) {
+                    match = entitiesByKey.computeIfAbsent(company.getUniqueKey(), Entity::new);
+                }
+                absorb(match, features);
+                addToBlocks(match, blockKeys);
+                return match.key;
+            } finally {
+                for (int i = locks.length - 1; i >= 0; i--) stripes[locks[i]].unlock();
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruire l'index à partir de fiches déjà résolues (clé -> fiche), en arrière-plan :
+     * les caractéristiques sont extraites en parallèle hors verrou.
+     */
+    public CompletableFuture<Void> restore(Map<String, Company> entries) {
+        long restoredGeneration;
+        structure.writeLock().lock();
+        try {
+            clear();
+            restoredGeneration = generation;
+        } finally {
+            structure.writeLock().unlock();
+        }
+        List<Map.Entry<String, Company>> list = List.copyOf(entries.entrySet());
+
+        return CompletableFuture.runAsync(() -> {
+            Features[] features = new Features[list.size()];
+            IntStream.range(0, features.length).parallel()
+                .forEach(i -> features[i] = extractFeatures(list.get(i).getValue()));
+
+            structure.writeLock().lock();
+            try {
+                if (generation != restoredGeneration) return;
+                for (int i = 0; i < features.length; i++) {
+                    Entity entity = entitiesByKey.computeIfAbsent(list.get(i).getKey(), Entity::new);
+                    absorb(entity, features[i]);
+                    addToBlocks(entity, blockKeys(features[i]));
+                }
+            } finally {
+                structure.writeLock().unlock();
+            }
+        });
+    }
+
+    public void clear() {
+        structure.writeLock().lock();
+        try {
+            blocks.clear();
+            entitiesByKey.clear();
+            generation++;
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Verrous couvrant les blocs (indices triés, sans doublon)
+     */
+    private static int[] stripesOf(List<String> blockKeys) {
+        return blockKeys.stream()
+            .mapToInt(key -> Math.floorMod(key.hashCode() * 0x9E3779B9, LOCK_STRIPES))
+            .distinct()
+            .sorted()
+            .toArray();
+    }
+
+    private void addToBlocks(Entity entity, List<String> blockKeys) {
+        for (String blockKey : blockKeys) {
+            List<Entity> block = blocks.computeIfAbsent(blockKey, k -> new ArrayList<>(2));
+            if (!block.contains(entity)) {
+                block.add(entity);
+            }
+        }
+    }
+
+    private Entity findBestMatch(Features features, List<String> blockKeys) {
+        Set<Entity> candidates = new LinkedHashSet<>();
+        for (String blockKey : blockKeys) {
+            List<Entity> block = blocks.get(blockKey);
+            if (block != null) {
+                candidates.addAll(block);
+            }
+        }
+
+        Entity best = null;
+        double bestScore = 0;
+        for (Entity candidate : candidates) {
+            double score = score(features, candidate, blockKeys);
+            if (score > bestScore) {
+                bestScore = score;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Score de correspondance (0 = pas de rapprochement)
+     */
+    private double score(Features features, Entity candidate, List<String> blockKeys) {
+        String candidateSiren;
+        String candidateDepartement;
+        String candidateName;
+        int[] candidateTrigrams;
+        // Une même entité peut être complétée sous le verrou d'autres blocs
+        synchronized (candidate) {
+            candidateSiren = candidate.siren;
+            candidateDepartement = candidate.departement;
+            candidateName = candidate.normalizedName;
+            candidateTrigrams = candidate.trigrams;
+        }
+
+        // Deux SIREN différents : jamais la même entreprise
+        if (features.siren != null && candidateSiren != null) {
+            return features.siren.equals(candidateSiren) ? 3.0 : 0;
+        }
+
+        // Domaine du site commun : identifiant fort
+        List<Entity> web = features.webDomain != null ? blocks.get("W:" + features.webDomain) : null;
+        if (web != null && web.contains(candidate)) {
+            return 2.0;
+        }
+
+        // Rapprochement par le nom : départements compatibles requis
+        if (features.normalizedName == null || candidateName == null) {
+            return 0;
+        }
+        if (features.departement != null && candidateDepartement != null
+                && !features.departement.equals(candidateDepartement)) {
+            return 0;
+        }
+        // Domaine email commun (adresse de contact de l'offre) : renforce un nom compatible, ne suffit pas seul
+        List<Entity> mail = features.emailDomain != null ? blocks.get("E:" + features.emailDomain) : null;
+        boolean sameMail = mail != null && mail.contains(candidate);
+        if (features.normalizedName.equals(candidateName)) {
+            return sameMail ? 1.5 : 1.0;
+        }
+        double similarity = jaccard(features.trigrams, candidateTrigrams);
+        if (sameMail && similarity >= EMAIL_NAME_SIMILARITY_THRESHOLD) {
+            return 1.5;
+        }
+        return similarity >= NAME_SIMILARITY_THRESHOLD ? similarity : 0;
+    }
+
+    private void absorb(Entity entity, Features features) {
+        synchronized (entity) {
+            absorbLocked(entity, features);
+        }
+    }
+
+    private static void absorbLocked(Entity entity, Features features) {
+        if (entity.siren == null) entity.siren = features.siren;
+        if (entity.departement == null) entity.departement = features.departement;
+        if (entity.normalizedName == null && features.normalizedName != null) {
+            entity.normalizedName = features.normalizedName;
+            entity.trigrams = features.trigrams;
+        }
+    }
+
+    private List<String> blockKeys(Features features) {
+        List<String> keys = new ArrayList<>(6);
+        if (features.siren != null) keys.add("S:" + features.siren);
+        if (features.webDomain != null) keys.add("W:" + features.webDomain);
+        if (features.emailDomain != null) keys.add("E:" + features.emailDomain);
+        if (features.normalizedName != null) {
+            keys.add("P:" + phonetic(features.normalizedName));
+            // Deux min-hash : des noms proches partagent un bloc avec une probabilité ≈ Jaccard
+            if (features.trigrams.length > 0) {
+                keys.add("M1:" + minHash(features.trigrams, 0x9E3779B9));
+                keys.add("M2:" + minHash(features.trigrams, 0x85EBCA6B));
+            }
+        }
+        return keys;
+    }
+
+    private Features extractFeatures(Company company) {
+        Features features = new Features();
+        if (company.getSiren() != null && !company.getSiren().isBlank()) {
+            features.siren = company.getSiren().replace(" ", "");
+        }
+        if (company.getDepartement() != null && !company.getDepartement().isBlank()) {
+            features.departement = company.getDepartement().trim();
+        }
+        features.normalizedName = normalizeName(company.getNom(), company.getVille());
+        if (features.normalizedName != null) {
+            features.trigrams = trigrams(features.normalizedName);
+        }
+        features.webDomain = webDomain(company.getSiteWeb());
+        features.emailDomain = emailDomain(company.getEmail());
+        if (features.emailDomain == null) {
+            features.emailDomain = emailDomain(company.getEmailRH());
+        }
+        return features;
+    }
+
+    /**
+     * Normaliser un nom : accents, ponctuation, formes juridiques et ville retirés
+     */
+    public static String normalizeName(String name, String ville) {
+        if (name == null || name.isBlank()) return null;
+
+        Set<String> villeTokens = Set.of();
+        String normalizedVille = stripAccents(ville);
+        if (normalizedVille != null) {
+            villeTokens = Set.of(normalizedVille.split(" "));
+        }
+
+        String normalized = stripAccents(name.replace("&", " et "));
+        StringBuilder sb = new StringBuilder();
+        for (String token : normalized.split(" ")) {
+            if (token.isEmpty() || LEGAL_FORMS.contains(token) || villeTokens.contains(token)) {
+                continue;
+            }
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(token);
+        }
+
+        // Nom composé uniquement de mots retirés : garder la forme brute
+        if (sb.length() == 0) {
+            return normalized.isEmpty() ? null : normalized;
+        }
+        return sb.toString();
+    }
+
+    private static String stripAccents(String value) {
+        if (value == null || value.isBlank()) return null;
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT)
+            .replaceAll("[^a-z0-9]+", " ")
+            .trim();
+    }
+
+    static String webDomain(String url) {
+        if (url == null || url.isBlank()) return null;
+        try {
+            String value = url.trim();
+            if (!value.contains("://")) value = "http://" + value;
+            String host = URI.create(value).getHost();
+            if (host == null) return null;
+            host = host.toLowerCase(Locale.ROOT);
+            if (host.startsWith("www.")) host = host.substring(4);
+            return GENERIC_DOMAINS.contains(host) ? null : host;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static String emailDomain(String email) {
+        if (email == null) return null;
+        int at = email.lastIndexOf('@');
+        if (at < 0 || at == email.length() - 1) return null;
+        String domain = email.substring(at + 1).trim().toLowerCase(Locale.ROOT);
+        return GENERIC_DOMAINS.contains(domain) ? null : domain;
+    }
+
+    /**
+     * Trigrammes du nom (hachés, triés, uniques)
+     */
+    private static int[] trigrams(String name) {
+        String padded = "  " + name + " ";
+        int[] grams = new int[Math.max(0, padded.length() - 2)];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = padded.charAt(i) * 31 * 31 + padded.charAt(i + 1) * 31 + padded.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().sorted().toArray();
+    }
+
+    private static double jaccard(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) return 0;
+        int i = 0, j = 0, common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) { common++; i++; j++; }
+            else if (a[i] < b[j]) i++;
+            else j++;
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    private static int minHash(int[] grams, int seed) {
+        int min = Integer.MAX_VALUE;
+        for (int gram : grams) {
+            int h = gram * seed;
+            h ^= h >>> 16;
+            if (h < min) min = h;
+        }
+        return min;
+    }
+
+    /**
+     * Clé phonétique simplifiée pour le français (type Soundex)
+     */
+    static String phonetic(String normalizedName) {
+        String s = normalizedName.replace(" ", "")
+            .replace("ph", "f")
+            .replace("qu", "k")
+            .replaceAll("c([eiy])", "s$1")
+            .replaceAll("g([eiy])", "j$1")
+            .replace('c', 'k')
+            .replace('q', 'k')
+            .replace('z', 's')
+            .replace('w', 'v')
+            .replace('y', 'i')
+            .replace("h", "");
+        if (s.isEmpty()) return "";
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(s.charAt(0));
+        for (int i = 1; i < s.length() && sb.length() < 6; i++) {
+            char c = s.charAt(i);
+            if ("aeiou".indexOf(c) >= 0) continue;
+            if (c != sb.charAt(sb.length() - 1)) sb.append(c);
+        }
+        return sb.toString();
+    }
+}
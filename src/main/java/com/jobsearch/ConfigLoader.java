@@ -75,6 +75,15 @@ public class ConfigLoader {
         properties.setProperty("export.default.filename.json", "resultats_entreprises.json");
         properties.setProperty("export.csv.encoding", "UTF-8");
         properties.setProperty("export.csv.separator", ";");
+        
+        properties.setProperty("data.dir", defaultDataDirectory());
+        properties.setProperty("store.offer.expiry.days", "60");
+        properties.setProperty("sync.watermark.overlap.minutes", "60");
+        properties.setProperty("session.restore.on.startup", "true");
+    }
+    
+    private static String defaultDataDirectory() {
+        return System.getProperty("user.home") + File.separator + ".jobsearcher";
     }
     
     /**
@@ -206,6 +215,22 @@ public class ConfigLoader {
         return getArrayProperty("naf.codes.it");
     }
     
+    /**
+     * Tranches d'effectif INSEE retenues dans la base SIRENE locale (vide = toutes)
+     */
+    public String[] getSireneTranches() {
+        return java.util.Arrays.stream(getArrayProperty("sirene.tranches")).map(String::trim)
+            .filter(value -> !value.isEmpty()).toArray(String[]::new);
+    }
+    
+    /**
+     * Catégories d'entreprise retenues dans la base SIRENE locale (PME, ETI, GE ; vide = toutes)
+     */
+    public String[] getSireneCategories() {
+        return java.util.Arrays.stream(getArrayProperty("sirene.categories")).map(String::trim)
+            .filter(value -> !value.isEmpty()).toArray(String[]::new);
+    }
+    
     public int getMaxResultsJobs() {
         return getIntProperty("api.max.results.jobs", 100);
     }
@@ -242,6 +267,50 @@ public class ConfigLoader {
         return getProperty("export.csv.separator");
     }
     
+    /**
+     * Séparateur des exports CSV (un caractère ASCII, ';' par défaut), relu à l'import
+     */
+    public char getCsvSeparator() {
+        String separator = getExportSeparator();
+        if (separator == null || separator.length() != 1 || separator.charAt(0) >= 0x80
+                || separator.charAt(0) == '"' || separator.charAt(0) == '\n' || separator.charAt(0) == '\r') {
+            return ';';
+        }
+        return separator.charAt(0);
+    }
+    
+    /**
+     * Répertoire des données locales (filtre des offres vues, base locale...)
+     */
+    public File getDataDirectory() {
+        File dir = new File(getProperty("data.dir", defaultDataDirectory()));
+        if (!dir.exists() && !dir.mkdirs()) {
+            System.err.println("Impossible de créer le répertoire de données: " + dir);
+        }
+        return dir;
+    }
+    
+    /**
+     * Durée de conservation des offres en base locale (jours depuis la dernière actualisation)
+     */
+    public int getOfferExpiryDays() {
+        return getIntProperty("store.offer.expiry.days", 60);
+    }
+    
+    /**
+     * Marge de recouvrement de la synchronisation incrémentale (minutes avant le repère)
+     */
+    public int getSyncOverlapMinutes() {
+        return getIntProperty("sync.watermark.overlap.minutes", 60);
+    }
+    
+    /**
+     * Restaurer automatiquement la dernière session enregistrée au démarrage
+     */
+    public boolean isSessionRestoreOnStartup() {
+        return Boolean.parseBoolean(getProperty("session.restore.on.startup", "true"));
+    }
+    
     /**
      * Vérifier si les identifiants France Travail sont configurés
      */
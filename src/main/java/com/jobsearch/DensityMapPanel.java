@@ -0,0 +1,188 @@
+package com.jobsearch;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+/**
+ * Carte de densité des offres ou des entreprises (France métropolitaine
+ * au départ ; molette pour zoomer, glisser pour se déplacer).
+ *
+ * Le niveau de la pyramide est choisi pour que chaque cellule fasse au
+ * moins quelques pixels ; seules les cellules de la zone visible sont lues
+ * (TilePyramid), quel que soit le nombre de points.
+ */
+public class DensityMapPanel extends JPanel {
+
+    private static final int MIN_CELL_PIXELS = 6;
+    private static final double COS_REFERENCE = Math.cos(Math.toRadians(46.5));
+
+    // Repères : ville, latitude, longitude
+    private static final Object[][] CITIES = {
+        {"Paris", 48.857, 2.352}, {"Lyon", 45.764, 4.836}, {"Marseille", 43.296, 5.370},
+        {"Toulouse", 43.605, 1.444}, {"Bordeaux", 44.838, -0.579}, {"Lille", 50.629, 3.057},
+        {"Nantes", 47.218, -1.554}, {"Strasbourg", 48.573, 7.752}, {"Nice", 43.710, 7.262},
+        {"Rennes", 48.117, -1.678}, {"Montpellier", 43.611, 3.877}, {"Clermont-Ferrand", 45.778, 3.087}
+    };
+
+    private final TilePyramid pyramid;
+    private int layer = TilePyramid.LAYER_OFFERS;
+    private double centerLat = 46.4;
+    private double centerLon = 2.4;
+    private double pixelsPerDegree = 60;
+    private Point dragStart;
+    private String status = " ";
+
+    public DensityMapPanel(TilePyramid pyramid) {
+        this.pyramid = pyramid;
+        setBackground(new Color(245, 247, 250));
+        setPreferredSize(new Dimension(800, 700));
+        setToolTipText("");
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart == null) return;
+                centerLon -= (e.getX() - dragStart.x) / (pixelsPerDegree * COS_REFERENCE);
+                centerLat += (e.getY() - dragStart.y) / pixelsPerDegree;
+                dragStart = e.getPoint();
+                repaint();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                // Zoom autour du point sous la souris
+                double lat = toLat(e.getY());
+                double lon = toLon(e.getX());
+                double factor = Math.pow(1.25, -e.getPreciseWheelRotation());
+                pixelsPerDegree = Math.max(20, Math.min(20000, pixelsPerDegree * factor));
+                centerLon = lon - (e.getX() - getWidth() / 2.0) / (pixelsPerDegree * COS_REFERENCE);
+                centerLat = lat + (e.getY() - getHeight() / 2.0) / pixelsPerDegree;
+                repaint();
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    public void setLayer(int layer) {
+        this.layer = layer;
+        repaint();
+    }
+
+    /**
+     * Niveau, cellules et temps du dernier rendu
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int level = currentLevel();
+        int x = TilePyramid.lonIndex(toLon(e.getX()), level);
+        int y = TilePyramid.latIndex(toLat(e.getY()), level);
+        int offers = pyramid.count(level, x, y, TilePyramid.LAYER_OFFERS);
+        int companies = pyramid.count(level, x, y, TilePyramid.LAYER_COMPANIES);
+        return offers + companies > 0 ? offers + " offres, " + companies + " entreprises" : null;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g;
+        long start = System.nanoTime();
+
+        int level = currentLevel();
+        double cellWidth = TilePyramid.cellWidth(level);
+        double cellHeight = TilePyramid.cellHeight(level);
+        int xMin = TilePyramid.lonIndex(toLon(0), level);
+        int xMax = TilePyramid.lonIndex(toLon(getWidth()), level);
+        int yMin = TilePyramid.latIndex(toLat(getHeight()), level);
+        int yMax = TilePyramid.latIndex(toLat(0), level);
+
+        // Lecture des cellules visibles, puis couleur relative au maximum visible
+        int columns = xMax - xMin + 1;
+        int[] counts = new int[columns * (yMax - yMin + 1)];
+        int max = 0;
+        int nonEmpty = 0;
+        for (int y = yMin; y <= yMax; y++) {
+            for (int x = xMin; x <= xMax; x++) {
+                int count = pyramid.count(level, x, y, layer);
+                counts[(y - yMin) * columns + x - xMin] = count;
+                if (count > 0) nonEmpty++;
+                max = Math.max(max, count);
+            }
+        }
+        double logMax = Math.log1p(max);
+        for (int y = yMin; y <= yMax; y++) {
+            for (int x = xMin; x <= xMax; x++) {
+                int count = counts[(y - yMin) * columns + x - xMin];
+                if (count == 0) continue;
+                double lon = x * cellWidth - 180;
+                double lat = y * cellHeight - 90;
+                int px1 = toX(lon), px2 = toX(lon + cellWidth);
+                int py1 = toY(lat + cellHeight), py2 = toY(lat);
+                g2.setColor(heatColor(logMax > 0 ? Math.log1p(count) / logMax : 1));
+                g2.fillRect(px1, py1, Math.max(1, px2 - px1), Math.max(1, py2 - py1));
+            }
+        }
+
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setFont(getFont().deriveFont(11f));
+        for (Object[] city : CITIES) {
+            int px = toX((Double) city[2]);
+            int py = toY((Double) city[1]);
+            g2.setColor(Color.DARK_GRAY);
+            g2.fillOval(px - 3, py - 3, 6, 6);
+            g2.drawString((String) city[0], px + 5, py - 4);
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1_000_000.0;
+        status = String.format("%d %s · niveau %d · %d cellules affichées (max %d) · %.1f ms",
+            pyramid.total(layer), layer == TilePyramid.LAYER_OFFERS ? "offres localisées" : "entreprises localisées",
+            level, nonEmpty, max, elapsed);
+    }
+
+    /**
+     * Niveau le plus fin dont les cellules font au moins MIN_CELL_PIXELS
+     */
+    private int currentLevel() {
+        int level = TilePyramid.MAX_LEVEL;
+        while (level > TilePyramid.MIN_LEVEL
+                && TilePyramid.cellWidth(level) * pixelsPerDegree * COS_REFERENCE < MIN_CELL_PIXELS) {
+            level--;
+        }
+        return level;
+    }
+
+    private static Color heatColor(double ratio) {
+        // Bleu clair (peu dense) -> jaune -> rouge (très dense)
+        float hue = (float) (0.62 - 0.62 * ratio);
+        return Color.getHSBColor(hue, 0.35f + 0.6f * (float) ratio, 0.95f);
+    }
+
+    private double toLon(int px) {
+        return centerLon + (px - getWidth() / 2.0) / (pixelsPerDegree * COS_REFERENCE);
+    }
+
+    private double toLat(int py) {
+        return centerLat - (py - getHeight() / 2.0) / pixelsPerDegree;
+    }
+
+    private int toX(double lon) {
+        return (int) Math.round(getWidth() / 2.0 + (lon - centerLon) * pixelsPerDegree * COS_REFERENCE);
+    }
+
+    private int toY(double lat) {
+        return (int) Math.round(getHeight() / 2.0 - (lat - centerLat) * pixelsPerDegree);
+    }
+}
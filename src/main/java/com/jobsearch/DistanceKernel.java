@@ -0,0 +1,61 @@
+package com.jobsearch;
+
+import java.util.Arrays;
+
+/**
+ * Calcul en bloc des distances entre des points et plusieurs origines.
+ *
+ * Les points sont des vecteurs unitaires (x, y, z) rangés en tableaux
+ * primitifs : la corde entre deux points de la sphère ne demande que des
+ * multiplications et additions, et la distance orthodromique en découle
+ * (2R asin(corde / 2)). Le noyau garde, pour chaque point, le carré de la
+ * corde vers l'origine la plus proche.
+ *
+ * Une passe par origine sur les tableaux de points : la boucle interne,
+ * sans branchement ni dépendance entre itérations, est vectorisée par le
+ * compilateur JIT (pas de module incubateur ni d'option de lancement).
+ */
+public final class DistanceKernel {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private DistanceKernel() {
+    }
+
+    /**
+     * Pour chaque point i < n : carré de la corde vers l'origine la plus
+     * proche (origins = triplets x, y, z). NaN pour un point sans coordonnées.
+     */
+    public static void minChordSquared(double[] x, double[] y, double[] z, int n,
+                                       double[] origins, double[] out) {
+        Arrays.fill(out, 0, n, Double.POSITIVE_INFINITY);
+        for (int o = 0; o < origins.length; o += 3) {
+            double ox = origins[o];
+            double oy = origins[o + 1];
+            double oz = origins[o + 2];
+            for (int i = 0; i < n; i++) {
+                double dx = x[i] - ox;
+                double dy = y[i] - oy;
+                double dz = z[i] - oz;
+                out[i] = Math.min(out[i], dx * dx + dy * dy + dz * dz);
+            }
+        }
+    }
+
+    /**
+     * Vecteur unitaire (x, y, z) d'une position en degrés
+     */
+    public static double[] unitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cos = Math.cos(lat);
+        return new double[]{cos * Math.cos(lon), cos * Math.sin(lon), Math.sin(lat)};
+    }
+
+    /**
+     * Carré de corde (sphère unité) -> distance en kilomètres
+     */
+    public static double chordSquaredToKm(double chordSquared) {
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(chordSquared) / 2));
+    }
+}
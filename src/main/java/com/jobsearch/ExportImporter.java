@@ -0,0 +1,522 @@
+package com.jobsearch;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Réimport des exports CSV (offres, entreprises) et JSON de l'application.
+ *
+ * Le fichier est projeté en mémoire puis découpé en blocs analysés en
+ * parallèle :
+ * - CSV : les guillemets sont comptés par bloc en parallèle ; la parité
+ *   cumulée indique si un bloc commence à l'intérieur d'un champ entre
+ *   guillemets (csvEscape double les guillemets internes, la parité reste
+ *   donc exacte). Chaque bloc démarre au premier saut de ligne hors guillemets.
+ * - JSON : Gson écrit un objet de premier niveau par "\n  {" et n'émet jamais
+ *   de saut de ligne brut dans une chaîne : ces positions sont des frontières sûres.
+ *
+ * Les colonnes sont associées par leur en-tête (ordre libre, colonnes
+ * inconnues ignorées), ce qui accepte aussi les exports d'anciennes versions.
+ */
+public final class ExportImporter {
+
+    // Taille cible d'un bloc (bornée pour rester projetable et équilibrer les cœurs)
+    private static final long MIN_CHUNK = 1 << 20;
+    private static final long MAX_CHUNK = 256L << 20;
+
+    private static final byte[] JSON_OBJECT_START = "\n  {".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Pattern TAILLE_RANGE = Pattern.compile("(\\d+)-(\\d+) salariés");
+    private static final Pattern TAILLE_MIN = Pattern.compile("(\\d+)\\+ salariés");
+    private static final Pattern TAILLE_EXACT = Pattern.compile("(\\d+) salariés?");
+    private static final Pattern CODE_CONTRAT = Pattern.compile("[A-Z]{3}");
+
+    // Début du libellé de contrat France Travail (normalisé) -> code
+    private static final String[][] CONTRATS = {
+        {"contratadureeindeterminee", "CDI"},
+        {"contratadureedeterminee", "CDD"},
+        {"missioninterimaire", "MIS"},
+        {"cdiinterimaire", "DIN"},
+        {"travailsaisonnier", "SAI"},
+        {"professionliberale", "LIB"},
+        {"professioncommerciale", "CCE"},
+        {"franchise", "FRA"}
+    };
+
+    /**
+     * Résultat d'un import
+     */
+    public static final class ImportResult {
+        public final String format;
+        public final List<JobOffer> offers;
+        public final List<Company> companies;
+
+        ImportResult(String format, List<JobOffer> offers, List<Company> companies) {
+            this.format = format;
+            this.offers = offers;
+            this.companies = companies;
+        }
+    }
+
+    // En-têtes de exportToCSV -> champs de l'offre
+    private static final Map<String, BiConsumer<JobOffer, String>> OFFER_COLUMNS = new HashMap<>();
+    // En-têtes de Company.getCsvHeaders -> champs de l'entreprise
+    private static final Map<String, BiConsumer<Company, String>> COMPANY_COLUMNS = new HashMap<>();
+
+    static {
+        offerColumn("ID Offre", JobOffer::setId);
+        offerColumn("Intitulé", JobOffer::setIntitule);
+        offerColumn("Description", JobOffer::setDescription);
+        offerColumn("Date Création", JobOffer::setDateCreation);
+        offerColumn("Date MAJ", JobOffer::setDateActualisation);
+        offerColumn("Entreprise Nom", JobOffer::setEntrepriseNom);
+        offerColumn("Entreprise Description", JobOffer::setEntrepriseDescription);
+        offerColumn("Entreprise URL", JobOffer::setEntrepriseUrl);
+        offerColumn("📧 Contact Email", JobOffer::setContactEmail);
+        offerColumn("Contact Nom", JobOffer::setContactNom);
+        offerColumn("Contact Téléphone", JobOffer::setContactTelephone);
+        offerColumn("Contact URL", JobOffer::setContactUrl);
+        offerColumn("Ville", JobOffer::setVille);
+        offerColumn("Code Postal", JobOffer::setCodePostal);
+        offerColumn("Département", JobOffer::setDepartement);
+        offerColumn("Région", JobOffer::setRegion);
+        offerColumn("Latitude", (offer, value) -> offer.setLatitude(parseDouble(value)));
+        offerColumn("Longitude", (offer, value) -> offer.setLongitude(parseDouble(value)));
+        offerColumn("Type Contrat", ExportImporter::setTypeContrat);
+        offerColumn("Nature Contrat", JobOffer::setNatureContrat);
+        offerColumn("Expérience", JobOffer::setExperienceLibelle);
+        offerColumn("Salaire", JobOffer::setSalaire);
+        offerColumn("Durée Travail", JobOffer::setDureeTravailLibelle);
+        offerColumn("Compétences", JobOffer::setCompetences);
+        offerColumn("🔗 URL Offre", JobOffer::setUrlOrigine);
+        offerColumn("🔗 URL Postulation", JobOffer::setUrlPostulation);
+        offerColumn("Source", JobOffer::setSource);
+
+        companyColumn("Nom entreprise", Company::setNom);
+        companyColumn("Nom commercial", Company::setNomCommercial);
+        companyColumn("SIREN", Company::setSiren);
+        companyColumn("SIRET", Company::setSiret);
+        companyColumn("Taille (effectif)", ExportImporter::setTaille);
+        companyColumn("Catégorie", Company::setCategorieEntreprise);
+        companyColumn("Chiffre d'affaires", Company::setChiffreAffaires);
+        companyColumn("🌐 Site web", Company::setSiteWeb);
+        companyColumn("📧 Email général", Company::setEmail);
+        companyColumn("📧 Email RH", Company::setEmailRH);
+        companyColumn("📞 Téléphone", Company::setTelephone);
+        companyColumn("Adresse", Company::setAdresse);
+        companyColumn("Code postal", Company::setCodePostal);
+        companyColumn("Ville", Company::setVille);
+        companyColumn("Département", Company::setDepartement);
+        companyColumn("Région", Company::setRegion);
+        companyColumn("Code NAF", Company::setCodeNAF);
+        companyColumn("Secteur activité", Company::setLibelleNAF);
+        companyColumn("Date création", Company::setDateCreation);
+        companyColumn("Source", Company::setSource);
+    }
+
+    private ExportImporter() {
+    }
+
+    /**
+     * Importer un export (format détecté : JSON si le fichier commence par '[', CSV sinon) ;
+     * le séparateur CSV est celui de la configuration des exports
+     */
+    public static ImportResult importFile(File file, char separator) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return new ImportResult("vide", List.of(), List.of());
+            }
+            ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, 64 * 1024));
+            int first = skipWhitespaceAndBom(head);
+            if (first < head.limit() && head.get(first) == '[') {
+                return importJson(channel, size, first, decode(head, first, head.limit()));
+            }
+            return importCsv(channel, size, first, head, (byte) separator);
+        } catch (RuntimeException e) {
+            throw new IOException("Fichier d'export illisible: " + file.getName() + " (" + e.getMessage() + ")", e);
+        }
+    }
+
+    // ========================================================================
+    // CSV
+    // ========================================================================
+
+    private static ImportResult importCsv(FileChannel channel, long size, int start, ByteBuffer head,
+                                          byte separator) throws IOException {
+        // En-tête : première ligne (jamais entre guillemets)
+        int headerEnd = start;
+        while (headerEnd < head.limit() && head.get(headerEnd) != '\n') headerEnd++;
+        if (headerEnd == head.limit() && headerEnd < size) {
+            throw new IOException("En-tête CSV introuvable");
+        }
+        String header = decode(head, start, headerEnd).replace("\r", "");
+        String[] columns = header.split(java.util.regex.Pattern.quote(String.valueOf((char) separator)), -1);
+
+        boolean offers = false;
+        for (String column : columns) {
+            if (normalizeHeader(column).equals(normalizeHeader("ID Offre"))) offers = true;
+        }
+        Map<String, ? extends BiConsumer<?, String>> known = offers ? OFFER_COLUMNS : COMPANY_COLUMNS;
+        BiConsumer<Object, String>[] setters = setters(columns, known);
+        int mapped = 0;
+        for (BiConsumer<Object, String> setter : setters) {
+            if (setter != null) mapped++;
+        }
+        if (mapped == 0) {
+            throw new IOException("Colonnes non reconnues (ni export d'offres ni export d'entreprises)");
+        }
+
+        // Découpage en blocs alignés sur des débuts d'enregistrement
+        long dataStart = Math.min(size, (long) headerEnd + 1);
+        long[] recordStarts = csvRecordStarts(channel, dataStart, size);
+        int chunkCount = recordStarts.length - 1;
+
+        // Analyse des enregistrements de chaque bloc (parallèle)
+        boolean offerExport = offers;
+        List<List<Object>> parsed = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) parsed.add(null);
+        parallel(chunkCount, i -> {
+            ByteBuffer buffer = map(channel, recordStarts[i], recordStarts[i + 1]);
+            parsed.set(i, parseCsvRecords(buffer, setters, offerExport, separator));
+        });
+
+        List<JobOffer> offerList = new ArrayList<>();
+        List<Company> companyList = new ArrayList<>();
+        for (List<Object> chunk : parsed) {
+            for (Object entity : chunk) {
+                if (entity instanceof JobOffer offer) offerList.add(offer);
+                else companyList.add((Company) entity);
+            }
+        }
+        return new ImportResult(offers ? "CSV offres" : "CSV entreprises", offerList, companyList);
+    }
+
+    /**
+     * Découper les données CSV [dataStart, size) en blocs commençant chacun par
+     * un enregistrement (bornes croissantes, la dernière vaut size)
+     */
+    static long[] csvRecordStarts(FileChannel channel, long dataStart, long size) throws IOException {
+        long[] bounds = chunkBounds(dataStart, size);
+        int chunkCount = bounds.length - 1;
+
+        // 1. Nombre de guillemets par bloc (parallèle)
+        long[] quoteCounts = new long[chunkCount];
+        parallel(chunkCount, i -> {
+            ByteBuffer buffer = map(channel, bounds[i], bounds[i + 1]);
+            long count = 0;
+            for (int p = 0; p < buffer.limit(); p++) {
+                if (buffer.get(p) == '"') count++;
+            }
+            quoteCounts[i] = count;
+        });
+
+        // 2. Parité cumulée : le bloc commence-t-il dans un champ entre guillemets ?
+        boolean[] startsQuoted = new boolean[chunkCount];
+        long quotes = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            startsQuoted[i] = (quotes & 1) != 0;
+            quotes += quoteCounts[i];
+        }
+
+        // 3. Premier début d'enregistrement de chaque bloc (parallèle), -1 si aucun
+        long[] recordStarts = new long[chunkCount + 1];
+        recordStarts[0] = dataStart;
+        recordStarts[chunkCount] = size;
+        parallel(chunkCount, i -> {
+            if (i == 0) return;
+            ByteBuffer buffer = map(channel, bounds[i], bounds[i + 1]);
+            boolean quoted = startsQuoted[i];
+            recordStarts[i] = -1;
+            for (int p = 0; p < buffer.limit(); p++) {
+                byte b = buffer.get(p);
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted) {
+                    recordStarts[i] = bounds[i] + p + 1;
+                    break;
+                }
+            }
+        });
+        // Bloc sans fin d'enregistrement (champ très long) : fusionné avec le précédent
+        for (int i = chunkCount - 1; i > 0; i--) {
+            if (recordStarts[i] < 0) recordStarts[i] = recordStarts[i + 1];
+        }
+        return recordStarts;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static BiConsumer<Object, String>[] setters(String[] columns, Map<String, ? extends BiConsumer<?, String>> known) {
+        BiConsumer<Object, String>[] setters = new BiConsumer[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            setters[c] = (BiConsumer) known.get(normalizeHeader(columns[c]));
+        }
+        return setters;
+    }
+
+    private static List<Object> parseCsvRecords(ByteBuffer buffer, BiConsumer<Object, String>[] setters, boolean offers,
+                                                byte separator) {
+        List<Object> records = new ArrayList<>();
+        byte[] field = new byte[1024];
+        int limit = buffer.limit();
+        int p = 0;
+        while (p < limit) {
+            Object entity = offers ? new JobOffer() : new Company();
+            int column = 0;
+            boolean endOfRecord = false;
+            boolean empty = true;
+            while (!endOfRecord) {
+                int length = 0;
+                if (p < limit && buffer.get(p) == '"') {
+                    // Champ entre guillemets : "" = guillemet littéral
+                    p++;
+                    while (p < limit) {
+                        byte b = buffer.get(p++);
+                        if (b == '"') {
+                            if (p < limit && buffer.get(p) == '"') {
+                                p++;
+                            } else {
+                                break;
+                            }
+                        }
+                        if (length == field.length) field = java.util.Arrays.copyOf(field, length * 2);
+                        field[length++] = b;
+                    }
+                }
+                // Partie non protégée (jusqu'au séparateur ou fin de ligne)
+                while (p < limit) {
+                    byte b = buffer.get(p);
+                    if (b == separator || b == '\n') break;
+                    p++;
+                    if (b == '\r') continue;
+                    if (length == field.length) field = java.util.Arrays.copyOf(field, length * 2);
+                    field[length++] = b;
+                }
+                if (length > 0) empty = false;
+                if (column < setters.length && setters[column] != null && length > 0) {
+                    setters[column].accept(entity, new String(field, 0, length, StandardCharsets.UTF_8));
+                }
+                column++;
+                if (p >= limit || buffer.get(p) == '\n') {
+                    endOfRecord = true;
+                }
+                p++;
+            }
+            if (!empty) {
+                records.add(entity);
+            }
+        }
+        return records;
+    }
+
+    // ========================================================================
+    // JSON
+    // ========================================================================
+
+    private static ImportResult importJson(FileChannel channel, long size, int arrayStart, String head) throws IOException {
+        // Type des objets d'après les premières clés
+        boolean offers = head.contains("\"intitule\"") || head.contains("\"entrepriseNom\"");
+        Gson gson = new Gson();
+        Type type = offers ? new TypeToken<List<JobOffer>>(){}.getType() : new TypeToken<List<Company>>(){}.getType();
+
+        long dataStart = arrayStart + 1;
+        long[] bounds = chunkBounds(dataStart, size);
+        int chunkCount = bounds.length - 1;
+
+        // Frontières : premier "\n  {" de chaque bloc (le motif peut chevaucher la fin du bloc)
+        long[] objectStarts = new long[chunkCount + 1];
+        objectStarts[0] = dataStart;
+        objectStarts[chunkCount] = size;
+        parallel(chunkCount, i -> {
+            if (i == 0) return;
+            long end = Math.min(size, bounds[i + 1] + JSON_OBJECT_START.length);
+            ByteBuffer buffer = map(channel, bounds[i], end);
+            objectStarts[i] = -1;
+            for (int p = 0; p + JSON_OBJECT_START.length <= buffer.limit(); p++) {
+                if (matches(buffer, p, JSON_OBJECT_START)) {
+                    objectStarts[i] = bounds[i] + p;
+                    break;
+                }
+            }
+        });
+        for (int i = chunkCount - 1; i > 0; i--) {
+            if (objectStarts[i] < 0) objectStarts[i] = objectStarts[i + 1];
+        }
+
+        List<List<Object>> parsed = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) parsed.add(null);
+        parallel(chunkCount, i -> {
+            if (objectStarts[i] >= objectStarts[i + 1]) {
+                parsed.set(i, List.of());
+                return;
+            }
+            ByteBuffer buffer = map(channel, objectStarts[i], objectStarts[i + 1]);
+            String text = decode(buffer, 0, buffer.limit()).strip();
+            // Fin du tableau (dernier bloc) et virgule de séparation avec le bloc suivant
+            if (objectStarts[i + 1] == size && text.endsWith("]")) text = text.substring(0, text.length() - 1).strip();
+            if (text.endsWith(",")) text = text.substring(0, text.length() - 1);
+            List<Object> objects = text.isEmpty() ? List.of() : gson.fromJson("[" + text + "]", type);
+            parsed.set(i, objects);
+        });
+
+        List<JobOffer> offerList = new ArrayList<>();
+        List<Company> companyList = new ArrayList<>();
+        for (List<Object> chunk : parsed) {
+            for (Object entity : chunk) {
+                if (entity instanceof JobOffer offer) offerList.add(offer);
+                else if (entity instanceof Company company) companyList.add(company);
+            }
+        }
+        return new ImportResult(offers ? "JSON offres" : "JSON entreprises", offerList, companyList);
+    }
+
+    // ========================================================================
+    // Utilitaires
+    // ========================================================================
+
+    interface ChunkTask {
+        void run(int chunk) throws IOException;
+    }
+
+    static void parallel(int count, ChunkTask task) throws IOException {
+        try {
+            IntStream.range(0, count).parallel().forEach(i -> {
+                try {
+                    task.run(i);
+                } catch (IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            });
+        } catch (java.io.UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Bornes des blocs : un bloc par cœur (x4), entre 1 Mo et 256 Mo
+     */
+    private static long[] chunkBounds(long start, long end) {
+        long length = Math.max(0, end - start);
+        int cores = Runtime.getRuntime().availableProcessors();
+        long chunk = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, length / (cores * 4L) + 1));
+        int count = (int) Math.max(1, (length + chunk - 1) / chunk);
+        long[] bounds = new long[count + 1];
+        for (int i = 0; i < count; i++) {
+            bounds[i] = start + i * chunk;
+        }
+        bounds[count] = end;
+        return bounds;
+    }
+
+    static ByteBuffer map(FileChannel channel, long from, long to) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, from, Math.max(0, to - from));
+    }
+
+    private static boolean matches(ByteBuffer buffer, int position, byte[] pattern) {
+        for (int k = 0; k < pattern.length; k++) {
+            if (buffer.get(position + k) != pattern[k]) return false;
+        }
+        return true;
+    }
+
+    static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int skipWhitespaceAndBom(ByteBuffer buffer) {
+        int p = 0;
+        if (buffer.limit() >= 3 && (buffer.get(0) & 0xFF) == 0xEF
+                && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF) {
+            p = 3;
+        }
+        while (p < buffer.limit() && Character.isWhitespace(buffer.get(p))) p++;
+        return p;
+    }
+
+    /**
+     * En-tête normalisé : sans emoji, accents ni casse ("📧 Contact Email" -> "contactemail")
+     */
+    private static String normalizeHeader(String header) {
+        return Normalizer.normalize(header, Normalizer.Form.NFD)
+            .replaceAll("[^A-Za-z0-9]", "")
+            .toLowerCase(Locale.ROOT);
+    }
+
+    private static void offerColumn(String header, BiConsumer<JobOffer, String> setter) {
+        OFFER_COLUMNS.put(normalizeHeader(header), setter);
+    }
+
+    private static void companyColumn(String header, BiConsumer<Company, String> setter) {
+        COMPANY_COLUMNS.put(normalizeHeader(header), setter);
+    }
+
+    private static Double parseDouble(String value) {
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Effectif relu depuis le libellé de getTailleLibelle()
+     */
+    /**
+     * Libellé exporté, et code retrouvé depuis le libellé (l'export n'écrit
+     * que le libellé ; le filtre "contrat" porte sur le code)
+     */
+    private static void setTypeContrat(JobOffer offer, String libelle) {
+        offer.setTypeContratLibelle(libelle);
+        String trimmed = libelle.trim();
+        if (CODE_CONTRAT.matcher(trimmed).matches()) {
+            offer.setTypeContrat(trimmed);
+            return;
+        }
+        String normalized = normalizeHeader(trimmed);
+        for (String[] contrat : CONTRATS) {
+            if (normalized.startsWith(contrat[0])) {
+                offer.setTypeContrat(contrat[1]);
+                return;
+            }
+        }
+    }
+
+    private static void setTaille(Company company, String libelle) {
+        Matcher m = TAILLE_RANGE.matcher(libelle);
+        if (m.matches()) {
+            company.setEffectifMin(Integer.valueOf(m.group(1)));
+            company.setEffectifMax(Integer.valueOf(m.group(2)));
+            return;
+        }
+        m = TAILLE_MIN.matcher(libelle);
+        if (m.matches()) {
+            company.setEffectifMin(Integer.valueOf(m.group(1)));
+            return;
+        }
+        m = TAILLE_EXACT.matcher(libelle);
+        if (m.matches()) {
+            company.setEffectifMin(Integer.valueOf(m.group(1)));
+            company.setEffectifMax(Integer.valueOf(m.group(1)));
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.jobsearch;
+
+import java.util.*;
+
+/**
+ * Navigation à facettes sur les lignes du tableau des résultats.
+ *
+ * Chaque valeur de facette (type de contrat, expérience, département,
+ * région, compétence, taille, code NAF) garde l'ensemble compressé des
+ * lignes qui la portent. Une sélection combine les valeurs d'une même
+ * facette par union et les facettes entre elles par intersection ; le
+ * nombre affiché à côté de chaque valeur est le cardinal de son
+ * intersection avec la sélection des autres facettes.
+ *
+ * Alimenté au fil des ajouts du tableau, à partir de ses colonnes : chaque
+ * valeur distincte d'une colonne n'est résolue qu'une fois (par code de
+ * dictionnaire). À utiliser depuis l'EDT.
+ */
+public class FacetIndex {
+
+    public static final String CONTRAT = "Contrat";
+    public static final String EXPERIENCE = "Expérience";
+    public static final String DEPARTEMENT = "Département";
+    public static final String REGION = "Région";
+    public static final String COMPETENCE = "Compétence";
+    public static final String TAILLE = "Taille";
+    public static final String NAF = "Code NAF";
+
+    public static final List<String> FACETS = List.of(
+        CONTRAT, EXPERIENCE, DEPARTEMENT, REGION, COMPETENCE, TAILLE, NAF
+    );
+
+    // Colonne source de chaque facette à valeur simple
+    private static final Map<String, String> SOURCES = Map.of(
+        CONTRAT, ResultTableModel.ATTR_CONTRAT,
+        EXPERIENCE, ResultTableModel.ATTR_EXPERIENCE,
+        DEPARTEMENT, ResultTableModel.ATTR_DEPARTEMENT,
+        REGION, ResultTableModel.ATTR_REGION,
+        NAF, ResultTableModel.ATTR_NAF
+    );
+
+    private final Map<String, Map<String, RowBitmap>> facets = new LinkedHashMap<>();
+    // Par facette : code du dictionnaire de la colonne -> valeurs (résolues une seule fois)
+    private final Map<String, List<RowBitmap[]>> byCode = new HashMap<>();
+
+    public FacetIndex() {
+        for (String facet : FACETS) {
+            facets.put(facet, new HashMap<>());
+            byCode.put(facet, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Indexer les lignes [from, to] à partir des colonnes du tableau
+     */
+    public void addRows(ColumnarTable table, int from, int to) {
+        for (Map.Entry<String, String> source : SOURCES.entrySet()) {
+            ColumnarTable.StringColumn column = table.stringColumn(source.getValue());
+            for (int row = from; row <= to; row++) {
+                int code = column.code(row);
+                if (code < 0) continue;
+                for (RowBitmap rows : bitmaps(source.getKey(), column, code, false)) rows.add(row);
+            }
+        }
+
+        // Compétences : liste séparée par des virgules, découpée une fois par valeur distincte
+        ColumnarTable.StringColumn competences = table.stringColumn(ResultTableModel.ATTR_COMPETENCES);
+        for (int row = from; row <= to; row++) {
+            int code = competences.code(row);
+            if (code < 0) continue;
+            for (RowBitmap rows : bitmaps(COMPETENCE, competences, code, true)) rows.add(row);
+        }
+
+        ColumnarTable.IntColumn min = table.intColumn(ResultTableModel.ATTR_EFFECTIF_MIN);
+        ColumnarTable.IntColumn max = table.intColumn(ResultTableModel.ATTR_EFFECTIF_MAX);
+        ColumnarTable.StringColumn naf = table.stringColumn(ResultTableModel.ATTR_NAF);
+        for (int row = from; row <= to; row++) {
+            // Taille : lignes d'entreprises uniquement (identifiées par leur code NAF ou effectif)
+            if (min.isNull(row) && naf.isNull(row)) continue;
+            String bucket = sizeBucket(min.isNull(row) ? null : min.getInt(row),
+                max.isNull(row) ? null : max.getInt(row));
+            bitmap(TAILLE, bucket).add(row);
+        }
+    }
+
+    public void clear() {
+        for (Map<String, RowBitmap> values : facets.values()) {
+            values.clear();
+        }
+        for (List<RowBitmap[]> codes : byCode.values()) {
+            codes.clear();
+        }
+    }
+
+    /**
+     * Lignes retenues par une sélection (facette -> valeurs cochées), null si rien n'est coché
+     */
+    public RowBitmap select(Map<String, Set<String>> selection) {
+        return select(selection, null);
+    }
+
+    /**
+     * Nombre de lignes par valeur d'une facette, compte tenu de la sélection des autres facettes
+     */
+    public Map<String, Integer> counts(String facet, Map<String, Set<String>> selection) {
+        RowBitmap others = select(selection, facet);
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<String, RowBitmap> entry : facets.get(facet).entrySet()) {
+            int count = others == null ? entry.getValue().cardinality() : entry.getValue().andCardinality(others);
+            if (count > 0) counts.put(entry.getKey(), count);
+        }
+        return counts;
+    }
+
+    private RowBitmap select(Map<String, Set<String>> selection, String excludedFacet) {
+        RowBitmap result = null;
+        for (Map.Entry<String, Set<String>> entry : selection.entrySet()) {
+            if (entry.getKey().equals(excludedFacet) || entry.getValue().isEmpty()) continue;
+            Map<String, RowBitmap> values = facets.get(entry.getKey());
+            RowBitmap union = new RowBitmap();
+            for (String value : entry.getValue()) {
+                RowBitmap rows = values.get(value);
+                if (rows != null) union = union.or(rows);
+            }
+            result = result == null ? union : result.and(union);
+        }
+        return result;
+    }
+
+    private RowBitmap[] bitmaps(String facet, ColumnarTable.StringColumn column, int code, boolean multiValued) {
+        List<RowBitmap[]> cache = byCode.get(facet);
+        while (cache.size() <= code) cache.add(null);
+        RowBitmap[] resolved = cache.get(code);
+        if (resolved == null) {
+            String raw = column.value(code);
+            List<RowBitmap> targets = new ArrayList<>();
+            for (String value : multiValued ? raw.split(",") : new String[]{raw}) {
+                String trimmed = value.trim();
+                if (trimmed.isEmpty() || trimmed.equals("N/A")) continue;
+                targets.add(bitmap(facet, trimmed));
+            }
+            resolved = targets.toArray(new RowBitmap[0]);
+            cache.set(code, resolved);
+        }
+        return resolved;
+    }
+
+    private RowBitmap bitmap(String facet, String value) {
+        return facets.get(facet).computeIfAbsent(value, k -> new RowBitmap());
+    }
+
+    /**
+     * Tranche de taille (effectifs INSEE regroupés)
+     */
+    static String sizeBucket(Integer min, Integer max) {
+        if (min == null) return "Non renseigné";
+        int size = max != null ? max : min;
+        if (size < 10) return "TPE (< 10)";
+        if (size < 50) return "Petite (10-49)";
+        if (size < 250) return "Moyenne (50-249)";
+        if (size < 5000) return "ETI (250-4999)";
+        return "Grande (5000+)";
+    }
+}
@@ -0,0 +1,126 @@
+package com.jobsearch;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Panneau de facettes : une liste par facette, valeurs triées par nombre
+ * de lignes, un clic coche / décoche une valeur. Chaque changement
+ * recalcule les compteurs et transmet le masque de lignes retenu (null
+ * si rien n'est coché).
+ */
+public class FacetPanel extends JPanel {
+
+    private static final int MAX_VALUES = 50;
+
+    private final FacetIndex index;
+    private final Consumer<RowBitmap> onSelection;
+    private final Map<String, Set<String>> selection = new LinkedHashMap<>();
+    private final Map<String, DefaultListModel<String>> models = new LinkedHashMap<>();
+    private final Map<String, JList<String>> lists = new LinkedHashMap<>();
+    // Valeur brute de chaque élément affiché ("valeur (n)")
+    private final Map<String, List<String>> displayed = new HashMap<>();
+    private boolean updating = false;
+
+    public FacetPanel(FacetIndex index, Consumer<RowBitmap> onSelection) {
+        this.index = index;
+        this.onSelection = onSelection;
+        setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+
+        JButton resetButton = new JButton("Toutes les lignes");
+        resetButton.setAlignmentX(Component.LEFT_ALIGNMENT);
+        resetButton.addActionListener(e -> {
+            selection.values().forEach(Set::clear);
+            refresh();
+            onSelection.accept(null);
+        });
+        add(resetButton);
+
+        for (String facet : FacetIndex.FACETS) {
+            selection.put(facet, new LinkedHashSet<>());
+            DefaultListModel<String> model = new DefaultListModel<>();
+            JList<String> list = new JList<>(model);
+            list.setVisibleRowCount(5);
+            list.setFont(new Font("Arial", Font.PLAIN, 11));
+            // Un clic bascule la valeur (pas besoin de Ctrl)
+            list.setSelectionModel(new DefaultListSelectionModel() {
+                @Override
+                public void setSelectionInterval(int index0, int index1) {
+                    if (isSelectedIndex(index0)) {
+                        removeSelectionInterval(index0, index1);
+                    } else {
+                        addSelectionInterval(index0, index1);
+                    }
+                }
+            });
+            list.addListSelectionListener(e -> {
+                if (updating || e.getValueIsAdjusting()) return;
+                Set<String> selected = selection.get(facet);
+                selected.clear();
+                List<String> values = displayed.getOrDefault(facet, List.of());
+                for (int i : list.getSelectedIndices()) {
+                    selected.add(values.get(i));
+                }
+                refresh();
+                onSelection.accept(index.select(selection));
+            });
+            JScrollPane scroll = new JScrollPane(list);
+            scroll.setBorder(BorderFactory.createTitledBorder(facet));
+            scroll.setAlignmentX(Component.LEFT_ALIGNMENT);
+            models.put(facet, model);
+            lists.put(facet, list);
+            add(scroll);
+        }
+    }
+
+    /**
+     * Masque de la sélection courante (null si rien n'est coché)
+     */
+    public RowBitmap currentMask() {
+        return index.select(selection);
+    }
+
+    /**
+     * Recalculer les compteurs de toutes les facettes
+     */
+    public void refresh() {
+        updating = true;
+        try {
+            for (String facet : FacetIndex.FACETS) {
+                Map<String, Integer> counts = index.counts(facet, selection);
+                Set<String> selected = selection.get(facet);
+
+                List<String> values = new ArrayList<>(counts.keySet());
+                values.sort((a, b) -> counts.get(b).equals(counts.get(a))
+                    ? a.compareTo(b) : Integer.compare(counts.get(b), counts.get(a)));
+                if (values.size() > MAX_VALUES) {
+                    values = new ArrayList<>(values.subList(0, MAX_VALUES));
+                }
+                // Les valeurs cochées restent visibles même sans ligne
+                for (String value : selected) {
+                    if (!values.contains(value)) values.add(value);
+                }
+
+                DefaultListModel<String> model = models.get(facet);
+                JList<String> list = lists.get(facet);
+                model.clear();
+                List<Integer> selectedIndices = new ArrayList<>();
+                for (int i = 0; i < values.size(); i++) {
+                    String value = values.get(i);
+                    model.addElement(value + " (" + counts.getOrDefault(value, 0) + ")");
+                    if (selected.contains(value)) selectedIndices.add(i);
+                }
+                displayed.put(facet, values);
+                list.clearSelection();
+                for (int i : selectedIndices) {
+                    list.addSelectionInterval(i, i);
+                }
+            }
+        } finally {
+            updating = false;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.jobsearch;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Champ de filtre des résultats (langage de ResultFilter).
+ *
+ * L'expression est compilée à la validation (Entrée) puis réévaluée sur
+ * les colonnes du tableau à chaque arrivée de lignes, sans recompilation.
+ * Une erreur de syntaxe est affichée à côté du champ.
+ */
+public class FilterBox extends JPanel {
+
+    private final ResultTableModel model;
+    private final RelevanceRowSorter sorter;
+    private final JTextField field = new JTextField(40);
+    private final JLabel statusLabel = new JLabel(" ");
+    private final Timer reevaluateTimer;
+    private ResultFilter filter;
+
+    public FilterBox(ResultTableModel model, RelevanceRowSorter sorter) {
+        super(new FlowLayout(FlowLayout.LEFT));
+        this.model = model;
+        this.sorter = sorter;
+
+        field.setToolTipText("<html>Ex: dept in (75,92) and contrat = CDI and salaireMin >= 45000<br>"
+            + "Champs: " + String.join(", ", model.filterFields().keySet()) + "</html>");
+        field.addActionListener(e -> apply());
+
+        JButton resetButton = new JButton("✕");
+        resetButton.setToolTipText("Retirer le filtre");
+        resetButton.addActionListener(e -> {
+            field.setText("");
+            apply();
+        });
+
+        // Les lignes ajoutées après la compilation sont filtrées par lot
+        reevaluateTimer = new Timer(200, e -> evaluate());
+        reevaluateTimer.setRepeats(false);
+        model.addTableModelListener(e -> {
+            if (filter != null) reevaluateTimer.restart();
+        });
+
+        add(new JLabel("⚙ Filtre:"));
+        add(field);
+        add(resetButton);
+        add(statusLabel);
+    }
+
+    private void apply() {
+        String expression = field.getText().trim();
+        if (expression.isEmpty()) {
+            filter = null;
+            sorter.setFilterMask(null);
+            statusLabel.setText(" ");
+            return;
+        }
+        try {
+            filter = ResultFilter.compile(expression, model.filterFields(), model.getColumns());
+            statusLabel.setForeground(UIManager.getColor("Label.foreground"));
+            evaluate();
+        } catch (ResultFilter.FilterException e) {
+            filter = null;
+            sorter.setFilterMask(null);
+            statusLabel.setForeground(Color.RED);
+            statusLabel.setText("✗ " + e.getMessage());
+        }
+    }
+
+    private void evaluate() {
+        if (filter == null) return;
+        long start = System.nanoTime();
+        RowBitmap rows = filter.evaluate(model.getColumns());
+        double elapsed = (System.nanoTime() - start) / 1_000_000.0;
+        sorter.setFilterMask(rows);
+        statusLabel.setText(rows.cardinality() + " lignes retenues (" + String.format("%.1f", elapsed) + " ms)");
+    }
+}
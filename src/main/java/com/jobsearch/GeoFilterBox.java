@@ -0,0 +1,172 @@
+package com.jobsearch;
+
+import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtre géographique des résultats : offres dans un rayon autour d'un ou
+ * plusieurs points (domicile, bureau...), ou les K offres les plus proches.
+ *
+ * Chaque point est saisi en "latitude, longitude" ou par un nom de ville
+ * présent dans le tableau (barycentre des offres de cette ville), plusieurs
+ * points séparés par "|". Les lignes sont indexées (GeoIndex) au fil de
+ * leur ajout ; le filtre actif et la colonne calculée du modèle (distance
+ * au point le plus proche) sont recalculés par lot à l'arrivée de lignes.
+ */
+public class GeoFilterBox extends JPanel {
+
+    private static final String MODE_RADIUS = "Rayon (km)";
+    private static final String MODE_NEAREST = "Plus proches";
+
+    private final ResultTableModel model;
+    private final RelevanceRowSorter sorter;
+    private final GeoIndex index = new GeoIndex();
+    private final JTextField centerField = new JTextField(18);
+    private final JComboBox<String> modeCombo = new JComboBox<>(new String[]{MODE_RADIUS, MODE_NEAREST});
+    private final JSpinner valueSpinner = new JSpinner(new SpinnerNumberModel(30, 1, 20000, 5));
+    private final JLabel statusLabel = new JLabel(" ");
+    private final Timer reevaluateTimer;
+    private double[][] origins;
+
+    public GeoFilterBox(ResultTableModel model, RelevanceRowSorter sorter) {
+        super(new FlowLayout(FlowLayout.LEFT));
+        this.model = model;
+        this.sorter = sorter;
+
+        centerField.setToolTipText("Ville présente dans les résultats, ou \"48.85, 2.35\" ; plusieurs lieux séparés par |");
+        centerField.addActionListener(e -> apply());
+
+        JButton applyButton = new JButton("Appliquer");
+        applyButton.addActionListener(e -> apply());
+
+        JButton resetButton = new JButton("✕");
+        resetButton.setToolTipText("Retirer le filtre géographique");
+        resetButton.addActionListener(e -> {
+            centerField.setText("");
+            apply();
+        });
+
+        reevaluateTimer = new Timer(200, e -> evaluate());
+        reevaluateTimer.setRepeats(false);
+        model.addTableModelListener(e -> {
+            if (e.getType() == TableModelEvent.INSERT) {
+                index.addRows(model.getColumns(), e.getFirstRow(), e.getLastRow());
+            } else if (model.getRowCount() == 0) {
+                index.clear();
+            }
+            // Les événements de mise à jour viennent aussi de la colonne distance
+            if (origins != null && e.getType() == TableModelEvent.INSERT) reevaluateTimer.restart();
+        });
+
+        add(new JLabel("📍 Autour de:"));
+        add(centerField);
+        add(modeCombo);
+        add(valueSpinner);
+        add(applyButton);
+        add(resetButton);
+        add(statusLabel);
+    }
+
+    private void apply() {
+        String text = centerField.getText().trim();
+        statusLabel.setForeground(UIManager.getColor("Label.foreground"));
+        origins = null;
+        if (text.isEmpty()) {
+            sorter.setGeoMask(null);
+            model.setDerivedValues(null);
+            statusLabel.setText(" ");
+            return;
+        }
+        List<double[]> resolved = new ArrayList<>();
+        for (String place : text.split("\\|")) {
+            if (place.isBlank()) continue;
+            double[] point = resolveCenter(place.trim());
+            if (point == null) {
+                sorter.setGeoMask(null);
+                model.setDerivedValues(null);
+                statusLabel.setForeground(Color.RED);
+                statusLabel.setText("✗ Lieu introuvable dans les résultats: " + place.trim());
+                return;
+            }
+            resolved.add(point);
+        }
+        origins = resolved.toArray(new double[0][]);
+        evaluate();
+        // Tri par distance croissante, sauf si un affinage trie déjà par pertinence
+        if (!sorter.hasScores()) {
+            sorter.setSortKeys(List.of(new RowSorter.SortKey(model.getColumnCount() - 1, SortOrder.ASCENDING)));
+        }
+    }
+
+    private void evaluate() {
+        if (origins == null) return;
+        int value = ((Number) valueSpinner.getValue()).intValue();
+        long start = System.nanoTime();
+        double[] distances = index.distancesKm(origins, model.getRowCount());
+        RowBitmap rows = new RowBitmap();
+        if (MODE_NEAREST.equals(modeCombo.getSelectedItem())) {
+            // Les K plus proches d'un des lieux sont parmi les K plus proches de chacun
+            List<Integer> candidates = new ArrayList<>();
+            for (double[] origin : origins) {
+                for (int row : index.nearest(origin[0], origin[1], value)) candidates.add(row);
+            }
+            candidates.stream().distinct()
+                .sorted((a, b) -> Double.compare(distances[a], distances[b]))
+                .limit(value)
+                .forEach(rows::add);
+        } else {
+            for (double[] origin : origins) {
+                rows = rows.or(index.withinRadius(origin[0], origin[1], value));
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1_000_000.0;
+        model.setDerivedValues(distances);
+        sorter.setGeoMask(rows);
+        statusLabel.setText(rows.cardinality() + " / " + index.size() + " offres localisées ("
+            + String.format("%.1f", elapsed) + " ms)");
+    }
+
+    /**
+     * "lat, lon" ou barycentre des lignes dont la ville commence par le texte saisi
+     */
+    private double[] resolveCenter(String text) {
+        String[] parts = text.split("[,;\\s]+");
+        if (parts.length == 2) {
+            try {
+                double lat = Double.parseDouble(parts[0]);
+                double lon = Double.parseDouble(parts[1]);
+                if (Math.abs(lat) <= 90 && Math.abs(lon) <= 180) return new double[]{lat, lon};
+            } catch (NumberFormatException ignored) {
+                // Nom de ville
+            }
+        }
+
+        String villeColumn = model.filterFields().get("ville");
+        if (villeColumn == null) return null;
+        ColumnarTable table = model.getColumns();
+        ColumnarTable.StringColumn ville = table.stringColumn(villeColumn);
+        ColumnarTable.DoubleColumn lat = (ColumnarTable.DoubleColumn) table.column(ResultTableModel.ATTR_LATITUDE);
+        ColumnarTable.DoubleColumn lon = (ColumnarTable.DoubleColumn) table.column(ResultTableModel.ATTR_LONGITUDE);
+
+        // Une comparaison par valeur du dictionnaire, pas par ligne
+        String wanted = ResultFilter.normalizeField(text);
+        boolean[] matches = new boolean[ville.dictionarySize()];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = !wanted.isEmpty() && ResultFilter.normalizeField(ville.value(code)).startsWith(wanted);
+        }
+        double sumLat = 0, sumLon = 0;
+        int count = 0;
+        for (int row = 0; row < table.rowCount(); row++) {
+            int code = ville.code(row);
+            if (code >= 0 && matches[code] && !lat.isNull(row) && !lon.isNull(row)) {
+                sumLat += lat.getDouble(row);
+                sumLon += lon.getDouble(row);
+                count++;
+            }
+        }
+        return count > 0 ? new double[]{sumLat / count, sumLon / count} : null;
+    }
+}
@@ -0,0 +1,229 @@
+package com.jobsearch;
+
+import java.util.*;
+
+/**
+ * Index spatial des lignes de résultats (grille geohash).
+ *
+ * Chaque point reçoit une clé geohash de 52 bits (bits de longitude et de
+ * latitude entrelacés, précision inférieure au mètre) rangée dans un
+ * arbre trié. Tous les points d'une cellule geohash, quel que soit son
+ * niveau, occupent un intervalle contigu de clés : une recherche dans un
+ * rayon choisit le niveau dont les cellules couvrent le cercle en au plus
+ * 2 x 2 cellules, lit ces intervalles (O(log n + k)) puis ne garde que les
+ * points à la bonne distance. Les K plus proches voisins s'obtiennent par
+ * rayons croissants.
+ *
+ * Les vecteurs unitaires des points sont aussi gardés en tableaux
+ * primitifs par ligne pour le calcul en bloc des distances à plusieurs
+ * origines (DistanceKernel).
+ *
+ * Alimenté au fil de l'ajout des lignes. À utiliser depuis l'EDT.
+ */
+public class GeoIndex {
+
+    private static final int BITS = 26; // par axe
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final TreeMap<Long, int[]> cells = new TreeMap<>();
+    private double[] latitudes = new double[1024];
+    private double[] longitudes = new double[1024];
+    // Vecteurs unitaires par ligne (NaN : ligne sans coordonnées)
+    private double[] xs = nanArray(1024);
+    private double[] ys = nanArray(1024);
+    private double[] zs = nanArray(1024);
+    private int size;
+
+    /**
+     * Indexer un point (identifiant = numéro de ligne)
+     */
+    public void add(int id, double latitude, double longitude) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)
+                || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            return;
+        }
+        ensureCapacity(id + 1);
+        latitudes[id] = latitude;
+        longitudes[id] = longitude;
+        double[] unit = DistanceKernel.unitVector(latitude, longitude);
+        xs[id] = unit[0];
+        ys[id] = unit[1];
+        zs[id] = unit[2];
+        cells.merge(key(latitude, longitude), new int[]{id}, (a, b) -> {
+            int[] merged = Arrays.copyOf(a, a.length + 1);
+            merged[a.length] = id;
+            return merged;
+        });
+        size++;
+    }
+
+    /**
+     * Indexer les lignes [from, to] ayant des coordonnées
+     */
+    public void addRows(ColumnarTable table, int from, int to) {
+        ColumnarTable.DoubleColumn lat = (ColumnarTable.DoubleColumn) table.column(ResultTableModel.ATTR_LATITUDE);
+        ColumnarTable.DoubleColumn lon = (ColumnarTable.DoubleColumn) table.column(ResultTableModel.ATTR_LONGITUDE);
+        for (int row = from; row <= to; row++) {
+            if (!lat.isNull(row) && !lon.isNull(row)) {
+                add(row, lat.getDouble(row), lon.getDouble(row));
+            }
+        }
+    }
+
+    public void clear() {
+        cells.clear();
+        Arrays.fill(xs, Double.NaN);
+        Arrays.fill(ys, Double.NaN);
+        Arrays.fill(zs, Double.NaN);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Points à moins de radiusKm du centre
+     */
+    public RowBitmap withinRadius(double latitude, double longitude, double radiusKm) {
+        RowBitmap result = new RowBitmap();
+        forEachCandidate(latitude, longitude, radiusKm, id -> {
+            if (distanceKm(latitude, longitude, latitudes[id], longitudes[id]) <= radiusKm) {
+                result.add(id);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Les k points les plus proches du centre, du plus proche au plus éloigné
+     */
+    public int[] nearest(double latitude, double longitude, int k) {
+        if (k <= 0 || size == 0) return new int[0];
+        double radius = 1;
+        while (true) {
+            List<double[]> found = new ArrayList<>();
+            double r = radius;
+            forEachCandidate(latitude, longitude, r, id -> {
+                double d = distanceKm(latitude, longitude, latitudes[id], longitudes[id]);
+                if (d <= r) found.add(new double[]{d, id});
+            });
+            // Au moins k points dans le cercle : ce sont les k plus proches
+            if (found.size() >= k || found.size() == size || radius > Math.PI * EARTH_RADIUS_KM) {
+                found.sort(Comparator.comparingDouble(entry -> entry[0]));
+                int count = Math.min(k, found.size());
+                int[] ids = new int[count];
+                for (int i = 0; i < count; i++) ids[i] = (int) found.get(i)[1];
+                return ids;
+            }
+            radius *= 2;
+        }
+    }
+
+    /**
+     * Distance (km) de chaque ligne [0, rowCount) à l'origine la plus proche
+     * (origins = couples latitude, longitude), NaN pour une ligne non localisée
+     */
+    public double[] distancesKm(double[][] origins, int rowCount) {
+        ensureCapacity(rowCount);
+        double[] flat = new double[origins.length * 3];
+        for (int o = 0; o < origins.length; o++) {
+            System.arraycopy(DistanceKernel.unitVector(origins[o][0], origins[o][1]), 0, flat, o * 3, 3);
+        }
+        double[] distances = new double[rowCount];
+        DistanceKernel.minChordSquared(xs, ys, zs, rowCount, flat, distances);
+        for (int i = 0; i < rowCount; i++) {
+            distances[i] = DistanceKernel.chordSquaredToKm(distances[i]);
+        }
+        return distances;
+    }
+
+    /**
+     * Distance orthodromique (formule de haversine) en kilomètres
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void forEachCandidate(double latitude, double longitude, double radiusKm,
+                                  java.util.function.IntConsumer consumer) {
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double cos = Math.cos(Math.toRadians(latitude));
+        double dLon = cos < 1e-6 ? 360 : radiusKm / (KM_PER_DEGREE * cos);
+        double latMin = Math.max(-90, latitude - dLat), latMax = Math.min(90, latitude + dLat);
+        double lonMin = Math.max(-180, longitude - dLon), lonMax = Math.min(180, longitude + dLon);
+
+        // Niveau le plus fin dont les cellules sont au moins aussi larges que la boîte englobante
+        int level = BITS;
+        while (level > 0 && (180.0 / (1 << level) < latMax - latMin || 360.0 / (1 << level) < lonMax - lonMin)) {
+            level--;
+        }
+        int shift = BITS - level;
+        int xMin = lonIndex(lonMin) >>> shift, xMax = lonIndex(lonMax) >>> shift;
+        int yMin = latIndex(latMin) >>> shift, yMax = latIndex(latMax) >>> shift;
+        for (int x = xMin; x <= xMax; x++) {
+            for (int y = yMin; y <= yMax; y++) {
+                long prefix = interleave(x, y);
+                long from = prefix << (2 * shift);
+                long to = (prefix + 1) << (2 * shift);
+                for (int[] ids : cells.subMap(from, true, to, false).values()) {
+                    for (int id : ids) consumer.accept(id);
+                }
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= latitudes.length) return;
+        int newCapacity = Math.max(capacity, latitudes.length * 2);
+        int old = latitudes.length;
+        latitudes = Arrays.copyOf(latitudes, newCapacity);
+        longitudes = Arrays.copyOf(longitudes, newCapacity);
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+        zs = Arrays.copyOf(zs, newCapacity);
+        Arrays.fill(xs, old, newCapacity, Double.NaN);
+        Arrays.fill(ys, old, newCapacity, Double.NaN);
+        Arrays.fill(zs, old, newCapacity, Double.NaN);
+    }
+
+    private static double[] nanArray(int length) {
+        double[] array = new double[length];
+        Arrays.fill(array, Double.NaN);
+        return array;
+    }
+
+    private static long key(double latitude, double longitude) {
+        return interleave(lonIndex(longitude), latIndex(latitude));
+    }
+
+    private static int lonIndex(double longitude) {
+        return (int) Math.min((1 << BITS) - 1, Math.floor((longitude + 180) / 360 * (1 << BITS)));
+    }
+
+    private static int latIndex(double latitude) {
+        return (int) Math.min((1 << BITS) - 1, Math.floor((latitude + 90) / 180 * (1 << BITS)));
+    }
+
+    /**
+     * Entrelacement des bits (longitude en poids fort, comme le geohash)
+     */
+    private static long interleave(int x, int y) {
+        return (spread(x) << 1) | spread(y);
+    }
+
+    private static long spread(int value) {
+        long v = value & 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+}
@@ -0,0 +1,277 @@
+package com.jobsearch;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Dynamique de recrutement : nombre d'offres publiées par entreprise et
+ * département sur les 7 / 30 / 90 derniers jours.
+ *
+ * Chaque série (identité de l'entreprise + département) est un tampon circulaire de
+ * 90 compteurs journaliers, accompagné des trois sommes glissantes. Une
+ * offre incrémente son jour et les sommes dont la fenêtre le contient ;
+ * le passage d'un jour retire des sommes les compteurs sortis de chaque
+ * fenêtre. Un classement lit les sommes, sans jamais reparcourir les offres.
+ *
+ * Chaque offre n'est comptée qu'une fois (ids mémorisés sur l'horizon de
+ * 90 jours), même si elle revient à chaque synchronisation. Les séries sont
+ * conservées d'une session à l'autre : elles sont indexées par
+ * Company.getIdentityKey (SIREN, sinon nom normalisé et département), pas par
+ * la clé du registre qui dépend de la première fiche vue dans la session.
+ */
+public class HiringVelocity {
+
+    private static final int MAGIC = 0x48564C31; // "HVL1"
+    private static final int HORIZON = 90;
+    private static final int[] WINDOWS = {7, 30, 90};
+
+    /**
+     * Série d'une entreprise dans un département
+     */
+    public static final class Series {
+        public final String companyKey;
+        public final String departement;
+        private String companyName;
+        private final int[] buckets = new int[HORIZON];
+        private final int[] sums = new int[WINDOWS.length];
+        private long day; // Dernier jour pris en compte (epoch day)
+
+        Series(String companyKey, String departement, long day) {
+            this.companyKey = companyKey;
+            this.departement = departement;
+            this.day = day;
+        }
+
+        public String getCompanyName() {
+            return companyName;
+        }
+
+        public int last7Days() {
+            return sums[0];
+        }
+
+        public int last30Days() {
+            return sums[1];
+        }
+
+        public int last90Days() {
+            return sums[2];
+        }
+
+        /**
+         * Rythme des 7 derniers jours rapporté à celui des 90 derniers (1 = stable)
+         */
+        public double trend() {
+            return sums[2] == 0 ? 0 : (sums[0] / 7.0) / (sums[2] / 90.0);
+        }
+
+        /**
+         * Avancer jusqu'au jour donné : les compteurs sortis des fenêtres sont retirés des sommes
+         */
+        void advanceTo(long today) {
+            if (today <= day) return;
+            if (today - day >= HORIZON) {
+                Arrays.fill(buckets, 0);
+                Arrays.fill(sums, 0);
+                day = today;
+                return;
+            }
+            while (day < today) {
+                day++;
+                for (int w = 0; w < WINDOWS.length; w++) {
+                    long leaving = day - WINDOWS[w];
+                    sums[w] -= buckets[slot(leaving)];
+                }
+                // Le compteur du jour sorti de l'horizon devient celui du nouveau jour
+                buckets[slot(day)] = 0;
+            }
+        }
+
+        void add(long eventDay) {
+            long age = day - eventDay;
+            if (age < 0 || age >= HORIZON) return;
+            buckets[slot(eventDay)]++;
+            for (int w = 0; w < WINDOWS.length; w++) {
+                if (age < WINDOWS[w]) sums[w]++;
+            }
+        }
+
+        void recomputeSums() {
+            Arrays.fill(sums, 0);
+            for (int age = 0; age < HORIZON; age++) {
+                int count = buckets[slot(day - age)];
+                for (int w = 0; w < WINDOWS.length; w++) {
+                    if (age < WINDOWS[w]) sums[w] += count;
+                }
+            }
+        }
+
+        private static int slot(long day) {
+            return Math.floorMod(day, HORIZON);
+        }
+    }
+
+    private final File file;
+    private final Map<String, Series> series = new HashMap<>();
+    // Offres déjà comptées -> jour de publication (purgé au-delà de l'horizon)
+    private final Map<String, Long> countedOffers = new HashMap<>();
+    private boolean dirty = false;
+
+    public HiringVelocity(File file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * Compter la publication d'une offre (une seule fois par id)
+     */
+    public synchronized void record(String companyKey, String companyName, String departement,
+                                    String offerId, String dateCreation) {
+        if (companyKey == null) return;
+        long today = today();
+        long eventDay = parseDay(dateCreation, today);
+        if (offerId != null && countedOffers.putIfAbsent(offerId, eventDay) != null) {
+            return;
+        }
+        String dept = departement != null ? departement : "N/A";
+        Series s = series.computeIfAbsent(companyKey + "|" + dept, k -> new Series(companyKey, dept, today));
+        if (companyName != null) s.companyName = companyName;
+        s.advanceTo(today);
+        s.add(Math.min(eventDay, today));
+        dirty = true;
+    }
+
+    /**
+     * Classement des entreprises par nombre d'offres sur une fenêtre (7, 30 ou 90 jours)
+     */
+    public synchronized List<Series> ranking(int windowDays, String departement, int limit) {
+        int w = windowIndex(windowDays);
+        long today = today();
+        List<Series> result = new ArrayList<>();
+        for (Series s : series.values()) {
+            if (departement != null && !departement.equals(s.departement)) continue;
+            s.advanceTo(today);
+            if (s.sums[w] > 0) result.add(s);
+        }
+        result.sort((a, b) -> b.sums[w] != a.sums[w]
+            ? Integer.compare(b.sums[w], a.sums[w])
+            : Integer.compare(b.sums[2], a.sums[2]));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    public synchronized int seriesCount() {
+        return series.size();
+    }
+
+    /**
+     * Sauvegarder (séries actives et offres comptées sur l'horizon)
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) return;
+        long today = today();
+        countedOffers.values().removeIf(day -> today - day >= HORIZON);
+
+        File parent = file.getParentFile();
+        if (parent != null) parent.mkdirs();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeLong(today);
+
+            List<Series> active = new ArrayList<>();
+            for (Series s : series.values()) {
+                s.advanceTo(today);
+                if (s.sums[2] > 0) active.add(s);
+            }
+            out.writeInt(active.size());
+            for (Series s : active) {
+                out.writeUTF(s.companyKey);
+                out.writeUTF(s.departement);
+                out.writeUTF(s.companyName != null ? s.companyName : "");
+                // Compteurs non nuls uniquement (âge, nombre)
+                int nonZero = 0;
+                for (int count : s.buckets) if (count != 0) nonZero++;
+                out.writeByte(nonZero);
+                for (int age = 0; age < HORIZON; age++) {
+                    int count = s.buckets[Series.slot(today - age)];
+                    if (count != 0) {
+                        out.writeByte(age);
+                        out.writeInt(count);
+                    }
+                }
+            }
+
+            out.writeInt(countedOffers.size());
+            for (Map.Entry<String, Long> entry : countedOffers.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeShort((int) (today - entry.getValue()));
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        dirty = false;
+    }
+
+    private void load() {
+        if (!file.exists()) return;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                System.err.println("⚠ Historique de recrutement ignoré (format inconnu): " + file);
+                return;
+            }
+            long savedDay = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Series s = new Series(in.readUTF(), in.readUTF(), savedDay);
+                String name = in.readUTF();
+                s.companyName = name.isEmpty() ? null : name;
+                int nonZero = in.readUnsignedByte();
+                for (int k = 0; k < nonZero; k++) {
+                    int age = in.readUnsignedByte();
+                    s.buckets[Series.slot(savedDay - age)] = in.readInt();
+                }
+                s.recomputeSums();
+                series.put(s.companyKey + "|" + s.departement, s);
+            }
+            int offers = in.readInt();
+            for (int i = 0; i < offers; i++) {
+                countedOffers.put(in.readUTF(), savedDay - in.readShort());
+            }
+        } catch (IOException e) {
+            System.err.println("⚠ Lecture de l'historique de recrutement impossible: " + e.getMessage());
+            series.clear();
+            countedOffers.clear();
+        }
+    }
+
+    private static int windowIndex(int windowDays) {
+        for (int w = 0; w < WINDOWS.length; w++) {
+            if (WINDOWS[w] == windowDays) return w;
+        }
+        throw new IllegalArgumentException("Fenêtre non suivie: " + windowDays + " jours");
+    }
+
+    private static long today() {
+        return LocalDate.now(ZoneOffset.UTC).toEpochDay();
+    }
+
+    private static long parseDay(String date, long fallback) {
+        if (date == null || date.isEmpty()) return fallback;
+        try {
+            return Instant.parse(date).atZone(ZoneOffset.UTC).toLocalDate().toEpochDay();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDate.parse(date.length() >= 10 ? date.substring(0, 10) : date).toEpochDay();
+            } catch (DateTimeParseException e2) {
+                return fallback;
+            }
+        }
+    }
+}
@@ -213,6 +213,52 @@ public class JobOffer {
         return sb.toString();
     }
     
+    /**
+     * Salaire annuel minimum en euros, déduit du libellé (null si absent)
+     */
+    public Double getSalaireAnnuelMin() {
+        double[] range = salaireAnnuel();
+        return range != null ? range[0] : null;
+    }
+    
+    /**
+     * Salaire annuel maximum en euros, déduit du libellé (null si absent)
+     */
+    public Double getSalaireAnnuelMax() {
+        double[] range = salaireAnnuel();
+        return range != null ? range[1] : null;
+    }
+    
+    /**
+     * "Annuel de 40000.0 Euros à 45000.0 Euros", "Mensuel de 2500.0 Euros sur 13 mois", "Horaire de 12.0 Euros"
+     */
+    private double[] salaireAnnuel() {
+        if (salaire == null) return null;
+        String libelle = salaire.toLowerCase();
+        int sur = libelle.indexOf(" sur ");
+        String montants = sur >= 0 ? libelle.substring(0, sur) : libelle;
+        java.util.regex.Matcher matcher = java.util.regex.Pattern.compile("\\d+(?:[.,]\\d+)?").matcher(montants);
+        java.util.List<Double> values = new java.util.ArrayList<>();
+        while (matcher.find() && values.size() < 2) {
+            values.add(Double.parseDouble(matcher.group().replace(',', '.')));
+        }
+        if (values.isEmpty()) return null;
+        
+        double factor = 1;
+        if (libelle.startsWith("mensuel")) {
+            factor = 12;
+            if (sur >= 0) {
+                java.util.regex.Matcher mois = java.util.regex.Pattern.compile("(\\d+(?:[.,]\\d+)?) mois").matcher(libelle.substring(sur));
+                if (mois.find()) factor = Double.parseDouble(mois.group(1).replace(',', '.'));
+            }
+        } else if (libelle.startsWith("horaire")) {
+            factor = 1607; // Durée légale annuelle
+        }
+        double min = values.get(0) * factor;
+        double max = (values.size() > 1 ? values.get(1) : values.get(0)) * factor;
+        return new double[]{min, max};
+    }
+    
     /**
      * Informations de contact formatées
      */
@@ -0,0 +1,391 @@
+package com.jobsearch;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Base locale embarquée (sans serveur) des offres et entreprises.
+ *
+ * Les offres sont journalisées dans un OfferLog (segments binaires lus par
+ * mmap), les entreprises en JSON (une par ligne) ; dans les deux cas la
+ * dernière version l'emporte et tout est rechargé au démarrage.
+ * Des index secondaires en mémoire (département, code NAF, type de contrat,
+ * date d'actualisation, SIREN) permettent de rouvrir des résultats passés
+ * sans aucun appel réseau.
+ */
+public class LocalStore {
+
+    private static final String OFFERS_LOG_DIR = "offers";
+    private static final String COMPANIES_FILE = "companies.jsonl";
+
+    // Compactage du journal d'offres au-delà de ce nombre de segments
+    private static final int MAX_OFFER_SEGMENTS = 4;
+
+    private final File directory;
+    private final Gson gson = new Gson();
+    private final int offerExpiryDays;
+    private OfferLog offerLog;
+
+    // Données
+    private final Map<String, JobOffer> offersById = new LinkedHashMap<>();
+    private final Map<String, Company> companiesByKey = new LinkedHashMap<>();
+
+    // Index secondaires des offres
+    private final Map<String, Set<String>> offersByDepartement = new HashMap<>();
+    private final Map<String, Set<String>> offersByNaf = new HashMap<>();
+    private final Map<String, Set<String>> offersByContrat = new HashMap<>();
+    private final TreeMap<String, Set<String>> offersByDateActualisation = new TreeMap<>();
+
+    // Index secondaires des entreprises
+    private final Map<String, Set<String>> companiesBySiren = new HashMap<>();
+    private final Map<String, Set<String>> companiesByNaf = new HashMap<>();
+    private final Map<String, Set<String>> companiesByDepartement = new HashMap<>();
+
+    // Lignes journalisées (pour décider d'un compactage)
+    private int companyLogLines = 0;
+
+    public LocalStore(File directory, int offerExpiryDays) {
+        this.directory = directory;
+        this.offerExpiryDays = offerExpiryDays;
+        if (!directory.exists() && !directory.mkdirs()) {
+            System.err.println("Impossible de créer le répertoire de la base locale: " + directory);
+        }
+        load();
+    }
+
+    /**
+     * Critères de requête locale (null = pas de filtre)
+     */
+    public static class OfferQuery {
+        public Collection<String> departements;
+        public String codeNAF;
+        public String typeContrat;
+        public String dateActualisationMin; // ISO-8601, comparaison lexicographique
+    }
+
+    // ------------------------------------------------------------------
+    // Écriture
+    // ------------------------------------------------------------------
+
+    /**
+     * Enregistrer (ou mettre à jour) des offres
+     */
+    public synchronized void putOffers(Collection<JobOffer> offers) throws IOException {
+        List<JobOffer> changed = new ArrayList<>();
+        for (JobOffer offer : offers) {
+            if (isChanged(offer)) changed.add(offer);
+        }
+        if (changed.isEmpty()) return;
+
+        offerLog.appendAll(changed);
+        changed.forEach(this::indexOffer);
+        compactIfNeeded();
+    }
+
+    /**
+     * Enregistrer une offre au fil de l'ingestion (sans écriture si elle est inchangée)
+     */
+    public synchronized void putOffer(JobOffer offer) {
+        if (!isChanged(offer)) return;
+        try {
+            offerLog.append(offer);
+            indexOffer(offer);
+        } catch (IOException e) {
+            System.err.println("⚠ Écriture de l'offre " + offer.getId() + " impossible: " + e.getMessage());
+        }
+    }
+
+    private boolean isChanged(JobOffer offer) {
+        if (offer.getId() == null) return false;
+        JobOffer stored = offersById.get(offer.getId());
+        return stored == null
+            || !Objects.equals(stored.getDateActualisation(), offer.getDateActualisation())
+            || OfferStore.contentFingerprint(stored) != OfferStore.contentFingerprint(offer);
+    }
+
+    /**
+     * Enregistrer (ou mettre à jour) des entreprises ; seules celles qui apportent du nouveau sont journalisées
+     */
+    public synchronized void putCompanies(Collection<Company> companies) throws IOException {
+        List<Company> changed = new ArrayList<>();
+        for (Company company : companies) {
+            if (isChanged(company)) changed.add(company);
+        }
+        if (changed.isEmpty()) return;
+
+        try (Writer writer = appender(COMPANIES_FILE)) {
+            for (Company company : changed) {
+                writer.write(gson.toJson(company));
+                writer.write('\n');
+                indexCompany(company);
+                companyLogLines++;
+            }
+        }
+        compactIfNeeded();
+    }
+
+    private boolean isChanged(Company company) {
+        Company stored = companiesByKey.get(company.getIdentityKey());
+        if (stored == null) return true;
+        Company merged = stored.copy();
+        merged.mergeFrom(company);
+        return !gson.toJson(merged).equals(gson.toJson(stored));
+    }
+
+    // ------------------------------------------------------------------
+    // Lecture
+    // ------------------------------------------------------------------
+
+    public synchronized JobOffer getOffer(String id) {
+        return offersById.get(id);
+    }
+
+    public synchronized int offerCount() {
+        return offersById.size();
+    }
+
+    public synchronized int companyCount() {
+        return companiesByKey.size();
+    }
+
+    /**
+     * Rechercher des offres via les index (intersection en partant du plus petit ensemble)
+     */
+    public synchronized List<JobOffer> findOffers(OfferQuery query) {
+        List<Set<String>> candidates = new ArrayList<>();
+
+        if (query.departements != null) {
+            Set<String> union = new HashSet<>();
+            for (String dept : query.departements) {
+                union.addAll(offersByDepartement.getOrDefault(dept, Set.of()));
+            }
+            candidates.add(union);
+        }
+        if (query.codeNAF != null) {
+            candidates.add(offersByNaf.getOrDefault(query.codeNAF, Set.of()));
+        }
+        if (query.typeContrat != null) {
+            candidates.add(offersByContrat.getOrDefault(query.typeContrat, Set.of()));
+        }
+        if (query.dateActualisationMin != null) {
+            Set<String> recent = new HashSet<>();
+            for (Set<String> ids : offersByDateActualisation.tailMap(query.dateActualisationMin, true).values()) {
+                recent.addAll(ids);
+            }
+            candidates.add(recent);
+        }
+
+        if (candidates.isEmpty()) {
+            return new ArrayList<>(offersById.values());
+        }
+
+        candidates.sort(Comparator.comparingInt(Set::size));
+        List<JobOffer> result = new ArrayList<>();
+        outer:
+        for (String id : candidates.get(0)) {
+            for (int i = 1; i < candidates.size(); i++) {
+                if (!candidates.get(i).contains(id)) continue outer;
+            }
+            result.add(offersById.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * Rechercher des entreprises par département (null = toutes) et code NAF (null = tous)
+     */
+    public synchronized List<Company> findCompanies(Collection<String> departements, String codeNAF) {
+        Set<String> keys;
+        if (departements != null) {
+            keys = new LinkedHashSet<>();
+            for (String dept : departements) {
+                keys.addAll(companiesByDepartement.getOrDefault(dept, Set.of()));
+            }
+        } else {
+            keys = companiesByKey.keySet();
+        }
+
+        List<Company> result = new ArrayList<>();
+        Set<String> nafKeys = codeNAF != null ? companiesByNaf.getOrDefault(codeNAF, Set.of()) : null;
+        for (String key : keys) {
+            if (nafKeys == null || nafKeys.contains(key)) {
+                result.add(companiesByKey.get(key));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Entreprises portant un SIREN donné
+     */
+    public synchronized List<Company> findCompaniesBySiren(String siren) {
+        List<Company> result = new ArrayList<>();
+        for (String key : companiesBySiren.getOrDefault(siren, Set.of())) {
+            result.add(companiesByKey.get(key));
+        }
+        return result;
+    }
+
+    // ------------------------------------------------------------------
+    // Indexation
+    // ------------------------------------------------------------------
+
+    private void indexOffer(JobOffer offer) {
+        JobOffer previous = offersById.put(offer.getId(), offer);
+        if (previous != null) {
+            unindex(offersByDepartement, previous.getDepartement(), previous.getId());
+            unindex(offersByNaf, previous.getSecteurActivite(), previous.getId());
+            unindex(offersByContrat, previous.getTypeContrat(), previous.getId());
+            unindex(offersByDateActualisation, previous.getDateActualisation(), previous.getId());
+        }
+        index(offersByDepartement, offer.getDepartement(), offer.getId());
+        index(offersByNaf, offer.getSecteurActivite(), offer.getId());
+        index(offersByContrat, offer.getTypeContrat(), offer.getId());
+        index(offersByDateActualisation, offer.getDateActualisation(), offer.getId());
+    }
+
+    private void removeOffer(JobOffer offer) {
+        offersById.remove(offer.getId());
+        unindex(offersByDepartement, offer.getDepartement(), offer.getId());
+        unindex(offersByNaf, offer.getSecteurActivite(), offer.getId());
+        unindex(offersByContrat, offer.getTypeContrat(), offer.getId());
+        unindex(offersByDateActualisation, offer.getDateActualisation(), offer.getId());
+    }
+
+    private void indexCompany(Company company) {
+        String key = company.getIdentityKey();
+        Company previous = companiesByKey.get(key);
+        if (previous != null) {
+            // Même entreprise : compléter la fiche existante
+            Company merged = previous.copy();
+            merged.mergeFrom(company);
+            company = merged;
+            unindex(companiesBySiren, previous.getSiren(), key);
+            unindex(companiesByNaf, previous.getCodeNAF(), key);
+            unindex(companiesByDepartement, previous.getDepartement(), key);
+        }
+        companiesByKey.put(key, company);
+        index(companiesBySiren, company.getSiren(), key);
+        index(companiesByNaf, company.getCodeNAF(), key);
+        index(companiesByDepartement, company.getDepartement(), key);
+    }
+
+    private static void index(Map<String, Set<String>> index, String value, String id) {
+        if (value == null || value.isEmpty()) return;
+        index.computeIfAbsent(value, k -> new LinkedHashSet<>()).add(id);
+    }
+
+    private static void unindex(Map<String, Set<String>> index, String value, String id) {
+        if (value == null) return;
+        Set<String> ids = index.get(value);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) index.remove(value);
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Fichiers
+    // ------------------------------------------------------------------
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        try {
+            offerLog = new OfferLog(new File(directory, OFFERS_LOG_DIR));
+            offerLog.readAll().forEach(this::indexOffer);
+            if (offerLog.segmentCount() > MAX_OFFER_SEGMENTS) {
+                compactOffers();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ouverture du journal d'offres impossible", e);
+        }
+        companyLogLines = readLog(COMPANIES_FILE, line -> indexCompany(gson.fromJson(line, Company.class)));
+        System.out.println("💾 Base locale: " + offersById.size() + " offres, " + companiesByKey.size()
+            + " entreprises (" + (System.currentTimeMillis() - start) + " ms)");
+    }
+
+    private int readLog(String name, java.util.function.Consumer<String> consumer) {
+        File file = new File(directory, name);
+        if (!file.exists()) return 0;
+        int lines = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    consumer.accept(line);
+                    lines++;
+                } catch (JsonParseException e) {
+                    // Ligne tronquée (arrêt pendant une écriture) : ignorée
+                    System.err.println("⚠ Ligne ignorée dans " + name + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("⚠ Lecture de " + file + " impossible: " + e.getMessage());
+        }
+        return lines;
+    }
+
+    private Writer appender(String name) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(new File(directory, name), true), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * Compacter le journal d'offres : dernière version uniquement, offres expirées supprimées
+     */
+    public synchronized void compactOffers() throws IOException {
+        String cutoff = java.time.LocalDate.now().minusDays(offerExpiryDays).toString();
+        java.util.function.Predicate<JobOffer> keep = offer -> {
+            String date = offer.getDateActualisation() != null ? offer.getDateActualisation() : offer.getDateCreation();
+            // Date inconnue : conservée ; dates ISO-8601 comparées lexicographiquement
+            return date == null || date.compareTo(cutoff) >= 0;
+        };
+        offerLog.compact(keep);
+
+        // Les offres en mémoire sont déjà les dernières versions : retirer les expirées
+        List<JobOffer> expired = new ArrayList<>();
+        for (JobOffer offer : offersById.values()) {
+            if (!keep.test(offer)) expired.add(offer);
+        }
+        expired.forEach(this::removeOffer);
+    }
+
+    public synchronized void close() throws IOException {
+        offerLog.close();
+    }
+
+    /**
+     * Réécrire les journaux quand ils contiennent trop de versions obsolètes
+     */
+    private void compactIfNeeded() throws IOException {
+        if (offerLog.segmentCount() > MAX_OFFER_SEGMENTS
+                || (offerLog.recordCount() > 10_000 && offerLog.recordCount() > 2L * offersById.size())) {
+            compactOffers();
+        }
+        if (companyLogLines > 1000 && companyLogLines > 2 * companiesByKey.size()) {
+            rewrite(COMPANIES_FILE, companiesByKey.values());
+            companyLogLines = companiesByKey.size();
+        }
+    }
+
+    private void rewrite(String name, Collection<?> records) throws IOException {
+        File target = new File(directory, name);
+        File tmp = new File(directory, name + ".tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(tmp), StandardCharsets.UTF_8), 1 << 16)) {
+            for (Object record : records) {
+                writer.write(gson.toJson(record));
+                writer.write('\n');
+            }
+        }
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
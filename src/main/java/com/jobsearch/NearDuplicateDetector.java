@@ -0,0 +1,233 @@
+package com.jobsearch;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Détection des quasi-doublons d'offres (MinHash + LSH).
+ *
+ * Les agences et sites partenaires republient la même annonce sous un autre
+ * id avec un texte légèrement modifié. Chaque offre est réduite à une
+ * signature MinHash de ses shingles de mots (intitulé + description) ;
+ * les signatures sont découpées en bandes indexées dans des buckets LSH,
+ * de sorte qu'une nouvelle offre n'est comparée qu'aux offres partageant
+ * au moins une bande (coût sous-linéaire).
+ *
+ * Les buckets sont propres à une entreprise et à une commune : une même
+ * annonce type publiée par deux entreprises, ou pour deux villes, reste deux
+ * offres distinctes.
+ *
+ * Découpage 16 bandes × 4 lignes : une paire de similarité 0,8 partage au
+ * moins une bande avec une probabilité de 1 - (1 - 0,8⁴)¹⁶ ≈ 99,98 % (contre
+ * 77 % en 8 × 8) ; le seuil de la courbe LSH tombe vers 0,5, les paires moins
+ * proches ajoutées au passage sont écartées par la similarité estimée.
+ */
+public class NearDuplicateDetector {
+
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int SIGNATURE_SIZE = BANDS * ROWS;
+    private static final int SHINGLE_SIZE = 3;
+
+    // Similarité (Jaccard estimée) à partir de laquelle deux offres sont regroupées
+    private static final double SIMILARITY_THRESHOLD = 0.8;
+
+    private static final long[] HASH_A = new long[SIGNATURE_SIZE];
+    private static final long[] HASH_B = new long[SIGNATURE_SIZE];
+
+    static {
+        Random random = new Random(0x5EED_0FFE);
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            HASH_A[i] = random.nextLong() | 1L;
+            HASH_B[i] = random.nextLong();
+        }
+    }
+
+    private static final class Canonical {
+        final JobOffer offer;
+        final String scope;
+        final int[] signature;
+
+        Canonical(JobOffer offer, String scope, int[] signature) {
+            this.offer = offer;
+            this.scope = scope;
+            this.signature = signature;
+        }
+    }
+
+    private final Map<Long, List<Canonical>> buckets = new HashMap<>();
+    private final Map<String, List<JobOffer>> variants = new HashMap<>();
+
+    // Incrémenté à chaque clear() : une indexation en cours devenue obsolète est abandonnée
+    private long generation = 0;
+
+    /**
+     * Enregistrer une offre : retourne l'offre canonique dont elle est une variante,
+     * ou null si elle devient elle-même canonique.
+     */
+    public synchronized JobOffer register(JobOffer offer) {
+        int[] signature = signature(offer);
+        if (signature == null) {
+            return null;
+        }
+        String scope = scope(offer);
+
+        Canonical best = null;
+        double bestSimilarity = 0;
+        for (int band = 0; band < BANDS; band++) {
+            List<Canonical> bucket = buckets.get(bandKey(scope, signature, band));
+            if (bucket == null) continue;
+            for (Canonical candidate : bucket) {
+                if (candidate == best || !candidate.scope.equals(scope)) continue;
+                double similarity = estimatedSimilarity(signature, candidate.signature);
+                if (similarity >= SIMILARITY_THRESHOLD && similarity > bestSimilarity) {
+                    best = candidate;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+
+        if (best != null) {
+            variants.computeIfAbsent(best.offer.getId(), k -> new ArrayList<>(2)).add(offer);
+            return best.offer;
+        }
+
+        // Nouvelle offre canonique : seules les canoniques sont indexées
+        Canonical canonical = new Canonical(offer, scope, signature);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bandKey(scope, signature, band), k -> new ArrayList<>(1)).add(canonical);
+        }
+        return null;
+    }
+
+    /**
+     * Variantes regroupées sous une offre canonique
+     */
+    public synchronized List<JobOffer> getVariants(String canonicalId) {
+        List<JobOffer> list = variants.get(canonicalId);
+        return list != null ? List.copyOf(list) : List.of();
+    }
+
+    public synchronized int variantCount() {
+        int count = 0;
+        for (List<JobOffer> list : variants.values()) {
+            count += list.size();
+        }
+        return count;
+    }
+
+    public synchronized void clear() {
+        buckets.clear();
+        variants.clear();
+        generation++;
+    }
+
+    /**
+     * Restaurer des groupes sauvegardés : les variantes sont rattachées immédiatement,
+     * les signatures des offres canoniques sont calculées en arrière-plan (en parallèle, hors verrou).
+     */
+    public CompletableFuture<Void> restore(List<JobOffer> canonicals, Map<String, List<JobOffer>> savedVariants) {
+        long restoredGeneration;
+        synchronized (this) {
+            clear();
+            savedVariants.forEach((id, list) -> variants.put(id, new ArrayList<>(list)));
+            restoredGeneration = generation;
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            int[][] signatures = new int[canonicals.size()][];
+            IntStream.range(0, signatures.length).parallel()
+                .forEach(i -> signatures[i] = signature(canonicals.get(i)));
+
+            synchronized (this) {
+                if (generation != restoredGeneration) return;
+                for (int i = 0; i < signatures.length; i++) {
+                    if (signatures[i] == null) continue;
+                    String scope = scope(canonicals.get(i));
+                    Canonical canonical = new Canonical(canonicals.get(i), scope, signatures[i]);
+                    for (int band = 0; band < BANDS; band++) {
+                        buckets.computeIfAbsent(bandKey(scope, signatures[i], band), k -> new ArrayList<>(1)).add(canonical);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Copie des groupes de variantes (id canonique -> variantes)
+     */
+    public synchronized Map<String, List<JobOffer>> variantGroups() {
+        Map<String, List<JobOffer>> copy = new HashMap<>();
+        variants.forEach((id, list) -> copy.put(id, List.copyOf(list)));
+        return copy;
+    }
+
+    /**
+     * Signature MinHash des shingles de mots, null si le texte est trop court
+     */
+    static int[] signature(JobOffer offer) {
+        String text = (offer.getIntitule() != null ? offer.getIntitule() : "") + " "
+            + (offer.getDescription() != null ? offer.getDescription() : "");
+        String[] words = Normalizer.normalize(text, Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT)
+            .split("[^a-z0-9]+");
+
+        List<String> tokens = new ArrayList<>(words.length);
+        for (String word : words) {
+            if (!word.isEmpty()) tokens.add(word);
+        }
+        if (tokens.size() < SHINGLE_SIZE) {
+            return null;
+        }
+
+        int[] signature = new int[SIGNATURE_SIZE];
+        java.util.Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int i = 0; i + SHINGLE_SIZE <= tokens.size(); i++) {
+            long shingle = 0xcbf29ce484222325L;
+            for (int j = i; j < i + SHINGLE_SIZE; j++) {
+                shingle = (shingle ^ tokens.get(j).hashCode()) * 0x100000001b3L;
+            }
+            for (int k = 0; k < SIGNATURE_SIZE; k++) {
+                int h = (int) ((HASH_A[k] * shingle + HASH_B[k]) >>> 32);
+                if (h < signature[k]) signature[k] = h;
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Entreprise et commune normalisées : deux offres de portées différentes ne sont jamais regroupées
+     */
+    static String scope(JobOffer offer) {
+        String entreprise = CompanyResolver.normalizeName(offer.getEntrepriseNom(), null);
+        String lieu = offer.getVille();
+        if (lieu == null || lieu.isBlank()) lieu = offer.getLieuTravail();
+        if (lieu == null || lieu.isBlank()) lieu = offer.getCodePostal();
+        String commune = CompanyResolver.normalizeName(lieu, null);
+        return (entreprise != null ? entreprise : "") + "|" + (commune != null ? commune : "");
+    }
+
+    private static long bandKey(String scope, int[] signature, int band) {
+        long key = scope.hashCode() * 31L + band;
+        for (int r = band * ROWS; r < (band + 1) * ROWS; r++) {
+            key = key * 0x9E3779B97F4A7C15L + signature[r];
+        }
+        return key;
+    }
+
+    private static double estimatedSimilarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (a[i] == b[i]) same++;
+        }
+        return (double) same / SIGNATURE_SIZE;
+    }
+}
@@ -0,0 +1,292 @@
+package com.jobsearch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Nomenclatures INSEE embarquées (ressources /nomenclatures/*.tsv) : NAF
+ * rév. 2 (sous-classes et divisions), catégories juridiques, tranches
+ * d'effectif salarié et catégories d'entreprise.
+ *
+ * Chaque nomenclature est rangée dans une table de hachage parfaite minimale
+ * construite au chargement (hachage et déplacement) : les codes sont répartis
+ * en groupes d'environ quatre, et chaque groupe reçoit le déplacement qui
+ * envoie tous ses codes dans des cases libres. Un décodage coûte deux
+ * hachages et une comparaison, sans allocation ni collision à parcourir.
+ *
+ * Les codes sont comparés sans tenir compte de la casse, des points, tirets
+ * et espaces : "62.01Z", "6201Z" et "6201z" désignent la même sous-classe.
+ */
+public final class Nomenclature {
+
+    public static final Nomenclature NAF = load("naf-rev2.tsv");
+    public static final Nomenclature NAF_DIVISIONS = load("naf-divisions.tsv");
+    public static final Nomenclature CATEGORIES_JURIDIQUES = load("categories-juridiques.tsv");
+    public static final Nomenclature TRANCHES_EFFECTIFS = load("tranches-effectifs.tsv");
+    public static final Nomenclature CATEGORIES_ENTREPRISES = load("categories-entreprises.tsv");
+
+    private static final int GROUP_SIZE = 4;
+    private static final int MAX_DISPLACEMENT = 1 << 16;
+
+    private final String name;
+    private final List<String> codes;
+    private final int[] displacements;
+    private final String[] slotCodes;
+    private final String[] slotLabels;
+    private final String[] slotFoldedLabels;
+    private final Integer[][] slotNumbers;
+
+    private Nomenclature(String name, List<String[]> entries) {
+        this.name = name;
+        List<String> codes = new ArrayList<>(entries.size());
+        Set<String> canonical = new HashSet<>();
+        for (String[] entry : entries) {
+            if (!canonical.add(canonical(entry[0]))) {
+                throw new IllegalStateException("Code en double dans " + name + ": " + entry[0]);
+            }
+            codes.add(entry[0]);
+        }
+        this.codes = Collections.unmodifiableList(codes);
+
+        // Table minimale si possible, un peu plus grande sinon
+        int groups = Math.max(1, (entries.size() + GROUP_SIZE - 1) / GROUP_SIZE);
+        int size = Math.max(1, entries.size());
+        int[] slotOf = new int[entries.size()];
+        int[] displacements;
+        while ((displacements = place(codes, groups, size, slotOf)) == null) {
+            size += size / 16 + 1;
+        }
+        this.displacements = displacements;
+
+        slotCodes = new String[size];
+        slotLabels = new String[size];
+        slotFoldedLabels = new String[size];
+        slotNumbers = new Integer[size][];
+        for (int i = 0; i < entries.size(); i++) {
+            String[] entry = entries.get(i);
+            int slot = slotOf[i];
+            slotCodes[slot] = entry[0];
+            slotLabels[slot] = entry.length > 1 ? entry[1] : entry[0];
+            slotFoldedLabels[slot] = fold(slotLabels[slot]);
+            Integer[] numbers = new Integer[Math.max(0, entry.length - 2)];
+            for (int column = 0; column < numbers.length; column++) {
+                String value = entry[column + 2].trim();
+                numbers[column] = value.isEmpty() ? null : Integer.valueOf(value);
+            }
+            slotNumbers[slot] = numbers;
+        }
+    }
+
+    /**
+     * Libellé d'un code, null s'il est inconnu
+     */
+    public String label(CharSequence code) {
+        int slot = slot(code);
+        return slot >= 0 ? slotLabels[slot] : null;
+    }
+
+    /**
+     * Libellé d'un code, ou la valeur de repli s'il est inconnu
+     */
+    public String label(CharSequence code, String fallback) {
+        int slot = slot(code);
+        return slot >= 0 ? slotLabels[slot] : fallback;
+    }
+
+    public boolean contains(CharSequence code) {
+        return slot(code) >= 0;
+    }
+
+    /**
+     * Code sous sa forme officielle ("6201z" -> "62.01Z"), null s'il est inconnu
+     */
+    public String code(CharSequence code) {
+        int slot = slot(code);
+        return slot >= 0 ? slotCodes[slot] : null;
+    }
+
+    /**
+     * Valeur numérique d'une colonne après le libellé (0 = première), null si vide ou code inconnu
+     */
+    public Integer number(CharSequence code, int column) {
+        int slot = slot(code);
+        if (slot < 0 || column >= slotNumbers[slot].length) return null;
+        return slotNumbers[slot][column];
+    }
+
+    /**
+     * Tous les codes, dans l'ordre de la nomenclature
+     */
+    public List<String> codes() {
+        return codes;
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    /**
+     * Codes correspondant à un critère de secteur : un code exact ("62.01Z"),
+     * un préfixe de code ("62", "63.1"), ou à défaut un extrait de libellé
+     * ("logiciel"), sans tenir compte de la casse ni des accents
+     */
+    public List<String> expand(String criterion) {
+        if (criterion == null || criterion.isBlank()) return List.of();
+        String exact = code(criterion.trim());
+        if (exact != null) return List.of(exact);
+
+        List<String> result = new ArrayList<>();
+        String prefix = canonical(criterion);
+        if (!prefix.isEmpty()) {
+            for (String code : codes) {
+                if (canonical(code).startsWith(prefix)) result.add(code);
+            }
+        }
+        if (result.isEmpty()) {
+            String text = fold(criterion.trim());
+            for (String code : codes) {
+                if (slotFoldedLabels[slot(code)].contains(text)) result.add(code);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + codes.size() + " codes)";
+    }
+
+    private int slot(CharSequence code) {
+        if (code == null) return -1;
+        int displacement = displacements[hash(code, 0) % displacements.length];
+        int slot = hash(code, displacement) % slotCodes.length;
+        String stored = slotCodes[slot];
+        return stored != null && sameCode(stored, code) ? slot : -1;
+    }
+
+    /**
+     * Déplacement de chaque groupe, les plus gros groupes placés d'abord ;
+     * null si un groupe ne trouve pas de place (table à agrandir)
+     */
+    private static int[] place(List<String> codes, int groups, int size, int[] slotOf) {
+        List<List<Integer>> byGroup = new ArrayList<>(groups);
+        for (int g = 0; g < groups; g++) byGroup.add(new ArrayList<>(GROUP_SIZE));
+        for (int i = 0; i < codes.size(); i++) {
+            byGroup.get(hash(codes.get(i), 0) % groups).add(i);
+        }
+        Integer[] order = new Integer[groups];
+        for (int g = 0; g < groups; g++) order[g] = g;
+        Arrays.sort(order, (a, b) -> byGroup.get(b).size() - byGroup.get(a).size());
+
+        boolean[] used = new boolean[size];
+        int[] displacements = new int[groups];
+        for (int g : order) {
+            List<Integer> members = byGroup.get(g);
+            if (members.isEmpty()) break;
+            int[] slots = new int[members.size()];
+            boolean placed = false;
+            for (int d = 1; d < MAX_DISPLACEMENT && !placed; d++) {
+                placed = true;
+                for (int k = 0; k < slots.length && placed; k++) {
+                    int slot = hash(codes.get(members.get(k)), d) % size;
+                    if (used[slot]) placed = false;
+                    for (int j = 0; j < k && placed; j++) {
+                        if (slots[j] == slot) placed = false;
+                    }
+                    slots[k] = slot;
+                }
+                if (placed) displacements[g] = d;
+            }
+            if (!placed) return null;
+            for (int k = 0; k < slots.length; k++) {
+                used[slots[k]] = true;
+                slotOf[members.get(k)] = slots[k];
+            }
+        }
+        return displacements;
+    }
+
+    /**
+     * Hachage des caractères significatifs du code (FNV-1a puis mélange final)
+     */
+    private static int hash(CharSequence code, int seed) {
+        int h = 0x811C9DC5 ^ (seed * 0x9E3779B9);
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (ignorable(c)) continue;
+            h = (h ^ upper(c)) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h & 0x7FFFFFFF;
+    }
+
+    private static boolean sameCode(String stored, CharSequence code) {
+        int i = 0;
+        int j = 0;
+        while (true) {
+            while (i < stored.length() && ignorable(stored.charAt(i))) i++;
+            while (j < code.length() && ignorable(code.charAt(j))) j++;
+            if (i == stored.length() || j == code.length()) {
+                return i == stored.length() && j == code.length();
+            }
+            if (upper(stored.charAt(i++)) != upper(code.charAt(j++))) return false;
+        }
+    }
+
+    private static boolean ignorable(char c) {
+        return c == '.' || c == '-' || c == ' ';
+    }
+
+    private static char upper(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - 32) : c;
+    }
+
+    private static String canonical(CharSequence code) {
+        StringBuilder result = new StringBuilder(code.length());
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (!ignorable(c)) result.append(upper(c));
+        }
+        return result.toString();
+    }
+
+    private static String fold(String value) {
+        String folded = Normalizer.normalize(value, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder result = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) result.append(c);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Charger une nomenclature "code\tlibellé[\tnombre...]" (lignes # ignorées)
+     */
+    private static Nomenclature load(String resource) {
+        String path = "/nomenclatures/" + resource;
+        List<String[]> entries = new ArrayList<>();
+        try (InputStream in = Nomenclature.class.getResourceAsStream(path)) {
+            if (in == null) throw new IllegalStateException("Nomenclature introuvable: " + path);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                entries.add(line.split("\t", -1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture de " + path, e);
+        }
+        return new Nomenclature(resource, entries);
+    }
+}
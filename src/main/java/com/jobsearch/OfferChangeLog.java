@@ -0,0 +1,406 @@
+package com.jobsearch;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Capture des changements d'offres entre deux synchronisations.
+ *
+ * Chaque synchronisation est comparée à l'état courant de chaque requête
+ * (mots-clés + groupe de départements : id -> dateActualisation) et seuls les
+ * écarts sont journalisés : offre nouvelle, offre actualisée, offre disparue
+ * (pourvue ou retirée). L'état courant est le cumul des deltas, l'historique
+ * est indexé par date d'exécution : "qu'est-ce qui a changé depuis hier"
+ * est une simple lecture de la fin de l'index.
+ *
+ * Une disparition n'est détectée que si toutes les pages de la requête ont
+ * été reçues et la synchronisation non incrémentale : une offre absente
+ * d'une réponse partielle n'a pas disparu.
+ *
+ * Fichier : une trame par exécution [longueur][crc32][exécution encodée].
+ * Au-delà de HISTORY_RETENTION_DAYS, le journal est réécrit : les exécutions
+ * récentes sont conservées, suivies d'une trame d'état (date STATE_FRAME)
+ * qui remplace l'état cumulé à la relecture.
+ */
+public class OfferChangeLog implements Closeable {
+
+    /**
+     * Nature d'un changement
+     */
+    public enum ChangeType {
+        ADDED("Nouvelle"),
+        UPDATED("Actualisée"),
+        REMOVED("Retirée");
+
+        private final String libelle;
+
+        ChangeType(String libelle) {
+            this.libelle = libelle;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+    }
+
+    /**
+     * Changement d'une offre lors d'une exécution
+     */
+    public static final class Change {
+        public final long runTime;
+        public final ChangeType type;
+        public final String queryKey;
+        public final String offerId;
+        public final String dateActualisation;
+
+        Change(long runTime, ChangeType type, String queryKey, String offerId, String dateActualisation) {
+            this.runTime = runTime;
+            this.type = type;
+            this.queryKey = queryKey;
+            this.offerId = offerId;
+            this.dateActualisation = dateActualisation;
+        }
+    }
+
+    /**
+     * Observations d'une synchronisation en cours (alimentée par requête)
+     */
+    public static final class Run {
+        private final long startTime = System.currentTimeMillis();
+        private final boolean incremental;
+        private final Map<String, Map<String, String>> observed = new LinkedHashMap<>();
+        private final Set<String> complete = new HashSet<>();
+
+        Run(boolean incremental) {
+            this.incremental = incremental;
+        }
+
+        /**
+         * Enregistrer une offre reçue pour une requête
+         */
+        public synchronized void observe(String queryKey, String offerId, String dateActualisation) {
+            if (offerId == null) return;
+            observed.computeIfAbsent(queryKey, k -> new HashMap<>())
+                .put(offerId, dateActualisation != null ? dateActualisation : "");
+        }
+
+        /**
+         * La réponse de la requête était complète : les offres absentes ont disparu
+         */
+        public synchronized void markComplete(String queryKey) {
+            observed.computeIfAbsent(queryKey, k -> new HashMap<>());
+            complete.add(queryKey);
+        }
+    }
+
+    /**
+     * Bilan d'une exécution
+     */
+    public static final class Summary {
+        public final int added;
+        public final int updated;
+        public final int removed;
+
+        Summary(int added, int updated, int removed) {
+            this.added = added;
+            this.updated = updated;
+            this.removed = removed;
+        }
+
+        public boolean isEmpty() {
+            return added == 0 && updated == 0 && removed == 0;
+        }
+    }
+
+    // Historique conservé lors d'une réécriture du journal
+    private static final long HISTORY_RETENTION_DAYS = 90;
+    // Réécriture quand l'exécution la plus ancienne dépasse la rétention de cette marge
+    private static final long COMPACTION_SLACK_DAYS = 7;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    // Date réservée des trames d'état (jamais une date d'exécution)
+    private static final long STATE_FRAME = -1L;
+
+    private final File file;
+    private FileChannel channel;
+
+    // État courant par requête : id -> dateActualisation
+    private final Map<String, Map<String, String>> state = new HashMap<>();
+    // Historique : date d'exécution -> changements
+    private final TreeMap<Long, List<Change>> history = new TreeMap<>();
+
+    public OfferChangeLog(File file) throws IOException {
+        this.file = file;
+        File parent = file.getParentFile();
+        if (parent != null) parent.mkdirs();
+        load();
+    }
+
+    /**
+     * Démarrer une synchronisation
+     */
+    public Run beginRun(boolean incremental) {
+        return new Run(incremental);
+    }
+
+    /**
+     * Comparer la synchronisation à l'état courant, journaliser les deltas et les appliquer
+     */
+    public synchronized Summary commit(Run run) throws IOException {
+        List<Change> changes = new ArrayList<>();
+        long runTime = Math.max(run.startTime, history.isEmpty() ? 0 : history.lastKey() + 1);
+        synchronized (run) {
+            for (Map.Entry<String, Map<String, String>> entry : run.observed.entrySet()) {
+                String queryKey = entry.getKey();
+                Map<String, String> seen = entry.getValue();
+                Map<String, String> current = state.getOrDefault(queryKey, Map.of());
+
+                for (Map.Entry<String, String> offer : seen.entrySet()) {
+                    String previous = current.get(offer.getKey());
+                    if (previous == null) {
+                        changes.add(new Change(runTime, ChangeType.ADDED, queryKey, offer.getKey(), offer.getValue()));
+                    } else if (!previous.equals(offer.getValue())) {
+                        changes.add(new Change(runTime, ChangeType.UPDATED, queryKey, offer.getKey(), offer.getValue()));
+                    }
+                }
+                if (!run.incremental && run.complete.contains(queryKey)) {
+                    for (Map.Entry<String, String> offer : current.entrySet()) {
+                        if (!seen.containsKey(offer.getKey())) {
+                            changes.add(new Change(runTime, ChangeType.REMOVED, queryKey, offer.getKey(), offer.getValue()));
+                        }
+                    }
+                }
+            }
+        }
+
+        if (!changes.isEmpty()) {
+            writeFrame(encodeRun(runTime, changes));
+            apply(runTime, changes);
+        }
+        compactIfNeeded(System.currentTimeMillis());
+        return summarize(changes);
+    }
+
+    /**
+     * Changements depuis une date (millisecondes epoch), du plus ancien au plus récent
+     */
+    public synchronized List<Change> changesSince(long since) {
+        List<Change> result = new ArrayList<>();
+        for (List<Change> changes : history.tailMap(since, true).values()) {
+            result.addAll(changes);
+        }
+        return result;
+    }
+
+    /**
+     * Changements de la dernière exécution ayant produit des changements
+     */
+    public synchronized List<Change> lastRunChanges() {
+        return history.isEmpty() ? List.of() : List.copyOf(history.lastEntry().getValue());
+    }
+
+    /**
+     * Offres actuellement présentes pour une requête (id -> dateActualisation)
+     */
+    public synchronized Map<String, String> currentState(String queryKey) {
+        return Map.copyOf(state.getOrDefault(queryKey, Map.of()));
+    }
+
+    /**
+     * Historique d'une offre (toutes requêtes confondues)
+     */
+    public synchronized List<Change> historyOf(String offerId) {
+        List<Change> result = new ArrayList<>();
+        for (List<Change> changes : history.values()) {
+            for (Change change : changes) {
+                if (change.offerId.equals(offerId)) result.add(change);
+            }
+        }
+        return result;
+    }
+
+    public static Summary summarize(List<Change> changes) {
+        int added = 0, updated = 0, removed = 0;
+        for (Change change : changes) {
+            switch (change.type) {
+                case ADDED -> added++;
+                case UPDATED -> updated++;
+                case REMOVED -> removed++;
+            }
+        }
+        return new Summary(added, updated, removed);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Persistance
+    // ------------------------------------------------------------------
+
+    private void apply(long runTime, List<Change> changes) {
+        for (Change change : changes) {
+            Map<String, String> current = state.computeIfAbsent(change.queryKey, k -> new HashMap<>());
+            if (change.type == ChangeType.REMOVED) {
+                current.remove(change.offerId);
+            } else {
+                current.put(change.offerId, change.dateActualisation);
+            }
+        }
+        history.put(runTime, List.copyOf(changes));
+    }
+
+    /**
+     * Exécution encodée : date, puis changements groupés par requête
+     */
+    private static byte[] encodeRun(long runTime, List<Change> changes) throws IOException {
+        Map<String, List<Change>> byQuery = new LinkedHashMap<>();
+        for (Change change : changes) {
+            byQuery.computeIfAbsent(change.queryKey, k -> new ArrayList<>()).add(change);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + changes.size() * 32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(runTime);
+        out.writeInt(byQuery.size());
+        for (Map.Entry<String, List<Change>> entry : byQuery.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (Change change : entry.getValue()) {
+                out.writeByte(change.type.ordinal());
+                out.writeUTF(change.offerId);
+                out.writeUTF(change.dateActualisation != null ? change.dateActualisation : "");
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * État cumulé encodé comme une exécution d'ajouts datée STATE_FRAME
+     */
+    private byte[] encodeState() throws IOException {
+        List<Change> changes = new ArrayList<>();
+        for (Map.Entry<String, Map<String, String>> query : state.entrySet()) {
+            for (Map.Entry<String, String> offer : query.getValue().entrySet()) {
+                changes.add(new Change(STATE_FRAME, ChangeType.ADDED, query.getKey(), offer.getKey(), offer.getValue()));
+            }
+        }
+        return encodeRun(STATE_FRAME, changes);
+    }
+
+    private void writeFrame(byte[] payload) throws IOException {
+        writeFrame(channel, payload);
+        channel.force(false);
+    }
+
+    private static void writeFrame(FileChannel target, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(8 + payload.length);
+        frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (frame.hasRemaining()) {
+            target.write(frame);
+        }
+    }
+
+    /**
+     * Réécrire le journal quand il contient des exécutions hors rétention :
+     * exécutions récentes puis trame d'état, dans un fichier temporaire renommé
+     * atomiquement (le journal n'est jamais mappé : renommage possible sous Windows)
+     */
+    private void compactIfNeeded(long now) throws IOException {
+        if (history.isEmpty()
+                || history.firstKey() >= now - (HISTORY_RETENTION_DAYS + COMPACTION_SLACK_DAYS) * DAY_MS) {
+            return;
+        }
+        long cutoff = now - HISTORY_RETENTION_DAYS * DAY_MS;
+        history.headMap(cutoff).clear();
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<Long, List<Change>> run : history.entrySet()) {
+                writeFrame(out, encodeRun(run.getKey(), run.getValue()));
+            }
+            writeFrame(out, encodeState());
+            out.force(true);
+        }
+        channel.close();
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        System.out.println("🗜 Journal des changements réécrit: " + history.size() + " exécutions conservées");
+    }
+
+    /**
+     * Relecture séquentielle des trames (positions en long, sans mappage)
+     */
+    private void load() throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(8);
+        while (position + 8 <= size) {
+            header.clear();
+            channel.read(header, position);
+            int length = header.getInt(0);
+            int expected = header.getInt(4);
+            if (length < 0 || position + 8 + length > size) break;
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            while (payload.hasRemaining()) {
+                if (channel.read(payload, position + 8 + payload.position()) < 0) break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != expected) break;
+            readRun(payload.array());
+            position += 8 + length;
+        }
+        if (position < size) {
+            // Trame incomplète (arrêt pendant l'écriture) : ignorée
+            System.err.println("⚠ Journal des changements tronqué à " + position + " octets: " + file);
+            channel.truncate(position);
+        }
+        channel.position(position);
+        compactIfNeeded(System.currentTimeMillis());
+    }
+
+    private void readRun(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long runTime = in.readLong();
+        int queryCount = in.readInt();
+        List<Change> changes = new ArrayList<>();
+        ChangeType[] types = ChangeType.values();
+        for (int q = 0; q < queryCount; q++) {
+            String queryKey = in.readUTF();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                ChangeType type = types[in.readByte()];
+                String offerId = in.readUTF();
+                String date = in.readUTF();
+                changes.add(new Change(runTime, type, queryKey, offerId, date));
+            }
+        }
+        if (runTime == STATE_FRAME) {
+            // Trame d'état : remplace l'état cumulé des exécutions qui la précèdent
+            state.clear();
+            for (Change change : changes) {
+                state.computeIfAbsent(change.queryKey, k -> new HashMap<>()).put(change.offerId, change.dateActualisation);
+            }
+        } else {
+            apply(runTime, changes);
+        }
+    }
+}
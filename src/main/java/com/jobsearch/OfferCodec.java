@@ -0,0 +1,166 @@
+package com.jobsearch;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Encodage binaire compact d'une offre (journal d'offres, instantanés de session).
+ *
+ * Format d'un enregistrement : les champs texte dans l'ordre de STRING_FIELDS,
+ * chacun préfixé par sa longueur (varint, 0 = null, n+1 = n octets UTF-8),
+ * puis latitude/longitude (octet de présence + double).
+ */
+public final class OfferCodec {
+
+    /**
+     * Champ texte d'une entité (accesseurs)
+     */
+    public static final class StringField<T> {
+        public final String name;
+        public final Function<T, String> getter;
+        public final BiConsumer<T, String> setter;
+
+        StringField(String name, Function<T, String> getter, BiConsumer<T, String> setter) {
+            this.name = name;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    // Ordre figé : ne jamais réordonner (ajouter les nouveaux champs en fin de liste)
+    public static final List<StringField<JobOffer>> STRING_FIELDS = List.of(
+        new StringField<>("id", JobOffer::getId, JobOffer::setId),
+        new StringField<>("intitule", JobOffer::getIntitule, JobOffer::setIntitule),
+        new StringField<>("description", JobOffer::getDescription, JobOffer::setDescription),
+        new StringField<>("dateCreation", JobOffer::getDateCreation, JobOffer::setDateCreation),
+        new StringField<>("dateActualisation", JobOffer::getDateActualisation, JobOffer::setDateActualisation),
+        new StringField<>("entrepriseNom", JobOffer::getEntrepriseNom, JobOffer::setEntrepriseNom),
+        new StringField<>("entrepriseDescription", JobOffer::getEntrepriseDescription, JobOffer::setEntrepriseDescription),
+        new StringField<>("entrepriseUrl", JobOffer::getEntrepriseUrl, JobOffer::setEntrepriseUrl),
+        new StringField<>("entrepriseLogoUrl", JobOffer::getEntrepriseLogoUrl, JobOffer::setEntrepriseLogoUrl),
+        new StringField<>("contactEmail", JobOffer::getContactEmail, JobOffer::setContactEmail),
+        new StringField<>("contactNom", JobOffer::getContactNom, JobOffer::setContactNom),
+        new StringField<>("contactTelephone", JobOffer::getContactTelephone, JobOffer::setContactTelephone),
+        new StringField<>("contactUrl", JobOffer::getContactUrl, JobOffer::setContactUrl),
+        new StringField<>("lieuTravail", JobOffer::getLieuTravail, JobOffer::setLieuTravail),
+        new StringField<>("ville", JobOffer::getVille, JobOffer::setVille),
+        new StringField<>("codePostal", JobOffer::getCodePostal, JobOffer::setCodePostal),
+        new StringField<>("departement", JobOffer::getDepartement, JobOffer::setDepartement),
+        new StringField<>("region", JobOffer::getRegion, JobOffer::setRegion),
+        new StringField<>("pays", JobOffer::getPays, JobOffer::setPays),
+        new StringField<>("typeContrat", JobOffer::getTypeContrat, JobOffer::setTypeContrat),
+        new StringField<>("typeContratLibelle", JobOffer::getTypeContratLibelle, JobOffer::setTypeContratLibelle),
+        new StringField<>("natureContrat", JobOffer::getNatureContrat, JobOffer::setNatureContrat),
+        new StringField<>("experienceLibelle", JobOffer::getExperienceLibelle, JobOffer::setExperienceLibelle),
+        new StringField<>("experienceExige", JobOffer::getExperienceExige, JobOffer::setExperienceExige),
+        new StringField<>("formations", JobOffer::getFormations, JobOffer::setFormations),
+        new StringField<>("langues", JobOffer::getLangues, JobOffer::setLangues),
+        new StringField<>("permis", JobOffer::getPermis, JobOffer::setPermis),
+        new StringField<>("competences", JobOffer::getCompetences, JobOffer::setCompetences),
+        new StringField<>("salaire", JobOffer::getSalaire, JobOffer::setSalaire),
+        new StringField<>("dureeTravail", JobOffer::getDureeTravail, JobOffer::setDureeTravail),
+        new StringField<>("dureeTravailLibelle", JobOffer::getDureeTravailLibelle, JobOffer::setDureeTravailLibelle),
+        new StringField<>("qualification", JobOffer::getQualification, JobOffer::setQualification),
+        new StringField<>("secteurActivite", JobOffer::getSecteurActivite, JobOffer::setSecteurActivite),
+        new StringField<>("secteurActiviteLibelle", JobOffer::getSecteurActiviteLibelle, JobOffer::setSecteurActiviteLibelle),
+        new StringField<>("origineOffre", JobOffer::getOrigineOffre, JobOffer::setOrigineOffre),
+        new StringField<>("urlOrigine", JobOffer::getUrlOrigine, JobOffer::setUrlOrigine),
+        new StringField<>("urlPostulation", JobOffer::getUrlPostulation, JobOffer::setUrlPostulation),
+        new StringField<>("source", JobOffer::getSource, JobOffer::setSource),
+        new StringField<>("typeSource", JobOffer::getTypeSource, JobOffer::setTypeSource)
+    );
+
+    private OfferCodec() {
+    }
+
+    /**
+     * Encoder une offre
+     */
+    public static byte[] encode(JobOffer offer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        for (StringField<JobOffer> field : STRING_FIELDS) {
+            writeString(out, field.getter.apply(offer));
+        }
+        writeDouble(out, offer.getLatitude());
+        writeDouble(out, offer.getLongitude());
+        return out.toByteArray();
+    }
+
+    /**
+     * Décoder une offre à la position courante du buffer
+     */
+    public static JobOffer decode(ByteBuffer buffer) {
+        JobOffer offer = new JobOffer();
+        for (StringField<JobOffer> field : STRING_FIELDS) {
+            field.setter.accept(offer, readString(buffer));
+        }
+        offer.setLatitude(readDouble(buffer));
+        offer.setLongitude(readDouble(buffer));
+        return offer;
+    }
+
+    /**
+     * Lire uniquement l'id (premier champ) sans décoder le reste
+     */
+    public static String decodeId(ByteBuffer buffer) {
+        return readString(buffer);
+    }
+
+    static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        if (length == 0) return null;
+        byte[] bytes = new byte[length - 1];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeDouble(ByteArrayOutputStream out, Double value) {
+        if (value == null) {
+            out.write(0);
+            return;
+        }
+        out.write(1);
+        long bits = Double.doubleToLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (bits >>> shift));
+        }
+    }
+
+    static Double readDouble(ByteBuffer buffer) {
+        return buffer.get() == 0 ? null : buffer.getDouble();
+    }
+
+    static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,671 @@
+package com.jobsearch;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Journal d'offres structuré en segments (append-only), lu par mmap.
+ *
+ * - Les offres sont ajoutées en fin du segment actif ([longueur][crc32][offre encodée]).
+ * - Au-delà de SEGMENT_MAX_BYTES le segment est scellé et un nouveau est ouvert.
+ * - Le compactage réécrit la dernière version de chaque offre non expirée, en flux,
+ *   dans des segments triés par id et bornés à SEGMENT_MAX_BYTES, chacun accompagné
+ *   d'un index clairsemé (un id sur SPARSE_INTERVAL).
+ * - Le manifeste, écrit en dernier par renommage atomique, désigne les segments
+ *   vivants : un arrêt brutal pendant ou juste après un compactage laisse soit
+ *   l'ancien jeu de segments, soit le nouveau, jamais un mélange des deux.
+ * - Les lectures mappent une fenêtre du segment à la fois (positions en long) et
+ *   décodent le binaire directement, sans reparser de JSON : recharger un million
+ *   d'offres prend quelques secondes.
+ */
+public class OfferLog implements Closeable {
+
+    private static final int MAGIC = 0x4F4C4731; // "OLG1"
+    private static final int FLAG_SORTED = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int FRAME_HEADER_SIZE = 8;
+    private static final long SEGMENT_MAX_BYTES = 64L * 1024 * 1024;
+    private static final int SPARSE_INTERVAL = 64;
+    private static final long WINDOW_BYTES = 2 * SEGMENT_MAX_BYTES;
+    private static final String MANIFEST = "MANIFEST";
+    private static final String MANIFEST_HEADER = "OLG-MANIFEST 1";
+
+    // Localisation d'une version pendant le compactage : index du segment << 40 | position
+    private static final int POSITION_BITS = 40;
+
+    /**
+     * Segment du journal
+     */
+    private static final class Segment {
+        final File file;
+        final long number;
+        final boolean sorted;
+
+        // Segment trié : index clairsemé (id -> position)
+        String[] sparseIds;
+        long[] sparseOffsets;
+
+        // Segment non trié : index complet (id -> position)
+        Map<String, Long> positions;
+
+        Segment(File file, long number, boolean sorted) {
+            this.file = file;
+            this.number = number;
+            this.sorted = sorted;
+        }
+    }
+
+    /**
+     * Lecture fenêtrée d'un segment : seule une fenêtre d'au plus WINDOW_BYTES
+     * est mappée à la fois, les positions restent des long.
+     */
+    private static final class SegmentReader implements Closeable {
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        SegmentReader(Segment segment) throws IOException {
+            channel = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ);
+            size = channel.size();
+        }
+
+        /**
+         * Contenu de l'enregistrement à cette position (buffer dédié, à partir de 0),
+         * null si la trame est absente, tronquée ou corrompue
+         */
+        ByteBuffer payload(long position) throws IOException {
+            if (position + FRAME_HEADER_SIZE > size) return null;
+            int length = cover(position, FRAME_HEADER_SIZE).getInt((int) (position - windowStart));
+            if (length <= 0 || position + FRAME_HEADER_SIZE + length > size) return null;
+
+            MappedByteBuffer buffer = cover(position, FRAME_HEADER_SIZE + length);
+            int offset = (int) (position - windowStart);
+            ByteBuffer payload = buffer.slice(offset + FRAME_HEADER_SIZE, length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            return (int) crc.getValue() == buffer.getInt(offset + 4) ? payload : null;
+        }
+
+        /**
+         * Fenêtre mappée contenant [position, position + length)
+         */
+        private MappedByteBuffer cover(long position, int length) throws IOException {
+            if (window == null || position < windowStart
+                    || position + length > windowStart + window.capacity()) {
+                long mapped = Math.min(size - position, Math.max(WINDOW_BYTES, length));
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, mapped);
+                windowStart = position;
+            }
+            return window;
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
+    }
+
+    /**
+     * Écriture des segments triés d'un compactage, nouveau segment tous les SEGMENT_MAX_BYTES
+     */
+    private final class SortedWriter {
+        final long firstNumber;
+        final List<Segment> written = new ArrayList<>();
+        private FileChannel channel;
+        private Segment current;
+        private long position;
+        private int count;
+        private final List<String> sparseIds = new ArrayList<>();
+        private final List<Long> sparseOffsets = new ArrayList<>();
+
+        SortedWriter(long firstNumber) {
+            this.firstNumber = firstNumber;
+        }
+
+        void add(JobOffer offer) throws IOException {
+            if (channel == null || position >= SEGMENT_MAX_BYTES) {
+                finishSegment();
+                long number = firstNumber + written.size();
+                current = new Segment(segmentFile(number), number, true);
+                channel = FileChannel.open(current.file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                channel.write(header(FLAG_SORTED));
+                position = HEADER_SIZE;
+                count = 0;
+            }
+            if (count % SPARSE_INTERVAL == 0) {
+                sparseIds.add(offer.getId());
+                sparseOffsets.add(position);
+            }
+            ByteBuffer frame = frame(OfferCodec.encode(offer));
+            position += frame.remaining();
+            while (frame.hasRemaining()) channel.write(frame);
+            count++;
+        }
+
+        /**
+         * Terminer le segment en cours ; retourne le numéro du dernier segment écrit
+         */
+        long finish() throws IOException {
+            finishSegment();
+            return firstNumber + written.size() - 1;
+        }
+
+        private void finishSegment() throws IOException {
+            if (channel == null) return;
+            channel.force(true);
+            channel.close();
+            channel = null;
+            writeSparseIndex(current.number, sparseIds, sparseOffsets);
+            current.sparseIds = sparseIds.toArray(new String[0]);
+            current.sparseOffsets = sparseOffsets.stream().mapToLong(Long::longValue).toArray();
+            sparseIds.clear();
+            sparseOffsets.clear();
+            written.add(current);
+        }
+
+        /**
+         * Compactage interrompu : fichiers écrits supprimés (ignorés de toute façon sans manifeste)
+         */
+        void abort() {
+            try {
+                if (channel != null) channel.close();
+            } catch (IOException ignored) {
+                // fichier supprimé juste après
+            }
+            if (current != null && !written.contains(current)) written.add(current);
+            for (Segment segment : written) {
+                segment.file.delete();
+                indexFile(segment.number).delete();
+            }
+        }
+    }
+
+    private final File directory;
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment active;
+    private FileChannel activeChannel;
+    private long activeSize;
+    private long recordCount;
+
+    public OfferLog(File directory) throws IOException {
+        this.directory = directory;
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Impossible de créer " + directory);
+        }
+        open();
+    }
+
+    // ------------------------------------------------------------------
+    // Écriture
+    // ------------------------------------------------------------------
+
+    /**
+     * Ajouter une offre en fin de journal
+     */
+    public synchronized void append(JobOffer offer) throws IOException {
+        writeFrame(OfferCodec.encode(offer), offer.getId());
+        if (activeSize >= SEGMENT_MAX_BYTES) {
+            roll();
+        }
+    }
+
+    /**
+     * Ajouter un lot d'offres puis forcer l'écriture sur disque
+     */
+    public synchronized void appendAll(Collection<JobOffer> offers) throws IOException {
+        for (JobOffer offer : offers) {
+            append(offer);
+        }
+        activeChannel.force(false);
+    }
+
+    private void writeFrame(byte[] payload, String id) throws IOException {
+        ByteBuffer frame = frame(payload);
+        long position = activeSize;
+        while (frame.hasRemaining()) {
+            activeChannel.write(frame, activeSize + frame.position());
+        }
+        activeSize += FRAME_HEADER_SIZE + payload.length;
+        active.positions.put(id, position);
+        recordCount++;
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + payload.length);
+        frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        return frame;
+    }
+
+    // ------------------------------------------------------------------
+    // Lecture
+    // ------------------------------------------------------------------
+
+    /**
+     * Dernière version d'une offre (null si absente)
+     */
+    public synchronized JobOffer get(String id) throws IOException {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (segment.sorted) {
+                JobOffer offer = findInSorted(segment, id);
+                if (offer != null) return offer;
+            } else {
+                Long position = segment.positions.get(id);
+                if (position != null) {
+                    try (SegmentReader reader = new SegmentReader(segment)) {
+                        ByteBuffer payload = reader.payload(position);
+                        if (payload != null) return OfferCodec.decode(payload);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Toutes les offres (dernière version de chacune), segments décodés en parallèle
+     */
+    public List<JobOffer> readAll() throws IOException {
+        List<Segment> current;
+        synchronized (this) {
+            if (activeChannel != null) activeChannel.force(false);
+            current = new ArrayList<>(segments);
+        }
+
+        List<List<JobOffer>> decoded = current.parallelStream()
+            .map(segment -> {
+                try {
+                    return decodeSegment(segment);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })
+            .toList();
+
+        // Les segments récents écrasent les anciens
+        Map<String, JobOffer> latest = new LinkedHashMap<>();
+        for (List<JobOffer> offers : decoded) {
+            for (JobOffer offer : offers) {
+                latest.put(offer.getId(), offer);
+            }
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Nombre d'enregistrements dans le journal (versions obsolètes comprises)
+     */
+    public synchronized long recordCount() {
+        return recordCount;
+    }
+
+    // ------------------------------------------------------------------
+    // Compactage
+    // ------------------------------------------------------------------
+
+    /**
+     * Réécrire le journal : dernière version de chaque offre conservée, triée par id.
+     *
+     * Seuls les ids et leurs positions sont gardés en mémoire ; les offres sont
+     * relues une à une dans l'ordre des ids et réécrites dans des segments
+     * bornés. Le manifeste est écrit en dernier : tant qu'il ne l'est pas, les
+     * anciens segments font foi ; dès qu'il l'est, ils sont ignorés même si
+     * leur suppression échoue. Retourne le nombre d'offres conservées.
+     */
+    public synchronized long compact(Predicate<JobOffer> keep) throws IOException {
+        activeChannel.force(false);
+        List<Segment> obsolete = new ArrayList<>(segments);
+
+        // Dernière version de chaque id, des segments anciens vers les récents
+        Map<String, Long> latest = new HashMap<>();
+        for (int index = 0; index < obsolete.size(); index++) {
+            Segment segment = obsolete.get(index);
+            long base = (long) index << POSITION_BITS;
+            if (segment.sorted) {
+                try (SegmentReader reader = new SegmentReader(segment)) {
+                    long position = HEADER_SIZE;
+                    ByteBuffer payload;
+                    while ((payload = reader.payload(position)) != null) {
+                        latest.put(OfferCodec.decodeId(payload.duplicate()), base | position);
+                        position += FRAME_HEADER_SIZE + payload.capacity();
+                    }
+                }
+            } else {
+                segment.positions.forEach((id, position) -> latest.put(id, base | position));
+            }
+        }
+        List<String> ids = new ArrayList<>(latest.keySet());
+        ids.sort(null);
+
+        List<SegmentReader> readers = new ArrayList<>(obsolete.size());
+        SortedWriter writer = new SortedWriter(active.number + 1);
+        long kept = 0;
+        long lastNumber;
+        try {
+            for (Segment segment : obsolete) {
+                readers.add(new SegmentReader(segment));
+            }
+            for (String id : ids) {
+                long location = latest.get(id);
+                ByteBuffer payload = readers.get((int) (location >>> POSITION_BITS))
+                    .payload(location & ((1L << POSITION_BITS) - 1));
+                if (payload == null) continue;
+                JobOffer offer = OfferCodec.decode(payload);
+                if (!keep.test(offer)) continue;
+                writer.add(offer);
+                kept++;
+            }
+            lastNumber = writer.finish();
+            writeManifest(writer.firstNumber, lastNumber);
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        } finally {
+            for (SegmentReader reader : readers) {
+                reader.close();
+            }
+        }
+
+        // Manifeste en place : les anciens segments ne sont plus lus, même s'ils restent sur disque
+        activeChannel.close();
+        for (Segment segment : obsolete) {
+            segment.file.delete();
+            indexFile(segment.number).delete();
+        }
+        segments.clear();
+        segments.addAll(writer.written);
+        recordCount = kept;
+        createActiveSegment(lastNumber + 1);
+
+        System.out.println("🗜 Journal compacté: " + kept + " offres conservées dans "
+            + writer.written.size() + " segments, " + obsolete.size() + " segments remplacés");
+        return kept;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (activeChannel != null && activeChannel.isOpen()) {
+            activeChannel.force(false);
+            activeChannel.close();
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Segments
+    // ------------------------------------------------------------------
+
+    private void open() throws IOException {
+        // Sans manifeste (journal jamais compacté) : tous les segments sont vivants
+        long[] manifest = readManifest();
+        long base = manifest != null ? manifest[0] : 0;
+        long lastSorted = manifest != null ? manifest[1] : Long.MAX_VALUE;
+
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("seg-") && name.endsWith(".log"));
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparing(File::getName));
+            for (File file : files) {
+                long number = Long.parseLong(file.getName().substring(4, file.getName().length() - 4));
+                if (number < base) {
+                    // Remplacé par un compactage dont la suppression n'a pas abouti
+                    discard(file, number);
+                    continue;
+                }
+                Segment segment = openSegment(file, number);
+                if (segment == null) continue;
+                if (segment.sorted) {
+                    if (number > lastSorted) {
+                        // Compactage interrompu avant l'écriture du manifeste
+                        discard(file, number);
+                        continue;
+                    }
+                    readSparseIndex(segment);
+                    recordCount += countRecords(segment);
+                }
+                segments.add(segment);
+            }
+        }
+
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last != null && !last.sorted && last.file.length() < SEGMENT_MAX_BYTES) {
+            // Reprendre l'écriture dans le dernier segment
+            active = last;
+            activeChannel = FileChannel.open(last.file.toPath(), StandardOpenOption.WRITE);
+            activeSize = validLength(last);
+            activeChannel.truncate(activeSize);
+        } else {
+            long next = last == null ? Math.max(1, base) : last.number + 1;
+            createActiveSegment(next);
+        }
+    }
+
+    private void discard(File file, long number) {
+        if (!file.delete()) {
+            System.err.println("⚠ Segment obsolète non supprimé (ignoré): " + file);
+        }
+        indexFile(number).delete();
+    }
+
+    /**
+     * Ouvrir un segment ; un segment non trié est indexé en entier, un segment trié
+     * reçoit son index clairsemé dans open() une fois reconnu comme vivant
+     */
+    private Segment openSegment(File file, long number) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC) {
+                System.err.println("⚠ Segment ignoré (en-tête invalide): " + file);
+                return null;
+            }
+        }
+        boolean sorted = (header.getInt(4) & FLAG_SORTED) != 0;
+        Segment segment = new Segment(file, number, sorted);
+
+        if (!sorted) {
+            // Index complet des ids (lecture des seuls ids)
+            segment.positions = new HashMap<>();
+            try (SegmentReader reader = new SegmentReader(segment)) {
+                long position = HEADER_SIZE;
+                ByteBuffer payload;
+                while ((payload = reader.payload(position)) != null) {
+                    segment.positions.put(OfferCodec.decodeId(payload.duplicate()), position);
+                    position += FRAME_HEADER_SIZE + payload.capacity();
+                    recordCount++;
+                }
+            }
+        }
+        return segment;
+    }
+
+    private void createActiveSegment(long number) throws IOException {
+        File file = segmentFile(number);
+        activeChannel = FileChannel.open(file.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        activeChannel.write(header(0), 0);
+        activeSize = HEADER_SIZE;
+        active = new Segment(file, number, false);
+        active.positions = new HashMap<>();
+        segments.add(active);
+    }
+
+    private void roll() throws IOException {
+        activeChannel.force(false);
+        activeChannel.close();
+        createActiveSegment(active.number + 1);
+    }
+
+    private List<JobOffer> decodeSegment(Segment segment) throws IOException {
+        List<JobOffer> offers = new ArrayList<>();
+        try (SegmentReader reader = new SegmentReader(segment)) {
+            long position = HEADER_SIZE;
+            ByteBuffer payload;
+            while ((payload = reader.payload(position)) != null) {
+                position += FRAME_HEADER_SIZE + payload.capacity();
+                offers.add(OfferCodec.decode(payload));
+            }
+        }
+        return offers;
+    }
+
+    private JobOffer findInSorted(Segment segment, String id) throws IOException {
+        if (segment.sparseIds.length == 0) return null;
+
+        // Dernière entrée de l'index <= id, puis lecture séquentielle d'au plus SPARSE_INTERVAL offres
+        int slot = Arrays.binarySearch(segment.sparseIds, id);
+        if (slot < 0) slot = -slot - 2;
+        if (slot < 0) return null;
+
+        try (SegmentReader reader = new SegmentReader(segment)) {
+            long position = segment.sparseOffsets[slot];
+            ByteBuffer payload;
+            for (int i = 0; i < SPARSE_INTERVAL && (payload = reader.payload(position)) != null; i++) {
+                int comparison = OfferCodec.decodeId(payload.duplicate()).compareTo(id);
+                if (comparison == 0) return OfferCodec.decode(payload);
+                if (comparison > 0) break;
+                position += FRAME_HEADER_SIZE + payload.capacity();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Longueur valide d'un segment (une fin tronquée par un arrêt brutal est ignorée)
+     */
+    private long validLength(Segment segment) throws IOException {
+        try (SegmentReader reader = new SegmentReader(segment)) {
+            long position = HEADER_SIZE;
+            ByteBuffer payload;
+            while ((payload = reader.payload(position)) != null) {
+                position += FRAME_HEADER_SIZE + payload.capacity();
+            }
+            return position;
+        }
+    }
+
+    private long countRecords(Segment segment) throws IOException {
+        try (SegmentReader reader = new SegmentReader(segment)) {
+            long count = 0;
+            long position = HEADER_SIZE;
+            ByteBuffer payload;
+            while ((payload = reader.payload(position)) != null) {
+                position += FRAME_HEADER_SIZE + payload.capacity();
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private static ByteBuffer header(int flags) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(flags).flip();
+        return header;
+    }
+
+    private File segmentFile(long number) {
+        return new File(directory, String.format("seg-%08d.log", number));
+    }
+
+    private File indexFile(long number) {
+        return new File(directory, String.format("seg-%08d.idx", number));
+    }
+
+    /**
+     * Manifeste : premier segment vivant et dernier segment trié issu du compactage.
+     * Écrit à côté puis renommé atomiquement (fichier jamais mappé).
+     */
+    private void writeManifest(long base, long lastSorted) throws IOException {
+        File target = new File(directory, MANIFEST);
+        File tmp = new File(directory, MANIFEST + ".tmp");
+        String content = MANIFEST_HEADER + "\nbase " + base + "\nsorted " + lastSorted + "\n";
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * {premier segment vivant, dernier segment trié}, null sans manifeste
+     */
+    private long[] readManifest() throws IOException {
+        File file = new File(directory, MANIFEST);
+        if (!file.exists()) return null;
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        if (lines.size() < 3 || !lines.get(0).equals(MANIFEST_HEADER)) {
+            throw new IOException("Manifeste du journal invalide: " + file);
+        }
+        return new long[] {
+            Long.parseLong(lines.get(1).substring("base ".length())),
+            Long.parseLong(lines.get(2).substring("sorted ".length()))
+        };
+    }
+
+    private void writeSparseIndex(long number, List<String> ids, List<Long> offsets) throws IOException {
+        try (FileOutputStream file = new FileOutputStream(indexFile(number));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                out.writeUTF(ids.get(i));
+                out.writeLong(offsets.get(i));
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+    }
+
+    private void readSparseIndex(Segment segment) throws IOException {
+        File file = indexFile(segment.number);
+        if (!file.exists()) {
+            rebuildSparseIndex(segment);
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int count = in.readInt();
+            segment.sparseIds = new String[count];
+            segment.sparseOffsets = new long[count];
+            for (int i = 0; i < count; i++) {
+                segment.sparseIds[i] = in.readUTF();
+                segment.sparseOffsets[i] = in.readLong();
+            }
+        }
+    }
+
+    /**
+     * Index clairsemé perdu : le recalculer en parcourant les ids du segment
+     */
+    private void rebuildSparseIndex(Segment segment) throws IOException {
+        List<String> ids = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        try (SegmentReader reader = new SegmentReader(segment)) {
+            long position = HEADER_SIZE;
+            ByteBuffer payload;
+            for (int count = 0; (payload = reader.payload(position)) != null; count++) {
+                if (count % SPARSE_INTERVAL == 0) {
+                    ids.add(OfferCodec.decodeId(payload));
+                    offsets.add(position);
+                }
+                position += FRAME_HEADER_SIZE + payload.capacity();
+            }
+        }
+        segment.sparseIds = ids.toArray(new String[0]);
+        segment.sparseOffsets = offsets.stream().mapToLong(Long::longValue).toArray();
+        writeSparseIndex(segment.number, ids, offsets);
+    }
+}
@@ -0,0 +1,215 @@
+package com.jobsearch;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Stockage des offres de la session, dédupliquées par identifiant et par contenu.
+ *
+ * Les groupes de départements qui se chevauchent, les relances d'une même
+ * recherche et les réponses partielles (206) renvoient souvent les mêmes
+ * offres : chaque offre n'est stockée (et affichée) qu'une seule fois.
+ * Le test d'appartenance est en O(1) dans le chemin d'ingestion.
+ *
+ * Les quasi-doublons (même annonce reprise par un partenaire avec un texte
+ * un peu différent) sont rattachés à l'offre canonique : ils restent
+ * accessibles via getVariants() mais ne produisent pas de nouvelle ligne.
+ *
+ * Les offres canoniques sont indexées en plein texte au fil de l'eau
+ * (search), pour affiner les résultats localement.
+ *
+ * C'est le seul détenteur des fiches complètes (description, contact...),
+ * lues par les exports détaillés et la session : le tableau ne garde que
+ * les id et ses colonnes, et retrouve une offre par getById.
+ */
+public class OfferStore {
+
+    /**
+     * Résultat d'un ajout
+     */
+    public enum AddResult {
+        NEW,        // Nouvelle offre stockée
+        DUPLICATE,  // Déjà connue (même id ou même contenu)
+        VARIANT     // Quasi-doublon rattaché à une offre canonique
+    }
+
+    private final AppendOnlyList<JobOffer> offers = new AppendOnlyList<>();
+    private final ConcurrentHashMap<String, JobOffer> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, JobOffer> byContent = new ConcurrentHashMap<>();
+    private final NearDuplicateDetector nearDuplicates = new NearDuplicateDetector();
+    private final OfferTextIndex textIndex = new OfferTextIndex();
+
+    // Reconstruction de l'index des quasi-doublons après une restauration (attendue par add)
+    private volatile CompletableFuture<Void> pendingRestore = CompletableFuture.completedFuture(null);
+
+    // Journalisation des offres acceptées (base locale), optionnelle
+    private volatile Consumer<JobOffer> journal;
+
+    /**
+     * Brancher un journal persistant alimenté au fil de l'ingestion
+     */
+    public void setJournal(Consumer<JobOffer> journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Ajouter une offre (dédupliquée par id, contenu puis similarité)
+     */
+    public AddResult add(JobOffer offer) {
+        String id = offer.getId();
+        long fingerprint = contentFingerprint(offer);
+
+        if (fingerprint != 0) {
+            JobOffer sameContent = byContent.putIfAbsent(fingerprint, offer);
+            if (sameContent != null) {
+                // Même annonce republiée sous un autre id : l'id pointe vers l'offre conservée
+                if (id != null) byId.putIfAbsent(id, sameContent);
+                return AddResult.DUPLICATE;
+            }
+        }
+
+        if (id != null && byId.putIfAbsent(id, offer) != null) {
+            if (fingerprint != 0) byContent.remove(fingerprint, offer);
+            return AddResult.DUPLICATE;
+        }
+
+        Consumer<JobOffer> sink = journal;
+        if (sink != null) {
+            sink.accept(offer);
+        }
+
+        pendingRestore.join();
+        if (nearDuplicates.register(offer) != null) {
+            return AddResult.VARIANT;
+        }
+
+        offers.add(offer);
+        textIndex.add(offer);
+        return AddResult.NEW;
+    }
+
+    /**
+     * Variantes (quasi-doublons) regroupées sous une offre canonique
+     */
+    public List<JobOffer> getVariants(String canonicalId) {
+        return nearDuplicates.getVariants(canonicalId);
+    }
+
+    /**
+     * Recherche plein texte locale : id des offres contenant tous les termes -> score BM25
+     */
+    public Map<String, Float> search(String query) {
+        return textIndex.search(query);
+    }
+
+    public int variantCount() {
+        return nearDuplicates.variantCount();
+    }
+
+    public boolean contains(String id) {
+        return id != null && byId.containsKey(id);
+    }
+
+    public JobOffer getById(String id) {
+        return id != null ? byId.get(id) : null;
+    }
+
+    public int size() {
+        return offers.size();
+    }
+
+    public boolean isEmpty() {
+        return offers.isEmpty();
+    }
+
+    public void clear() {
+        offers.clear();
+        byId.clear();
+        byContent.clear();
+        nearDuplicates.clear();
+        textIndex.clear();
+    }
+
+    /**
+     * Restaurer un état sauvegardé (instantané de session) sans repasser par add().
+     *
+     * Les offres et variantes sont visibles dès le retour ; l'index des
+     * quasi-doublons et l'index plein texte sont reconstruits en arrière-plan.
+     *
+     * @param fingerprints empreintes de contenu des offres canoniques (sauvegardées avec elles)
+     */
+    public void restore(List<JobOffer> canonicals, long[] fingerprints, Map<String, List<JobOffer>> variants) {
+        clear();
+        offers.addAll(canonicals);
+        for (int i = 0; i < canonicals.size(); i++) {
+            JobOffer offer = canonicals.get(i);
+            if (offer.getId() != null) byId.putIfAbsent(offer.getId(), offer);
+            if (fingerprints[i] != 0) byContent.putIfAbsent(fingerprints[i], offer);
+        }
+        for (List<JobOffer> group : variants.values()) {
+            for (JobOffer variant : group) {
+                if (variant.getId() != null) byId.putIfAbsent(variant.getId(), variant);
+                long fingerprint = contentFingerprint(variant);
+                if (fingerprint != 0) byContent.putIfAbsent(fingerprint, variant);
+            }
+        }
+        pendingRestore = nearDuplicates.restore(canonicals, variants);
+        textIndex.addAllAsync(canonicals);
+    }
+
+    /**
+     * Groupes de variantes (id canonique -> variantes), pour la sauvegarde de session
+     */
+    public Map<String, List<JobOffer>> variantGroups() {
+        return nearDuplicates.variantGroups();
+    }
+
+    /**
+     * Vue immuable des offres stockées à cet instant
+     */
+    public List<JobOffer> snapshot() {
+        return offers.snapshot();
+    }
+
+    /**
+     * Empreinte 64 bits (FNV-1a) du contenu normalisé, 0 si l'offre est vide
+     */
+    static long contentFingerprint(JobOffer offer) {
+        if (offer.getIntitule() == null && offer.getDescription() == null) {
+            return 0;
+        }
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv(hash, offer.getIntitule());
+        hash = fnv(hash, offer.getEntrepriseNom());
+        hash = fnv(hash, offer.getLieuTravail());
+        hash = fnv(hash, offer.getTypeContrat());
+        hash = fnv(hash, offer.getDescription());
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long fnv(long hash, String value) {
+        if (value != null) {
+            // Casse et espaces ignorés
+            String normalized = value.toLowerCase(Locale.ROOT);
+            boolean space = false;
+            for (int i = 0; i < normalized.length(); i++) {
+                char c = normalized.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    space = true;
+                    continue;
+                }
+                if (space) {
+                    hash = (hash ^ ' ') * 0x100000001b3L;
+                    space = false;
+                }
+                hash = (hash ^ c) * 0x100000001b3L;
+            }
+        }
+        // Séparateur de champ
+        return (hash ^ 0x1F) * 0x100000001b3L;
+    }
+}
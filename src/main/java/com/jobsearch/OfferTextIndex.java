@@ -0,0 +1,267 @@
+package com.jobsearch;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Index plein texte des offres de la session (index inversé, classement BM25).
+ *
+ * Champs indexés : intitulé, compétences, entreprise (pondérés) et
+ * description. L'analyse est adaptée au français : accents et casse
+ * ignorés, mots vides retirés, racinisation légère (pluriels, féminins,
+ * terminaisons verbales courantes) : "développeurs" et "développement"
+ * se retrouvent.
+ *
+ * Une requête "java spring kafka" renvoie les offres contenant tous les
+ * termes, avec leur score. L'index est alimenté au fil de l'ingestion.
+ */
+public class OfferTextIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Pondération des champs (fréquence de terme multipliée)
+    private static final int WEIGHT_INTITULE = 3;
+    private static final int WEIGHT_COMPETENCES = 2;
+    private static final int WEIGHT_ENTREPRISE = 2;
+    private static final int WEIGHT_DESCRIPTION = 1;
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "a", "au", "aux", "avec", "ce", "ces", "cette", "dans", "de", "des", "du", "elle", "en",
+        "et", "etre", "eux", "il", "ils", "je", "la", "le", "les", "leur", "leurs", "lui", "ma",
+        "mais", "me", "meme", "mes", "moi", "mon", "ne", "nos", "notre", "nous", "on", "ou", "par",
+        "pas", "pour", "qu", "que", "qui", "sa", "se", "ses", "son", "sur", "ta", "te", "tes", "toi",
+        "ton", "tu", "un", "une", "vos", "votre", "vous", "d", "l", "j", "m", "n", "s", "t", "y",
+        "est", "sont", "ont", "h", "f", "hf", "the", "and", "of", "to", "in", "for"
+    );
+
+    /**
+     * Liste de postings d'un terme : documents croissants et fréquences pondérées
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final ArrayList<String> docIds = new ArrayList<>();
+    private final Map<String, Integer> docById = new HashMap<>();
+    private int[] docLengths = new int[1024];
+    private long totalLength;
+    private long generation;
+
+    /**
+     * Indexer une offre (ignorée si son id est déjà indexé)
+     */
+    public void add(JobOffer offer) {
+        if (offer.getId() == null) return;
+        Map<String, Integer> terms = analyzeOffer(offer);
+        synchronized (this) {
+            insert(offer.getId(), terms);
+        }
+    }
+
+    /**
+     * Indexer en arrière-plan un lot d'offres (restauration) : l'analyse se
+     * fait hors verrou, le lot est abandonné si l'index est vidé entre-temps
+     */
+    public CompletableFuture<Void> addAllAsync(List<JobOffer> offers) {
+        long expected;
+        synchronized (this) {
+            expected = generation;
+        }
+        return CompletableFuture.runAsync(() -> {
+            List<String> ids = new ArrayList<>(offers.size());
+            List<Map<String, Integer>> analyzed = new ArrayList<>(offers.size());
+            for (JobOffer offer : offers) {
+                if (offer.getId() == null) continue;
+                ids.add(offer.getId());
+                analyzed.add(analyzeOffer(offer));
+            }
+            synchronized (this) {
+                if (generation != expected) return;
+                for (int i = 0; i < ids.size(); i++) {
+                    insert(ids.get(i), analyzed.get(i));
+                }
+            }
+        });
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        docIds.clear();
+        docById.clear();
+        docLengths = new int[1024];
+        totalLength = 0;
+        generation++;
+    }
+
+    public synchronized int size() {
+        return docIds.size();
+    }
+
+    /**
+     * Offres contenant tous les termes de la requête -> score BM25 (vide si aucun terme)
+     */
+    public synchronized Map<String, Float> search(String query) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(analyze(query)));
+        int n = docIds.size();
+        if (terms.isEmpty() || n == 0) return Map.of();
+
+        // Termes les plus rares d'abord : un terme absent court-circuite la requête
+        List<Postings> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list == null) return Map.of();
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        float avgLength = (float) totalLength / n;
+        float[] scores = new float[n];
+        int[] matched = new int[n];
+        for (int t = 0; t < lists.size(); t++) {
+            Postings list = lists.get(t);
+            float idf = (float) Math.log(1 + (n - list.size + 0.5) / (list.size + 0.5));
+            for (int i = 0; i < list.size; i++) {
+                int doc = list.docs[i];
+                // Seuls les documents ayant tous les termes précédents restent candidats
+                if (matched[doc] != t) continue;
+                float tf = list.freqs[i];
+                float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                matched[doc]++;
+            }
+        }
+
+        Map<String, Float> result = new HashMap<>();
+        Postings rarest = lists.get(0);
+        for (int i = 0; i < rarest.size; i++) {
+            int doc = rarest.docs[i];
+            if (matched[doc] == lists.size()) {
+                result.put(docIds.get(doc), scores[doc]);
+            }
+        }
+        return result;
+    }
+
+    private void insert(String id, Map<String, Integer> terms) {
+        if (docById.containsKey(id)) return;
+        int doc = docIds.size();
+        docIds.add(id);
+        docById.put(id, doc);
+        if (doc == docLengths.length) {
+            docLengths = Arrays.copyOf(docLengths, doc * 2);
+        }
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new Postings()).add(doc, entry.getValue());
+            length += entry.getValue();
+        }
+        docLengths[doc] = length;
+        totalLength += length;
+    }
+
+    private static Map<String, Integer> analyzeOffer(JobOffer offer) {
+        Map<String, Integer> terms = new HashMap<>();
+        addField(terms, offer.getIntitule(), WEIGHT_INTITULE);
+        addField(terms, offer.getCompetences(), WEIGHT_COMPETENCES);
+        addField(terms, offer.getEntrepriseNom(), WEIGHT_ENTREPRISE);
+        addField(terms, offer.getDescription(), WEIGHT_DESCRIPTION);
+        return terms;
+    }
+
+    private static void addField(Map<String, Integer> terms, String text, int weight) {
+        for (String term : analyze(text)) {
+            terms.merge(term, weight, Integer::sum);
+        }
+    }
+
+    /**
+     * Analyse française : minuscules sans accents, découpage, mots vides, racinisation
+     */
+    static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) return terms;
+
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                token.append(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                token.append((char) (c + ('a' - 'A')));
+            } else if (c >= 0x80 && Character.isLetterOrDigit(c)) {
+                fold(c, token);
+            } else if ((c == '+' || c == '#') && token.length() > 0) {
+                // c++, c#, f#
+                token.append(c);
+            } else if (token.length() > 0) {
+                String word = token.toString();
+                token.setLength(0);
+                if (!STOPWORDS.contains(word)) {
+                    terms.add(stem(word));
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Caractère non ASCII en minuscule sans accent (œ -> oe)
+     */
+    private static void fold(char c, StringBuilder out) {
+        char lower = Character.toLowerCase(c);
+        if (lower == 'œ') {
+            out.append("oe");
+        } else if (lower == 'æ') {
+            out.append("ae");
+        } else {
+            String stripped = Normalizer.normalize(String.valueOf(lower), Normalizer.Form.NFD);
+            out.append(stripped.charAt(0));
+        }
+    }
+
+    /**
+     * Racinisation légère du français (pluriels, féminins, -ment, -er, -eur)
+     */
+    static String stem(String word) {
+        if (word.length() <= 3 || !Character.isLetter(word.charAt(word.length() - 1))) {
+            return word;
+        }
+        String w = word;
+        if (w.endsWith("aux") && w.length() > 4) {
+            w = w.substring(0, w.length() - 3) + "al";
+        } else if (w.endsWith("s") || w.endsWith("x")) {
+            w = w.substring(0, w.length() - 1);
+        }
+        if (w.endsWith("ement") && w.length() > 7) {
+            w = w.substring(0, w.length() - 5);
+        } else if (w.endsWith("ment") && w.length() > 6) {
+            w = w.substring(0, w.length() - 4);
+        }
+        if (w.endsWith("euse") && w.length() > 6) {
+            w = w.substring(0, w.length() - 4);
+        } else if (w.endsWith("eur") && w.length() > 6) {
+            w = w.substring(0, w.length() - 3);
+        } else if (w.endsWith("er") && w.length() > 5) {
+            w = w.substring(0, w.length() - 2);
+        }
+        if (w.endsWith("e") && w.length() > 4) {
+            w = w.substring(0, w.length() - 1);
+        }
+        return w;
+    }
+}
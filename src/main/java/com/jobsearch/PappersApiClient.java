@@ -20,9 +20,14 @@ public class PappersApiClient {
     private final String apiKey;
     private final HttpClient httpClient;
     private final Gson gson;
+    private AddressGeocoder geocoder;
     
     private static final String BASE_URL = "https://api.pappers.fr/v2";
     
+    // Sociétés commerciales : catégories juridiques 5xxx de la nomenclature INSEE
+    private static final String SOCIETES_COMMERCIALES =
+        String.join(",", Nomenclature.CATEGORIES_JURIDIQUES.expand("5"));
+    
     public PappersApiClient(String apiKey) {
         this.apiKey = apiKey;
         this.httpClient = HttpClient.newBuilder()
@@ -31,6 +36,13 @@ public class PappersApiClient {
         this.gson = new Gson();
     }
     
+    /**
+     * Géocoder les adresses des entreprises reçues (index local d'adresses)
+     */
+    public void setGeocoder(AddressGeocoder geocoder) {
+        this.geocoder = geocoder;
+    }
+    
     /**
      * Rechercher des entreprises selon critères avancés
      */
@@ -102,8 +114,7 @@ public class PappersApiClient {
         if (criteria.isExcludeAutoEntrepreneurs()) {
             // Exclure : EI (Entrepreneur individuel), EIRL
             // On cherche plutôt : SARL, SAS, SASU, SA, SNC, etc.
-            urlBuilder.append("&categorie_juridique=5499,5505,5510,5515,5520,5530,5542,5543,5546,5547,5548,5551,5552,5553,5554,5558,5559,5560,5570,5585,5599,5605,5610,5615,5620,5622,5625,5630,5650,5651,5660,5670,5685,5699,5710,5720,5770,5785,5800");
-            // Liste des codes pour SARL, SAS, SASU, SA, etc. (sociétés commerciales)
+            urlBuilder.append("&categorie_juridique=").append(SOCIETES_COMMERCIALES);
         }
         
         // Nombre de résultats par page
@@ -210,9 +221,12 @@ public class PappersApiClient {
             company.setLibelleNAF(json.get("libelle_code_naf").getAsString());
         }
         
-        // Forme juridique
+        // Forme juridique (libellé INSEE du code à défaut)
         if (json.has("forme_juridique")) {
             company.setCategorieEntreprise(json.get("forme_juridique").getAsString());
+        } else if (json.has("categorie_juridique")) {
+            String code = json.get("categorie_juridique").getAsString();
+            company.setCategorieEntreprise(Nomenclature.CATEGORIES_JURIDIQUES.label(code, code));
         }
         
         // Adresse du siège
@@ -238,26 +252,9 @@ public class PappersApiClient {
             }
         }
         
-        // Finances (dernier exercice)
-        if (json.has("finances")) {
-            JsonArray finances = json.getAsJsonArray("finances");
-            if (finances.size() > 0) {
-                JsonObject dernierExercice = finances.get(0).getAsJsonObject();
-                
-                // Chiffre d'affaires
-                if (dernierExercice.has("chiffre_affaires")) {
-                    int ca = dernierExercice.get("chiffre_affaires").getAsInt();
-                    company.setChiffreAffaires(formatChiffreAffaires(ca));
-                }
-                
-                // Résultat net
-                if (dernierExercice.has("resultat")) {
-                    int resultat = dernierExercice.get("resultat").getAsInt();
-                    if (resultat > 0) {
-                        company.setChiffreAffaires(company.getChiffreAffaires() + " (bénéfice: " + formatChiffreAffaires(resultat) + ")");
-                    }
-                }
-            }
+        // Finances : tous les exercices publiés (montants en long, formatés à l'affichage)
+        if (json.has("finances") && json.get("finances").isJsonArray()) {
+            company.setFinances(parseFinances(json.getAsJsonArray("finances")));
         }
         
         // Effectif
@@ -276,21 +273,68 @@ public class PappersApiClient {
             }
         }
         
+        // Coordonnées du siège
+        if (geocoder != null) {
+            geocoder.locate(company);
+        }
+        
         return company;
     }
     
     /**
-     * Formater un chiffre d'affaires en texte lisible
+     * Historique financier, du plus récent au plus ancien exercice (null si vide)
+     */
+    private Company.Finances parseFinances(JsonArray finances) {
+        List<JsonObject> exercices = new ArrayList<>();
+        for (JsonElement element : finances) {
+            if (element.isJsonObject()) exercices.add(element.getAsJsonObject());
+        }
+        if (exercices.isEmpty()) return null;
+        exercices.sort((a, b) -> Integer.compare(annee(b), annee(a)));
+        
+        int n = exercices.size();
+        int[] annees = new int[n];
+        long[] chiffresAffaires = new long[n];
+        long[] resultats = new long[n];
+        long[] effectifs = new long[n];
+        for (int i = 0; i < n; i++) {
+            JsonObject exercice = exercices.get(i);
+            annees[i] = annee(exercice);
+            chiffresAffaires[i] = montant(exercice, "chiffre_affaires");
+            resultats[i] = montant(exercice, "resultat");
+            effectifs[i] = montant(exercice, "effectif");
+        }
+        return new Company.Finances(annees, chiffresAffaires, resultats, effectifs);
+    }
+    
+    /**
+     * Année de l'exercice ("annee", sinon date de clôture), 0 si inconnue
+     */
+    private static int annee(JsonObject exercice) {
+        try {
+            if (exercice.has("annee") && !exercice.get("annee").isJsonNull()) {
+                return exercice.get("annee").getAsInt();
+            }
+            JsonElement cloture = exercice.get("date_de_cloture_exercice");
+            if (cloture != null && !cloture.isJsonNull() && cloture.getAsString().length() >= 4) {
+                return Integer.parseInt(cloture.getAsString().substring(0, 4));
+            }
+        } catch (NumberFormatException e) {
+            // Année illisible : exercice gardé, classé en dernier
+        }
+        return 0;
+    }
+    
+    /**
+     * Valeur entière d'un exercice (getAsLong : pas de débordement au-delà de 2,1 Md€)
      */
-    private String formatChiffreAffaires(int ca) {
-        if (ca >= 1_000_000_000) {
-            return String.format("%.1f Md€", ca / 1_000_000_000.0);
-        } else if (ca >= 1_000_000) {
-            return String.format("%.1f M€", ca / 1_000_000.0);
-        } else if (ca >= 1_000) {
-            return String.format("%d k€", ca / 1_000);
-        } else {
-            return ca + " €";
+    private static long montant(JsonObject exercice, String field) {
+        JsonElement value = exercice.get(field);
+        if (value == null || value.isJsonNull()) return Company.Finances.INCONNU;
+        try {
+            return value.getAsLong();
+        } catch (NumberFormatException e) {
+            return Company.Finances.INCONNU;
         }
     }
     
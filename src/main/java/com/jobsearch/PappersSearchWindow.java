@@ -1,11 +1,8 @@
 package com.jobsearch;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
@@ -16,6 +13,7 @@ import com.google.gson.GsonBuilder;
 public class PappersSearchWindow extends JFrame {
     
     private final ConfigLoader config;
+    private final AddressGeocoder addressGeocoder;
     private PappersApiClient pappersClient;
     
     // Champs de formulaire
@@ -38,15 +36,17 @@ public class PappersSearchWindow extends JFrame {
     
     // Résultats
     private JTable resultTable;
-    private DefaultTableModel tableModel;
+    private ResultTableModel tableModel;
+    private RelevanceRowSorter resultSorter;
     private JLabel statusLabel;
     private JLabel countLabel;
     
     // Stockage des entreprises
-    private final Map<String, Company> companies = new HashMap<>();
+    private final CompanyRegistry companies = new CompanyRegistry();
     
-    public PappersSearchWindow(ConfigLoader config) {
+    public PappersSearchWindow(ConfigLoader config, AddressGeocoder addressGeocoder) {
         this.config = config;
+        this.addressGeocoder = addressGeocoder;
         
         setTitle("🔍 Recherche Avancée Entreprises - API Pappers.fr");
         setSize(1400, 900);
@@ -75,6 +75,7 @@ public class PappersSearchWindow extends JFrame {
         if (config.hasPappersApiKey()) {
             apiPanel.add(new JLabel("✓ Clé API Pappers configurée"));
             pappersClient = new PappersApiClient(config.getPappersApiKey());
+            pappersClient.setGeocoder(addressGeocoder);
         } else {
             JLabel warningLabel = new JLabel("⚠ Clé API Pappers manquante");
             warningLabel.setForeground(Color.RED);
@@ -261,17 +262,14 @@ public class PappersSearchWindow extends JFrame {
             "📧 Email"
         };
         
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new ResultTableModel(columns);
+        tableModel.setCompanyLookup(companies::get);
         
         resultTable = new JTable(tableModel);
         resultTable.setFont(new Font("Arial", Font.PLAIN, 12));
         resultTable.setRowHeight(25);
-        resultTable.setAutoCreateRowSorter(true);
+        resultSorter = new RelevanceRowSorter(tableModel);
+        resultTable.setRowSorter(resultSorter);
         
         // Largeurs colonnes
         resultTable.getColumnModel().getColumn(0).setPreferredWidth(250); // Nom
@@ -287,6 +285,9 @@ public class PappersSearchWindow extends JFrame {
         JScrollPane scrollPane = new JScrollPane(resultTable);
         panel.add(scrollPane, BorderLayout.CENTER);
         
+        // Filtre sur les résultats (ex: effectifMin >= 50 and ca >= 1M, croissance >= 10 and marge > 0)
+        panel.add(new FilterBox(tableModel, resultSorter), BorderLayout.NORTH);
+        
         // Boutons d'export
         JPanel exportPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         
@@ -351,6 +352,7 @@ public class PappersSearchWindow extends JFrame {
         
         if (pappersClient == null) {
             pappersClient = new PappersApiClient(config.getPappersApiKey());
+            pappersClient.setGeocoder(addressGeocoder);
         }
         
         // Construire les critères
@@ -456,13 +458,15 @@ public class PappersSearchWindow extends JFrame {
     }
     
     private void displayResults(List<Company> results) {
-        tableModel.setRowCount(0);
+        tableModel.clear();
         companies.clear();
         
+        List<Object[]> rows = new java.util.ArrayList<>(results.size());
+        List<Object> keys = new java.util.ArrayList<>(results.size());
         for (Company company : results) {
-            companies.put(company.getUniqueKey(), company);
+            keys.add(companies.upsert(company));
             
-            tableModel.addRow(new Object[]{
+            rows.add(new Object[]{
                 company.getNom() != null ? company.getNom() : "N/A",
                 company.getSiren() != null ? company.getSiren() : "N/A",
                 company.getChiffreAffaires() != null ? company.getChiffreAffaires() : "N/A",
@@ -474,12 +478,13 @@ public class PappersSearchWindow extends JFrame {
                 company.getEmail() != null ? company.getEmail() : "N/A"
             });
         }
+        tableModel.addRows(rows, keys);
         
         countLabel.setText(String.valueOf(results.size()));
     }
     
     private void clearResults() {
-        tableModel.setRowCount(0);
+        tableModel.clear();
         companies.clear();
         countLabel.setText("0");
         updateStatus("Résultats effacés");
@@ -503,15 +508,10 @@ public class PappersSearchWindow extends JFrame {
                     fileChooser.getSelectedFile(), 
                     java.nio.charset.Charset.forName("UTF-8"))) {
                 
-                String sep = ";";
+                String sep = String.valueOf(config.getCsvSeparator());
                 writer.println(Company.getCsvHeaders(sep));
                 
-                companies.values().stream()
-                    .sorted((c1, c2) -> {
-                        String n1 = c1.getNom() != null ? c1.getNom() : "";
-                        String n2 = c2.getNom() != null ? c2.getNom() : "";
-                        return n1.compareToIgnoreCase(n2);
-                    })
+                companies.sortedByName()
                     .forEach(company -> writer.println(company.toCsvLine(sep)));
                 
                 JOptionPane.showMessageDialog(this,
@@ -545,15 +545,17 @@ public class PappersSearchWindow extends JFrame {
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
             try (java.io.FileWriter writer = new java.io.FileWriter(fileChooser.getSelectedFile())) {
                 
-                List<Company> sortedCompanies = new java.util.ArrayList<>(companies.values());
-                sortedCompanies.sort((c1, c2) -> {
-                    String n1 = c1.getNom() != null ? c1.getNom() : "";
-                    String n2 = c2.getNom() != null ? c2.getNom() : "";
-                    return n1.compareToIgnoreCase(n2);
-                });
+                List<Company> sortedCompanies = companies.sortedByName();
                 
+                // Historique financier brut, plus le chiffre d'affaires tel qu'affiché
                 Gson gsonPretty = new GsonBuilder().setPrettyPrinting().create();
-                String json = gsonPretty.toJson(sortedCompanies);
+                com.google.gson.JsonArray array = new com.google.gson.JsonArray();
+                for (Company company : sortedCompanies) {
+                    com.google.gson.JsonObject object = gsonPretty.toJsonTree(company).getAsJsonObject();
+                    object.addProperty("chiffreAffaires", company.getChiffreAffaires());
+                    array.add(object);
+                }
+                String json = gsonPretty.toJson(array);
                 writer.write(json);
                 
                 JOptionPane.showMessageDialog(this,
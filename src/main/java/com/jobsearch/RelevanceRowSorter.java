@@ -0,0 +1,137 @@
+package com.jobsearch;
+
+import javax.swing.RowFilter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableRowSorter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tri / filtre du tableau des résultats par pertinence.
+ *
+ * Quand des scores de recherche sont fournis (id d'offre -> score), seules
+ * les offres notées restent visibles, triées par score décroissant via une
+ * colonne virtuelle placée après les colonnes du modèle (jamais affichée).
+ * Un clic sur un en-tête retrouve le tri habituel par colonne.
+ *
+ * Des masques de lignes (sélection de facettes, filtre compilé, zone
+ * géographique) peuvent s'y ajouter : une ligne n'est visible que si elle
+ * satisfait tout.
+ */
+public class RelevanceRowSorter extends TableRowSorter<ResultTableModel> {
+
+    private final int scoreColumn;
+    private volatile Map<String, Float> scores;
+    private volatile RowBitmap rowMask;
+    private volatile RowBitmap filterMask;
+    private volatile RowBitmap geoMask;
+
+    public RelevanceRowSorter(ResultTableModel model) {
+        super(model);
+        this.scoreColumn = model.getColumnCount();
+        setModelWrapper(new ModelWrapper<ResultTableModel, Integer>() {
+            @Override
+            public ResultTableModel getModel() {
+                return model;
+            }
+
+            @Override
+            public int getColumnCount() {
+                return scoreColumn + 1;
+            }
+
+            @Override
+            public int getRowCount() {
+                return model.getRowCount();
+            }
+
+            @Override
+            public Object getValueAt(int row, int column) {
+                return column == scoreColumn ? score(row) : model.getValueAt(row, column);
+            }
+
+            @Override
+            public String getStringValueAt(int row, int column) {
+                Object value = getValueAt(row, column);
+                return value != null ? value.toString() : "";
+            }
+
+            @Override
+            public Integer getIdentifier(int row) {
+                return row;
+            }
+        });
+    }
+
+    /**
+     * Appliquer des scores (null pour revenir à l'affichage complet)
+     */
+    public void setScores(Map<String, Float> scores) {
+        this.scores = scores;
+        updateFilter();
+        setSortKeys(scores != null ? List.of(new SortKey(scoreColumn, SortOrder.DESCENDING)) : null);
+    }
+
+    /**
+     * Restreindre aux lignes d'un masque (null pour toutes)
+     */
+    public void setRowMask(RowBitmap rowMask) {
+        this.rowMask = rowMask;
+        updateFilter();
+    }
+
+    /**
+     * Restreindre aux lignes retenues par un filtre (null pour toutes)
+     */
+    public void setFilterMask(RowBitmap filterMask) {
+        this.filterMask = filterMask;
+        updateFilter();
+    }
+
+    /**
+     * Restreindre aux lignes d'une zone géographique (null pour toutes)
+     */
+    public void setGeoMask(RowBitmap geoMask) {
+        this.geoMask = geoMask;
+        updateFilter();
+    }
+
+    public boolean hasScores() {
+        return scores != null;
+    }
+
+    private void updateFilter() {
+        if (scores == null && rowMask == null && filterMask == null && geoMask == null) {
+            setRowFilter(null);
+            return;
+        }
+        setRowFilter(new RowFilter<ResultTableModel, Integer>() {
+            @Override
+            public boolean include(Entry<? extends ResultTableModel, ? extends Integer> entry) {
+                int row = entry.getIdentifier();
+                RowBitmap mask = rowMask;
+                RowBitmap filter = filterMask;
+                RowBitmap geo = geoMask;
+                return (mask == null || mask.contains(row)) && (filter == null || filter.contains(row))
+                    && (geo == null || geo.contains(row))
+                    && (scores == null || score(row) != null);
+            }
+        });
+    }
+
+    @Override
+    public Comparator<?> getComparator(int column) {
+        if (column == scoreColumn) {
+            return Comparator.nullsFirst(Comparator.<Float>naturalOrder());
+        }
+        return super.getComparator(column);
+    }
+
+    private Float score(int row) {
+        Map<String, Float> current = scores;
+        if (current == null) return null;
+        String offerId = getModel().getOfferId(row);
+        return offerId != null ? current.get(offerId) : null;
+    }
+}
@@ -0,0 +1,406 @@
+package com.jobsearch;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Filtre textuel sur les résultats, compilé une fois en arbre de prédicats.
+ *
+ * Syntaxe :
+ *   dept in (75,92) and contrat = CDI and salaireMin >= 45000
+ *   not (ville = Paris or effectifMin < 50) and competences contains java
+ *   email is not null and date >= 2026-01-01
+ *
+ * Opérateurs : = != < <= > >= in (...) contains, is [not] null, and / or /
+ * not et parenthèses. Les chaînes sont comparées sans casse ni accents.
+ *
+ * L'évaluation se fait colonne par colonne sur le stockage du tableau
+ * (ColumnarTable) et produit une carte de bits dense : un prédicat sur
+ * une chaîne est évalué une fois par valeur distincte du dictionnaire,
+ * puis la boucle sur les lignes ne compare que des codes entiers ; un
+ * prédicat numérique parcourt directement le tableau primitif.
+ */
+public class ResultFilter {
+
+    /**
+     * Erreur de syntaxe ou champ inconnu (message affichable)
+     */
+    public static class FilterException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public FilterException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Nœud de l'arbre : lignes satisfaisant le prédicat (bit i = ligne i)
+     */
+    private interface Node {
+        long[] evaluate(ColumnarTable table, int rows);
+    }
+
+    private final String expression;
+    private final Node root;
+
+    private ResultFilter(String expression, Node root) {
+        this.expression = expression;
+        this.root = root;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Compiler une expression pour les champs d'un tableau
+     *
+     * @param fields nom de champ (minuscules) -> nom de colonne de stockage
+     */
+    public static ResultFilter compile(String expression, Map<String, String> fields, ColumnarTable table)
+            throws FilterException {
+        Parser parser = new Parser(tokenize(expression), fields, table);
+        Node root = parser.parseOr();
+        if (!parser.atEnd()) {
+            throw new FilterException("Élément inattendu: " + parser.peek());
+        }
+        return new ResultFilter(expression, root);
+    }
+
+    /**
+     * Lignes du tableau retenues par le filtre
+     */
+    public RowBitmap evaluate(ColumnarTable table) {
+        return RowBitmap.fromWords(root.evaluate(table, table.rowCount()));
+    }
+
+    /**
+     * Nom de champ simplifié : minuscules sans accents ni symboles ("📧 Email" -> "email")
+     */
+    static String normalizeField(String name) {
+        String folded = Normalizer.normalize(name, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) result.append(c);
+        }
+        return result.toString();
+    }
+
+    // ------------------------------------------------------------------
+    // Analyse lexicale et syntaxique
+    // ------------------------------------------------------------------
+
+    private static List<String> tokenize(String expression) throws FilterException {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')' || c == ',') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '\'' || c == '"') {
+                int end = expression.indexOf(c, i + 1);
+                if (end < 0) throw new FilterException("Guillemet non fermé à la position " + (i + 1));
+                // Préfixe \0 : littéral entre guillemets (jamais un mot-clé)
+                tokens.add("\0" + expression.substring(i + 1, end));
+                i = end + 1;
+            } else if (c == '=' || c == '!' || c == '<' || c == '>') {
+                int end = i + 1;
+                if (end < expression.length() && (expression.charAt(end) == '=' || expression.charAt(end) == '>')) end++;
+                String op = expression.substring(i, end);
+                if (op.equals("==")) op = "=";
+                if (op.equals("<>")) op = "!=";
+                if (!Set.of("=", "!=", "<", "<=", ">", ">=").contains(op)) {
+                    throw new FilterException("Opérateur inconnu: " + op);
+                }
+                tokens.add(op);
+                i = end;
+            } else {
+                int end = i;
+                while (end < expression.length()) {
+                    char d = expression.charAt(end);
+                    if (Character.isWhitespace(d) || "()<>=!,'\"".indexOf(d) >= 0) break;
+                    end++;
+                }
+                tokens.add(expression.substring(i, end));
+                i = end;
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Parser {
+        private final List<String> tokens;
+        private final Map<String, String> fields;
+        private final ColumnarTable table;
+        private int position;
+
+        Parser(List<String> tokens, Map<String, String> fields, ColumnarTable table) {
+            this.tokens = tokens;
+            this.fields = fields;
+            this.table = table;
+        }
+
+        boolean atEnd() {
+            return position >= tokens.size();
+        }
+
+        String peek() {
+            return atEnd() ? "fin de l'expression" : literal(tokens.get(position));
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            if (!atEnd() && tokens.get(position).equalsIgnoreCase(keyword)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private String next(String expected) throws FilterException {
+            if (atEnd()) throw new FilterException(expected + " attendu en fin d'expression");
+            return tokens.get(position++);
+        }
+
+        private void expect(String token) throws FilterException {
+            String actual = next("'" + token + "'");
+            if (!actual.equals(token)) {
+                throw new FilterException("'" + token + "' attendu au lieu de " + literal(actual));
+            }
+        }
+
+        Node parseOr() throws FilterException {
+            Node left = parseAnd();
+            while (acceptKeyword("or") || acceptKeyword("ou")) {
+                Node a = left, b = parseAnd();
+                left = (t, n) -> combine(a.evaluate(t, n), b.evaluate(t, n), false);
+            }
+            return left;
+        }
+
+        Node parseAnd() throws FilterException {
+            Node left = parseUnary();
+            while (acceptKeyword("and") || acceptKeyword("et")) {
+                Node a = left, b = parseUnary();
+                left = (t, n) -> combine(a.evaluate(t, n), b.evaluate(t, n), true);
+            }
+            return left;
+        }
+
+        Node parseUnary() throws FilterException {
+            if (acceptKeyword("not") || acceptKeyword("non")) {
+                Node inner = parseUnary();
+                return (t, n) -> not(inner.evaluate(t, n), n);
+            }
+            if (!atEnd() && tokens.get(position).equals("(")) {
+                position++;
+                Node inner = parseOr();
+                expect(")");
+                return inner;
+            }
+            return parseComparison();
+        }
+
+        Node parseComparison() throws FilterException {
+            String field = literal(next("Champ"));
+            String columnName = fields.get(normalizeField(field));
+            if (columnName == null) {
+                throw new FilterException("Champ inconnu: " + field + " (champs: " + String.join(", ", fields.keySet()) + ")");
+            }
+            ColumnarTable.Column column = table.column(columnName);
+
+            if (acceptKeyword("is")) {
+                boolean negate = acceptKeyword("not");
+                if (!acceptKeyword("null")) throw new FilterException("'null' attendu après 'is'");
+                return nullNode(columnName, negate);
+            }
+            if (acceptKeyword("in")) {
+                expect("(");
+                List<String> values = new ArrayList<>();
+                values.add(literal(next("Valeur")));
+                while (!atEnd() && tokens.get(position).equals(",")) {
+                    position++;
+                    values.add(literal(next("Valeur")));
+                }
+                expect(")");
+                return column instanceof ColumnarTable.StringColumn
+                    ? stringNode(columnName, "in", values)
+                    : numberNode(columnName, "in", parseNumbers(field, column, values));
+            }
+            if (acceptKeyword("contains") || acceptKeyword("contient")) {
+                if (!(column instanceof ColumnarTable.StringColumn)) {
+                    throw new FilterException("'contains' ne s'applique qu'au texte: " + field);
+                }
+                return stringNode(columnName, "contains", List.of(literal(next("Valeur"))));
+            }
+
+            String op = next("Opérateur");
+            if (!Set.of("=", "!=", "<", "<=", ">", ">=").contains(op)) {
+                throw new FilterException("Opérateur attendu après " + field + " au lieu de " + literal(op));
+            }
+            String value = literal(next("Valeur"));
+            if (column instanceof ColumnarTable.StringColumn) {
+                if (!op.equals("=") && !op.equals("!=")) {
+                    throw new FilterException("'" + op + "' ne s'applique qu'aux nombres: " + field);
+                }
+                return stringNode(columnName, op, List.of(value));
+            }
+            return numberNode(columnName, op, parseNumbers(field, column, List.of(value)));
+        }
+
+        private static String literal(String token) {
+            return token.startsWith("\0") ? token.substring(1) : token;
+        }
+
+        private static double[] parseNumbers(String field, ColumnarTable.Column column, List<String> values)
+                throws FilterException {
+            double[] numbers = new double[values.size()];
+            for (int i = 0; i < values.size(); i++) {
+                String value = values.get(i).trim();
+                try {
+                    if (column instanceof ColumnarTable.LongColumn && value.matches("\\d{4}-\\d{2}-\\d{2}")) {
+                        // Date : millisecondes epoch à minuit UTC
+                        numbers[i] = LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+                    } else {
+                        numbers[i] = parseAmount(value);
+                    }
+                } catch (RuntimeException e) {
+                    throw new FilterException("Nombre attendu pour " + field + ": " + value);
+                }
+            }
+            return numbers;
+        }
+
+        /**
+         * Nombre avec suffixe éventuel : 45000, 45k, 1.5M, 2,5M
+         */
+        private static double parseAmount(String value) {
+            String v = value.replace(',', '.').replace("_", "");
+            double factor = 1;
+            char last = Character.toLowerCase(v.charAt(v.length() - 1));
+            if (last == 'k') factor = 1_000;
+            if (last == 'm') factor = 1_000_000;
+            if (factor != 1) v = v.substring(0, v.length() - 1);
+            return Double.parseDouble(v) * factor;
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Feuilles et combinaisons
+    // ------------------------------------------------------------------
+
+    private static Node stringNode(String columnName, String op, List<String> values) {
+        List<String> folded = new ArrayList<>();
+        for (String value : values) folded.add(fold(value));
+        boolean negate = op.equals("!=");
+        return (table, rows) -> {
+            ColumnarTable.StringColumn column = table.stringColumn(columnName);
+            // Prédicat évalué une fois par valeur distincte
+            boolean[] matches = new boolean[column.dictionarySize()];
+            for (int code = 0; code < matches.length; code++) {
+                String value = fold(column.value(code));
+                boolean match = false;
+                for (String wanted : folded) {
+                    if (op.equals("contains") ? value.contains(wanted) : value.equals(wanted)) {
+                        match = true;
+                        break;
+                    }
+                }
+                matches[code] = match != negate;
+            }
+            long[] words = new long[(rows + 63) >>> 6];
+            for (int row = 0; row < rows; row++) {
+                int code = column.code(row);
+                if (code >= 0 && matches[code]) words[row >>> 6] |= 1L << row;
+            }
+            return words;
+        };
+    }
+
+    private static Node numberNode(String columnName, String op, double[] values) {
+        java.util.function.DoublePredicate test = predicate(op, values);
+        return (table, rows) -> {
+            ColumnarTable.Column column = table.column(columnName);
+            long[] words = new long[(rows + 63) >>> 6];
+            // Une boucle par type de colonne, sur le tableau primitif
+            if (column instanceof ColumnarTable.IntColumn ints) {
+                for (int row = 0; row < rows; row++) {
+                    if (test.test(ints.getInt(row)) && !ints.isNull(row)) words[row >>> 6] |= 1L << row;
+                }
+            } else if (column instanceof ColumnarTable.LongColumn longs) {
+                for (int row = 0; row < rows; row++) {
+                    if (test.test(longs.getLong(row)) && !longs.isNull(row)) words[row >>> 6] |= 1L << row;
+                }
+            } else {
+                ColumnarTable.DoubleColumn doubles = (ColumnarTable.DoubleColumn) column;
+                for (int row = 0; row < rows; row++) {
+                    if (test.test(doubles.getDouble(row)) && !doubles.isNull(row)) words[row >>> 6] |= 1L << row;
+                }
+            }
+            return words;
+        };
+    }
+
+    private static java.util.function.DoublePredicate predicate(String op, double[] values) {
+        double value = values[0];
+        return switch (op) {
+            case "=" -> v -> v == value;
+            case "!=" -> v -> v != value;
+            case "<" -> v -> v < value;
+            case "<=" -> v -> v <= value;
+            case ">" -> v -> v > value;
+            case ">=" -> v -> v >= value;
+            default -> v -> {
+                for (double candidate : values) {
+                    if (v == candidate) return true;
+                }
+                return false;
+            };
+        };
+    }
+
+    private static Node nullNode(String columnName, boolean negate) {
+        return (table, rows) -> {
+            ColumnarTable.Column column = table.column(columnName);
+            long[] words = new long[(rows + 63) >>> 6];
+            for (int row = 0; row < rows; row++) {
+                boolean missing = column.isNull(row);
+                if (column instanceof ColumnarTable.StringColumn strings && !missing) {
+                    // "N/A" affiché pour une valeur absente
+                    missing = "N/A".equals(strings.get(row));
+                }
+                if (missing != negate) words[row >>> 6] |= 1L << row;
+            }
+            return words;
+        };
+    }
+
+    private static long[] combine(long[] a, long[] b, boolean and) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] = and ? a[i] & b[i] : a[i] | b[i];
+        }
+        return a;
+    }
+
+    private static long[] not(long[] words, int rows) {
+        for (int i = 0; i < words.length; i++) words[i] = ~words[i];
+        // Bits au-delà de la dernière ligne remis à zéro
+        if ((rows & 63) != 0) words[words.length - 1] &= (1L << rows) - 1;
+        return words;
+    }
+
+    private static String fold(String value) {
+        String folded = Normalizer.normalize(value, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder result = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) result.append(c);
+        }
+        return result.toString().trim();
+    }
+}
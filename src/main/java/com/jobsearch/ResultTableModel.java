@@ -0,0 +1,362 @@
+package com.jobsearch;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Modèle de tableau des résultats (remplace DefaultTableModel).
+ *
+ * Chaque ligne garde l'identifiant de l'entité affichée (id d'offre ou clé
+ * d'entreprise), pas l'objet : ses attributs sont copiés dans les colonnes
+ * à l'ajout. Les lignes peuvent être ajoutées en bloc avec un seul
+ * événement : la restauration de 100 000 lignes ne déclenche pas 100 000
+ * recalculs du tri et de l'affichage. À utiliser depuis l'EDT.
+ *
+ * Les cellules sont rangées en colonnes (ColumnarTable) : une colonne de
+ * chaînes encodées par dictionnaire par colonne affichée, plus des
+ * attributs non affichés de l'entité (contrat en code et libellé,
+ * expérience, compétences, NAF, effectifs, coordonnées, date de création, salaire annuel, chiffre
+ * d'affaires, résultat net, croissance et marge) lus par les facettes et
+ * les filtres sans repasser par les objets. Les valeurs affichées sont des chaînes.
+ *
+ * Les colonnes de comptage déclarées numériques (setNumericColumns) sont
+ * rendues en Long pour se trier comme des nombres.
+ *
+ * Une colonne par entreprise optionnelle (ex. offres ouvertes) suit les
+ * colonnes stockées : sa valeur est lue à l'affichage pour la clé
+ * d'entreprise de la ligne, et reste donc à jour sans réécrire les lignes.
+ *
+ * Une colonne calculée optionnelle (ex. distance) vient en dernier : ses
+ * valeurs numériques sont fournies en bloc, ne sont pas enregistrées avec
+ * la session et se trient comme des nombres.
+ */
+public class ResultTableModel extends AbstractTableModel {
+
+    public static final String ATTR_OFFER_ID = "@offerId";
+    public static final String ATTR_COMPANY_KEY = "@companyKey";
+    public static final String ATTR_CONTRAT = "@contrat";
+    public static final String ATTR_CONTRAT_CODE = "@contratCode";
+    public static final String ATTR_EXPERIENCE = "@experience";
+    public static final String ATTR_DEPARTEMENT = "@departement";
+    public static final String ATTR_REGION = "@region";
+    public static final String ATTR_COMPETENCES = "@competences";
+    public static final String ATTR_NAF = "@naf";
+    public static final String ATTR_EFFECTIF_MIN = "@effectifMin";
+    public static final String ATTR_EFFECTIF_MAX = "@effectifMax";
+    public static final String ATTR_LATITUDE = "@latitude";
+    public static final String ATTR_LONGITUDE = "@longitude";
+    public static final String ATTR_DATE_CREATION = "@dateCreation";
+    public static final String ATTR_SALAIRE_MIN = "@salaireMin";
+    public static final String ATTR_SALAIRE_MAX = "@salaireMax";
+    public static final String ATTR_CA = "@ca";
+    public static final String ATTR_RESULTAT = "@resultat";
+    public static final String ATTR_CROISSANCE = "@croissance";
+    public static final String ATTR_MARGE = "@marge";
+
+    // Noms utilisables dans les filtres (en minuscules) -> attribut
+    private static final String[][] ATTRIBUTE_FIELDS = {
+        {"dept", ATTR_DEPARTEMENT},
+        {"departement", ATTR_DEPARTEMENT},
+        {"region", ATTR_REGION},
+        {"contrat", ATTR_CONTRAT_CODE},
+        {"contratlibelle", ATTR_CONTRAT},
+        {"experience", ATTR_EXPERIENCE},
+        {"competences", ATTR_COMPETENCES},
+        {"salairemin", ATTR_SALAIRE_MIN},
+        {"salairemax", ATTR_SALAIRE_MAX},
+        {"date", ATTR_DATE_CREATION},
+        {"naf", ATTR_NAF},
+        {"effectifmin", ATTR_EFFECTIF_MIN},
+        {"effectifmax", ATTR_EFFECTIF_MAX},
+        {"ca", ATTR_CA},
+        {"resultat", ATTR_RESULTAT},
+        {"croissance", ATTR_CROISSANCE},
+        {"marge", ATTR_MARGE},
+        {"lat", ATTR_LATITUDE},
+        {"lon", ATTR_LONGITUDE}
+    };
+
+    private final String[] columns;
+    private final ColumnarTable table = new ColumnarTable();
+    private final ColumnarTable.StringColumn[] cells;
+    private final ColumnarTable.StringColumn offerId;
+    private final ColumnarTable.StringColumn companyKey;
+    private final ColumnarTable.StringColumn contrat;
+    private final ColumnarTable.StringColumn contratCode;
+    private final ColumnarTable.StringColumn experience;
+    private final ColumnarTable.StringColumn departement;
+    private final ColumnarTable.StringColumn region;
+    private final ColumnarTable.StringColumn competences;
+    private final ColumnarTable.StringColumn naf;
+    private final ColumnarTable.IntColumn effectifMin;
+    private final ColumnarTable.IntColumn effectifMax;
+    private final ColumnarTable.DoubleColumn latitude;
+    private final ColumnarTable.DoubleColumn longitude;
+    private final ColumnarTable.LongColumn dateCreation;
+    private final ColumnarTable.DoubleColumn salaireMin;
+    private final ColumnarTable.DoubleColumn salaireMax;
+    private final ColumnarTable.DoubleColumn chiffreAffaires;
+    private final ColumnarTable.DoubleColumn resultat;
+    private final ColumnarTable.DoubleColumn croissance;
+    private final ColumnarTable.DoubleColumn marge;
+    private final String derivedColumn;
+    private double[] derivedValues;
+    private String companyColumn;
+    private Function<String, Integer> companyValue;
+    private final boolean[] numeric;
+
+    // Entreprise d'une ligne dont l'entité est une clé du registre
+    private Function<String, Company> companyLookup = key -> null;
+
+    public ResultTableModel(String[] columns) {
+        this(columns, null);
+    }
+
+    /**
+     * Modèle avec une colonne calculée nommée derivedColumn (null pour aucune)
+     */
+    public ResultTableModel(String[] columns, String derivedColumn) {
+        this.columns = columns.clone();
+        this.derivedColumn = derivedColumn;
+        this.cells = new ColumnarTable.StringColumn[columns.length];
+        this.numeric = new boolean[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            cells[i] = table.addStringColumn(i + ":" + columns[i]);
+        }
+        offerId = table.addStringColumn(ATTR_OFFER_ID);
+        companyKey = table.addStringColumn(ATTR_COMPANY_KEY);
+        contrat = table.addStringColumn(ATTR_CONTRAT);
+        contratCode = table.addStringColumn(ATTR_CONTRAT_CODE);
+        experience = table.addStringColumn(ATTR_EXPERIENCE);
+        departement = table.addStringColumn(ATTR_DEPARTEMENT);
+        region = table.addStringColumn(ATTR_REGION);
+        competences = table.addStringColumn(ATTR_COMPETENCES);
+        naf = table.addStringColumn(ATTR_NAF);
+        effectifMin = table.addIntColumn(ATTR_EFFECTIF_MIN);
+        effectifMax = table.addIntColumn(ATTR_EFFECTIF_MAX);
+        latitude = table.addDoubleColumn(ATTR_LATITUDE);
+        longitude = table.addDoubleColumn(ATTR_LONGITUDE);
+        dateCreation = table.addLongColumn(ATTR_DATE_CREATION);
+        salaireMin = table.addDoubleColumn(ATTR_SALAIRE_MIN);
+        salaireMax = table.addDoubleColumn(ATTR_SALAIRE_MAX);
+        chiffreAffaires = table.addDoubleColumn(ATTR_CA);
+        resultat = table.addDoubleColumn(ATTR_RESULTAT);
+        croissance = table.addDoubleColumn(ATTR_CROISSANCE);
+        marge = table.addDoubleColumn(ATTR_MARGE);
+    }
+
+    /**
+     * Résolution des clés d'entreprise (lignes d'entreprises) pour leurs attributs
+     */
+    public void setCompanyLookup(Function<String, Company> companyLookup) {
+        this.companyLookup = companyLookup;
+    }
+
+    /**
+     * Colonne lue par clé d'entreprise (lignes d'entreprise), avant la colonne calculée.
+     * À appeler avant de rattacher le modèle à une table.
+     */
+    public void setCompanyColumn(String name, Function<String, Integer> value) {
+        this.companyColumn = name;
+        this.companyValue = value;
+        fireTableStructureChanged();
+    }
+
+    /**
+     * Colonnes stockées dont les valeurs sont des nombres entiers (tri numérique)
+     */
+    public void setNumericColumns(int... numericColumns) {
+        for (int column : numericColumns) {
+            numeric[column] = true;
+        }
+        fireTableStructureChanged();
+    }
+
+    /**
+     * Ajouter une ligne et l'entité qu'elle représente (offre, clé d'entreprise ou null)
+     */
+    public void addRow(Object[] values, Object entity) {
+        append(values, entity);
+        int row = table.rowCount() - 1;
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Ajouter des lignes en bloc (un seul événement)
+     */
+    public void addRows(List<Object[]> values, List<?> rowEntities) {
+        if (values.isEmpty()) return;
+        int first = table.rowCount();
+        for (int i = 0; i < values.size(); i++) {
+            append(values.get(i), rowEntities != null ? rowEntities.get(i) : null);
+        }
+        fireTableRowsInserted(first, table.rowCount() - 1);
+    }
+
+    /**
+     * Valeurs de la colonne calculée par ligne (NaN : vide, null pour vider la colonne)
+     */
+    public void setDerivedValues(double[] values) {
+        if (derivedColumn == null || (values == null && derivedValues == null)) return;
+        derivedValues = values;
+        fireTableDataChanged();
+    }
+
+    public void clear() {
+        derivedValues = null;
+        if (table.rowCount() == 0) return;
+        table.clear();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Colonnes de stockage (cellules et attributs), en lecture
+     */
+    public ColumnarTable getColumns() {
+        return table;
+    }
+
+    /**
+     * Champs des filtres : colonnes affichées (nom simplifié, ex. "ville", "email")
+     * et attributs (dept, contrat, salaireMin, effectifMin...) -> colonne de stockage
+     */
+    public Map<String, String> filterFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            String name = ResultFilter.normalizeField(columns[i]);
+            if (!name.isEmpty()) fields.putIfAbsent(name, cells[i].name);
+        }
+        for (String[] field : ATTRIBUTE_FIELDS) {
+            fields.put(field[0], field[1]);
+        }
+        return fields;
+    }
+
+    /**
+     * Id de l'offre d'une ligne (index du modèle), null pour une ligne d'entreprise
+     */
+    public String getOfferId(int row) {
+        return offerId.get(row);
+    }
+
+    /**
+     * Clé d'entreprise d'une ligne (index du modèle), null pour une ligne d'offre
+     */
+    public String getCompanyKey(int row) {
+        return companyKey.get(row);
+    }
+
+    /**
+     * Valeurs stockées d'une ligne (index du modèle, sans la colonne calculée)
+     */
+    public Object[] getRow(int row) {
+        Object[] values = new Object[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            values[i] = cells[i].get(row);
+        }
+        return values;
+    }
+
+    /**
+     * Noms des colonnes stockées (sans la colonne calculée)
+     */
+    public String[] getColumnNames() {
+        return columns.clone();
+    }
+
+    @Override
+    public int getRowCount() {
+        return table.rowCount();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return derivedIndex() + (derivedColumn != null ? 1 : 0);
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        if (column == columns.length && companyColumn != null) return companyColumn;
+        return column == derivedIndex() ? derivedColumn : columns[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        if (column == columns.length && companyColumn != null) return Integer.class;
+        if (column == derivedIndex()) return Double.class;
+        return numeric[column] ? Long.class : Object.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column == columns.length && companyColumn != null) {
+            String key = companyKey.get(row);
+            return key != null ? companyValue.apply(key) : null;
+        }
+        if (column == derivedIndex()) {
+            double[] values = derivedValues;
+            if (values == null || row >= values.length || Double.isNaN(values[row])) return null;
+            return Math.round(values[row] * 10) / 10.0;
+        }
+        String value = cells[column].get(row);
+        if (!numeric[column] || value == null) return value;
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    private int derivedIndex() {
+        return companyColumn != null ? columns.length + 1 : columns.length;
+    }
+
+    private void append(Object[] values, Object entity) {
+        for (int i = 0; i < cells.length; i++) {
+            Object value = i < values.length ? values[i] : null;
+            cells[i].append(value != null ? value.toString() : null);
+        }
+        if (entity instanceof JobOffer offer) {
+            offerId.append(offer.getId());
+            contrat.append(offer.getTypeContratLibelle());
+            contratCode.append(offer.getTypeContrat());
+            experience.append(offer.getExperienceLibelle());
+            departement.append(offer.getDepartement());
+            region.append(offer.getRegion());
+            competences.append(offer.getCompetences());
+            latitude.append(offer.getLatitude());
+            longitude.append(offer.getLongitude());
+            Instant created = SyncWatermarks.parseOfferDate(offer.getDateCreation());
+            dateCreation.append(created != null ? created.toEpochMilli() : null);
+            salaireMin.append(offer.getSalaireAnnuelMin());
+            salaireMax.append(offer.getSalaireAnnuelMax());
+        } else if (entity instanceof String key) {
+            companyKey.append(key);
+            Company company = companyLookup.apply(key);
+            if (company != null) {
+                departement.append(company.getDepartement());
+                region.append(company.getRegion());
+                naf.append(company.getCodeNAF());
+                effectifMin.append(company.getEffectifMin());
+                effectifMax.append(company.getEffectifMax());
+                latitude.append(company.getLatitude());
+                longitude.append(company.getLongitude());
+                chiffreAffaires.append(company.getChiffreAffairesMontant());
+                resultat.append(company.getResultatNet());
+                croissance.append(company.getCroissanceChiffreAffaires());
+                marge.append(company.getMargeNette());
+            }
+        }
+        // Attributs non renseignés : valeurs absentes
+        table.commitRow();
+    }
+}
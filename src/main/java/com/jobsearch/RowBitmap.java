@@ -0,0 +1,341 @@
+package com.jobsearch;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Ensemble compressé de numéros de lignes (principe des bitmaps "roaring").
+ *
+ * Les numéros sont regroupés par blocs de 65 536 (16 bits de poids fort).
+ * Un bloc peu rempli est un tableau trié de 16 bits ; au-delà de 4 096
+ * valeurs il devient une carte de 1 024 mots de 64 bits. Intersections et
+ * unions se font bloc par bloc, mot par mot pour les cartes : combiner
+ * plusieurs facettes sur 100 000 lignes reste de l'ordre de la milliseconde.
+ */
+public class RowBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    /**
+     * Bloc : tableau trié (array) ou carte de bits (bits), jamais les deux
+     */
+    private static final class Container {
+        char[] array;
+        long[] bits;
+        int cardinality;
+
+        static Container ofArray(char[] array, int cardinality) {
+            Container c = new Container();
+            c.array = array;
+            c.cardinality = cardinality;
+            return c;
+        }
+
+        static Container ofBits(long[] bits, int cardinality) {
+            Container c = new Container();
+            c.bits = bits;
+            c.cardinality = cardinality;
+            return c;
+        }
+
+        boolean contains(char low) {
+            if (bits != null) return (bits[low >>> 6] & (1L << low)) != 0;
+            return Arrays.binarySearch(array, 0, cardinality, low) >= 0;
+        }
+
+        void add(char low) {
+            if (bits != null) {
+                long mask = 1L << low;
+                if ((bits[low >>> 6] & mask) == 0) {
+                    bits[low >>> 6] |= mask;
+                    cardinality++;
+                }
+                return;
+            }
+            // Ajout en fin (cas courant : lignes ajoutées dans l'ordre)
+            int pos = cardinality > 0 && array[cardinality - 1] < low
+                ? -(cardinality + 1) : Arrays.binarySearch(array, 0, cardinality, low);
+            if (pos >= 0) return;
+            if (cardinality == ARRAY_MAX) {
+                toBits();
+                add(low);
+                return;
+            }
+            int insert = -(pos + 1);
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(array, insert, array, insert + 1, cardinality - insert);
+            array[insert] = low;
+            cardinality++;
+        }
+
+        private void toBits() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                char v = array[i];
+                words[v >>> 6] |= 1L << v;
+            }
+            bits = words;
+            array = null;
+        }
+
+        Container and(Container other) {
+            if (bits != null && other.bits != null) {
+                long[] words = new long[WORDS];
+                int card = 0;
+                for (int i = 0; i < WORDS; i++) {
+                    words[i] = bits[i] & other.bits[i];
+                    card += Long.bitCount(words[i]);
+                }
+                return card > ARRAY_MAX ? ofBits(words, card) : ofArray(toArray(words, card), card);
+            }
+            if (bits != null) return other.and(this);
+            char[] result = new char[cardinality];
+            int card = 0;
+            if (other.bits != null) {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(array[i])) result[card++] = array[i];
+                }
+            } else {
+                int i = 0, j = 0;
+                while (i < cardinality && j < other.cardinality) {
+                    char a = array[i], b = other.array[j];
+                    if (a == b) {
+                        result[card++] = a;
+                        i++;
+                        j++;
+                    } else if (a < b) {
+                        i++;
+                    } else {
+                        j++;
+                    }
+                }
+            }
+            return ofArray(result, card);
+        }
+
+        int andCardinality(Container other) {
+            if (bits != null && other.bits != null) {
+                int card = 0;
+                for (int i = 0; i < WORDS; i++) card += Long.bitCount(bits[i] & other.bits[i]);
+                return card;
+            }
+            if (bits != null) return other.andCardinality(this);
+            int card = 0;
+            if (other.bits != null) {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(array[i])) card++;
+                }
+            } else {
+                int i = 0, j = 0;
+                while (i < cardinality && j < other.cardinality) {
+                    char a = array[i], b = other.array[j];
+                    if (a == b) {
+                        card++;
+                        i++;
+                        j++;
+                    } else if (a < b) {
+                        i++;
+                    } else {
+                        j++;
+                    }
+                }
+            }
+            return card;
+        }
+
+        Container or(Container other) {
+            long[] words = new long[WORDS];
+            for (Container c : new Container[]{this, other}) {
+                if (c.bits != null) {
+                    for (int i = 0; i < WORDS; i++) words[i] |= c.bits[i];
+                } else {
+                    for (int i = 0; i < c.cardinality; i++) words[c.array[i] >>> 6] |= 1L << c.array[i];
+                }
+            }
+            int card = 0;
+            for (long word : words) card += Long.bitCount(word);
+            return card > ARRAY_MAX ? ofBits(words, card) : ofArray(toArray(words, card), card);
+        }
+
+        private static char[] toArray(long[] words, int card) {
+            char[] result = new char[card];
+            int k = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    result[k++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return result;
+        }
+    }
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    /**
+     * Construire depuis une carte de bits dense (bit i du mot i / 64 = ligne i)
+     */
+    public static RowBitmap fromWords(long[] words) {
+        RowBitmap result = new RowBitmap();
+        for (int block = 0; block * WORDS < words.length; block++) {
+            int from = block * WORDS;
+            int to = Math.min(words.length, from + WORDS);
+            int card = 0;
+            for (int i = from; i < to; i++) card += Long.bitCount(words[i]);
+            if (card == 0) continue;
+            long[] bits = Arrays.copyOf(Arrays.copyOfRange(words, from, to), WORDS);
+            result.append((char) block, card > ARRAY_MAX
+                ? Container.ofBits(bits, card)
+                : Container.ofArray(Container.toArray(bits, card), card));
+        }
+        return result;
+    }
+
+    /**
+     * Ajouter un numéro de ligne (positif)
+     */
+    public void add(int row) {
+        char key = (char) (row >>> 16);
+        int index = find(key);
+        if (index < 0) {
+            index = -(index + 1);
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(containers, index, containers, index + 1, size - index);
+            keys[index] = key;
+            containers[index] = Container.ofArray(new char[4], 0);
+            size++;
+        }
+        containers[index].add((char) row);
+    }
+
+    public boolean contains(int row) {
+        int index = find((char) (row >>> 16));
+        return index >= 0 && containers[index].contains((char) row);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) total += containers[i].cardinality;
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return cardinality() == 0;
+    }
+
+    /**
+     * Parcourir les numéros de lignes par ordre croissant
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            Container c = containers[i];
+            if (c.bits == null) {
+                for (int k = 0; k < c.cardinality; k++) action.accept(high | c.array[k]);
+                continue;
+            }
+            for (int w = 0; w < WORDS; w++) {
+                long word = c.bits[w];
+                while (word != 0) {
+                    action.accept(high | ((w << 6) + Long.numberOfTrailingZeros(word)));
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Intersection (nouvel ensemble)
+     */
+    public RowBitmap and(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] == other.keys[j]) {
+                Container c = containers[i].and(other.containers[j]);
+                if (c.cardinality > 0) result.append(keys[i], c);
+                i++;
+                j++;
+            } else if (keys[i] < other.keys[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Cardinal de l'intersection, sans la construire
+     */
+    public int andCardinality(RowBitmap other) {
+        int total = 0;
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] == other.keys[j]) {
+                total += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            } else if (keys[i] < other.keys[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Union (nouvel ensemble)
+     */
+    public RowBitmap or(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int i = 0, j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], copy(containers[i]));
+                i++;
+            } else if (i >= size || other.keys[j] < keys[i]) {
+                result.append(other.keys[j], copy(other.containers[j]));
+                j++;
+            } else {
+                result.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    private static Container copy(Container c) {
+        return c.bits != null
+            ? Container.ofBits(c.bits.clone(), c.cardinality)
+            : Container.ofArray(Arrays.copyOf(c.array, c.cardinality), c.cardinality);
+    }
+
+    private void append(char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        keys[size] = key;
+        containers[size] = container;
+        size++;
+    }
+
+    private int find(char key) {
+        // Dernier bloc d'abord : les lignes arrivent dans l'ordre
+        if (size > 0 && keys[size - 1] == key) return size - 1;
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+}
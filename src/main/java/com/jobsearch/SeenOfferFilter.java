@@ -0,0 +1,116 @@
+package com.jobsearch;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Filtre de Bloom persistant des offres déjà vues lors des sessions précédentes.
+ *
+ * 1 Mo sur disque pour ~800 000 offres à 1 % de faux positifs : permet de
+ * signaler les nouvelles offres d'une recherche sans conserver tous les ids.
+ */
+public class SeenOfferFilter {
+
+    private static final int MAGIC = 0x53454E31; // "SEN1"
+    private static final int BIT_COUNT = 1 << 23;
+    private static final int HASH_COUNT = 7;
+
+    private final File file;
+    private final long[] bits = new long[BIT_COUNT / 64];
+    private boolean dirty = false;
+
+    public SeenOfferFilter(File file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * L'offre a-t-elle (probablement) déjà été vue ?
+     */
+    public synchronized boolean mightContain(String id) {
+        if (id == null) return false;
+        long hash = hash64(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASH_COUNT; i++) {
+            int bit = (h1 + i * h2) & (BIT_COUNT - 1);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marquer une offre comme vue, retourne true si elle était nouvelle
+     */
+    public synchronized boolean put(String id) {
+        if (id == null) return false;
+        long hash = hash64(id);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean added = false;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            int bit = (h1 + i * h2) & (BIT_COUNT - 1);
+            long mask = 1L << bit;
+            if ((bits[bit >>> 6] & mask) == 0) {
+                bits[bit >>> 6] |= mask;
+                added = true;
+            }
+        }
+        dirty |= added;
+        return added;
+    }
+
+    /**
+     * Sauvegarder le filtre (écriture atomique via fichier temporaire)
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) return;
+        File parent = file.getParentFile();
+        if (parent != null) parent.mkdirs();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(BIT_COUNT);
+            for (long word : bits) {
+                out.writeLong(word);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        dirty = false;
+    }
+
+    private void load() {
+        if (!file.exists()) return;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != BIT_COUNT) {
+                System.err.println("⚠ Filtre des offres vues ignoré (format inconnu): " + file);
+                return;
+            }
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = in.readLong();
+            }
+        } catch (IOException e) {
+            System.err.println("⚠ Lecture du filtre des offres vues impossible: " + e.getMessage());
+        }
+    }
+
+    private static long hash64(String id) {
+        // FNV-1a 64 bits puis mélange final (murmur3 fmix64)
+        long h = 0xcbf29ce484222325L;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,536 @@
+package com.jobsearch;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Instantané binaire d'une session (offres, variantes, entreprises, tableau,
+ * rattachement des offres à leur entreprise).
+ *
+ * Format versionné : en-tête (magic, version, date, position du dictionnaire),
+ * corps en enregistrements préfixés par leur longueur, puis dictionnaire des
+ * chaînes distinctes (longueur varint + UTF-8). Dans le corps, chaque champ
+ * texte n'est qu'une référence varint dans le dictionnaire (0 = null). Les
+ * valeurs répétées (villes, contrats, départements, libellés NAF) ne sont
+ * stockées qu'une fois et la relecture ne fait aucun parsing JSON.
+ *
+ * L'écriture se fait en flux et la relecture par fenêtres mappées : la taille
+ * du fichier n'est pas limitée à 2 Go.
+ *
+ * Chaque section commence par son nombre de champs : une version ultérieure
+ * peut ajouter des champs en fin de liste sans casser la relecture, mais
+ * VERSION est incrémentée à chaque changement de disposition (une autre
+ * version est refusée).
+ */
+public final class SessionSnapshot {
+
+    private static final int MAGIC = 0x4A535331; // "JSS1"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 24;
+    private static final long DICTIONARY_OFFSET_POSITION = 16;
+    private static final long WINDOW_BYTES = 256L * 1024 * 1024;
+
+    // Nombre de chaînes du dictionnaire décodées par tâche parallèle
+    private static final int DECODE_CHUNK = 4096;
+
+    private static final byte ROW_NONE = 0;
+    private static final byte ROW_OFFER = 1;
+    private static final byte ROW_COMPANY = 2;
+
+    // Ordre figé : ne jamais réordonner (ajouter les nouveaux champs en fin de liste)
+    static final List<OfferCodec.StringField<Company>> COMPANY_FIELDS = List.of(
+        new OfferCodec.StringField<>("siret", Company::getSiret, Company::setSiret),
+        new OfferCodec.StringField<>("siren", Company::getSiren, Company::setSiren),
+        new OfferCodec.StringField<>("nom", Company::getNom, Company::setNom),
+        new OfferCodec.StringField<>("nomCommercial", Company::getNomCommercial, Company::setNomCommercial),
+        new OfferCodec.StringField<>("email", Company::getEmail, Company::setEmail),
+        new OfferCodec.StringField<>("emailRH", Company::getEmailRH, Company::setEmailRH),
+        new OfferCodec.StringField<>("telephone", Company::getTelephone, Company::setTelephone),
+        new OfferCodec.StringField<>("siteWeb", Company::getSiteWeb, Company::setSiteWeb),
+        new OfferCodec.StringField<>("adresse", Company::getAdresse, Company::setAdresse),
+        new OfferCodec.StringField<>("codePostal", Company::getCodePostal, Company::setCodePostal),
+        new OfferCodec.StringField<>("ville", Company::getVille, Company::setVille),
+        new OfferCodec.StringField<>("departement", Company::getDepartement, Company::setDepartement),
+        new OfferCodec.StringField<>("region", Company::getRegion, Company::setRegion),
+        new OfferCodec.StringField<>("codeNAF", Company::getCodeNAF, Company::setCodeNAF),
+        new OfferCodec.StringField<>("libelleNAF", Company::getLibelleNAF, Company::setLibelleNAF),
+        new OfferCodec.StringField<>("secteurActivite", Company::getSecteurActivite, Company::setSecteurActivite),
+        new OfferCodec.StringField<>("trancheEffectif", Company::getTrancheEffectif, Company::setTrancheEffectif),
+        new OfferCodec.StringField<>("categorieEntreprise", Company::getCategorieEntreprise, Company::setCategorieEntreprise),
+        new OfferCodec.StringField<>("chiffreAffaires", Company::getChiffreAffairesImporte, Company::setChiffreAffaires),
+        new OfferCodec.StringField<>("dateCreation", Company::getDateCreation, Company::setDateCreation),
+        new OfferCodec.StringField<>("dateDerniereMaj", Company::getDateDerniereMaj, Company::setDateDerniereMaj),
+        new OfferCodec.StringField<>("source", Company::getSource, Company::setSource),
+        new OfferCodec.StringField<>("latitude", c -> toText(c.getLatitude()), (c, v) -> c.setLatitude(toDouble(v))),
+        new OfferCodec.StringField<>("longitude", c -> toText(c.getLongitude()), (c, v) -> c.setLongitude(toDouble(v))),
+        new OfferCodec.StringField<>("finances", c -> c.getFinances() != null ? c.getFinances().encode() : null,
+            (c, v) -> c.setFinances(Company.Finances.decode(v))),
+        new OfferCodec.StringField<>("coordonneesOffre", c -> c.isCoordonneesOffre() ? "1" : null,
+            (c, v) -> c.setCoordonneesOffre("1".equals(v)))
+    );
+
+    /**
+     * Contenu d'une session
+     */
+    public static final class Session {
+        public final long savedAt;
+        public final List<JobOffer> offers;
+        // Empreintes de contenu des offres canoniques (évite de les recalculer à la restauration)
+        public final long[] offerFingerprints;
+        public final Map<String, List<JobOffer>> variants;
+        public final Map<String, Company> companies;
+        public final String[] columns;
+        public final List<Object[]> rows;
+        // Entité de chaque ligne : JobOffer, clé d'entreprise (String) ou null
+        public final List<Object> rowEntities;
+        // Offre -> clé d'entreprise, et offres retirées
+        public final Map<String, String> offerCompanies;
+        public final Set<String> closedOffers;
+
+        public Session(long savedAt, List<JobOffer> offers, long[] offerFingerprints, Map<String, List<JobOffer>> variants,
+                       Map<String, Company> companies, String[] columns,
+                       List<Object[]> rows, List<Object> rowEntities,
+                       Map<String, String> offerCompanies, Set<String> closedOffers) {
+            this.savedAt = savedAt;
+            this.offers = offers;
+            this.offerFingerprints = offerFingerprints;
+            this.variants = variants;
+            this.companies = companies;
+            this.columns = columns;
+            this.rows = rows;
+            this.rowEntities = rowEntities;
+            this.offerCompanies = offerCompanies;
+            this.closedOffers = closedOffers;
+        }
+    }
+
+    private SessionSnapshot() {
+    }
+
+    /**
+     * Écrire une session (écriture atomique via fichier temporaire).
+     *
+     * Le corps est écrit au fil de l'eau, enregistrement par enregistrement ;
+     * le dictionnaire, complet une fois le corps écrit, est placé en fin de
+     * fichier et sa position reportée dans l'en-tête.
+     */
+    public static void write(File file, Session session) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        ByteArrayOutputStream record = new ByteArrayOutputStream(1 << 12);
+
+        File parent = file.getParentFile();
+        if (parent != null) parent.mkdirs();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(session.savedAt);
+            out.writeLong(0); // Position du dictionnaire, reportée à la fin
+
+            // Offres canoniques
+            OfferCodec.writeVarInt(record, OfferCodec.STRING_FIELDS.size());
+            OfferCodec.writeVarInt(record, session.offers.size());
+            endRecord(out, record);
+            for (int i = 0; i < session.offers.size(); i++) {
+                writeOffer(record, session.offers.get(i), dictionary, strings);
+                writeLong(record, session.offerFingerprints[i]);
+                endRecord(out, record);
+            }
+
+            // Variantes regroupées
+            OfferCodec.writeVarInt(record, session.variants.size());
+            endRecord(out, record);
+            for (Map.Entry<String, List<JobOffer>> group : session.variants.entrySet()) {
+                writeRef(record, group.getKey(), dictionary, strings);
+                OfferCodec.writeVarInt(record, group.getValue().size());
+                for (JobOffer variant : group.getValue()) {
+                    writeOffer(record, variant, dictionary, strings);
+                }
+                endRecord(out, record);
+            }
+
+            // Entreprises (clé du registre + fiche)
+            OfferCodec.writeVarInt(record, COMPANY_FIELDS.size());
+            OfferCodec.writeVarInt(record, session.companies.size());
+            endRecord(out, record);
+            for (Map.Entry<String, Company> entry : session.companies.entrySet()) {
+                Company company = entry.getValue();
+                writeRef(record, entry.getKey(), dictionary, strings);
+                for (OfferCodec.StringField<Company> field : COMPANY_FIELDS) {
+                    writeRef(record, field.getter.apply(company), dictionary, strings);
+                }
+                writeOptionalInt(record, company.getEffectifMin());
+                writeOptionalInt(record, company.getEffectifMax());
+                endRecord(out, record);
+            }
+
+            // Tableau : colonnes puis lignes (entité + cellules)
+            OfferCodec.writeVarInt(record, session.columns.length);
+            for (String column : session.columns) {
+                writeRef(record, column, dictionary, strings);
+            }
+            OfferCodec.writeVarInt(record, session.rows.size());
+            endRecord(out, record);
+            for (int i = 0; i < session.rows.size(); i++) {
+                Object entity = session.rowEntities.get(i);
+                if (entity instanceof JobOffer offer) {
+                    record.write(ROW_OFFER);
+                    writeRef(record, offer.getId(), dictionary, strings);
+                } else if (entity instanceof String companyKey) {
+                    record.write(ROW_COMPANY);
+                    writeRef(record, companyKey, dictionary, strings);
+                } else {
+                    record.write(ROW_NONE);
+                }
+                Object[] cells = session.rows.get(i);
+                OfferCodec.writeVarInt(record, cells.length);
+                for (Object cell : cells) {
+                    writeRef(record, cell != null ? cell.toString() : null, dictionary, strings);
+                }
+                endRecord(out, record);
+            }
+
+            // Rattachements : offre, clé d'entreprise, ouverte ou retirée
+            OfferCodec.writeVarInt(record, session.offerCompanies.size());
+            endRecord(out, record);
+            for (Map.Entry<String, String> link : session.offerCompanies.entrySet()) {
+                writeRef(record, link.getKey(), dictionary, strings);
+                writeRef(record, link.getValue(), dictionary, strings);
+                record.write(session.closedOffers.contains(link.getKey()) ? 0 : 1);
+                endRecord(out, record);
+            }
+
+            // Dictionnaire en fin de fichier
+            out.flush();
+            long dictionaryOffset = channel.position();
+            out.writeInt(strings.size());
+            for (String value : strings) {
+                // Latin-1 quand c'est possible : relecture sans décodage UTF-8
+                boolean latin1 = isLatin1(value);
+                byte[] bytes = value.getBytes(latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+                writeVarInt(out, bytes.length << 1 | (latin1 ? 1 : 0));
+                out.write(bytes);
+            }
+            out.flush();
+            ByteBuffer offset = ByteBuffer.allocate(Long.BYTES).putLong(0, dictionaryOffset);
+            channel.write(offset, DICTIONARY_OFFSET_POSITION);
+            channel.force(true);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void endRecord(DataOutputStream out, ByteArrayOutputStream record) throws IOException {
+        writeVarInt(out, record.size());
+        record.writeTo(out);
+        record.reset();
+    }
+
+    /**
+     * Relire une session
+     */
+    public static Session read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < 16 || header.getInt() != MAGIC) {
+                throw new IOException("Fichier de session invalide: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Version de session non supportée (" + version + "): " + file);
+            }
+            long savedAt = header.getLong();
+
+            if (header.remaining() < Long.BYTES) {
+                throw new IOException("Fichier de session tronqué: " + file);
+            }
+            long dictionaryOffset = header.getLong();
+            Window window = new Window(channel);
+            String[] dictionary = readDictionary(channel, window, dictionaryOffset);
+            long[] position = {HEADER_SIZE};
+            return readBody(() -> {
+                ByteBuffer head = window.slice(position[0], 5);
+                int length = OfferCodec.readVarInt(head);
+                position[0] += head.position();
+                if (position[0] + length > dictionaryOffset) {
+                    throw new IOException("Enregistrement hors du corps à la position " + position[0]);
+                }
+                ByteBuffer record = window.slice(position[0], length);
+                position[0] += length;
+                return record;
+            }, dictionary, savedAt);
+        } catch (RuntimeException e) {
+            // BufferUnderflowException, index de dictionnaire invalide...
+            throw new IOException("Fichier de session corrompu: " + file + " (" + e + ")", e);
+        }
+    }
+
+    /**
+     * Source des enregistrements du corps
+     */
+    private interface Records {
+        ByteBuffer next() throws IOException;
+    }
+
+    /**
+     * Fenêtre mappée glissante : au plus WINDOW_BYTES mappés à la fois, positions en long
+     */
+    private static final class Window {
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer mapped;
+        private long start;
+
+        Window(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        /**
+         * Octets [position, position + length), tronqués en fin de fichier
+         */
+        ByteBuffer slice(long position, int length) throws IOException {
+            if (position > size) throw new EOFException("Position " + position + " au-delà de la fin");
+            length = (int) Math.min(length, size - position);
+            if (mapped == null || position < start || position + length > start + mapped.capacity()) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(size - position, Math.max(WINDOW_BYTES, length)));
+                start = position;
+            }
+            return mapped.slice((int) (position - start), length);
+        }
+    }
+
+    /**
+     * Dictionnaire : repérage séquentiel des positions, décodage par blocs en parallèle
+     * (chaque bloc mappe sa propre plage)
+     */
+    private static String[] readDictionary(FileChannel channel, Window window, long offset) throws IOException {
+        String[] dictionary = new String[window.slice(offset, Integer.BYTES).getInt()];
+        long[] positions = new long[dictionary.length];
+        int[] headers = new int[dictionary.length];
+        long position = offset + Integer.BYTES;
+        for (int i = 0; i < dictionary.length; i++) {
+            ByteBuffer head = window.slice(position, 5);
+            headers[i] = OfferCodec.readVarInt(head);
+            positions[i] = position + head.position();
+            position = positions[i] + (headers[i] >>> 1);
+        }
+
+        int chunkCount = (dictionary.length + DECODE_CHUNK - 1) / DECODE_CHUNK;
+        try {
+            IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+                int first = chunk * DECODE_CHUNK;
+                int end = Math.min(dictionary.length, first + DECODE_CHUNK);
+                long from = positions[first];
+                long to = positions[end - 1] + (headers[end - 1] >>> 1);
+                MappedByteBuffer source;
+                try {
+                    source = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                byte[] scratch = new byte[4096];
+                for (int i = first; i < end; i++) {
+                    int length = headers[i] >>> 1;
+                    if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+                    source.get((int) (positions[i] - from), scratch, 0, length);
+                    dictionary[i] = new String(scratch, 0, length,
+                        (headers[i] & 1) != 0 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return dictionary;
+    }
+
+    private static Session readBody(Records records, String[] dictionary, long savedAt) throws IOException {
+        // Offres canoniques
+        ByteBuffer buffer = records.next();
+        int offerFields = OfferCodec.readVarInt(buffer);
+        int offerCount = OfferCodec.readVarInt(buffer);
+        List<JobOffer> offers = new ArrayList<>(offerCount);
+        long[] fingerprints = new long[offerCount];
+        Map<String, JobOffer> offersById = new HashMap<>(offerCount * 2);
+        for (int i = 0; i < offerCount; i++) {
+            buffer = records.next();
+            JobOffer offer = readOffer(buffer, offerFields, dictionary);
+            fingerprints[i] = buffer.getLong();
+            offers.add(offer);
+            if (offer.getId() != null) offersById.put(offer.getId(), offer);
+        }
+
+        // Variantes
+        int groupCount = OfferCodec.readVarInt(records.next());
+        Map<String, List<JobOffer>> variants = new HashMap<>(groupCount * 2);
+        for (int i = 0; i < groupCount; i++) {
+            buffer = records.next();
+            String canonicalId = readRef(buffer, dictionary);
+            int size = OfferCodec.readVarInt(buffer);
+            List<JobOffer> group = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                group.add(readOffer(buffer, offerFields, dictionary));
+            }
+            variants.put(canonicalId, group);
+        }
+
+        // Entreprises
+        buffer = records.next();
+        int companyFields = OfferCodec.readVarInt(buffer);
+        int companyCount = OfferCodec.readVarInt(buffer);
+        Map<String, Company> companies = new LinkedHashMap<>(companyCount * 2);
+        for (int i = 0; i < companyCount; i++) {
+            buffer = records.next();
+            String key = readRef(buffer, dictionary);
+            Company company = new Company();
+            for (int f = 0; f < companyFields; f++) {
+                String value = readRef(buffer, dictionary);
+                if (f < COMPANY_FIELDS.size()) COMPANY_FIELDS.get(f).setter.accept(company, value);
+            }
+            company.setEffectifMin(readOptionalInt(buffer));
+            company.setEffectifMax(readOptionalInt(buffer));
+            companies.put(key, company);
+        }
+
+        // Tableau
+        buffer = records.next();
+        String[] columns = new String[OfferCodec.readVarInt(buffer)];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = readRef(buffer, dictionary);
+        }
+        int rowCount = OfferCodec.readVarInt(buffer);
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        List<Object> rowEntities = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            buffer = records.next();
+            byte kind = buffer.get();
+            Object entity = null;
+            if (kind == ROW_OFFER) {
+                entity = offersById.get(readRef(buffer, dictionary));
+            } else if (kind == ROW_COMPANY) {
+                entity = readRef(buffer, dictionary);
+            }
+            Object[] cells = new Object[OfferCodec.readVarInt(buffer)];
+            for (int c = 0; c < cells.length; c++) {
+                cells[c] = readRef(buffer, dictionary);
+            }
+            rows.add(cells);
+            rowEntities.add(entity);
+        }
+
+        // Rattachements
+        buffer = records.next();
+        int linkCount = OfferCodec.readVarInt(buffer);
+        Map<String, String> offerCompanies = new HashMap<>(linkCount * 2);
+        Set<String> closedOffers = new HashSet<>();
+        for (int i = 0; i < linkCount; i++) {
+            buffer = records.next();
+            String offerId = readRef(buffer, dictionary);
+            offerCompanies.put(offerId, readRef(buffer, dictionary));
+            if (buffer.get() == 0) closedOffers.add(offerId);
+        }
+
+        return new Session(savedAt, offers, fingerprints, variants, companies, columns, rows, rowEntities,
+            offerCompanies, closedOffers);
+    }
+
+    private static void writeOffer(ByteArrayOutputStream out, JobOffer offer,
+                                   Map<String, Integer> dictionary, List<String> strings) {
+        for (OfferCodec.StringField<JobOffer> field : OfferCodec.STRING_FIELDS) {
+            writeRef(out, field.getter.apply(offer), dictionary, strings);
+        }
+        OfferCodec.writeDouble(out, offer.getLatitude());
+        OfferCodec.writeDouble(out, offer.getLongitude());
+    }
+
+    private static JobOffer readOffer(ByteBuffer buffer, int fieldCount, String[] dictionary) {
+        JobOffer offer = new JobOffer();
+        for (int f = 0; f < fieldCount; f++) {
+            String value = readRef(buffer, dictionary);
+            if (f < OfferCodec.STRING_FIELDS.size()) OfferCodec.STRING_FIELDS.get(f).setter.accept(offer, value);
+        }
+        offer.setLatitude(OfferCodec.readDouble(buffer));
+        offer.setLongitude(OfferCodec.readDouble(buffer));
+        return offer;
+    }
+
+    private static void writeRef(ByteArrayOutputStream out, String value,
+                                 Map<String, Integer> dictionary, List<String> strings) {
+        if (value == null) {
+            OfferCodec.writeVarInt(out, 0);
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index == null) {
+            index = strings.size();
+            dictionary.put(value, index);
+            strings.add(value);
+        }
+        OfferCodec.writeVarInt(out, index + 1);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static String readRef(ByteBuffer buffer, String[] dictionary) {
+        int ref = OfferCodec.readVarInt(buffer);
+        return ref == 0 ? null : dictionary[ref - 1];
+    }
+
+    private static void writeOptionalInt(ByteArrayOutputStream out, Integer value) {
+        OfferCodec.writeVarInt(out, value == null || value < 0 ? 0 : value + 1);
+    }
+
+    private static String toText(Double value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static Double toDouble(String value) {
+        return value != null ? Double.valueOf(value) : null;
+    }
+
+    private static Integer readOptionalInt(ByteBuffer buffer) {
+        int value = OfferCodec.readVarInt(buffer);
+        return value == 0 ? null : value - 1;
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) return false;
+        }
+        return true;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -0,0 +1,379 @@
+package com.jobsearch;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Import des fichiers stock SIRENE de l'INSEE (StockEtablissement_utf8.csv,
+ * StockUniteLegale_utf8.csv, plusieurs Go) dans la base SireneStore.
+ *
+ * Le fichier est projeté en mémoire et découpé en blocs alignés sur les
+ * enregistrements (même méthode que ExportImporter), analysés en parallèle
+ * sur tous les cœurs ; seules les colonnes retenues sont décodées. Chaque
+ * bloc est écrit trié sur disque dès son analyse, puis les lots sont
+ * fusionnés avec la table existante : l'import entier n'est jamais en mémoire.
+ *
+ * Mise à jour différentielle : une ligne dont la date de dernier traitement
+ * n'est pas plus récente que celle déjà en base est ignorée dès l'analyse,
+ * les établissements fermés (unités cessées) sont retirés. Réimporter le
+ * stock du mois suivant ne réécrit donc la table que si quelque chose a changé.
+ */
+public final class SireneImporter {
+
+    /**
+     * Bilan d'un import
+     */
+    public static final class Result {
+        public final String table;
+        public final long read;
+        public final long unchanged;
+        public final SireneStore.MergeResult merge;
+        public final long elapsedMillis;
+
+        Result(String table, long read, long unchanged, SireneStore.MergeResult merge, long elapsedMillis) {
+            this.table = table;
+            this.read = read;
+            this.unchanged = unchanged;
+            this.merge = merge;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return table + ": " + read + " lignes lues, " + unchanged + " inchangées, +" + merge.added
+                + " nouvelles, " + merge.updated + " mises à jour, " + merge.removed + " retirées -> "
+                + merge.rowCount + " en base (" + elapsedMillis + " ms)";
+        }
+    }
+
+    /**
+     * Correspondance fichier INSEE -> table : clé, date de traitement, état et valeurs extraites
+     */
+    private static final class Layout {
+        final SireneStore.Schema schema;
+        final int keyColumn;
+        final int treatmentColumn;
+        final int stateColumn;
+        final String closedState;
+        final List<Function<Record, Object>> extractors = new ArrayList<>();
+        final boolean[] needed;
+
+        Layout(SireneStore.Schema schema, String[] header, String key, String treatment,
+               String state, String closedState) throws IOException {
+            this.schema = schema;
+            this.needed = new boolean[header.length];
+            this.keyColumn = require(header, key);
+            this.treatmentColumn = require(header, treatment);
+            this.stateColumn = column(header, state);
+            this.closedState = closedState;
+        }
+
+        int column(String[] header, String name) {
+            for (int i = 0; i < header.length; i++) {
+                if (header[i].equals(name)) {
+                    needed[i] = true;
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int require(String[] header, String name) throws IOException {
+            int index = column(header, name);
+            if (index < 0) throw new IOException("Colonne SIRENE manquante: " + name);
+            return index;
+        }
+    }
+
+    /**
+     * Champs de l'enregistrement courant (seules les colonnes retenues sont copiées)
+     */
+    private static final class Record {
+        private byte[] bytes = new byte[1024];
+        private final int[] starts;
+        private final int[] lengths;
+        private int size;
+
+        Record(int columns) {
+            starts = new int[columns];
+            lengths = new int[columns];
+        }
+
+        void reset() {
+            size = 0;
+            Arrays.fill(lengths, 0);
+        }
+
+        /**
+         * Valeur d'une colonne (null si vide ou absente)
+         */
+        String get(int column) {
+            if (column < 0 || lengths[column] == 0) return null;
+            return new String(bytes, starts[column], lengths[column], StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Première valeur non vide
+         */
+        String first(int... columns) {
+            for (int column : columns) {
+                String value = get(column);
+                if (value != null) return value;
+            }
+            return null;
+        }
+
+        /**
+         * Valeurs non vides jointes par un espace ("12 B RUE DE LA PAIX")
+         */
+        String join(int... columns) {
+            StringBuilder text = new StringBuilder();
+            for (int column : columns) {
+                if (column < 0 || lengths[column] == 0) continue;
+                if (text.length() > 0) text.append(' ');
+                text.append(new String(bytes, starts[column], lengths[column], StandardCharsets.UTF_8));
+            }
+            return text.length() > 0 ? text.toString() : null;
+        }
+
+        /**
+         * Chiffres d'une colonne lus comme un entier, 14 au plus
+         * ("2023-03-01T10:12:33.000" -> 20230301101233), -1 si aucun
+         */
+        long digits(int column) {
+            if (column < 0) return -1;
+            long value = 0;
+            int count = 0;
+            for (int p = starts[column], end = p + lengths[column]; p < end && count < 14; p++) {
+                byte b = bytes[p];
+                if (b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    count++;
+                }
+            }
+            return count > 0 ? value : -1;
+        }
+
+        boolean is(int column, String value) {
+            if (column < 0 || lengths[column] != value.length()) return false;
+            for (int i = 0; i < value.length(); i++) {
+                if (bytes[starts[column] + i] != value.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        void append(int column, byte b) {
+            if (size == bytes.length) bytes = Arrays.copyOf(bytes, size * 2);
+            if (lengths[column] == 0) starts[column] = size;
+            bytes[size++] = b;
+            lengths[column]++;
+        }
+
+        void append(int column, ByteBuffer source, int from, int length) {
+            if (length == 0) return;
+            if (size + length > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(size + length, size * 2));
+            if (lengths[column] == 0) starts[column] = size;
+            source.get(from, bytes, size, length);
+            size += length;
+            lengths[column] += length;
+        }
+    }
+
+    private SireneImporter() {
+    }
+
+    /**
+     * Importer un fichier stock (type détecté d'après l'en-tête) dans la base
+     */
+    public static Result importFile(SireneStore store, File file) throws IOException {
+        if (file.getName().toLowerCase().endsWith(".zip")) {
+            throw new IOException("Décompressez d'abord l'archive " + file.getName() + " (fichier CSV attendu)");
+        }
+        long start = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, 64 * 1024));
+            int first = ExportImporter.skipWhitespaceAndBom(head);
+            int headerEnd = first;
+            while (headerEnd < head.limit() && head.get(headerEnd) != '\n') headerEnd++;
+            String[] header = ExportImporter.decode(head, first, headerEnd).replace("\r", "").replace("\"", "").split(",", -1);
+
+            Layout layout = layout(header);
+            SireneStore.Table existing = store.table(layout.schema);
+
+            long[] recordStarts = ExportImporter.csvRecordStarts(channel, Math.min(size, (long) headerEnd + 1), size);
+            int chunkCount = recordStarts.length - 1;
+            // Chaque bloc analysé est écrit trié sur disque puis libéré : seuls les lots projetés restent
+            List<SireneStore.Table> runs = new ArrayList<>(chunkCount);
+            for (int i = 0; i < chunkCount; i++) runs.add(null);
+            long[] read = new long[chunkCount];
+            long[] unchanged = new long[chunkCount];
+            store.deleteRuns(layout.schema);
+            try {
+                ExportImporter.parallel(chunkCount, i -> {
+                    ByteBuffer buffer = ExportImporter.map(channel, recordStarts[i], recordStarts[i + 1]);
+                    SireneStore.Builder part = new SireneStore.Builder(layout.schema, 1024);
+                    long[] counts = parseChunk(buffer, layout, header.length, existing, part);
+                    read[i] = counts[0];
+                    unchanged[i] = counts[1];
+                    runs.set(i, store.spill(part, i));
+                });
+                SireneStore.MergeResult merge = store.merge(layout.schema, runs);
+                return new Result(layout.schema.name, Arrays.stream(read).sum(), Arrays.stream(unchanged).sum(),
+                    merge, System.currentTimeMillis() - start);
+            } finally {
+                runs.clear();
+                store.deleteRuns(layout.schema);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Fichier SIRENE illisible: " + file.getName() + " (" + e.getMessage() + ")", e);
+        }
+    }
+
+    private static Layout layout(String[] header) throws IOException {
+        List<String> columns = Arrays.asList(header);
+        if (columns.contains("siret")) {
+            Layout layout = new Layout(SireneStore.ETABLISSEMENTS, header, "siret",
+                "dateDernierTraitementEtablissement", "etatAdministratifEtablissement", "F");
+            int siege = layout.column(header, "etablissementSiege");
+            int naf = layout.column(header, "activitePrincipaleEtablissement");
+            int tranche = layout.column(header, "trancheEffectifsEtablissement");
+            int dateCreation = layout.column(header, "dateCreationEtablissement");
+            int enseigne = layout.column(header, "enseigne1Etablissement");
+            int denominationUsuelle = layout.column(header, "denominationUsuelleEtablissement");
+            int numero = layout.column(header, "numeroVoieEtablissement");
+            int indice = layout.column(header, "indiceRepetitionEtablissement");
+            int typeVoie = layout.column(header, "typeVoieEtablissement");
+            int libelleVoie = layout.column(header, "libelleVoieEtablissement");
+            int codePostal = layout.column(header, "codePostalEtablissement");
+            int commune = layout.column(header, "libelleCommuneEtablissement");
+            int codeCommune = layout.column(header, "codeCommuneEtablissement");
+            add(layout,
+                r -> r.digits(layout.keyColumn),
+                r -> Math.max(0, r.digits(layout.treatmentColumn)),
+                r -> r.get(siege),
+                r -> r.get(naf),
+                r -> r.get(tranche),
+                r -> r.get(dateCreation),
+                r -> r.first(enseigne, denominationUsuelle),
+                r -> r.join(numero, indice, typeVoie, libelleVoie),
+                r -> r.get(codePostal),
+                r -> r.get(commune),
+                r -> r.get(codeCommune));
+            return layout;
+        }
+        if (columns.contains("siren") && columns.contains("denominationUniteLegale")) {
+            Layout layout = new Layout(SireneStore.UNITES, header, "siren",
+                "dateDernierTraitementUniteLegale", "etatAdministratifUniteLegale", "C");
+            int denomination = layout.column(header, "denominationUniteLegale");
+            int prenom = layout.column(header, "prenom1UniteLegale");
+            int nom = layout.column(header, "nomUniteLegale");
+            int nomCommercial = layout.column(header, "denominationUsuelle1UniteLegale");
+            int naf = layout.column(header, "activitePrincipaleUniteLegale");
+            int tranche = layout.column(header, "trancheEffectifsUniteLegale");
+            int categorie = layout.column(header, "categorieEntreprise");
+            int categorieJuridique = layout.column(header, "categorieJuridiqueUniteLegale");
+            int dateCreation = layout.column(header, "dateCreationUniteLegale");
+            add(layout,
+                r -> r.digits(layout.keyColumn),
+                r -> Math.max(0, r.digits(layout.treatmentColumn)),
+                // Entrepreneur individuel : prénom et nom
+                r -> r.get(denomination) != null ? r.get(denomination) : r.join(prenom, nom),
+                r -> r.get(nomCommercial),
+                r -> r.get(naf),
+                r -> r.get(tranche),
+                r -> r.get(categorie),
+                r -> r.get(categorieJuridique),
+                r -> r.get(dateCreation));
+            return layout;
+        }
+        throw new IOException("Fichier non reconnu (StockEtablissement ou StockUniteLegale de l'INSEE attendu)");
+    }
+
+    @SafeVarargs
+    private static void add(Layout layout, Function<Record, Object>... extractors) {
+        layout.extractors.addAll(Arrays.asList(extractors));
+    }
+
+    /**
+     * Analyser un bloc : retourne { lignes lues, lignes inchangées ignorées }
+     */
+    private static long[] parseChunk(ByteBuffer buffer, Layout layout, int columnCount,
+                                     SireneStore.Table existing, SireneStore.Builder part) {
+        Record record = new Record(columnCount);
+        Object[] values = new Object[layout.schema.columnCount()];
+        long read = 0;
+        long unchanged = 0;
+        int limit = buffer.limit();
+        int p = 0;
+        while (p < limit) {
+            record.reset();
+            int column = 0;
+            boolean endOfRecord = false;
+            while (!endOfRecord) {
+                boolean keep = column < columnCount && layout.needed[column];
+                if (p < limit && buffer.get(p) == '"') {
+                    // Champ entre guillemets : "" = guillemet littéral
+                    p++;
+                    while (p < limit) {
+                        byte b = buffer.get(p++);
+                        if (b == '"') {
+                            if (p < limit && buffer.get(p) == '"') {
+                                p++;
+                            } else {
+                                break;
+                            }
+                        }
+                        if (keep) record.append(column, b);
+                    }
+                }
+                // Partie non protégée, copiée d'un bloc
+                int from = p;
+                while (p < limit) {
+                    byte b = buffer.get(p);
+                    if (b == ',' || b == '\n') break;
+                    p++;
+                }
+                if (keep) {
+                    int end = p > from && buffer.get(p - 1) == '\r' ? p - 1 : p;
+                    record.append(column, buffer, from, end - from);
+                }
+                column++;
+                if (p >= limit || buffer.get(p) == '\n') endOfRecord = true;
+                p++;
+            }
+
+            long key = record.digits(layout.keyColumn);
+            if (key < 0) continue; // Ligne vide ou tronquée
+            read++;
+            long treatment = Math.max(0, record.digits(layout.treatmentColumn));
+            boolean closed = record.is(layout.stateColumn, layout.closedState);
+
+            // Différentiel : rien à faire si la base a déjà cette version (ou ignore cette fermeture)
+            if (existing != null) {
+                int row = existing.find(key);
+                if (row >= 0 ? existing.treatment(row) >= treatment : closed) {
+                    unchanged++;
+                    continue;
+                }
+            } else if (closed) {
+                unchanged++;
+                continue;
+            }
+
+            for (int c = 0; c < values.length; c++) {
+                values[c] = layout.extractors.get(c).apply(record);
+            }
+            part.add(values, closed);
+        }
+        return new long[]{read, unchanged};
+    }
+}
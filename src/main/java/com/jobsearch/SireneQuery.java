@@ -0,0 +1,261 @@
+package com.jobsearch;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Requêtes sur la base SIRENE locale : un index bitmap (RowBitmap) par
+ * valeur de code NAF, département, tranche d'effectif et catégorie
+ * d'entreprise, sur les lignes de la table des établissements.
+ *
+ * Les caractéristiques de l'unité légale (NAF, tranche, catégorie) sont
+ * jointes par SIREN au chargement : les deux tables sont triées par clé,
+ * une seule passe suffit. À défaut d'unité légale importée, celles de
+ * l'établissement sont utilisées. Une requête est l'union des bitmaps des
+ * valeurs demandées pour chaque critère, puis l'intersection des critères :
+ * quelques millisecondes, quel que soit le nombre de codes et de départements.
+ *
+ * Les index sont construits à la première requête et reconstruits après
+ * une mise à jour de la base.
+ */
+public class SireneQuery {
+
+    public static final String NAF = "naf";
+    public static final String DEPARTEMENT = "departement";
+    public static final String TRANCHE = "tranche";
+    public static final String CATEGORIE = "categorie";
+
+    /**
+     * Index d'une version de la base
+     */
+    private static final class Indexes {
+        final int version;
+        final SireneStore.Table etablissements;
+        final SireneStore.Table unites; // null si le stock des unités légales n'est pas importé
+        final int[] unitRows;
+        final Map<String, Map<String, RowBitmap>> byDimension = new HashMap<>();
+
+        Indexes(int version, SireneStore.Table etablissements, SireneStore.Table unites, int[] unitRows) {
+            this.version = version;
+            this.etablissements = etablissements;
+            this.unites = unites;
+            this.unitRows = unitRows;
+        }
+    }
+
+    private final SireneStore store;
+    private volatile Indexes indexes;
+
+    public SireneQuery(SireneStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Établissements répondant aux critères : par dimension, une des valeurs
+     * (null ou vide = pas de filtre) ; toutes les dimensions à la fois
+     */
+    public RowBitmap select(Map<String, ? extends Collection<String>> criteria) throws IOException {
+        Indexes current = indexes();
+        if (current == null) return new RowBitmap();
+
+        List<RowBitmap> unions = new ArrayList<>();
+        for (Map.Entry<String, ? extends Collection<String>> criterion : criteria.entrySet()) {
+            if (criterion.getValue() == null || criterion.getValue().isEmpty()) continue;
+            Map<String, RowBitmap> index = current.byDimension.get(criterion.getKey());
+            if (index == null) throw new IllegalArgumentException("Critère SIRENE inconnu: " + criterion.getKey());
+            RowBitmap union = new RowBitmap();
+            for (String value : new HashSet<>(criterion.getValue())) {
+                RowBitmap rows = index.get(value);
+                if (rows != null) union = union.or(rows);
+            }
+            unions.add(union);
+        }
+        if (unions.isEmpty()) return all(current.etablissements.rowCount());
+
+        // Intersection en commençant par le critère le plus sélectif
+        unions.sort(Comparator.comparingInt(RowBitmap::cardinality));
+        RowBitmap result = unions.get(0);
+        for (int i = 1; i < unions.size() && !result.isEmpty(); i++) {
+            result = result.and(unions.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Nombre d'établissements par valeur d'une dimension (critères de recherche disponibles)
+     */
+    public Map<String, Integer> counts(String dimension) throws IOException {
+        Indexes current = indexes();
+        Map<String, Integer> counts = new TreeMap<>();
+        if (current == null) return counts;
+        current.byDimension.getOrDefault(dimension, Map.of())
+            .forEach((value, rows) -> counts.put(value, rows.cardinality()));
+        return counts;
+    }
+
+    /**
+     * Fiches des établissements sélectionnés (codes NAF et catégorie bruts)
+     */
+    public List<Company> companies(RowBitmap rows) throws IOException {
+        return companies(rows, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Fiches des premiers établissements sélectionnés (ordre des SIRET), limit au plus
+     */
+    public List<Company> companies(RowBitmap rows, int limit) throws IOException {
+        Indexes current = indexes();
+        List<Company> result = new ArrayList<>(Math.min(rows.cardinality(), limit));
+        if (current == null) return result;
+        rows.forEach(row -> {
+            if (result.size() < limit) result.add(company(current, row));
+        });
+        return result;
+    }
+
+    private static Company company(Indexes current, int row) {
+        SireneStore.Table etablissements = current.etablissements;
+        SireneStore.Table unites = current.unites;
+        int unit = current.unitRows[row];
+
+        Company company = new Company();
+        company.setSource("Base SIRENE locale");
+        long siret = etablissements.key(row);
+        company.setSiret(zeroPadded(siret, 14));
+        company.setSiren(zeroPadded(siret / 100000, 9));
+
+        String enseigne = etablissements.text("enseigne").get(row);
+        String nom = unit >= 0 ? unites.text("denomination").get(unit) : null;
+        String nomCommercial = unit >= 0 ? unites.text("nomCommercial").get(unit) : null;
+        company.setNom(nom != null ? nom : enseigne);
+        company.setNomCommercial(nomCommercial != null ? nomCommercial : enseigne);
+
+        company.setCodeNAF(value(current, "naf", row));
+        String tranche = value(current, "tranche", row);
+        if (tranche != null) company.setTrancheEffectifWithRange(tranche);
+        if (unit >= 0) company.setCategorieEntreprise(unites.dict("categorie").value(unit));
+        company.setDateCreation(value(current, "dateCreation", row));
+
+        company.setAdresse(etablissements.text("adresse").get(row));
+        company.setCodePostal(etablissements.dict("codePostal").value(row));
+        company.setVille(etablissements.dict("commune").value(row));
+        String codeCommune = etablissements.dict("codeCommune").value(row);
+        if (codeCommune != null) {
+            String dept = departement(codeCommune);
+            company.setDepartement(dept);
+            company.setRegion(RegionMapper.getRegionByDepartment(dept));
+        }
+        return company;
+    }
+
+    /**
+     * Valeur de l'unité légale si elle est connue, de l'établissement sinon
+     */
+    private static String value(Indexes current, String column, int row) {
+        int unit = current.unitRows[row];
+        String value = unit >= 0 ? current.unites.dict(column).value(unit) : null;
+        return value != null ? value : current.etablissements.dict(column).value(row);
+    }
+
+    /**
+     * Département d'un code commune INSEE ("75056" -> "75", "2A004" -> "2A", "97411" -> "974")
+     */
+    public static String departement(String codeCommune) {
+        if (codeCommune.length() < 2) return codeCommune;
+        boolean overseas = codeCommune.startsWith("97") || codeCommune.startsWith("98");
+        return codeCommune.substring(0, overseas && codeCommune.length() >= 3 ? 3 : 2);
+    }
+
+    private synchronized Indexes indexes() throws IOException {
+        Indexes current = indexes;
+        int version = store.version();
+        if (current != null && current.version == version) return current;
+
+        SireneStore.Table etablissements = store.table(SireneStore.ETABLISSEMENTS);
+        if (etablissements == null) return null;
+        SireneStore.Table unites = store.table(SireneStore.UNITES);
+        long start = System.currentTimeMillis();
+
+        // Jointure par fusion : les SIRET triés donnent des SIREN triés
+        int rows = etablissements.rowCount();
+        int[] unitRows = new int[rows];
+        int unit = 0;
+        int unitCount = unites != null ? unites.rowCount() : 0;
+        for (int row = 0; row < rows; row++) {
+            long siren = etablissements.key(row) / 100000;
+            while (unit < unitCount && unites.key(unit) < siren) unit++;
+            unitRows[row] = unit < unitCount && unites.key(unit) == siren ? unit : -1;
+        }
+
+        current = new Indexes(version, etablissements, unites, unitRows);
+        current.byDimension.put(NAF, index(current, "naf", true));
+        current.byDimension.put(TRANCHE, index(current, "tranche", true));
+        current.byDimension.put(CATEGORIE, index(current, "categorie", false));
+        current.byDimension.put(DEPARTEMENT, departementIndex(etablissements));
+        indexes = current;
+        System.out.println("🏛 Index SIRENE: " + rows + " établissements, " + unitCount + " unités légales ("
+            + (System.currentTimeMillis() - start) + " ms)");
+        return current;
+    }
+
+    /**
+     * Un bitmap par valeur : celle de l'unité légale, ou de l'établissement (fallback)
+     */
+    private static Map<String, RowBitmap> index(Indexes current, String column, boolean fallback) {
+        SireneStore.DictColumn units = current.unites != null ? current.unites.dict(column) : null;
+        SireneStore.DictColumn etablissements = fallback ? current.etablissements.dict(column) : null;
+        RowBitmap[] byUnitCode = new RowBitmap[units != null ? units.dictionarySize() : 0];
+        RowBitmap[] byEtablissementCode = new RowBitmap[etablissements != null ? etablissements.dictionarySize() : 0];
+
+        // Lignes parcourues dans l'ordre : chaque ajout se fait en fin de bitmap
+        for (int row = 0; row < current.unitRows.length; row++) {
+            int unit = current.unitRows[row];
+            int code = unit >= 0 && units != null ? units.code(unit) : -1;
+            if (code >= 0) {
+                if (byUnitCode[code] == null) byUnitCode[code] = new RowBitmap();
+                byUnitCode[code].add(row);
+            } else if (etablissements != null && (code = etablissements.code(row)) >= 0) {
+                if (byEtablissementCode[code] == null) byEtablissementCode[code] = new RowBitmap();
+                byEtablissementCode[code].add(row);
+            }
+        }
+
+        Map<String, RowBitmap> index = new HashMap<>();
+        for (int code = 0; code < byUnitCode.length; code++) {
+            if (byUnitCode[code] != null) index.merge(units.dictionaryValue(code), byUnitCode[code], RowBitmap::or);
+        }
+        for (int code = 0; code < byEtablissementCode.length; code++) {
+            if (byEtablissementCode[code] != null) {
+                index.merge(etablissements.dictionaryValue(code), byEtablissementCode[code], RowBitmap::or);
+            }
+        }
+        return index;
+    }
+
+    private static Map<String, RowBitmap> departementIndex(SireneStore.Table etablissements) {
+        SireneStore.DictColumn communes = etablissements.dict("codeCommune");
+        // Département de chaque code commune du dictionnaire
+        Map<String, RowBitmap> index = new HashMap<>();
+        RowBitmap[] byCommuneCode = new RowBitmap[communes.dictionarySize()];
+        for (int code = 0; code < byCommuneCode.length; code++) {
+            byCommuneCode[code] = index.computeIfAbsent(departement(communes.dictionaryValue(code)), d -> new RowBitmap());
+        }
+        for (int row = 0; row < etablissements.rowCount(); row++) {
+            int code = communes.code(row);
+            if (code >= 0) byCommuneCode[code].add(row);
+        }
+        return index;
+    }
+
+    private static String zeroPadded(long value, int length) {
+        String digits = Long.toString(value);
+        return digits.length() >= length ? digits : "0".repeat(length - digits.length()) + digits;
+    }
+
+    private static RowBitmap all(int rows) {
+        long[] words = new long[(rows + 63) / 64];
+        Arrays.fill(words, -1L);
+        if (rows % 64 != 0) words[words.length - 1] = (1L << (rows % 64)) - 1;
+        return RowBitmap.fromWords(words);
+    }
+}
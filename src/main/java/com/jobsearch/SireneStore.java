@@ -0,0 +1,1012 @@
+package com.jobsearch;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Base SIRENE locale : établissements et unités légales des fichiers stock
+ * de l'INSEE (StockEtablissement, StockUniteLegale), alimentée par
+ * SireneImporter.
+ *
+ * Une table par fichier, stockée par colonnes et triée par clé (SIRET ou
+ * SIREN) : entiers longs, chaînes codées par dictionnaire (NAF, tranche,
+ * commune...) ou texte libre (raison sociale, adresse). Chaque colonne est
+ * projetée en mémoire séparément, le texte par fenêtres (pas de limite de
+ * 2 Go). Une mise à jour fusionne les lots triés écrits sur disque par
+ * l'import avec la table existante et écrit une nouvelle génération
+ * (etablissements.N.col) : le fichier courant, peut-être encore projeté,
+ * n'est jamais remplacé ; seules les colonnes retenues sont conservées.
+ *
+ * Format : MAGIC, nombre de lignes, date de traitement la plus récente,
+ * nombre de colonnes, puis par colonne : nom, type, taille et données.
+ */
+public class SireneStore {
+
+    private static final int MAGIC = 0x53495232; // "SIR2" : positions du texte sur 64 bits
+    private static final int MAGIC_V1 = 0x53495231; // "SIR1" : positions sur 32 bits
+    private static final String EXTENSION = ".col";
+    private static final String RUN_EXTENSION = ".lot";
+    private static final Pattern TABLE_FILE = Pattern.compile("(\\w+)(?:\\.(\\d+))?\\.col");
+    private static final String REMOVED_COLUMN = "@retire";
+    private static final byte[] EMPTY = new byte[0];
+
+    // Texte libre : au plus 64 Ko par valeur, projeté par fenêtres de 1 Go qui se chevauchent d'autant
+    static final int MAX_TEXT = 0xFFFF;
+    private static final long HEAP_WINDOW = 1L << 30;
+
+    public enum Kind { LONG, DICT, TEXT }
+
+    /**
+     * Colonnes d'une table : la première est la clé, la deuxième la date de dernier traitement
+     */
+    public static final class Schema {
+        public final String name;
+        private final String[] columns;
+        private final Kind[] kinds;
+
+        private Schema(String name, Object... definition) {
+            this.name = name;
+            columns = new String[definition.length / 2];
+            kinds = new Kind[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = (String) definition[2 * i];
+                kinds[i] = (Kind) definition[2 * i + 1];
+            }
+        }
+
+        public int columnCount() {
+            return columns.length;
+        }
+
+        public String column(int index) {
+            return columns[index];
+        }
+
+        public Kind kind(int index) {
+            return kinds[index];
+        }
+
+        public int index(String column) {
+            int index = find(column);
+            if (index < 0) throw new IllegalArgumentException("Colonne inconnue: " + name + "." + column);
+            return index;
+        }
+
+        private int find(String column) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equals(column)) return i;
+            }
+            return -1;
+        }
+    }
+
+    public static final Schema ETABLISSEMENTS = new Schema("etablissements",
+        "siret", Kind.LONG,
+        "dateTraitement", Kind.LONG,
+        "siege", Kind.DICT,
+        "naf", Kind.DICT,
+        "tranche", Kind.DICT,
+        "dateCreation", Kind.DICT,
+        "enseigne", Kind.TEXT,
+        "adresse", Kind.TEXT,
+        "codePostal", Kind.DICT,
+        "commune", Kind.DICT,
+        "codeCommune", Kind.DICT);
+
+    public static final Schema UNITES = new Schema("unites",
+        "siren", Kind.LONG,
+        "dateTraitement", Kind.LONG,
+        "denomination", Kind.TEXT,
+        "nomCommercial", Kind.TEXT,
+        "naf", Kind.DICT,
+        "tranche", Kind.DICT,
+        "categorie", Kind.DICT,
+        "categorieJuridique", Kind.DICT,
+        "dateCreation", Kind.DICT);
+
+    // ========================================================================
+    // Lecture
+    // ========================================================================
+
+    public static final class LongColumn {
+        private final LongBuffer values;
+
+        private LongColumn(LongBuffer values) {
+            this.values = values;
+        }
+
+        public long get(int row) {
+            return values.get(row);
+        }
+    }
+
+    public static final class DictColumn {
+        private final String[] dictionary;
+        private final IntBuffer codes;
+
+        private DictColumn(String[] dictionary, IntBuffer codes) {
+            this.dictionary = dictionary;
+            this.codes = codes;
+        }
+
+        /**
+         * Code de la valeur d'une ligne (-1 si vide)
+         */
+        public int code(int row) {
+            return codes.get(row);
+        }
+
+        public String value(int row) {
+            int code = codes.get(row);
+            return code >= 0 ? dictionary[code] : null;
+        }
+
+        public int dictionarySize() {
+            return dictionary.length;
+        }
+
+        public String dictionaryValue(int code) {
+            return dictionary[code];
+        }
+    }
+
+    public static final class TextColumn {
+        private final LongBuffer offsets;
+        private final IntBuffer legacyOffsets; // Tables "SIR1"
+        private final ByteBuffer[] windows;
+
+        private TextColumn(LongBuffer offsets, IntBuffer legacyOffsets, ByteBuffer[] windows) {
+            this.offsets = offsets;
+            this.legacyOffsets = legacyOffsets;
+            this.windows = windows;
+        }
+
+        public String get(int row) {
+            int length = length(row);
+            if (length == 0) return null;
+            byte[] bytes = new byte[length];
+            read(row, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private long offset(int row) {
+            return offsets != null ? offsets.get(row) : legacyOffsets.get(row);
+        }
+
+        private int length(int row) {
+            return (int) (offset(row + 1) - offset(row));
+        }
+
+        /**
+         * Copier la valeur d'une ligne : elle tient entière dans la fenêtre où elle commence
+         */
+        private void read(int row, byte[] target) {
+            long from = offset(row);
+            if (length(row) == 0) return;
+            int window = (int) (from / HEAP_WINDOW);
+            windows[window].get((int) (from - window * HEAP_WINDOW), target, 0, length(row));
+        }
+    }
+
+    /**
+     * Table projetée en mémoire (lignes triées par clé croissante)
+     */
+    public static final class Table {
+        public final Schema schema;
+        private final int rowCount;
+        private final long latestTreatment;
+        private final Object[] columns;
+        private final LongColumn removals; // Lots de l'import seulement
+
+        private Table(Schema schema, int rowCount, long latestTreatment, Object[] columns, LongColumn removals) {
+            this.schema = schema;
+            this.rowCount = rowCount;
+            this.latestTreatment = latestTreatment;
+            this.columns = columns;
+            this.removals = removals;
+        }
+
+        public int rowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Date de traitement INSEE la plus récente (yyyyMMddHHmmss)
+         */
+        public long latestTreatment() {
+            return latestTreatment;
+        }
+
+        public long key(int row) {
+            return ((LongColumn) columns[0]).get(row);
+        }
+
+        public long treatment(int row) {
+            return ((LongColumn) columns[1]).get(row);
+        }
+
+        boolean isRemoved(int row) {
+            return removals != null && removals.get(row) != 0;
+        }
+
+        /**
+         * Ligne d'une clé (recherche dichotomique), -1 si absente
+         */
+        public int find(long key) {
+            int low = 0;
+            int high = rowCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long value = key(mid);
+                if (value < key) low = mid + 1;
+                else if (value > key) high = mid - 1;
+                else return mid;
+            }
+            return -1;
+        }
+
+        public LongColumn longs(String column) {
+            return (LongColumn) columns[schema.index(column)];
+        }
+
+        public DictColumn dict(String column) {
+            return (DictColumn) columns[schema.index(column)];
+        }
+
+        public TextColumn text(String column) {
+            return (TextColumn) columns[schema.index(column)];
+        }
+    }
+
+    // ========================================================================
+    // Construction
+    // ========================================================================
+
+    /**
+     * Lignes à écrire : table projetée ou lot en construction
+     */
+    private interface Source {
+        long longValue(int column, int row);
+
+        int code(int column, int row);
+
+        String dictionaryValue(int column, int code);
+
+        int dictionarySize(int column);
+
+        int textLength(int column, int row);
+
+        void copyText(int column, int row, Output out) throws IOException;
+
+        boolean isRemoved(int row);
+    }
+
+    private static final class TableSource implements Source {
+        private final Table table;
+        private byte[] buffer = new byte[4096];
+
+        TableSource(Table table) {
+            this.table = table;
+        }
+
+        @Override
+        public long longValue(int column, int row) {
+            return ((LongColumn) table.columns[column]).get(row);
+        }
+
+        @Override
+        public int code(int column, int row) {
+            return ((DictColumn) table.columns[column]).code(row);
+        }
+
+        @Override
+        public String dictionaryValue(int column, int code) {
+            return ((DictColumn) table.columns[column]).dictionaryValue(code);
+        }
+
+        @Override
+        public int dictionarySize(int column) {
+            return ((DictColumn) table.columns[column]).dictionarySize();
+        }
+
+        @Override
+        public int textLength(int column, int row) {
+            return ((TextColumn) table.columns[column]).length(row);
+        }
+
+        @Override
+        public void copyText(int column, int row, Output out) throws IOException {
+            TextColumn text = (TextColumn) table.columns[column];
+            int length = text.length(row);
+            if (length > buffer.length) buffer = new byte[length];
+            text.read(row, buffer);
+            out.write(buffer, 0, length);
+        }
+
+        @Override
+        public boolean isRemoved(int row) {
+            return table.isRemoved(row);
+        }
+    }
+
+    /**
+     * Lignes en construction (ordre quelconque, doublons et suppressions admis)
+     */
+    static final class Builder implements Source {
+        final Schema schema;
+        private int rowCount;
+        private int capacity;
+        private final long[][] longs;
+        private final int[][] codes;
+        private final List<List<String>> dictionaries = new ArrayList<>();
+        private final List<Map<String, Integer>> dictionaryIndexes = new ArrayList<>();
+        private final int[][] offsets;
+        private final byte[][] heaps;
+        private final int[] heapSizes;
+        private boolean[] removed;
+
+        Builder(Schema schema, int capacity) {
+            this.schema = schema;
+            this.capacity = Math.max(16, capacity);
+            int columns = schema.columnCount();
+            longs = new long[columns][];
+            codes = new int[columns][];
+            offsets = new int[columns][];
+            heaps = new byte[columns][];
+            heapSizes = new int[columns];
+            removed = new boolean[this.capacity];
+            for (int c = 0; c < columns; c++) {
+                boolean dict = schema.kind(c) == Kind.DICT;
+                dictionaries.add(dict ? new ArrayList<>() : null);
+                dictionaryIndexes.add(dict ? new HashMap<>() : null);
+                switch (schema.kind(c)) {
+                    case LONG -> longs[c] = new long[this.capacity];
+                    case DICT -> codes[c] = new int[this.capacity];
+                    case TEXT -> {
+                        offsets[c] = new int[this.capacity + 1];
+                        heaps[c] = new byte[this.capacity * 16];
+                    }
+                }
+            }
+        }
+
+        int rowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Ajouter une ligne (Long pour LONG, String ou null sinon) ; removed : à retirer de la base.
+         * Le texte est tronqué à MAX_TEXT octets (sur une frontière de caractère UTF-8).
+         */
+        void add(Object[] values, boolean remove) {
+            ensureCapacity(rowCount + 1);
+            for (int c = 0; c < values.length; c++) {
+                Object value = values[c];
+                switch (schema.kind(c)) {
+                    case LONG -> longs[c][rowCount] = value != null ? (Long) value : 0;
+                    case DICT -> codes[c][rowCount] = value != null ? dictionaryCode(c, (String) value) : -1;
+                    case TEXT -> {
+                        byte[] bytes = value != null ? ((String) value).getBytes(StandardCharsets.UTF_8) : EMPTY;
+                        int length = bytes.length;
+                        if (length > MAX_TEXT) {
+                            length = MAX_TEXT;
+                            while (length > 0 && (bytes[length] & 0xC0) == 0x80) length--;
+                        }
+                        appendText(c, bytes, 0, length);
+                    }
+                }
+            }
+            removed[rowCount++] = remove;
+        }
+
+        long key(int row) {
+            return longs[0][row];
+        }
+
+        long treatment(int row) {
+            return longs[1][row];
+        }
+
+        @Override
+        public boolean isRemoved(int row) {
+            return removed[row];
+        }
+
+        @Override
+        public long longValue(int column, int row) {
+            return longs[column][row];
+        }
+
+        @Override
+        public int code(int column, int row) {
+            return codes[column][row];
+        }
+
+        @Override
+        public String dictionaryValue(int column, int code) {
+            return dictionaries.get(column).get(code);
+        }
+
+        @Override
+        public int dictionarySize(int column) {
+            return dictionaries.get(column).size();
+        }
+
+        @Override
+        public int textLength(int column, int row) {
+            return offsets[column][row + 1] - offsets[column][row];
+        }
+
+        @Override
+        public void copyText(int column, int row, Output out) throws IOException {
+            out.write(heaps[column], offsets[column][row], textLength(column, row));
+        }
+
+        /**
+         * Ordre des lignes par clé puis date de traitement croissantes
+         */
+        int[] sortedOrder() {
+            int[] order = new int[rowCount];
+            boolean sorted = true;
+            for (int i = 0; i < rowCount; i++) {
+                order[i] = i;
+                if (i > 0 && compare(i - 1, i) > 0) sorted = false;
+            }
+            // Le stock INSEE est déjà trié : tri évité dans le cas courant
+            if (!sorted) mergeSort(order, new int[rowCount], 0, rowCount);
+            return order;
+        }
+
+        private void mergeSort(int[] order, int[] buffer, int from, int to) {
+            if (to - from < 2) return;
+            int mid = (from + to) >>> 1;
+            mergeSort(order, buffer, from, mid);
+            mergeSort(order, buffer, mid, to);
+            if (compare(order[mid - 1], order[mid]) <= 0) return;
+            System.arraycopy(order, from, buffer, from, to - from);
+            int left = from, right = mid;
+            for (int i = from; i < to; i++) {
+                if (right >= to || (left < mid && compare(buffer[left], buffer[right]) <= 0)) {
+                    order[i] = buffer[left++];
+                } else {
+                    order[i] = buffer[right++];
+                }
+            }
+        }
+
+        private int compare(int a, int b) {
+            int byKey = Long.compare(key(a), key(b));
+            return byKey != 0 ? byKey : Long.compare(treatment(a), treatment(b));
+        }
+
+        private int dictionaryCode(int column, String value) {
+            Map<String, Integer> index = dictionaryIndexes.get(column);
+            Integer code = index.get(value);
+            if (code == null) {
+                List<String> dictionary = dictionaries.get(column);
+                code = dictionary.size();
+                dictionary.add(value);
+                index.put(value, code);
+            }
+            return code;
+        }
+
+        private void appendText(int column, byte[] bytes, int from, int length) {
+            ensureHeap(column, length);
+            System.arraycopy(bytes, from, heaps[column], heapSizes[column], length);
+            heapSizes[column] += length;
+            offsets[column][rowCount + 1] = heapSizes[column];
+        }
+
+        private void ensureHeap(int column, int extra) {
+            long needed = (long) heapSizes[column] + extra;
+            if (needed > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Colonne " + schema.column(column) + " trop volumineuse");
+            }
+            if (needed > heaps[column].length) {
+                heaps[column] = Arrays.copyOf(heaps[column], (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, heaps[column].length * 2L)));
+            }
+        }
+
+        private void ensureCapacity(int rows) {
+            if (rows <= capacity) return;
+            capacity = Math.max(rows, capacity * 2);
+            for (int c = 0; c < schema.columnCount(); c++) {
+                if (longs[c] != null) longs[c] = Arrays.copyOf(longs[c], capacity);
+                if (codes[c] != null) codes[c] = Arrays.copyOf(codes[c], capacity);
+                if (offsets[c] != null) offsets[c] = Arrays.copyOf(offsets[c], capacity + 1);
+            }
+            removed = Arrays.copyOf(removed, capacity);
+        }
+    }
+
+    /**
+     * Bilan d'une fusion
+     */
+    public static final class MergeResult {
+        public final int added;
+        public final int updated;
+        public final int removed;
+        public final int rowCount;
+
+        MergeResult(int added, int updated, int removed, int rowCount) {
+            this.added = added;
+            this.updated = updated;
+            this.removed = removed;
+            this.rowCount = rowCount;
+        }
+    }
+
+    // ========================================================================
+    // Base
+    // ========================================================================
+
+    private final File directory;
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+    private final java.util.concurrent.atomic.AtomicInteger version = new java.util.concurrent.atomic.AtomicInteger();
+
+    public SireneStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Table projetée en mémoire (null si jamais importée)
+     */
+    public synchronized Table table(Schema schema) throws IOException {
+        Table table = tables.get(schema.name);
+        if (table == null) {
+            TreeMap<Long, File> generations = generations(schema);
+            if (generations.isEmpty()) return null;
+            deleteOlderGenerations(schema, generations.lastKey());
+            table = open(schema, generations.lastEntry().getValue());
+            tables.put(schema.name, table);
+        }
+        return table;
+    }
+
+    public boolean isEmpty() {
+        return generations(ETABLISSEMENTS).isEmpty();
+    }
+
+    /**
+     * Change à chaque réécriture d'une table (index dérivés à reconstruire)
+     */
+    public int version() {
+        return version.get();
+    }
+
+    /**
+     * Écrire un lot de l'import sur disque, trié et réduit à la dernière version
+     * de chaque clé (retraits compris), puis le projeter : le lot en mémoire
+     * peut être libéré. Appelé en parallèle, un numéro par lot.
+     */
+    Table spill(Builder batch, int number) throws IOException {
+        File runs = runDirectory();
+        Files.createDirectories(runs.toPath());
+        int[] order = batch.sortedOrder();
+        int[] rows = new int[order.length];
+        int count = 0;
+        long latest = 0;
+        for (int b = 0; b < order.length; b++) {
+            int row = order[b];
+            long key = batch.key(row);
+            while (b + 1 < order.length && batch.key(order[b + 1]) == key) row = order[++b];
+            latest = Math.max(latest, batch.treatment(row));
+            rows[count++] = row;
+        }
+        File file = new File(runs, batch.schema.name + "." + number + RUN_EXTENSION);
+        write(file, batch.schema, new Source[]{batch}, new short[count], rows, count, latest, true);
+        return open(batch.schema, file);
+    }
+
+    /**
+     * Supprimer les lots d'un import (terminé ou interrompu)
+     */
+    void deleteRuns(Schema schema) {
+        File[] files = runDirectory().listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            if (file.getName().startsWith(schema.name + ".") && file.getName().endsWith(RUN_EXTENSION)
+                && !file.delete()) {
+                System.out.println("ℹ Lot d'import SIRENE conservé jusqu'au prochain import: " + file.getName());
+            }
+        }
+    }
+
+    /**
+     * Fusionner les lots triés d'un import dans une table : pour chaque clé, la
+     * version la plus récente l'emporte (à date égale, le lot le plus loin dans
+     * le fichier) ; les lignes marquées retirées sont supprimées. La table n'est
+     * réécrite que si les lots changent quelque chose.
+     */
+    synchronized MergeResult merge(Schema schema, List<Table> runs) throws IOException {
+        Table existing = table(schema);
+        int existingRows = existing != null ? existing.rowCount() : 0;
+        long latest = existing != null ? existing.latestTreatment() : 0;
+        long total = existingRows;
+        for (Table run : runs) total += run.rowCount();
+        if (total > Integer.MAX_VALUE - 8 || runs.size() >= Short.MAX_VALUE) {
+            throw new IOException("Table SIRENE trop volumineuse: " + schema.name);
+        }
+
+        // Ordre final : source 0 = table existante, source 1 + i = lot i
+        Source[] sources = new Source[runs.size() + 1];
+        if (existing != null) sources[0] = new TableSource(existing);
+        for (int i = 0; i < runs.size(); i++) sources[i + 1] = new TableSource(runs.get(i));
+        short[] sourceOf = new short[(int) total];
+        int[] rowOf = new int[(int) total];
+
+        // Tas des lots par clé courante
+        int[] positions = new int[runs.size()];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(Math.max(1, runs.size()),
+            (a, b) -> Long.compare(runs.get(a).key(positions[a]), runs.get(b).key(positions[b])));
+        for (int i = 0; i < runs.size(); i++) {
+            if (runs.get(i).rowCount() > 0) heads.add(i);
+        }
+
+        int count = 0, added = 0, updated = 0, removed = 0;
+        int e = 0;
+        while (!heads.isEmpty()) {
+            // Dernière version de la clé parmi les lots
+            int run = heads.poll();
+            int row = positions[run];
+            long key = runs.get(run).key(row);
+            if (++positions[run] < runs.get(run).rowCount()) heads.add(run);
+            while (!heads.isEmpty() && runs.get(heads.peek()).key(positions[heads.peek()]) == key) {
+                int other = heads.poll();
+                int otherRow = positions[other];
+                long treatment = runs.get(other).treatment(otherRow);
+                long best = runs.get(run).treatment(row);
+                if (treatment > best || (treatment == best && other > run)) {
+                    run = other;
+                    row = otherRow;
+                }
+                if (++positions[other] < runs.get(other).rowCount()) heads.add(other);
+            }
+            Table batch = runs.get(run);
+            latest = Math.max(latest, batch.treatment(row));
+
+            while (e < existingRows && existing.key(e) < key) {
+                rowOf[count++] = e++;
+            }
+            boolean known = e < existingRows && existing.key(e) == key;
+            if (known && existing.treatment(e) > batch.treatment(row)) {
+                rowOf[count++] = e++; // Version en base plus récente
+                continue;
+            }
+            if (known) e++;
+            if (batch.isRemoved(row)) {
+                if (known) removed++;
+                continue;
+            }
+            sourceOf[count] = (short) (run + 1);
+            rowOf[count++] = row;
+            if (known) updated++;
+            else added++;
+        }
+        while (e < existingRows) rowOf[count++] = e++;
+
+        if (added + updated + removed > 0 || existing == null) {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Impossible de créer le répertoire " + directory);
+            }
+            // Nouvelle génération : le fichier courant, peut-être projeté, n'est pas remplacé
+            TreeMap<Long, File> generations = generations(schema);
+            long generation = generations.isEmpty() ? 1 : generations.lastKey() + 1;
+            File target = new File(directory, schema.name + "." + generation + EXTENSION);
+            File tmp = new File(directory, target.getName() + ".tmp");
+            write(tmp, schema, sources, sourceOf, rowOf, count, latest, false);
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            tables.remove(schema.name);
+            version.incrementAndGet();
+            deleteOlderGenerations(schema, generation);
+        }
+        return new MergeResult(added, updated, removed, count);
+    }
+
+    /**
+     * Écrire les lignes (source, ligne) dans un fichier ; withRemovals : lot d'import
+     * (colonne des retraits en plus)
+     */
+    private static void write(File file, Schema schema, Source[] sources, short[] sourceOf, int[] rowOf,
+                              int count, long latest, boolean withRemovals) throws IOException {
+        try (Output out = new Output(file)) {
+            out.writeInt(MAGIC);
+            out.writeInt(count);
+            out.writeLong(latest);
+            out.writeInt(schema.columnCount() + (withRemovals ? 1 : 0));
+            for (int c = 0; c < schema.columnCount(); c++) {
+                writeColumnHeader(out, schema.column(c), schema.kind(c));
+                switch (schema.kind(c)) {
+                    case LONG -> writeLongs(out, sources, c, sourceOf, rowOf, count);
+                    case DICT -> writeDict(out, sources, c, sourceOf, rowOf, count);
+                    case TEXT -> writeText(out, sources, c, sourceOf, rowOf, count);
+                }
+            }
+            if (withRemovals) {
+                writeColumnHeader(out, REMOVED_COLUMN, Kind.LONG);
+                out.writeLong(8L * count);
+                for (int i = 0; i < count; i++) {
+                    out.writeLong(sources[sourceOf[i]].isRemoved(rowOf[i]) ? 1 : 0);
+                }
+            }
+        }
+    }
+
+    private static void writeColumnHeader(Output out, String column, Kind kind) throws IOException {
+        byte[] name = column.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(name.length);
+        out.write(name);
+        out.writeByte(kind.ordinal());
+    }
+
+    private static void writeLongs(Output out, Source[] sources, int column, short[] sourceOf, int[] rowOf,
+                                   int count) throws IOException {
+        out.writeLong(8L * count);
+        for (int i = 0; i < count; i++) {
+            out.writeLong(sources[sourceOf[i]].longValue(column, rowOf[i]));
+        }
+    }
+
+    private static void writeDict(Output out, Source[] sources, int column, short[] sourceOf, int[] rowOf,
+                                  int count) throws IOException {
+        // Dictionnaire réduit aux valeurs encore utilisées
+        int[][] remaps = new int[sources.length][];
+        for (int s = 0; s < sources.length; s++) {
+            if (sources[s] == null) continue;
+            remaps[s] = new int[sources[s].dictionarySize(column)];
+            Arrays.fill(remaps[s], -1);
+        }
+        List<String> dictionary = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Source source = sources[sourceOf[i]];
+            int code = source.code(column, rowOf[i]);
+            if (code < 0) continue;
+            int[] remap = remaps[sourceOf[i]];
+            if (remap[code] >= 0) continue;
+            remap[code] = index.computeIfAbsent(source.dictionaryValue(column, code), v -> {
+                dictionary.add(v);
+                return dictionary.size() - 1;
+            });
+        }
+
+        byte[][] encoded = new byte[dictionary.size()][];
+        long length = 4 + 4L * count;
+        for (int code = 0; code < encoded.length; code++) {
+            encoded[code] = dictionary.get(code).getBytes(StandardCharsets.UTF_8);
+            length += 2 + encoded[code].length;
+        }
+        out.writeLong(length);
+        out.writeInt(encoded.length);
+        for (byte[] value : encoded) {
+            out.writeShort(value.length);
+            out.write(value);
+        }
+        for (int i = 0; i < count; i++) {
+            int code = sources[sourceOf[i]].code(column, rowOf[i]);
+            out.writeInt(code < 0 ? -1 : remaps[sourceOf[i]][code]);
+        }
+    }
+
+    private static void writeText(Output out, Source[] sources, int column, short[] sourceOf, int[] rowOf,
+                                  int count) throws IOException {
+        long heapSize = 0;
+        for (int i = 0; i < count; i++) {
+            heapSize += sources[sourceOf[i]].textLength(column, rowOf[i]);
+        }
+        out.writeLong(8L * (count + 1) + heapSize);
+        long offset = 0;
+        out.writeLong(0);
+        for (int i = 0; i < count; i++) {
+            offset += sources[sourceOf[i]].textLength(column, rowOf[i]);
+            out.writeLong(offset);
+        }
+        for (int i = 0; i < count; i++) {
+            sources[sourceOf[i]].copyText(column, rowOf[i], out);
+        }
+    }
+
+    /**
+     * Écriture bufferisée sans verrou (les flux java.io synchronisent chaque écriture)
+     */
+    private static final class Output implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+
+        Output(File file) throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void writeByte(int value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        void writeShort(int value) throws IOException {
+            ensure(2);
+            buffer.putShort((short) value);
+        }
+
+        void writeInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void writeLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void write(byte[] bytes) throws IOException {
+            write(bytes, 0, bytes.length);
+        }
+
+        void write(byte[] bytes, int from, int length) throws IOException {
+            while (length > 0) {
+                ensure(1);
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.put(bytes, from, chunk);
+                from += chunk;
+                length -= chunk;
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private static Table open(Schema schema, File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, 20);
+            int magic = header.getInt();
+            if (magic != MAGIC && magic != MAGIC_V1) {
+                throw new IOException("Table SIRENE illisible: " + file.getName());
+            }
+            int offsetSize = magic == MAGIC ? 8 : 4;
+            int rowCount = header.getInt();
+            long latest = header.getLong();
+            int columnCount = header.getInt();
+
+            Object[] columns = new Object[schema.columnCount()];
+            LongColumn removals = null;
+            long position = 20;
+            for (int i = 0; i < columnCount; i++) {
+                int nameLength = readFully(channel, position, 2).getShort() & 0xFFFF;
+                ByteBuffer columnHeader = readFully(channel, position + 2, nameLength + 9);
+                byte[] bytes = new byte[nameLength];
+                columnHeader.get(bytes);
+                String name = new String(bytes, StandardCharsets.UTF_8);
+                Kind kind = Kind.values()[columnHeader.get()];
+                long length = columnHeader.getLong();
+                position += 2 + nameLength + 9;
+                long data = position;
+                position += length;
+
+                if (name.equals(REMOVED_COLUMN)) {
+                    removals = new LongColumn(map(channel, data, length).asLongBuffer());
+                    continue;
+                }
+                // Colonne absente du schéma courant : ignorée
+                int c = schema.find(name);
+                if (c < 0 || schema.kind(c) != kind) continue;
+                columns[c] = switch (kind) {
+                    case LONG -> new LongColumn(map(channel, data, length).asLongBuffer());
+                    case DICT -> readDict(map(channel, data, length), rowCount);
+                    case TEXT -> readText(channel, data, length, rowCount, offsetSize);
+                };
+            }
+            for (int c = 0; c < columns.length; c++) {
+                if (columns[c] == null) {
+                    throw new IOException("Table SIRENE incomplète (colonne " + schema.column(c) + "), réimportez le stock");
+                }
+            }
+            return new Table(schema, rowCount, latest, columns, removals);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    private static DictColumn readDict(ByteBuffer data, int rowCount) {
+        String[] dictionary = new String[data.getInt(0)];
+        int position = 4;
+        for (int code = 0; code < dictionary.length; code++) {
+            int length = data.getShort(position) & 0xFFFF;
+            byte[] bytes = new byte[length];
+            data.get(position + 2, bytes);
+            dictionary[code] = new String(bytes, StandardCharsets.UTF_8);
+            position += 2 + length;
+        }
+        return new DictColumn(dictionary, data.slice(position, 4 * rowCount).asIntBuffer());
+    }
+
+    /**
+     * Positions puis texte, projeté par fenêtres de HEAP_WINDOW prolongées de MAX_TEXT
+     */
+    private static TextColumn readText(FileChannel channel, long position, long length, int rowCount,
+                                       int offsetSize) throws IOException {
+        long offsetsLength = (long) offsetSize * (rowCount + 1);
+        ByteBuffer offsets = map(channel, position, offsetsLength);
+        long heap = position + offsetsLength;
+        long heapLength = length - offsetsLength;
+        ByteBuffer[] windows = new ByteBuffer[(int) Math.max(1, (heapLength + HEAP_WINDOW - 1) / HEAP_WINDOW)];
+        for (int w = 0; w < windows.length; w++) {
+            long from = w * HEAP_WINDOW;
+            windows[w] = map(channel, heap + from, Math.max(0, Math.min(HEAP_WINDOW + MAX_TEXT, heapLength - from)));
+        }
+        return offsetSize == 8
+            ? new TextColumn(offsets.asLongBuffer(), null, windows)
+            : new TextColumn(null, offsets.asIntBuffer(), windows);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Table SIRENE tronquée");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Fichiers d'une table par génération (etablissements.col = génération 0)
+     */
+    private TreeMap<Long, File> generations(Schema schema) {
+        TreeMap<Long, File> result = new TreeMap<>();
+        File[] files = directory.listFiles();
+        if (files == null) return result;
+        for (File file : files) {
+            Matcher m = TABLE_FILE.matcher(file.getName());
+            if (m.matches() && m.group(1).equals(schema.name)) {
+                result.put(m.group(2) != null ? Long.parseLong(m.group(2)) : 0L, file);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Supprimer les générations remplacées (échoue sous Windows tant qu'elles sont projetées)
+     */
+    private void deleteOlderGenerations(Schema schema, long current) {
+        for (File old : generations(schema).headMap(current).values()) {
+            if (!old.delete()) {
+                System.out.println("ℹ Ancienne table SIRENE conservée jusqu'au prochain lancement: " + old.getName());
+            }
+        }
+    }
+
+    private File runDirectory() {
+        return new File(directory, "lots");
+    }
+}
@@ -0,0 +1,119 @@
+package com.jobsearch;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Repères de synchronisation incrémentale des recherches d'offres.
+ *
+ * Pour chaque requête (mots-clés + groupe de départements), on retient la date
+ * de création la plus récente reçue lors d'une synchronisation complète. Les
+ * exécutions suivantes ne demandent à l'API que les offres créées depuis ce
+ * repère (minCreationDate), diminué d'une marge pour les offres publiées en retard.
+ *
+ * Un repère avancé reste en attente jusqu'à son écriture sur disque : tant que
+ * save() n'a pas réussi, get() renvoie l'ancien repère, et discardPending()
+ * l'abandonne si les offres correspondantes n'ont pas pu être enregistrées.
+ */
+public class SyncWatermarks {
+
+    private final File file;
+    private final Properties watermarks = new Properties();
+    private final Properties pending = new Properties();
+
+    public SyncWatermarks(File file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * Clé d'une requête : mots-clés normalisés + départements
+     */
+    public static String queryKey(String keywords, String departments) {
+        String normalized = keywords == null ? "" : keywords.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return normalized + "|" + departments;
+    }
+
+    /**
+     * Repère enregistré de la requête, null si elle n'a jamais été synchronisée
+     */
+    public synchronized Instant get(String queryKey) {
+        return parse(watermarks.getProperty(queryKey));
+    }
+
+    /**
+     * Avancer le repère de la requête (jamais de retour en arrière) ; effectif après save()
+     */
+    public synchronized void advance(String queryKey, Instant watermark) {
+        if (watermark == null) return;
+        Instant current = parse(pending.getProperty(queryKey, watermarks.getProperty(queryKey)));
+        if (current == null || watermark.isAfter(current)) {
+            pending.setProperty(queryKey, watermark.truncatedTo(ChronoUnit.SECONDS).toString());
+        }
+    }
+
+    /**
+     * Abandonner les repères avancés depuis la dernière sauvegarde
+     */
+    public synchronized void discardPending() {
+        pending.clear();
+    }
+
+    /**
+     * Sauvegarder les repères (écriture atomique via fichier temporaire) ;
+     * les repères en attente ne deviennent visibles qu'une fois écrits
+     */
+    public synchronized void save() throws IOException {
+        if (pending.isEmpty()) return;
+        Properties merged = new Properties();
+        merged.putAll(watermarks);
+        merged.putAll(pending);
+
+        File parent = file.getParentFile();
+        if (parent != null) parent.mkdirs();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            merged.store(out, "Repères de synchronisation incrémentale (requête -> dernière dateCreation)");
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        watermarks.putAll(pending);
+        pending.clear();
+    }
+
+    private static Instant parse(String value) {
+        if (value == null) return null;
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Date d'une offre (dateCreation de l'API) convertie en instant, null si absente ou invalide
+     */
+    public static Instant parseOfferDate(String date) {
+        if (date == null || date.isEmpty()) return null;
+        try {
+            return Instant.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private void load() {
+        if (!file.exists()) return;
+        try (Reader in = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            watermarks.load(in);
+        } catch (IOException e) {
+            System.err.println("⚠ Lecture des repères de synchronisation impossible: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.jobsearch;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Pyramide de tuiles : nombre d'offres et d'entreprises par cellule
+ * geohash, à chaque niveau de précision (2 à 16 bits par axe, de
+ * 90° x 45° à environ 600 m x 300 m).
+ *
+ * Chaque point ajouté incrémente sa cellule à tous les niveaux ; la carte
+ * lit directement les cellules du niveau adapté au zoom, sans jamais
+ * reparcourir les points. Une entreprise n'est comptée qu'une fois (par
+ * sa clé du registre), à l'emplacement de sa première offre localisée ou
+ * de son adresse géocodée.
+ *
+ * Alimentée au fil de l'ajout des lignes. À utiliser depuis l'EDT.
+ */
+public class TilePyramid {
+
+    public static final int LAYER_OFFERS = 0;
+    public static final int LAYER_COMPANIES = 1;
+    public static final int MIN_LEVEL = 2;
+    public static final int MAX_LEVEL = 16;
+
+    /**
+     * Compteurs d'un niveau : table à adressage ouvert (x, y) -> 2 compteurs
+     */
+    private static final class Level {
+        private long[] keys = emptyKeys(1024);
+        private int[] counts = new int[2048];
+        private int size;
+
+        int get(long key, int layer) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; keys[slot] != -1; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) return counts[slot * 2 + layer];
+            }
+            return 0;
+        }
+
+        void increment(long key, int layer) {
+            if (size * 2 >= keys.length) grow();
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != -1 && keys[slot] != key) slot = (slot + 1) & mask;
+            if (keys[slot] == -1) {
+                keys[slot] = key;
+                size++;
+            }
+            counts[slot * 2 + layer]++;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = emptyKeys(oldKeys.length * 2);
+            counts = new int[keys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == -1) continue;
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != -1) slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                counts[slot * 2] = oldCounts[i * 2];
+                counts[slot * 2 + 1] = oldCounts[i * 2 + 1];
+            }
+        }
+
+        private static long[] emptyKeys(int capacity) {
+            long[] array = new long[capacity];
+            Arrays.fill(array, -1);
+            return array;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    private final Level[] levels = new Level[MAX_LEVEL - MIN_LEVEL + 1];
+    // Clés du registre des entreprises déjà comptées
+    private final Set<String> placedCompanies = new HashSet<>();
+    private final int[] totals = new int[2];
+    private int version;
+
+    public TilePyramid() {
+        clear();
+    }
+
+    /**
+     * Compter un point dans une couche (offres ou entreprises)
+     */
+    public void add(int layer, double latitude, double longitude) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)
+                || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            return;
+        }
+        int x = lonIndex(longitude, MAX_LEVEL);
+        int y = latIndex(latitude, MAX_LEVEL);
+        for (int level = MIN_LEVEL; level <= MAX_LEVEL; level++) {
+            int shift = MAX_LEVEL - level;
+            levels[level - MIN_LEVEL].increment(cellKey(x >>> shift, y >>> shift), layer);
+        }
+        totals[layer]++;
+        version++;
+    }
+
+    /**
+     * Compter les lignes [from, to] localisées : l'offre, et son entreprise
+     * si elle n'a pas encore été placée (ou l'entreprise d'une ligne d'entreprise)
+     *
+     * @param employerOf clé du registre de l'entreprise d'une offre (null si non rattachée)
+     */
+    public void addRows(ResultTableModel model, int from, int to, Function<String, String> employerOf) {
+        ColumnarTable table = model.getColumns();
+        ColumnarTable.DoubleColumn lat = (ColumnarTable.DoubleColumn) table.column(ResultTableModel.ATTR_LATITUDE);
+        ColumnarTable.DoubleColumn lon = (ColumnarTable.DoubleColumn) table.column(ResultTableModel.ATTR_LONGITUDE);
+        for (int row = from; row <= to; row++) {
+            if (lat.isNull(row) || lon.isNull(row)) continue;
+            double latitude = lat.getDouble(row);
+            double longitude = lon.getDouble(row);
+            String offerId = model.getOfferId(row);
+            String companyKey = model.getCompanyKey(row);
+            if (offerId != null) {
+                add(LAYER_OFFERS, latitude, longitude);
+                String employer = employerOf.apply(offerId);
+                if (employer != null && placedCompanies.add(employer)) {
+                    add(LAYER_COMPANIES, latitude, longitude);
+                }
+            } else if (companyKey != null && placedCompanies.add(companyKey)) {
+                // Entreprise géocodée (ligne d'entreprise)
+                add(LAYER_COMPANIES, latitude, longitude);
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < levels.length; i++) levels[i] = new Level();
+        placedCompanies.clear();
+        Arrays.fill(totals, 0);
+        version++;
+    }
+
+    /**
+     * Nombre de points d'une couche dans la cellule (x, y) d'un niveau
+     */
+    public int count(int level, int x, int y, int layer) {
+        return levels[level - MIN_LEVEL].get(cellKey(x, y), layer);
+    }
+
+    /**
+     * Nombre de cellules non vides d'un niveau
+     */
+    public int cellCount(int level) {
+        return levels[level - MIN_LEVEL].size;
+    }
+
+    public int total(int layer) {
+        return totals[layer];
+    }
+
+    /**
+     * Change à chaque ajout ou remise à zéro (rafraîchissement de la carte)
+     */
+    public int version() {
+        return version;
+    }
+
+    public static double cellWidth(int level) {
+        return 360.0 / (1 << level);
+    }
+
+    public static double cellHeight(int level) {
+        return 180.0 / (1 << level);
+    }
+
+    public static int lonIndex(double longitude, int level) {
+        int cells = 1 << level;
+        return (int) Math.max(0, Math.min(cells - 1, Math.floor((longitude + 180) / 360 * cells)));
+    }
+
+    public static int latIndex(double latitude, int level) {
+        int cells = 1 << level;
+        return (int) Math.max(0, Math.min(cells - 1, Math.floor((latitude + 90) / 180 * cells)));
+    }
+
+    private static long cellKey(int x, int y) {
+        return ((long) x << 32) | y;
+    }
+}